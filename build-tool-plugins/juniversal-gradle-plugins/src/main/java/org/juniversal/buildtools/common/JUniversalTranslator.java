@@ -23,10 +23,12 @@
 package org.juniversal.buildtools.common;
 
 import org.gradle.api.GradleException;
+import org.jetbrains.annotations.Nullable;
 import org.juniversal.buildtools.common.support.*;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author Bret Johnson
@@ -34,16 +36,119 @@ import java.util.ArrayList;
  */
 public class JUniversalTranslator extends Translator {
     private String targetLanguage;
+    private boolean indexEnhancedForLoops;
+    private boolean mapPrimitiveCollections;
+    private int shardCount = 1;
+    private @Nullable String shardMaxHeap;
+    private Runner runner = new InProcessRunner();
+
+    /**
+     * Runs juniversal-translator for a source type, given its command line arguments.  Runners may run the
+     * translation asynchronously, as long as the build tool waits for it to finish before the build moves on.
+     */
+    public interface Runner {
+        void translate(String[] args);
+
+        void translateChanges(String[] args, List<File> changedFiles, List<File> removedFiles);
+    }
+
+    /**
+     * Runner that calls the translator directly, in the build tool's JVM.  That's the default.
+     */
+    public static class InProcessRunner implements Runner {
+        @Override public void translate(String[] args) {
+            if (! org.juniversal.translator.core.Translator.translate(args))
+                throw new RuntimeException("JUniversal source translation failed");
+        }
+
+        @Override public void translateChanges(String[] args, List<File> changedFiles, List<File> removedFiles) {
+            if (! org.juniversal.translator.core.Translator.translateChanges(args, changedFiles, removedFiles))
+                throw new RuntimeException("JUniversal source translation failed");
+        }
+    }
 
     public JUniversalTranslator(CommonProject project, String targetLanguage) {
         super(project);
         this.targetLanguage = targetLanguage;
     }
 
+    public void setIndexEnhancedForLoops(boolean indexEnhancedForLoops) {
+        this.indexEnhancedForLoops = indexEnhancedForLoops;
+    }
+
+    public void setMapPrimitiveCollections(boolean mapPrimitiveCollections) {
+        this.mapPrimitiveCollections = mapPrimitiveCollections;
+    }
+
+    /**
+     * Set the number of processes a full translation is split between; see the translator's -shards option.
+     *
+     * @param shardCount number of shard processes, 1 to translate in a single process, 0 for one per processor
+     */
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public void setShardMaxHeap(@Nullable String shardMaxHeap) {
+        this.shardMaxHeap = shardMaxHeap;
+    }
+
+    public void setRunner(Runner runner) {
+        this.runner = runner;
+    }
+
     public void translateSourceType(SourceType sourceType, File outputDirectory) {
         // Delete the generated source directories
         Utils.deleteChildDirectoriesExcept(outputDirectory, "nontranslated", "Properties", "bin");
 
+        ArrayList<String> args = getTranslatorArgs(sourceType, outputDirectory);
+
+        String[] argsArray = new String[args.size()];
+        args.toArray(argsArray);
+
+        // Log the arguments
+        getProject().info("Calling juniversal-translator with: " + Utils.argsToCommandLineString(argsArray));
+
+        runner.translate(argsArray);
+    }
+
+    /**
+     * Translate just the source files affected by the specified changes, deleting the outputs of removed ones &
+     * leaving all other output as is.  That's used for incremental builds, when a previous translation's output is
+     * still there.  Besides the changed files themselves, the translator retranslates those that refer to them,
+     * directly or indirectly, so the output is the same as for a full translation.  All the changes are passed for
+     * each source type, as changes outside its translatable source directories (to main source, for the test source,
+     * or to non-translated source) can still affect it.
+     *
+     * @param changedFiles added & modified source files
+     * @param removedFiles removed source files
+     */
+    @Override public void translateChanges(List<File> changedFiles, List<File> removedFiles) {
+        if (isSkip() || (changedFiles.isEmpty() && removedFiles.isEmpty()))
+            return;
+
+        translateSourceTypeChanges(SourceType.MAIN, getOutputDirectory(), changedFiles, removedFiles);
+
+        FileSet testSourceDirectories = getProject().getTranslatableSourceDirectories(SourceType.TEST);
+        if (! testSourceDirectories.isEmpty()) {
+            translateSourceTypeChanges(SourceType.TEST, getTestOutputDirectory(), changedFiles, removedFiles);
+        }
+    }
+
+    private void translateSourceTypeChanges(SourceType sourceType, File outputDirectory, List<File> changedFiles,
+                                            List<File> removedFiles) {
+        ArrayList<String> args = getTranslatorArgs(sourceType, outputDirectory);
+
+        String[] argsArray = new String[args.size()];
+        args.toArray(argsArray);
+
+        getProject().info("Calling juniversal-translator for " + changedFiles.size() + " changed and " +
+                          removedFiles.size() + " removed files with: " + Utils.argsToCommandLineString(argsArray));
+
+        runner.translateChanges(argsArray, changedFiles, removedFiles);
+    }
+
+    private ArrayList<String> getTranslatorArgs(SourceType sourceType, File outputDirectory) {
         ArrayList<String> args = new ArrayList<String>();
 
         args.add("-l");
@@ -66,17 +171,23 @@ public class JUniversalTranslator extends Translator {
         args.add("-o");
         args.add(outputDirectory.getPath());
 
+        if (indexEnhancedForLoops)
+            args.add("-indexEnhancedForLoops");
+        if (mapPrimitiveCollections)
+            args.add("-mapPrimitiveCollections");
+        if (shardCount != 1) {
+            args.add("-shards");
+            args.add(Integer.toString(shardCount));
+        }
+        if (shardMaxHeap != null) {
+            args.add("-shardMaxHeap");
+            args.add(shardMaxHeap);
+        }
+
         for (File file : translateDirectories.getFiles()) {
             args.add(file.getAbsolutePath());
         }
 
-        String[] argsArray = new String[args.size()];
-        args.toArray(argsArray);
-
-        // Log the arguments
-        getProject().info("Calling juniversal-translator with: " + Utils.argsToCommandLineString(argsArray));
-
-        if (! org.juniversal.translator.core.Translator.translate(argsArray))
-            throw new RuntimeException("JUniversal source translation failed");
+        return args;
     }
 }
@@ -22,19 +22,60 @@
 
 package org.juniversal.buildtools.common;
 
+import org.jetbrains.annotations.Nullable;
 import org.juniversal.buildtools.common.support.*;
 import org.juniversal.buildtools.common.support.FileSet;
+import org.juniversal.translator.core.SourceDependencies;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Translates Java to Objective-C with j2objc.
+ * <p>
+ * For incremental builds, translateChanges passes j2objc just the changed source files, along with the files that
+ * refer to them, directly or indirectly (as a change can affect how those translate too), and deletes the .h/.m files
+ * of removed ones.  The other outputs are left as is.  It's up to the build tool to know when that's enough; when
+ * anything else changed (the classpath, the options, j2objc itself, or the outputs), it should do a full translation.
+ *
  * @author Bret Johnson
  * @since 7/10/2014 1:56 AM
  */
 public class JavaToObjectiveC extends Translator {
+    // Keep each j2objc command line well under the Windows limit of 32K characters
+    private static final int MAX_BATCH_ARGS_LENGTH = 24000;
+
     private File j2objcHome;
     private boolean useArc;
     private boolean docComments;
+    private J2objcRunner runner = new JavaExecRunner();
+
+    /**
+     * Runs j2objc.jar with the specified arguments.  Runners may run it asynchronously, finishing in await.
+     */
+    public interface J2objcRunner {
+        void run(String name, File j2objcJar, List<String> args);
+
+        void await();
+    }
+
+    /**
+     * Runner that runs j2objc.jar in a new JVM each time, via the build tool.  That's the default.
+     */
+    public class JavaExecRunner implements J2objcRunner {
+        @Override public void run(String name, File j2objcJar, List<String> args) {
+            CommonJavaExec javaExec = getProject().createJavaExec(name, j2objcJar);
+            for (String arg : args)
+                javaExec.addArg(arg);
+
+            getProject().info(javaExec.getCommandLine());
+            javaExec.exec();
+        }
+
+        @Override public void await() {
+        }
+    }
 
     public JavaToObjectiveC(CommonProject project) {
         super(project);
@@ -52,50 +93,132 @@ public class JavaToObjectiveC extends Translator {
         this.docComments = docComments;
     }
 
+    public void setRunner(J2objcRunner runner) {
+        this.runner = runner;
+    }
+
     @Override
     public void translateSourceType(SourceType sourceType, File outputDirectory) {
+        // Delete the generated source directories
+        Utils.deleteChildDirectoriesExcept(outputDirectory, "nontranslated");
+
+        runJ2objc(sourceType, outputDirectory, getProject().getTranslatableSourceFiles(sourceType).getFiles());
+    }
+
+    /**
+     * Translate just the source files affected by the specified changes, deleting the outputs of removed ones &amp;
+     * leaving all other output as is.  All the changes are considered for each source type, as changes outside its
+     * translatable source directories can still affect how its files translate.
+     *
+     * @param changedFiles added &amp; modified source files
+     * @param removedFiles removed source files
+     */
+    @Override public void translateChanges(List<File> changedFiles, List<File> removedFiles) {
+        if (isSkip() || (changedFiles.isEmpty() && removedFiles.isEmpty()))
+            return;
+
+        translateSourceTypeChanges(SourceType.MAIN, getOutputDirectory(), changedFiles, removedFiles);
+
+        FileSet testSourceDirectories = getProject().getTranslatableSourceDirectories(SourceType.TEST);
+        if (!testSourceDirectories.isEmpty())
+            translateSourceTypeChanges(SourceType.TEST, getTestOutputDirectory(), changedFiles, removedFiles);
+    }
+
+    private void translateSourceTypeChanges(SourceType sourceType, File outputDirectory, List<File> changedFiles,
+                                            List<File> removedFiles) {
+        FileSet translatableSourceDirectories = getProject().getTranslatableSourceDirectories(sourceType);
+        for (File removedFile : removedFiles)
+            deleteOutputs(removedFile, translatableSourceDirectories, outputDirectory);
+
+        List<File> changedAndRemovedFiles = new ArrayList<File>(changedFiles);
+        changedAndRemovedFiles.addAll(removedFiles);
+
+        List<File> translatableSourceFiles = getProject().getTranslatableSourceFiles(sourceType).getFiles();
+        List<File> filesToTranslate = SourceDependencies.getAffectedFiles(translatableSourceFiles,
+                changedAndRemovedFiles);
+
+        getProject().info(filesToTranslate.size() + " of " + translatableSourceFiles.size() +
+                          " source files affected by changes since the last translation");
+        runJ2objc(sourceType, outputDirectory, filesToTranslate);
+    }
+
+    /**
+     * Run j2objc on the specified files, in batches to keep the command lines within limits, waiting for all of them
+     * to finish.
+     */
+    private void runJ2objc(SourceType sourceType, File outputDirectory, List<File> filesToTranslate) {
         FileSet classpath = getProject().getClasspath(sourceType);
         FileSet sourcepath = getProject().getAllSourceDirectories(sourceType);
-        FileSet translatableSourceFiles = getProject().getTranslatableSourceFiles(sourceType);
 
-        // Delete the generated source directories
-        Utils.deleteChildDirectoriesExcept(outputDirectory, "nontranslated");
-        
         File j2objcLibDirectory = new File(j2objcHome, "lib");
+        File j2objcJar = new File(j2objcLibDirectory, "j2objc.jar");
 
         FileSet j2objcClasspath = new FileSet(classpath);
         j2objcClasspath.add(new File(j2objcLibDirectory, "j2objc_annotations.jar"));
 
         String taskName = sourceType == SourceType.MAIN ? "translateJavaToObjectiveC" : "translateJavaTestToObjectiveC";
 
-        CommonJavaExec javaExec = getProject().createJavaExec(taskName, new File(j2objcLibDirectory, "j2objc.jar"));
-        //javaExec.setDescription("Converts Java to Objective C");
+        ArrayList<String> optionArgs = new ArrayList<String>();
+        optionArgs.add("-Xbootclasspath:" + new File(j2objcLibDirectory, "jre_emul.jar").getPath());
+        optionArgs.add("-classpath");
+        optionArgs.add(j2objcClasspath.getAsPath());
 
-        //j2objc.setGroup(DOCUMENTATION_GROUP);
-        //j2objc.setClasspath(mainSourceSet.getOutput().plus(mainSourceSet.getCompileClasspath()));
-        //j2objc.setSource(mainSourceSet.getAllJava());
-        //addDependsOnTaskInOtherProjects(j2objc, true, JAVADOC_TASK_NAME, COMPILE_CONFIGURATION_NAME);
-
-        javaExec.addArg("-Xbootclasspath:" + new File(j2objcLibDirectory, "jre_emul.jar").getPath());
-
-        javaExec.addArg("-classpath", j2objcClasspath.getAsPath());
-
-        if (!sourcepath.isEmpty())
-            javaExec.addArg("-sourcepath", sourcepath.getAsPath());
+        if (!sourcepath.isEmpty()) {
+            optionArgs.add("-sourcepath");
+            optionArgs.add(sourcepath.getAsPath());
+        }
 
-        javaExec.addArg("-d", outputDirectory.getPath());
+        optionArgs.add("-d");
+        optionArgs.add(outputDirectory.getPath());
 
         if (useArc)
-            javaExec.addArg("-use-arc");
+            optionArgs.add("-use-arc");
         if (docComments)
-            javaExec.addArg("--doc-comments");
-
-        for (File file : translatableSourceFiles.getFiles()) {
-            javaExec.addArg(file.getAbsolutePath());
+            optionArgs.add("--doc-comments");
+
+        int batch = 0;
+        int start = 0;
+        while (start < filesToTranslate.size()) {
+            ArrayList<String> args = new ArrayList<String>(optionArgs);
+            int argsLength = 0;
+            for (String arg : args)
+                argsLength += arg.length() + 1;
+
+            int end = start;
+            do {
+                String path = filesToTranslate.get(end).getAbsolutePath();
+                args.add(path);
+                argsLength += path.length() + 1;
+                ++end;
+            } while (end < filesToTranslate.size() &&
+                     argsLength + filesToTranslate.get(end).getAbsolutePath().length() < MAX_BATCH_ARGS_LENGTH);
+
+            runner.run(batch == 0 ? taskName : taskName + (batch + 1), j2objcJar, args);
+            ++batch;
+            start = end;
         }
+        runner.await();
+    }
 
-        getProject().info(javaExec.getCommandLine());
-        javaExec.exec();
+    /**
+     * Delete the .h &amp; .m files generated for a source file.  j2objc puts them in the package's directory, which is
+     * the source file's directory relative to its source root.  Files outside the source directories don't have
+     * outputs, so are ignored.
+     */
+    private void deleteOutputs(File sourceFile, FileSet sourceDirectories, File outputDirectory) {
+        @Nullable String relativePath = Utils.getRelativePath(sourceFile, sourceDirectories.getFiles());
+        if (relativePath == null || !relativePath.endsWith(".java"))
+            return;
+
+        String outputBasePath = relativePath.substring(0, relativePath.length() - ".java".length());
+        for (String extension : new String[]{".h", ".m"}) {
+            File outputFile = new File(outputDirectory, outputBasePath + extension);
+            if (outputFile.exists()) {
+                getProject().info("Deleting " + outputFile.getPath());
+                if (!outputFile.delete())
+                    throw new RuntimeException("Failed to delete " + outputFile.getPath());
+            }
+        }
     }
 
 /*
@@ -24,13 +24,14 @@ package org.juniversal.buildtools.common;
 
 import org.jetbrains.annotations.Nullable;
 import org.juniversal.buildtools.common.support.CommonProject;
+import org.juniversal.buildtools.common.support.ProcessOutputReader;
 import org.juniversal.buildtools.common.support.Utils;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 /**
  * @author Bret Johnson
@@ -38,12 +39,44 @@ import java.util.ArrayList;
  */
 public class MSBuild {
     private CommonProject project;
+    private int maxCpuCount = 0;
+    private @Nullable Boolean useDotnet = null;
 
     public MSBuild(CommonProject project) {
         this.project = project;
     }
 
-    public void build(@Nullable File projectFile, @Nullable File msbuildDirectory, String target, String configuration, String verbosity) {
+    /**
+     * Set the maximum number of concurrent processes MSBuild uses to build projects (its /m switch), so the projects
+     * in a solution that don't depend on each other build in parallel.  0, the default, means one per processor and 1
+     * builds serially.
+     *
+     * @param maxCpuCount maximum number of MSBuild processes
+     */
+    public void setMaxCpuCount(int maxCpuCount) {
+        this.maxCpuCount = maxCpuCount;
+    }
+
+    /**
+     * Set whether to build with "dotnet msbuild" (from the .NET SDK, found on the PATH) rather than MSBuild.exe.  By
+     * default dotnet is used when not on Windows and no msbuildDirectory is specified, so builds can be checked on
+     * Linux &amp; Mac too.
+     *
+     * @param useDotnet true to use dotnet, false to use MSBuild.exe, null to decide based on the OS
+     */
+    public void setUseDotnet(@Nullable Boolean useDotnet) {
+        this.useDotnet = useDotnet;
+    }
+
+    /**
+     * Build the project.  MSBuild's output is logged as it's produced; errors &amp; warnings are logged as such (once
+     * each, even though MSBuild repeats them in its summary) and returned.
+     *
+     * @return errors &amp; warnings reported by the build, in the order first reported
+     * @throws RuntimeException if the build fails
+     */
+    public List<MSBuildDiagnostic> build(@Nullable File projectFile, @Nullable File msbuildDirectory, String target,
+                                         String configuration, String verbosity) {
         File projectDirectory = project.getProjectDirectory();
 
         File effectiveProjectFile;
@@ -61,42 +94,68 @@ public class MSBuild {
                     new File(projectCsharpDirectory, projectFileName));
         }
 
-        File msbuildPath;
-        if (msbuildDirectory != null)
-            msbuildPath = new File(msbuildDirectory, "MSBuild.exe");
-        else {
-            msbuildPath = Utils.getFirstThatExists(
-                    "msbuildDirectory not specified and MSBuild.exe not found in default locations",
-                    new File("C:\\Program Files\\MSBuild\\12.0\\bin\\MSBuild.exe"),
-                    new File("C:\\Program Files (x86)\\MSBuild\\12.0\\bin\\MSBuild.exe"));
+        ArrayList<String> args = new ArrayList<String>();
+
+        boolean effectiveUseDotnet = useDotnet != null ? useDotnet :
+                msbuildDirectory == null && !System.getProperty("os.name").startsWith("Windows");
+        if (effectiveUseDotnet) {
+            args.add("dotnet");
+            args.add("msbuild");
+        } else {
+            File msbuildPath;
+            if (msbuildDirectory != null)
+                msbuildPath = new File(msbuildDirectory, "MSBuild.exe");
+            else {
+                msbuildPath = Utils.getFirstThatExists(
+                        "msbuildDirectory not specified and MSBuild.exe not found in default locations",
+                        new File("C:\\Program Files\\MSBuild\\12.0\\bin\\MSBuild.exe"),
+                        new File("C:\\Program Files (x86)\\MSBuild\\12.0\\bin\\MSBuild.exe"));
+            }
+            args.add(msbuildPath.getPath());
         }
 
-        ArrayList<String> args = new ArrayList<String>();
-        args.add(msbuildPath.getPath());
         args.add("/t:" + target);
         args.add("/property:Configuration=" + configuration);
         args.add("/verbosity:" + verbosity);
+        if (maxCpuCount == 0)
+            args.add("/m");
+        else if (maxCpuCount > 1)
+            args.add("/m:" + maxCpuCount);
         args.add(effectiveProjectFile.getAbsolutePath());
 
+        final LinkedHashSet<MSBuildDiagnostic> diagnostics = new LinkedHashSet<MSBuildDiagnostic>();
+        int exitCode;
         try {
             Process msbuild = project.exec(args, null);
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(msbuild.getInputStream()));
-            String inputLine;
-            while ((inputLine = reader.readLine()) != null) {
-                if (inputLine.contains(": error "))
-                    project.error(inputLine);
-                else if (inputLine.contains(": warning "))
-                    project.warn(inputLine);
-                else project.info(inputLine);
-            }
-            reader.close();
+            exitCode = ProcessOutputReader.readAll(msbuild, new ProcessOutputReader.LineHandler() {
+                @Override public void handleLine(String line, boolean isStandardError) {
+                    @Nullable MSBuildDiagnostic diagnostic = MSBuildDiagnostic.parse(line);
 
-            int exitCode = msbuild.exitValue();
-            if (exitCode > 0)
-                throw new RuntimeException("MSBuild failed with exit code " + exitCode);
+                    if (diagnostic == null || !diagnostics.add(diagnostic)) {
+                        if (isStandardError)
+                            project.error(line);
+                        else project.info(line);
+                    } else if (diagnostic.getSeverity() == MSBuildDiagnostic.Severity.ERROR)
+                        project.error(line);
+                    else project.warn(line);
+                }
+            });
         } catch (IOException e) {
             throw new RuntimeException("IO exception when running MSBuild", e);
         }
+
+        if (exitCode != 0) {
+            int errorCount = 0;
+            for (MSBuildDiagnostic diagnostic : diagnostics) {
+                if (diagnostic.getSeverity() == MSBuildDiagnostic.Severity.ERROR)
+                    ++errorCount;
+            }
+
+            throw new RuntimeException("MSBuild failed with exit code " + exitCode +
+                                       (errorCount > 0 ? " and " + errorCount + " error(s)" : ""));
+        }
+
+        return new ArrayList<MSBuildDiagnostic>(diagnostics);
     }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.buildtools.common;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An error or warning reported by MSBuild or one of the tools it runs (like the C# compiler), parsed from its output.
+ * These use the canonical MSBuild format:
+ * <pre>
+ *     origin(line,column): [subcategory] error|warning code: text [project]
+ * </pre>
+ * for example "C:\src\Foo.cs(10,5): error CS0103: The name 'x' does not exist in the current context
+ * [C:\src\Foo.csproj]".  The origin, location &amp; project are optional, and the origin can also be a tool name like
+ * "MSBUILD".
+ */
+public class MSBuildDiagnostic {
+    public enum Severity {
+        ERROR,
+        WARNING
+    }
+
+    private static final Pattern pattern = Pattern.compile(
+            "^\\s*(?:(.*?)(?:\\(([0-9,\\-]+)\\))?\\s*:\\s*)?(?:[^:]*\\s)?(error|warning)\\s+([^:\\s]*)\\s*:\\s*(.*?)" +
+            "(?:\\s+\\[([^\\]]+)\\])?\\s*$");
+
+    private final String origin;
+    private final int line;
+    private final int column;
+    private final Severity severity;
+    private final String code;
+    private final String message;
+    private final @Nullable String project;
+
+    public MSBuildDiagnostic(String origin, int line, int column, Severity severity, String code, String message,
+                             @Nullable String project) {
+        this.origin = origin;
+        this.line = line;
+        this.column = column;
+        this.severity = severity;
+        this.code = code;
+        this.message = message;
+        this.project = project;
+    }
+
+    /**
+     * Parse a line of MSBuild output.
+     *
+     * @param outputLine line of output
+     * @return the diagnostic, or null if the line isn't an error or warning
+     */
+    public static @Nullable MSBuildDiagnostic parse(String outputLine) {
+        Matcher matcher = pattern.matcher(outputLine);
+        if (!matcher.matches())
+            return null;
+
+        int line = 0;
+        int column = 0;
+        String location = matcher.group(2);
+        if (location != null) {
+            // The location can be (line), (line-line), (line,column) or (line,column,line,column)
+            String[] parts = location.split("[,\\-]");
+            try {
+                line = Integer.parseInt(parts[0]);
+                if (parts.length > 1 && location.contains(","))
+                    column = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        Severity severity = matcher.group(3).equals("error") ? Severity.ERROR : Severity.WARNING;
+        String origin = matcher.group(1) != null ? matcher.group(1) : "";
+        return new MSBuildDiagnostic(origin, line, column, severity, matcher.group(4), matcher.group(5),
+                matcher.group(6));
+    }
+
+    /**
+     * Get the file or tool that reported the diagnostic.
+     *
+     * @return file path or tool name, or the empty string if not given
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return line number in the origin file, or 0 if there's no location
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return column number in the origin file, or 0 if not given
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    public Severity getSeverity() {
+        return severity;
+    }
+
+    /**
+     * @return diagnostic code, like "CS0103", or the empty string if there's none
+     */
+    public String getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return project being built when the diagnostic was reported, if MSBuild included it
+     */
+    public @Nullable String getProject() {
+        return project;
+    }
+
+    @Override public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof MSBuildDiagnostic))
+            return false;
+
+        MSBuildDiagnostic other = (MSBuildDiagnostic) o;
+        return line == other.line && column == other.column && severity == other.severity &&
+               origin.equals(other.origin) && code.equals(other.code) && message.equals(other.message);
+    }
+
+    @Override public int hashCode() {
+        int result = origin.hashCode();
+        result = 31 * result + line;
+        result = 31 * result + column;
+        result = 31 * result + code.hashCode();
+        result = 31 * result + message.hashCode();
+        return result;
+    }
+
+    @Override public String toString() {
+        StringBuilder buffer = new StringBuilder(origin);
+        if (line > 0) {
+            buffer.append("(").append(line);
+            if (column > 0)
+                buffer.append(",").append(column);
+            buffer.append(")");
+        }
+        if (origin.length() > 0)
+            buffer.append(": ");
+        buffer.append(severity == Severity.ERROR ? "error" : "warning");
+        if (code.length() > 0)
+            buffer.append(" ").append(code);
+        buffer.append(": ").append(message);
+        return buffer.toString();
+    }
+}
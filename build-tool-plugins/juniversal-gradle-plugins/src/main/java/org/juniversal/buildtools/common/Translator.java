@@ -27,6 +27,7 @@ import org.juniversal.buildtools.common.support.CommonProject;
 import org.juniversal.buildtools.common.support.SourceType;
 
 import java.io.File;
+import java.util.List;
 
 /**
  * Created by Bret Johnson on 11/15/2014.
@@ -82,4 +83,15 @@ public abstract class Translator {
             translateSourceType(SourceType.TEST, testOutputDirectory);
         }
     }
+
+    /**
+     * Update the output for just the specified changes to the Java source, when the output of a previous translation
+     * is still there.  Translators that can't do that just translate everything, which is the default.
+     *
+     * @param changedFiles added &amp; modified source files
+     * @param removedFiles removed source files
+     */
+    public void translateChanges(List<File> changedFiles, List<File> removedFiles) {
+        translate();
+    }
 }
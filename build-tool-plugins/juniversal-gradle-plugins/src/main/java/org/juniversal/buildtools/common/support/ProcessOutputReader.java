@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.buildtools.common.support;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Reads the standard output &amp; error of a process until it exits.  Each stream is drained by its own thread, so the
+ * process never blocks on a full pipe, however much it writes to either.  The lines are handed back to the calling
+ * thread to process, in the order they were read, which keeps the handler single threaded (and build tool logging on
+ * the thread that owns it).
+ */
+public class ProcessOutputReader {
+    public interface LineHandler {
+        void handleLine(String line, boolean isStandardError);
+    }
+
+    private static class Line {
+        private final String text;    // Null at the end of the stream
+        private final boolean isStandardError;
+        private final IOException exception;
+
+        Line(String text, boolean isStandardError, IOException exception) {
+            this.text = text;
+            this.isStandardError = isStandardError;
+            this.exception = exception;
+        }
+    }
+
+    private final BlockingQueue<Line> lines = new LinkedBlockingQueue<Line>();
+
+    /**
+     * Read all the output of the process, passing each line to the handler, then wait for the process to exit.
+     *
+     * @param process process to read
+     * @param handler handler for each line of output
+     * @return process exit code
+     * @throws IOException if there's an error reading the output
+     */
+    public static int readAll(Process process, LineHandler handler) throws IOException {
+        // Nothing is ever written to the process
+        process.getOutputStream().close();
+
+        ProcessOutputReader reader = new ProcessOutputReader();
+        reader.startPumping(process.getInputStream(), false);
+        reader.startPumping(process.getErrorStream(), true);
+
+        try {
+            int openStreams = 2;
+            while (openStreams > 0) {
+                Line line = reader.lines.take();
+                if (line.exception != null)
+                    throw line.exception;
+                else if (line.text == null)
+                    --openStreams;
+                else handler.handleLine(line.text, line.isStandardError);
+            }
+
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for process to finish", e);
+        }
+    }
+
+    private void startPumping(final InputStream stream, final boolean isStandardError) {
+        Thread thread = new Thread(isStandardError ? "process stderr reader" : "process stdout reader") {
+            @Override public void run() {
+                try {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+                    try {
+                        String text;
+                        while ((text = reader.readLine()) != null)
+                            lines.add(new Line(text, isStandardError, null));
+                    } finally {
+                        reader.close();
+                    }
+                    lines.add(new Line(null, isStandardError, null));
+                } catch (IOException e) {
+                    lines.add(new Line(null, isStandardError, e));
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
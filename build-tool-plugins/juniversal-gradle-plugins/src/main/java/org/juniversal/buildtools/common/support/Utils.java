@@ -22,7 +22,10 @@
 
 package org.juniversal.buildtools.common.support;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.io.File;
+import java.util.List;
 
 /**
  * @author Bret Johnson
@@ -93,6 +96,23 @@ public class Utils {
         return path.toString();
     }
 
+    /**
+     * Get the path of a file relative to whichever of the specified directories contains it.
+     *
+     * @param file        file
+     * @param directories directories, normally source directories
+     * @return relative path, using the platform's separator, or null if the file isn't in any of the directories
+     */
+    public static @Nullable String getRelativePath(File file, List<File> directories) {
+        String path = file.getAbsolutePath();
+        for (File directory : directories) {
+            String directoryPath = directory.getAbsolutePath() + File.separator;
+            if (path.startsWith(directoryPath))
+                return path.substring(directoryPath.length());
+        }
+        return null;
+    }
+
     public static String argsToCommandLineString(String[] args) {
         StringBuilder buffer = new StringBuilder();
 
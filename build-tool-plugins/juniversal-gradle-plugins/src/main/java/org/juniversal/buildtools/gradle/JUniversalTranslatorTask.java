@@ -22,14 +22,140 @@
 
 package org.juniversal.buildtools.gradle;
 
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.jetbrains.annotations.Nullable;
 import org.juniversal.buildtools.common.JUniversalTranslator;
+import org.juniversal.buildtools.gradle.support.GradleProject;
 
-public class JUniversalTranslatorTask extends TranslatorTask {
-    public JUniversalTranslatorTask(String defaultOutputDirectoryName) {
-        super(defaultOutputDirectoryName);
+/**
+ * Base class for the tasks that run the JUniversal translator.  When only Java source files changed since the last
+ * run, just those are translated, along with the files that refer to them, directly or indirectly (and the outputs of
+ * removed ones deleted); otherwise everything is.  By default the translator runs in a Gradle worker process, so the
+ * translator tasks of different projects can run in parallel.
+ * <p>
+ * The tasks aren't cacheable, as their output directories are updated in place: an incrementally updated directory
+ * can still hold files a full translation would delete, like ones left there by hand.
+ */
+public abstract class JUniversalTranslatorTask extends TranslatorTask {
+    private final String targetLanguage;
+    private boolean indexEnhancedForLoops;
+    private boolean mapPrimitiveCollections;
+    private boolean useWorkerProcess = true;
+    private @Nullable String workerMaxHeapSize;
+    private int shardCount = 1;
+    private @Nullable String shardMaxHeapSize;
+
+
+    /**
+     * Create the task.  The output directory defaults to the target language name, like "c#".
+     *
+     * @param targetLanguage target language, as passed to the translator's -l option
+     */
+    public JUniversalTranslatorTask(String targetLanguage) {
+        super(targetLanguage);
+        this.targetLanguage = targetLanguage;
+    }
+
+    @Input public String getTargetLanguage() {
+        return targetLanguage;
+    }
+
+    /**
+     * If true, enhanced for loops over Lists are translated as indexed loops.  Defaults to false.
+     */
+    @Input public boolean isIndexEnhancedForLoops() {
+        return indexEnhancedForLoops;
+    }
+
+    public void setIndexEnhancedForLoops(boolean indexEnhancedForLoops) {
+        this.indexEnhancedForLoops = indexEnhancedForLoops;
+    }
+
+    /**
+     * If true, generic collections of primitive wrappers are translated to specialized primitive collections.
+     * Defaults to false.
+     */
+    @Input public boolean isMapPrimitiveCollections() {
+        return mapPrimitiveCollections;
+    }
+
+    public void setMapPrimitiveCollections(boolean mapPrimitiveCollections) {
+        this.mapPrimitiveCollections = mapPrimitiveCollections;
+    }
+
+    /**
+     * If true (the default), run the translator in a Gradle worker daemon process rather than in the build's JVM.
+     * The task then doesn't hold its project's lock while translating, so with --parallel the translator tasks of
+     * different projects run concurrently.
+     */
+    @Internal public boolean isUseWorkerProcess() {
+        return useWorkerProcess;
+    }
+
+    public void setUseWorkerProcess(boolean useWorkerProcess) {
+        this.useWorkerProcess = useWorkerProcess;
     }
 
+    /**
+     * Maximum heap size for the worker process, like "2g".  Defaults to Gradle's default for worker processes.
+     */
+    @Internal public @Nullable String getWorkerMaxHeapSize() {
+        return workerMaxHeapSize;
+    }
+
+    public void setWorkerMaxHeapSize(@Nullable String workerMaxHeapSize) {
+        this.workerMaxHeapSize = workerMaxHeapSize;
+    }
+
+    /**
+     * Number of processes to split a full translation between, each translating part of the source at the same time.
+     * That's useful for very large source sets, to use more processors and keep each process's heap smaller.
+     * Defaults to 1, translating in a single process; 0 means one per processor.
+     */
+    @Internal public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    /**
+     * Maximum heap size for each shard process, like "2g".  Defaults to the JVM's default.
+     */
+    @Internal public @Nullable String getShardMaxHeapSize() {
+        return shardMaxHeapSize;
+    }
+
+    public void setShardMaxHeapSize(@Nullable String shardMaxHeapSize) {
+        this.shardMaxHeapSize = shardMaxHeapSize;
+    }
+
+    @TaskAction public void translate(IncrementalTaskInputs inputs) {
+        JUniversalTranslator translator = createTranslator(GradleProject.get(getProject()));
+        initTranslator(translator);
+        if (useWorkerProcess)
+            translator.setRunner(new WorkerTranslatorRunner(getWorkerExecutor(), workerMaxHeapSize));
+
+        translate(translator, inputs);
+    }
+
+    /**
+     * Create the translator for the target language.
+     *
+     * @param project project the task is for
+     * @return translator
+     */
+    protected abstract JUniversalTranslator createTranslator(GradleProject project);
+
     protected void initTranslator(JUniversalTranslator translator) {
         super.initTranslator(translator);
+        translator.setIndexEnhancedForLoops(indexEnhancedForLoops);
+        translator.setMapPrimitiveCollections(mapPrimitiveCollections);
+        translator.setShardCount(shardCount);
+        translator.setShardMaxHeap(shardMaxHeapSize);
     }
 }
@@ -22,7 +22,7 @@
 
 package org.juniversal.buildtools.gradle;
 
-import org.gradle.api.tasks.TaskAction;
+import org.juniversal.buildtools.common.JUniversalTranslator;
 import org.juniversal.buildtools.common.JavaToCPlusPlus;
 import org.juniversal.buildtools.gradle.support.GradleProject;
 
@@ -31,10 +31,7 @@ public class JavaToCPlusPlusTask extends JUniversalTranslatorTask {
         super("c++");
     }
 
-    @TaskAction public void translate() {
-        JavaToCPlusPlus javaToCPlusPlus = new JavaToCPlusPlus(new GradleProject(getProject()));
-        initTranslator(javaToCPlusPlus);
-
-        javaToCPlusPlus.translate();
+    @Override protected JUniversalTranslator createTranslator(GradleProject project) {
+        return new JavaToCPlusPlus(project);
     }
 }
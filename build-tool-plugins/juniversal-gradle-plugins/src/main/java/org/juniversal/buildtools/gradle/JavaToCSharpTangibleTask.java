@@ -22,6 +22,12 @@
 
 package org.juniversal.buildtools.gradle;
 
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.juniversal.buildtools.common.JavaToCSharpTangible;
 import org.juniversal.buildtools.gradle.support.GradleProject;
@@ -29,30 +35,53 @@ import org.juniversal.buildtools.gradle.support.GradleProject;
 import java.io.File;
 
 public class JavaToCSharpTangibleTask extends TranslatorTask {
+    private File converterDirectory;
+    private File converterSettings;
+    private boolean runMinimized = true;
+
+
+    public JavaToCSharpTangibleTask() {
+        super("c#");
+    }
+
     /**
-     * Directory that contains the converter.  Java to C# Converter.exe must be in this directory.
+     * Directory that contains the converter.  Java to C# Converter.exe must be in this directory.  Its contents are an
+     * input, so installing a different converter version reruns the task.
      */
-    public File converterDirectory;
+    @InputDirectory @PathSensitive(PathSensitivity.RELATIVE) @Optional public File getConverterDirectory() {
+        return converterDirectory;
+    }
+
+    public void setConverterDirectory(File converterDirectory) {
+        this.converterDirectory = converterDirectory;
+    }
 
     /**
      * Path to converter settings file (which normally has a .dat extension).
      */
-    public File converterSettings;
+    @InputFile @Optional public File getConverterSettings() {
+        return converterSettings;
+    }
+
+    public void setConverterSettings(File converterSettings) {
+        this.converterSettings = converterSettings;
+    }
 
     /**
      * If true (the default), run the converter in a minimized window via "cmd /c start /min".  That avoids the
-     * converter window flashing for an instant.
+     * converter window flashing for an instant.  It doesn't affect the output.
      */
-    public boolean runMinimized = true;
-
+    @Internal public boolean isRunMinimized() {
+        return runMinimized;
+    }
 
-    public JavaToCSharpTangibleTask() {
-        super("c#");
+    public void setRunMinimized(boolean runMinimized) {
+        this.runMinimized = runMinimized;
     }
 
     @TaskAction
     public void convert() {
-        GradleProject commonProject = new GradleProject(getProject());
+        GradleProject commonProject = GradleProject.get(getProject());
 
         JavaToCSharpTangible javaToCSharpTangible = new JavaToCSharpTangible(commonProject);
         initTranslator(javaToCSharpTangible);
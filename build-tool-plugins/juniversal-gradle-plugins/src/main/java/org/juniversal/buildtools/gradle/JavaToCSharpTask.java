@@ -22,7 +22,7 @@
 
 package org.juniversal.buildtools.gradle;
 
-import org.gradle.api.tasks.TaskAction;
+import org.juniversal.buildtools.common.JUniversalTranslator;
 import org.juniversal.buildtools.common.JavaToCSharp;
 import org.juniversal.buildtools.gradle.support.GradleProject;
 
@@ -31,10 +31,7 @@ public class JavaToCSharpTask extends JUniversalTranslatorTask {
         super("c#");
     }
 
-    @TaskAction public void translate() {
-        JavaToCSharp javaToCSharp = new JavaToCSharp(new GradleProject(getProject()));
-        initTranslator(javaToCSharp);
-
-        javaToCSharp.translate();
+    @Override protected JUniversalTranslator createTranslator(GradleProject project) {
+        return new JavaToCSharp(project);
     }
 }
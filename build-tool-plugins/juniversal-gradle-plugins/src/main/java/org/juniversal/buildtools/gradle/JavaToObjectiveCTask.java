@@ -22,41 +22,99 @@
 
 package org.juniversal.buildtools.gradle;
 
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.juniversal.buildtools.common.JavaToObjectiveC;
 import org.juniversal.buildtools.gradle.support.GradleProject;
 
 import java.io.File;
 
 public class JavaToObjectiveCTask extends TranslatorTask {
-    /**
-     * Directory that contains the j2objc distribution.
-     */
-    public File j2objcHome;
-    public boolean docComments = true;
-    public boolean useArc = true;
+    private File j2objcHome;
+    private boolean docComments = true;
+    private boolean useArc = true;
+    private boolean useWorkerProcess = true;
 
 
     public JavaToObjectiveCTask() {
         super("objective-c");
     }
 
+    /**
+     * Directory that contains the j2objc distribution.  Defaults to the J2OBJC_HOME environment variable.  The
+     * distribution is large, mostly native libraries that don't affect translation, so rather than the whole
+     * directory, just the jars used to translate are inputs; see getJ2objcJars.
+     */
+    @Internal public File getJ2objcHome() {
+        return j2objcHome;
+    }
+
+    /**
+     * The j2objc jars used for translation, which identify the j2objc version.
+     */
+    @Classpath public FileCollection getJ2objcJars() {
+        File j2objcLibDirectory = new File(resolveJ2objcHome(), "lib");
+        return getProject().files(new File(j2objcLibDirectory, "j2objc.jar"),
+                new File(j2objcLibDirectory, "j2objc_annotations.jar"), new File(j2objcLibDirectory, "jre_emul.jar"));
+    }
+
+    public void setJ2objcHome(File j2objcHome) {
+        this.j2objcHome = j2objcHome;
+    }
+
+    @Input public boolean isDocComments() {
+        return docComments;
+    }
+
+    public void setDocComments(boolean docComments) {
+        this.docComments = docComments;
+    }
+
+    @Input public boolean isUseArc() {
+        return useArc;
+    }
+
+    public void setUseArc(boolean useArc) {
+        this.useArc = useArc;
+    }
+
+    /**
+     * If true (the default), run j2objc in a Gradle worker daemon process, which stays warm between translations,
+     * rather than starting a new JVM for each run.
+     */
+    @Internal public boolean isUseWorkerProcess() {
+        return useWorkerProcess;
+    }
+
+    public void setUseWorkerProcess(boolean useWorkerProcess) {
+        this.useWorkerProcess = useWorkerProcess;
+    }
+
     @TaskAction
-    public void translate() {
-        if (j2objcHome == null) {
-            String environmentVariable = System.getenv("J2OBJC_HOME");
-            if (environmentVariable == null)
-                throw new RuntimeException("Either set j2objcHome property or J2OBJC_HOME environment variable should be set, pointing to j2objc distribution");
-            else j2objcHome = new File(environmentVariable);
-        }
-
-        JavaToObjectiveC javaToObjectiveC = new JavaToObjectiveC(new GradleProject(getProject()));
+    public void translate(IncrementalTaskInputs inputs) {
+        JavaToObjectiveC javaToObjectiveC = new JavaToObjectiveC(GradleProject.get(getProject()));
         initTranslator(javaToObjectiveC);
         javaToObjectiveC.setDocComments(docComments);
-        javaToObjectiveC.setJ2objcHome(j2objcHome);
+        javaToObjectiveC.setJ2objcHome(resolveJ2objcHome());
         javaToObjectiveC.setUseArc(useArc);
+        if (useWorkerProcess)
+            javaToObjectiveC.setRunner(new WorkerJ2objcRunner(getWorkerExecutor()));
+
+        translate(javaToObjectiveC, inputs);
+    }
+
+    private File resolveJ2objcHome() {
+        if (j2objcHome != null)
+            return j2objcHome;
 
-        javaToObjectiveC.translate();
+        String environmentVariable = System.getenv("J2OBJC_HOME");
+        if (environmentVariable == null)
+            throw new RuntimeException("Either set j2objcHome property or J2OBJC_HOME environment variable should be set, pointing to j2objc distribution");
+        return new File(environmentVariable);
     }
 
 }
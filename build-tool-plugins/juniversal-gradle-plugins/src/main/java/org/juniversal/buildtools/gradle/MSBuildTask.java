@@ -68,10 +68,24 @@ public class MSBuildTask extends DefaultTask {
     //@Parameter(property = "target", defaultValue = "Rebuild", required = false)
     public String target = "Rebuild";
 
+    /**
+     * Maximum number of concurrent processes MSBuild uses, so independent projects build in parallel.  Defaults to 0,
+     * meaning one per processor; specify 1 to build serially.
+     */
+    public int maxCpuCount = 0;
+
+    /**
+     * If true, build with "dotnet msbuild" (from the .NET SDK on the PATH) instead of MSBuild.exe.  Defaults to doing
+     * that when not running on Windows and msbuildDirectory isn't set.
+     */
+    public Boolean useDotnet;
+
 
     @TaskAction
     public void msbuild() {
-        MSBuild msBuild = new MSBuild(new GradleProject(getProject()));
+        MSBuild msBuild = new MSBuild(GradleProject.get(getProject()));
+        msBuild.setMaxCpuCount(maxCpuCount);
+        msBuild.setUseDotnet(useDotnet);
         msBuild.build(projectFile, msbuildDirectory, target, configuration, verbosity);
     }
 
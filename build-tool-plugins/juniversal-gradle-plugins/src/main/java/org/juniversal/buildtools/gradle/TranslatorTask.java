@@ -22,35 +22,183 @@
 
 package org.juniversal.buildtools.gradle;
 
+import org.gradle.api.Action;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectories;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
+import org.gradle.workers.WorkerExecutor;
 import org.juniversal.buildtools.common.Translator;
+import org.juniversal.buildtools.common.support.SourceType;
+import org.juniversal.buildtools.gradle.support.GradleProject;
 
+import javax.inject.Inject;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
+/**
+ * Base class for the translator tasks.  The task's inputs are the Java source in the main & test source sets and their
+ * compile classpaths, and its outputs are the generated source directories, so Gradle can skip the task when nothing
+ * changed.  Subclasses add their options as inputs too.
+ */
 public class TranslatorTask extends DefaultTask {
+    private boolean skip;
+    private File outputDirectory;
+    private File testOutputDirectory;
+
+
+    public TranslatorTask(String defaultOutputDirectoryName) {
+        outputDirectory = getProject().file(defaultOutputDirectoryName);
+        testOutputDirectory = getProject().file(defaultOutputDirectoryName + "-test");
+
+        // Create the shared GradleProject while configuring, so it can remember the source files once the task graph
+        // is ready
+        GradleProject.get(getProject());
+
+        onlyIf(new Spec<Task>() {
+            @Override public boolean isSatisfiedBy(Task task) {
+                return !skip;
+            }
+        });
+    }
+
     /**
      * If true, don't do anything.  Defaults to the skipConversion global property.  Thus "mvn -DskipConversion" will
      * skip the Java to C# conversion.
      */
     //@Parameter(defaultValue = "${skipConversion}", property = "skipConversion", required = false)
-    public boolean skip;
+    @Internal public boolean isSkip() {
+        return skip;
+    }
+
+    public void setSkip(boolean skip) {
+        this.skip = skip;
+    }
 
     /**
      * Directory for generated C# for main source.  Defaults to ${project.basedir}/c#.
      */
     //@Parameter(defaultValue = "${project.basedir}/c#", property = "outputDirectory", required = false)
-    public File outputDirectory;
+    @Internal public File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
 
     /**
      * Directory for generated C# for test source.  Defaults to ${project.basedir}/c#-test.
      */
     //@Parameter(defaultValue = "${project.basedir}/c#-test", property = "testOutputDirectory", required = false)
-    public File testOutputDirectory;
+    @Internal public File getTestOutputDirectory() {
+        return testOutputDirectory;
+    }
 
+    public void setTestOutputDirectory(File testOutputDirectory) {
+        this.testOutputDirectory = testOutputDirectory;
+    }
 
-    public TranslatorTask(String defaultOutputDirectoryName) {
-        outputDirectory = getProject().file(defaultOutputDirectoryName);
-        testOutputDirectory = getProject().file(defaultOutputDirectoryName + "-test");
+    /**
+     * All the Java source in the main & test source sets, including any that isn't translated itself but that the
+     * translated source refers to.  Paths are relative to the source directories, so it's changes to the source, not
+     * to where the checkout is, that make the task out of date.
+     */
+    @InputFiles @SkipWhenEmpty @PathSensitive(PathSensitivity.RELATIVE)
+    public FileCollection getSource() {
+        GradleProject gradleProject = GradleProject.get(getProject());
+        return getProject().files(gradleProject.getSourceSet(SourceType.MAIN).getAllJava(),
+                gradleProject.getSourceSet(SourceType.TEST).getAllJava());
+    }
+
+    /**
+     * The compile classpaths of the main & test source sets.  These are passed as the files they resolve to, rather
+     * than as the source sets' classpaths themselves, so the task doesn't come to depend on compiling the main classes
+     * (which are on the test classpath), just as when it had no declared inputs.  They're only resolved when Gradle
+     * reads the collection, and then just once for the translator tasks of the project.
+     */
+    @Classpath public FileCollection getClasspath() {
+        final GradleProject gradleProject = GradleProject.get(getProject());
+        return getProject().files(new Callable<List<File>>() {
+            @Override public List<File> call() {
+                List<File> files = new ArrayList<File>(gradleProject.getClasspath(SourceType.MAIN).getFiles());
+                files.addAll(gradleProject.getClasspath(SourceType.TEST).getFiles());
+                return files;
+            }
+        });
+    }
+
+    /**
+     * The generated source directories.  The test output directory is only included when there's test source to
+     * translate, as otherwise it isn't written & so shouldn't be created.
+     */
+    @OutputDirectories public Map<String, File> getOutputDirectories() {
+        Map<String, File> outputDirectories = new LinkedHashMap<String, File>();
+        outputDirectories.put("main", outputDirectory);
+        if (!GradleProject.get(getProject()).getTranslatableSourceDirectories(SourceType.TEST).isEmpty())
+            outputDirectories.put("test", testOutputDirectory);
+        return outputDirectories;
+    }
+
+    /**
+     * Injected by Gradle, for subclasses that run their translator in a worker process.
+     */
+    @Inject protected WorkerExecutor getWorkerExecutor() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Run the translator for the task's inputs.  When Gradle can say what changed since the last run, and just Java
+     * source did, only the changes are translated.  Otherwise (on the first run, or when the options, the classpath,
+     * or the outputs themselves changed) everything is.
+     */
+    protected void translate(Translator translator, IncrementalTaskInputs inputs) {
+        if (!inputs.isIncremental()) {
+            translator.translate();
+            return;
+        }
+
+        final List<File> changedFiles = new ArrayList<File>();
+        final List<File> removedFiles = new ArrayList<File>();
+        final boolean[] otherInputsChanged = new boolean[1];
+
+        inputs.outOfDate(new Action<InputFileDetails>() {
+            @Override public void execute(InputFileDetails details) {
+                if (isJavaFile(details.getFile()))
+                    changedFiles.add(details.getFile());
+                else otherInputsChanged[0] = true;
+            }
+        });
+
+        inputs.removed(new Action<InputFileDetails>() {
+            @Override public void execute(InputFileDetails details) {
+                if (isJavaFile(details.getFile()))
+                    removedFiles.add(details.getFile());
+                else otherInputsChanged[0] = true;
+            }
+        });
+
+        // A changed classpath entry can affect the translation of any file, so translate everything then
+        if (otherInputsChanged[0])
+            translator.translate();
+        else translator.translateChanges(changedFiles, removedFiles);
+    }
+
+    private static boolean isJavaFile(File file) {
+        return file.getName().endsWith(".java");
     }
 
     protected void initTranslator(Translator translator) {
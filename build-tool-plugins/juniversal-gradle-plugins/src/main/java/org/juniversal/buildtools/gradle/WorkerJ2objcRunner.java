@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.buildtools.gradle;
+
+import org.gradle.api.Action;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerConfiguration;
+import org.gradle.workers.WorkerExecutor;
+import org.juniversal.buildtools.common.JavaToObjectiveC;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs j2objc via the Gradle Worker API, in a worker daemon process.  The daemon outlives the build, and j2objc's
+ * classes are loaded once per daemon (per version of j2objc.jar), so after the first run translation happens in a warm
+ * JVM rather than paying j2objc's startup cost for every batch of files.  The batches are submitted together, so they
+ * can also run in parallel.
+ * <p>
+ * j2objc exits its JVM when it reports errors.  Here that ends the worker daemon, which Gradle reports as the task
+ * failing (after j2objc's own error messages); a new daemon is started for the next translation.
+ */
+public class WorkerJ2objcRunner implements JavaToObjectiveC.J2objcRunner {
+    private final WorkerExecutor workerExecutor;
+
+    public WorkerJ2objcRunner(WorkerExecutor workerExecutor) {
+        this.workerExecutor = workerExecutor;
+    }
+
+    @Override public void run(final String name, File j2objcJar, List<String> args) {
+        final String[] argsArray = args.toArray(new String[args.size()]);
+        final File jar = j2objcJar;
+        workerExecutor.submit(J2objcWork.class, new Action<WorkerConfiguration>() {
+            @Override public void execute(WorkerConfiguration configuration) {
+                configuration.setIsolationMode(IsolationMode.PROCESS);
+                configuration.setDisplayName(name);
+                configuration.params(jar, argsArray);
+            }
+        });
+    }
+
+    @Override public void await() {
+        workerExecutor.await();
+    }
+
+    /**
+     * A j2objc run, in the worker process.
+     */
+    public static class J2objcWork implements Runnable {
+        // Class loaders for j2objc.jar, kept for the life of the worker process so its classes stay loaded & compiled
+        private static final Map<String, ClassLoader> j2objcClassLoaders = new HashMap<String, ClassLoader>();
+
+        private final File j2objcJar;
+        private final String[] args;
+
+        @Inject public J2objcWork(File j2objcJar, String[] args) {
+            this.j2objcJar = j2objcJar;
+            this.args = args;
+        }
+
+        @Override public void run() {
+            ClassLoader classLoader = getJ2objcClassLoader(j2objcJar);
+
+            Thread thread = Thread.currentThread();
+            ClassLoader originalContextClassLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(classLoader);
+            try {
+                Method main;
+                try {
+                    main = classLoader.loadClass("com.google.devtools.j2objc.J2ObjC").getMethod("main",
+                            String[].class);
+                } catch (ClassNotFoundException e) {
+                    throw new RuntimeException("Couldn't find j2objc's main class in " + j2objcJar, e);
+                } catch (NoSuchMethodException e) {
+                    throw new RuntimeException("Couldn't find j2objc's main method in " + j2objcJar, e);
+                }
+
+                main.invoke(null, (Object) args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                    throw (RuntimeException) cause;
+                throw new RuntimeException("j2objc failed", cause);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Couldn't run j2objc from " + j2objcJar, e);
+            } finally {
+                thread.setContextClassLoader(originalContextClassLoader);
+            }
+        }
+
+        private static synchronized ClassLoader getJ2objcClassLoader(File j2objcJar) {
+            // Include the modification time, so a j2objc upgrade in place gets a new class loader
+            String key = j2objcJar.getAbsolutePath() + "@" + j2objcJar.lastModified();
+
+            ClassLoader classLoader = j2objcClassLoaders.get(key);
+            if (classLoader == null) {
+                try {
+                    // j2objc.jar's manifest Class-Path brings in the other jars it needs, as with java -jar.  It's
+                    // parented to the platform class loader, so nothing on the worker's own classpath leaks in
+                    classLoader = new URLClassLoader(new URL[]{j2objcJar.toURI().toURL()},
+                            ClassLoader.getSystemClassLoader().getParent());
+                } catch (MalformedURLException e) {
+                    throw new RuntimeException(e);
+                }
+                j2objcClassLoaders.put(key, classLoader);
+            }
+            return classLoader;
+        }
+    }
+}
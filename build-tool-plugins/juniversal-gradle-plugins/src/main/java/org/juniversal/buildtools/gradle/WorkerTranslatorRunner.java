@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.buildtools.gradle;
+
+import org.gradle.api.Action;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerConfiguration;
+import org.gradle.workers.WorkerExecutor;
+import org.jetbrains.annotations.Nullable;
+import org.juniversal.buildtools.common.JUniversalTranslator;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs juniversal-translator via the Gradle Worker API, in a worker daemon process.  The task action returns once the
+ * work is submitted, releasing the project lock, so with --parallel the translator tasks of different projects run at
+ * the same time.  Gradle keeps the worker daemons alive between uses, so later translations, in this build or the next,
+ * run in an already warmed up JVM.
+ */
+public class WorkerTranslatorRunner implements JUniversalTranslator.Runner {
+    private final WorkerExecutor workerExecutor;
+    private final @Nullable String maxHeapSize;
+
+    public WorkerTranslatorRunner(WorkerExecutor workerExecutor, @Nullable String maxHeapSize) {
+        this.workerExecutor = workerExecutor;
+        this.maxHeapSize = maxHeapSize;
+    }
+
+    @Override public void translate(String[] args) {
+        submit(TranslateWork.class, (Object) args);
+    }
+
+    @Override public void translateChanges(String[] args, List<File> changedFiles, List<File> removedFiles) {
+        submit(TranslateChangesWork.class, args, new ArrayList<File>(changedFiles), new ArrayList<File>(removedFiles));
+    }
+
+    private void submit(Class<? extends Runnable> workClass, final Object... params) {
+        workerExecutor.submit(workClass, new Action<WorkerConfiguration>() {
+            @Override public void execute(WorkerConfiguration configuration) {
+                configuration.setIsolationMode(IsolationMode.PROCESS);
+                configuration.setDisplayName("juniversal-translator");
+                configuration.params(params);
+                configuration.forkOptions(new Action<JavaForkOptions>() {
+                    @Override public void execute(JavaForkOptions forkOptions) {
+                        if (maxHeapSize != null)
+                            forkOptions.setMaxHeapSize(maxHeapSize);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Full translation, run in the worker process.
+     */
+    public static class TranslateWork implements Runnable {
+        private final String[] args;
+
+        @Inject public TranslateWork(String[] args) {
+            this.args = args;
+        }
+
+        @Override public void run() {
+            new JUniversalTranslator.InProcessRunner().translate(args);
+        }
+    }
+
+    /**
+     * Translation of just the changed files, run in the worker process.
+     */
+    public static class TranslateChangesWork implements Runnable {
+        private final String[] args;
+        private final ArrayList<File> changedFiles;
+        private final ArrayList<File> removedFiles;
+
+        @Inject public TranslateChangesWork(String[] args, ArrayList<File> changedFiles, ArrayList<File> removedFiles) {
+            this.args = args;
+            this.changedFiles = changedFiles;
+            this.removedFiles = removedFiles;
+        }
+
+        @Override public void run() {
+            new JUniversalTranslator.InProcessRunner().translateChanges(args, changedFiles, removedFiles);
+        }
+    }
+}
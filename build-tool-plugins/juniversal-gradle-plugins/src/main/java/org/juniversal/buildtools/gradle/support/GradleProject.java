@@ -22,10 +22,12 @@
 
 package org.juniversal.buildtools.gradle.support;
 
+import org.gradle.api.Action;
 import org.gradle.api.Project;
+import org.gradle.api.execution.TaskExecutionGraph;
 import org.gradle.api.file.FileCollection;
-import org.gradle.api.file.FileVisitDetails;
-import org.gradle.api.file.FileVisitor;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.plugins.ExtraPropertiesExtension;
 import org.gradle.api.plugins.JavaPluginConvention;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
@@ -36,15 +38,59 @@ import org.juniversal.buildtools.common.support.SourceType;
 
 import java.io.File;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * Created by Bret Johnson on 11/11/2014.
+ * <p>
+ * The translatable source files are available as a lazy file tree, which reflects the source sets as they are when
+ * it's read.  While configuring, build scripts &amp; plugins can still change the source sets, so the files are listed
+ * again each time they're asked for then.  Once the task graph is ready they're listed the first time they're asked
+ * for, then remembered; tasks that generate source run before the translator tasks that use it.  The classpaths,
+ * which are costly to resolve, are computed the first time they're asked for, then remembered; that's only done when
+ * a task reads its inputs or runs, after which Gradle doesn't allow the resolved configurations to change.  The
+ * source directories are cheap to compute, so are computed each time.  Use {@link #get(Project)} to share one
+ * instance, and so those results, between all the tasks of a project in a build; it should first be called while
+ * configuring, so it sees the task graph become ready.
  */
 public class GradleProject extends CommonProject {
+    private static final String EXTRA_PROPERTY_NAME = "juniversalGradleProject";
+
     private Project project;
+    private volatile boolean taskGraphReady;
+    private final Map<SourceType, FileSet> translatableSourceFiles = new EnumMap<SourceType, FileSet>(SourceType.class);
+    private final Map<SourceType, FileSet> classpaths = new EnumMap<SourceType, FileSet>(SourceType.class);
 
     public GradleProject(Project project) {
         this.project = project;
+
+        project.getGradle().getTaskGraph().whenReady(new Action<TaskExecutionGraph>() {
+            @Override public void execute(TaskExecutionGraph taskGraph) {
+                taskGraphReady = true;
+            }
+        });
+    }
+
+    /**
+     * Get the GradleProject for the specified project, creating it the first time.  It's kept as an extra property of
+     * the project, so lasts for the rest of the build.
+     *
+     * @param project Gradle project
+     * @return shared GradleProject
+     */
+    public static GradleProject get(Project project) {
+        ExtraPropertiesExtension extraProperties = project.getExtensions().getExtraProperties();
+        synchronized (extraProperties) {
+            if (extraProperties.has(EXTRA_PROPERTY_NAME))
+                return (GradleProject) extraProperties.get(EXTRA_PROPERTY_NAME);
+
+            GradleProject gradleProject = new GradleProject(project);
+            extraProperties.set(EXTRA_PROPERTY_NAME, gradleProject);
+            return gradleProject;
+        }
     }
 
     @Override public File getProjectDirectory() {
@@ -84,34 +130,45 @@ public class GradleProject extends CommonProject {
         return createFileSet(getSourceSet(sourceType).getAllJava().getSrcDirs());
     }
 
-    @Override public FileSet getTranslatableSourceFiles(SourceType sourceType) {
-        SourceSet sourceSet = getSourceSet(sourceType);
-
-        // Get all the Java source files, from the source directory(ies) defined in the source set.  Skip source
-        // directories whose name ends with "-nontranslated"
-        final FileSet sourceFiles = new FileSet();
-        sourceSet.getJava().visit(new FileVisitor() {
-            @Override
-            public void visitDir(FileVisitDetails fileVisitDetails) {
-                File parentFile = fileVisitDetails.getFile().getParentFile();
-
-                if (parentFile.getName().endsWith("-nontranslated"))
-                    fileVisitDetails.stopVisiting();
+    /**
+     * Get the Java source files to translate: those in the translatable source directories that the source set
+     * includes.  Source directories whose name contains "nontranslated" are skipped.  The tree is lazy, only listing
+     * the files when it's read.
+     */
+    public FileTree getTranslatableSourceTree(final SourceType sourceType) {
+        FileCollection translatableSourceDirectories = project.files(new Callable<List<File>>() {
+            @Override public List<File> call() {
+                return getTranslatableSourceDirectories(sourceType).getFiles();
             }
+        });
+        return translatableSourceDirectories.getAsFileTree().matching(getSourceSet(sourceType).getJava().getFilter());
+    }
 
-            @Override
-            public void visitFile(FileVisitDetails fileVisitDetails) {
-                File parentFile = fileVisitDetails.getFile().getParentFile();
-                if (parentFile.getName().endsWith("-nontranslated"))
-                    fileVisitDetails.stopVisiting();
-                else sourceFiles.add(fileVisitDetails.getFile());
+    @Override public FileSet getTranslatableSourceFiles(SourceType sourceType) {
+        if (!taskGraphReady)
+            return createFileSet(getTranslatableSourceTree(sourceType));
+
+        synchronized (translatableSourceFiles) {
+            FileSet fileSet = translatableSourceFiles.get(sourceType);
+            if (fileSet == null) {
+                fileSet = createFileSet(getTranslatableSourceTree(sourceType));
+                translatableSourceFiles.put(sourceType, fileSet);
             }
-        });
-        return sourceFiles;
+            return new FileSet(fileSet);
+        }
     }
 
-    @Override public FileSet getClasspath(SourceType sourceType) {
-        return createFileSet(getSourceSet(sourceType).getCompileClasspath());
+    /**
+     * Get the compile classpath for the source type.  That resolves the compile configuration, so it's only done when
+     * first asked for, normally when a task actually runs.
+     */
+    @Override public synchronized FileSet getClasspath(SourceType sourceType) {
+        FileSet fileSet = classpaths.get(sourceType);
+        if (fileSet == null) {
+            fileSet = createFileSet(getSourceSet(sourceType).getCompileClasspath());
+            classpaths.put(sourceType, fileSet);
+        }
+        return new FileSet(fileSet);
     }
 
     public SourceSet getSourceSet(SourceType sourceType) {
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.gradle
+
+import org.gradle.api.Project
+import org.gradle.testfixtures.ProjectBuilder
+import org.junit.Test
+import org.juniversal.buildtools.gradle.JavaToCSharpTask
+
+import static org.junit.Assert.assertEquals
+import static org.junit.Assert.assertTrue
+
+class JavaToCSharpTaskTest {
+    @Test
+    public void canAddTaskToProject() {
+        Project project = ProjectBuilder.builder().build()
+        def task = project.task('javaToCSharp', type: JavaToCSharpTask)
+        assertTrue(task instanceof JavaToCSharpTask)
+    }
+
+    @Test
+    public void declaresInputsAndOutputs() {
+        Project project = ProjectBuilder.builder().build()
+        project.apply plugin: 'java'
+        JavaToCSharpTask task = project.task('javaToCSharp', type: JavaToCSharpTask)
+        task.outputDirectory = project.file('c#')
+
+        assertEquals("c#", task.targetLanguage)
+        assertEquals(project.file('c#'), task.outputDirectories.get("main"))
+        assertTrue(task.inputs.hasInputs)
+        assertTrue(task.outputs.hasOutput)
+    }
+}
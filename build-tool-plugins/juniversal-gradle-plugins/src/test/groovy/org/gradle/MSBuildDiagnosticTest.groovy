@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.gradle
+
+import org.junit.Test
+import org.juniversal.buildtools.common.MSBuildDiagnostic
+
+import static org.junit.Assert.*
+
+class MSBuildDiagnosticTest {
+    @Test
+    public void parsesCompilerError() {
+        def diagnostic = MSBuildDiagnostic.parse(
+                "C:\\src\\Foo.cs(10,5): error CS0103: The name 'x' does not exist in the current context [C:\\src\\Foo.csproj]")
+
+        assertEquals("C:\\src\\Foo.cs", diagnostic.origin)
+        assertEquals(10, diagnostic.line)
+        assertEquals(5, diagnostic.column)
+        assertEquals(MSBuildDiagnostic.Severity.ERROR, diagnostic.severity)
+        assertEquals("CS0103", diagnostic.code)
+        assertEquals("The name 'x' does not exist in the current context", diagnostic.message)
+        assertEquals("C:\\src\\Foo.csproj", diagnostic.project)
+    }
+
+    @Test
+    public void parsesToolWarningWithoutLocation() {
+        def diagnostic = MSBuildDiagnostic.parse("MSBUILD : warning MSB4011: The import was already imported.")
+
+        assertEquals("MSBUILD", diagnostic.origin)
+        assertEquals(0, diagnostic.line)
+        assertEquals(MSBuildDiagnostic.Severity.WARNING, diagnostic.severity)
+        assertEquals("MSB4011", diagnostic.code)
+        assertNull(diagnostic.project)
+    }
+
+    @Test
+    public void ignoresOtherOutput() {
+        assertNull(MSBuildDiagnostic.parse("Build succeeded."))
+        assertNull(MSBuildDiagnostic.parse("    0 Warning(s)"))
+        assertNull(MSBuildDiagnostic.parse("  Foo -> C:\\src\\bin\\Release\\Foo.dll"))
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.buildtools.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the javaToCSharp task in a real build, via Gradle TestKit, so the translator runs in a worker process as it
+ * does by default.
+ */
+public class JavaToCSharpTaskTest {
+    @Rule public TemporaryFolder projectDirectory = new TemporaryFolder();
+
+    @Test public void translatesInWorkerProcess() throws IOException {
+        writeFile("settings.gradle", "rootProject.name = 'sample'\n");
+        writeFile("build.gradle",
+                "plugins {\n" +
+                "    id 'java'\n" +
+                "    id 'javaToCSharp'\n" +
+                "}\n" +
+                "\n" +
+                "javaToCSharp {\n" +
+                "    useWorkerProcess = true\n" +
+                "}\n");
+        writeFile("src/main/java/sample/Foo.java",
+                "package sample;\n\npublic class Foo {\n    public int foo() { return 1; }\n}\n");
+        writeFile("src/main/java/sample/Bar.java",
+                "package sample;\n\npublic class Bar {\n    public int bar() { return 2; }\n}\n");
+
+        // The first run translates everything
+        assertEquals(TaskOutcome.SUCCESS, runJavaToCSharp().task(":javaToCSharp").getOutcome());
+        File fooOutput = new File(projectDirectory.getRoot(), "c#/sample/Foo.cs");
+        File barOutput = new File(projectDirectory.getRoot(), "c#/sample/Bar.cs");
+        assertTrue(fooOutput.exists());
+        assertTrue(barOutput.exists());
+
+        // Then a change to one file is translated incrementally
+        writeFile("src/main/java/sample/Foo.java",
+                "package sample;\n\npublic class Foo {\n    public int foo() { return 3; }\n}\n");
+        assertEquals(TaskOutcome.SUCCESS, runJavaToCSharp().task(":javaToCSharp").getOutcome());
+        assertTrue(readFile(fooOutput).contains("return 3;"));
+        assertTrue(barOutput.exists());
+
+        assertEquals(TaskOutcome.UP_TO_DATE, runJavaToCSharp().task(":javaToCSharp").getOutcome());
+    }
+
+    private BuildResult runJavaToCSharp() {
+        return GradleRunner.create()
+                .withProjectDir(projectDirectory.getRoot())
+                .withPluginClasspath()
+                .withArguments("javaToCSharp", "--stacktrace")
+                .build();
+    }
+
+    private void writeFile(String path, String contents) throws IOException {
+        File file = new File(projectDirectory.getRoot(), path);
+        File directory = file.getParentFile();
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IOException("Failed to create directory " + directory);
+
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(contents);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String readFile(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), "UTF-8");
+    }
+}
@@ -1,7 +1,13 @@
 #ifndef ARRAY_H
 #define ARRAY_H
 
+#include <string.h>
+#include <math.h>
+#include <algorithm>
+#include <new>
+#include <type_traits>
 #include "juniversal_defs.h"
+#include "juniversal_ptr.h"
 #include "java/lang/Object.h"
 
 
@@ -27,12 +33,133 @@ public:
 		Object::operator delete(p);
 	}
 
+	static void operator delete (void *p, unsigned int) {
+		Object::operator delete(p);
+	}
+
+	// As in Java, elements start out as 0/false/null
+	Array() {
+		for (unsigned int i = 0; i < m_length; ++i)
+			new (&m_data[i]) T();
+	}
+
+	~Array() {
+		for (unsigned int i = 0; i < m_length; ++i)
+			m_data[i].~T();
+	}
+
 	unsigned int length() { return m_length; }
 
+	/*
+	 * Element access.  at() checks bounds like Java does; the translator uses the unchecked [] operator only where it
+	 * has proven the index is in bounds, or when checks are turned off for the whole build.
+	 */
+	T& at(int index) {
+		if (static_cast<unsigned int>(index) >= m_length)
+			throw new ArrayIndexOutOfBoundsException();
+		return m_data[index];
+	}
+
+	T& operator[](int index) { return m_data[index]; }
+
+	T* data() { return m_data; }
+
 private: // Data
 	unsigned int m_length;
 	T m_data[0];
 };
 
-} // java_lang
-#endif // STRING_H
+
+/*
+ * Array intrinsics.  The translator writes System.arraycopy, Arrays.fill & Arrays.equals as calls to these, which take
+ * the same arguments & throw the same exceptions.  For primitive element types they come down to memmove, std::fill &
+ * memcmp, which the C++ library & compiler implement with vector instructions, instead of loops over the elements.
+ */
+
+inline void checkArrayRange(unsigned int arrayLength, int offset, int length) {
+	if (offset < 0 || length < 0 || static_cast<unsigned int>(offset) + static_cast<unsigned int>(length) > arrayLength)
+		throw new ArrayIndexOutOfBoundsException();
+}
+
+template <typename S, typename D> void arrayCopy(const ptr< Array<S> >& source, int sourcePosition,
+		const ptr< Array<D> >& destination, int destinationPosition, int length) {
+	if (source.get() == NULL || destination.get() == NULL)
+		throw new NullPointerException();
+	checkArrayRange(source->length(), sourcePosition, length);
+	checkArrayRange(destination->length(), destinationPosition, length);
+
+	S* pSource = source->data() + sourcePosition;
+	D* pDestination = destination->data() + destinationPosition;
+	if (std::is_scalar<S>::value && std::is_same<S, D>::value)
+		memmove(static_cast<void*>(pDestination), static_cast<void*>(pSource), length * sizeof(S));
+	else if (static_cast<void*>(pDestination) <= static_cast<void*>(pSource)) {
+		for (int i = 0; i < length; ++i)
+			pDestination[i] = pSource[i];
+	} else {
+		// Copying to a later position in the same array, so go backwards to not overwrite elements before they're copied
+		for (int i = length - 1; i >= 0; --i)
+			pDestination[i] = pSource[i];
+	}
+}
+
+template <typename T, typename V> void arrayFill(const ptr< Array<T> >& array, int fromIndex, int toIndex,
+		const V& value) {
+	if (array.get() == NULL)
+		throw new NullPointerException();
+	if (fromIndex > toIndex)
+		throw new IllegalArgumentException();
+	checkArrayRange(array->length(), fromIndex, toIndex - fromIndex);
+
+	const T element = value;
+	std::fill(array->data() + fromIndex, array->data() + toIndex, element);
+}
+
+template <typename T, typename V> void arrayFill(const ptr< Array<T> >& array, const V& value) {
+	if (array.get() == NULL)
+		throw new NullPointerException();
+	arrayFill(array, 0, array->length(), value);
+}
+
+template <typename T> typename std::enable_if<std::is_integral<T>::value, bool>::type
+		arrayElementsEqual(const T* pElements1, const T* pElements2, unsigned int length) {
+	return memcmp(pElements1, pElements2, length * sizeof(T)) == 0;
+}
+
+/*
+ * Java compares float & double elements by their bits, so NaN equals NaN but 0.0 doesn't equal -0.0
+ */
+template <typename T> typename std::enable_if<std::is_floating_point<T>::value, bool>::type
+		arrayElementsEqual(const T* pElements1, const T* pElements2, unsigned int length) {
+	for (unsigned int i = 0; i < length; ++i) {
+		T element1 = pElements1[i];
+		T element2 = pElements2[i];
+		if (element1 != element1) {
+			if (element2 == element2)
+				return false;
+		} else if (element1 != element2 || signbit(element1) != signbit(element2))
+			return false;
+	}
+	return true;
+}
+
+template <typename T> bool arrayElementsEqual(const ptr<T>* pElements1, const ptr<T>* pElements2,
+		unsigned int length) {
+	for (unsigned int i = 0; i < length; ++i) {
+		T* pElement1 = pElements1[i].get();
+		T* pElement2 = pElements2[i].get();
+		if (pElement1 != pElement2 && (pElement1 == NULL || !pElement1->equals(pElement2)))
+			return false;
+	}
+	return true;
+}
+
+template <typename T> bool arrayEquals(const ptr< Array<T> >& array1, const ptr< Array<T> >& array2) {
+	if (array1.get() == array2.get())
+		return true;
+	if (array1.get() == NULL || array2.get() == NULL || array1->length() != array2->length())
+		return false;
+	return arrayElementsEqual(array1->data(), array2->data(), array1->length());
+}
+
+} // namespace juniversal
+#endif // ARRAY_H
@@ -0,0 +1,77 @@
+#ifndef PRIMITIVE_COLLECTIONS_H
+#define PRIMITIVE_COLLECTIONS_H
+
+#include <algorithm>
+#include <unordered_map>
+#include <vector>
+#include "juniversal_defs.h"
+#include "java/lang/Object.h"
+
+
+namespace juniversal {
+
+JU_USING_STD_NAMESPACES
+
+/*
+ * PrimitiveList & PrimitiveMap are what the translator writes List/ArrayList & Map/HashMap as, when all their type
+ * arguments are primitive wrappers & primitive collection mapping is turned on (see CPPProfile).  They store their
+ * elements unboxed, in a std::vector & std::unordered_map, and have the subset of the Java methods that the translator
+ * supports for them (see PrimitiveCollectionMethods), with the same names & exceptions.  Since they can't hold null,
+ * there's no Map.get; the translator only allows set, put & remove as statements, so they don't return the previous
+ * value.
+ */
+
+template <typename T> class PrimitiveList : public Object {
+public:
+	void add(T element) { m_elements.push_back(element); }
+
+	T get(int index) { return m_elements[checkIndex(index)]; }
+
+	void set(int index, T element) { m_elements[checkIndex(index)] = element; }
+
+	int size() { return static_cast<int>(m_elements.size()); }
+
+	bool isEmpty() { return m_elements.empty(); }
+
+	void clear() { m_elements.clear(); }
+
+	bool contains(T element) {
+		return std::find(m_elements.begin(), m_elements.end(), element) != m_elements.end();
+	}
+
+private:
+	unsigned int checkIndex(int index) {
+		if (static_cast<unsigned int>(index) >= m_elements.size())
+			throw new IndexOutOfBoundsException();
+		return static_cast<unsigned int>(index);
+	}
+
+private: // Data
+	std::vector<T> m_elements;
+};
+
+template <typename K, typename V> class PrimitiveMap : public Object {
+public:
+	void put(K key, V value) { m_entries[key] = value; }
+
+	bool containsKey(K key) { return m_entries.find(key) != m_entries.end(); }
+
+	V getOrDefault(K key, V defaultValue) {
+		typename std::unordered_map<K, V>::iterator entry = m_entries.find(key);
+		return entry == m_entries.end() ? defaultValue : entry->second;
+	}
+
+	void remove(K key) { m_entries.erase(key); }
+
+	int size() { return static_cast<int>(m_entries.size()); }
+
+	bool isEmpty() { return m_entries.empty(); }
+
+	void clear() { m_entries.clear(); }
+
+private: // Data
+	std::unordered_map<K, V> m_entries;
+};
+
+} // namespace juniversal
+#endif // PRIMITIVE_COLLECTIONS_H
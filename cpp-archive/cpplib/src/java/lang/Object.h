@@ -2,25 +2,40 @@
 #define OBJECT_H
 
 #include "juniversal_defs.h"
+#include "juniversal_alloc.h"
+#include <exception>
 
 
 namespace java_lang {
 
 JU_USING_STD_NAMESPACES
 
+/*
+ * The mutex type used for object monitors.  Java monitors are reentrant, so it's recursive.
+ */
+typedef std::recursive_mutex Monitor;
+
 class Object {
 public:
-	Object() {}
-	virtual ~Object() {}
+	Object() : m_pMonitor(NULL) {}
+
+	// Copies get their own monitor
+	Object(const Object&) : m_pMonitor(NULL) {}
+
+	virtual ~Object() { delete m_pMonitor.load(std::memory_order_relaxed); }
 
+	Object& operator=(const Object&) { return *this; }
+
+	/*
+	 * Objects are allocated with the pooled JUniversal allocator, which also stores the reference count just before
+	 * the object; see juniversal_alloc.h.
+	 */
 	static void* operator new(size_t size) {
-		void* pMemory = malloc(sizeof(ReferenceCount) + size);
-		*reinterpret_cast<ReferenceCount>(pMemory) = 0;
-		return pMemory + sizeof(ReferenceCount);
+		return allocateObject(size);
 	}
 
 	static void operator delete (void* pMemory) {
-		free(pMemory);
+		freeObject(pMemory);
 	}
 
 	/*
@@ -31,6 +46,29 @@ public:
 	}
 	*/
 
+	/*
+	 * As in Java, objects are only equal to themselves unless a subclass says otherwise.
+	 */
+	virtual bool equals(Object* pOther) {
+		return this == pOther;
+	}
+
+	/*
+	 * The object's monitor, locked by synchronized methods & synchronized (this) blocks.  As in Java, there's one per
+	 * object, shared by all the classes in its hierarchy.  Most objects are never locked, so the mutex is only created
+	 * the first time it's needed; if two threads race to create it, one of them deletes its mutex & uses the other's.
+	 */
+	Monitor& getMonitor() {
+		Monitor* pMonitor = m_pMonitor.load(std::memory_order_acquire);
+		if (pMonitor == NULL) {
+			Monitor* pNewMonitor = new Monitor();
+			if (m_pMonitor.compare_exchange_strong(pMonitor, pNewMonitor, std::memory_order_acq_rel))
+				pMonitor = pNewMonitor;
+			else delete pNewMonitor;
+		}
+		return *pMonitor;
+	}
+
 	/*
 	 * Use an object's address as its default hash code.  Since JUniversal objects don't move
 	 * around in memory (as of now), that works well.
@@ -38,7 +76,131 @@ public:
 	virtual int hashCode() {
 		return reinterpret_cast<int>(this);
 	}
+
+private: // Data
+	std::atomic<Monitor*> m_pMonitor;
 };
 
 } // java_lang
+
+
+namespace juniversal {
+
+/**
+ * While an ArenaScope is active, objects allocated on the current thread come from its arena; see
+ * juniversal_alloc.h.  When the scope ends, those objects are destroyed & the arena freed.
+ *
+ * If it ends because an exception is propagating, perhaps thrown by a method called in the scope, the exception
+ * object itself may be in the arena, so the arena can't be freed yet.  It's put aside instead, and freed the next time
+ * an arena scope on the thread starts or ends while no exception is being thrown or handled there--by then the
+ * exception has been caught & its handler has finished.  So a loop handling one request per scope keeps at most the
+ * last failed request's arena.  An exception thrown out of a scope mustn't be kept after its handler finishes.
+ * Building with JU_USE_MALLOC turns arena scopes into no-ops, so all objects come from malloc.
+ */
+class ArenaScope {
+public:
+#if defined(JU_USE_MALLOC)
+	ArenaScope() {}
+#else
+	ArenaScope() : m_pPreviousArena(getCurrentArena()), m_pArena(new Arena()),
+			m_uncaughtExceptions(getUncaughtExceptions()) {
+		releaseUnwoundArenas();
+		getCurrentArena() = m_pArena;
+	}
+
+	~ArenaScope() {
+		getCurrentArena() = m_pPreviousArena;
+
+		if (getUncaughtExceptions() > m_uncaughtExceptions)
+			getUnwoundArenas().add(m_pArena);
+		else {
+			release(m_pArena);
+			releaseUnwoundArenas();
+		}
+	}
+
+	/**
+	 * Get the number of arenas on this thread that were left by an exception and not yet freed.
+	 */
+	static size_t getUnwoundArenaCount() {
+		return getUnwoundArenas().count;
+	}
+
+private:
+	ArenaScope(const ArenaScope&);
+	ArenaScope& operator=(const ArenaScope&);
+
+	/**
+	 * Arenas left by an exception on this thread.  They're freed at thread exit if not before.
+	 */
+	struct UnwoundArenas {
+		struct Link {
+			Link* pNext;
+			Arena* pArena;
+		};
+
+		Link* pFirst;
+		size_t count;
+
+		UnwoundArenas() : pFirst(NULL), count(0) {}
+		~UnwoundArenas() { releaseAll(); }
+
+		void add(Arena* pArena) {
+			// This mustn't throw while unwinding, so if there's no memory for the link the arena is just leaked
+			Link* pLink = static_cast<Link*>(malloc(sizeof(Link)));
+			if (pLink == NULL)
+				return;
+
+			pLink->pNext = pFirst;
+			pLink->pArena = pArena;
+			pFirst = pLink;
+			++count;
+		}
+
+		void releaseAll() {
+			while (pFirst != NULL) {
+				Link* pLink = pFirst;
+				pFirst = pLink->pNext;
+				--count;
+				release(pLink->pArena);
+				free(pLink);
+			}
+		}
+	};
+
+	static UnwoundArenas& getUnwoundArenas() {
+		static thread_local UnwoundArenas unwoundArenas;
+		return unwoundArenas;
+	}
+
+	static void releaseUnwoundArenas() {
+		if (getUncaughtExceptions() == 0 && !std::current_exception())
+			getUnwoundArenas().releaseAll();
+	}
+
+	static void release(Arena* pArena) {
+		pArena->release([](void* pMemory) {
+			AllocationHeader* pHeader = static_cast<AllocationHeader*>(pMemory);
+			if (pHeader->sizeClass == ARENA_SIZE_CLASS)
+				static_cast<java_lang::Object*>(static_cast<void*>(pHeader + 1))->~Object();
+		});
+		delete pArena;
+	}
+
+	static int getUncaughtExceptions() {
+#if __cplusplus >= 201703L
+		return std::uncaught_exceptions();
+#else
+		return std::uncaught_exception() ? 1 : 0;
+#endif
+	}
+
+private: // Data
+	Arena* m_pPreviousArena;
+	Arena* m_pArena;
+	int m_uncaughtExceptions;
+#endif
+};
+
+}  // namespace juniversal
 #endif // OBJECT_H
@@ -1,32 +1,176 @@
 #ifndef STRING_H
 #define STRING_H
 
+#include <string.h>
 #include "juniversal_defs.h"
+#include "juniversal_ptr.h"
 #include "java/lang/Object.h"
 
 
+namespace juniversal {
+template <int dataSize> class StaticString;
+}
+
 namespace java_lang {
 
 JU_USING_STD_NAMESPACES
 
+/**
+ * Immutable string.  The characters are stored inline, directly after the String object in the same allocation.  When
+ * all the characters fit in Latin-1 they're stored one byte each; otherwise they're stored as UTF-16.  Building with
+ * JU_NO_COMPACT_STRINGS makes strings created at runtime always use UTF-16.
+ *
+ * As in Java, the hash code is computed on first use & cached, with 0 meaning not yet computed.  The translator
+ * writes string literals as function-local static StaticStrings, with their hash code already filled in.
+ */
 class String : public Object {
 public:
-	String();
+	static ptr<String> create(const unichar* chars, int length) {
+		bool latin1 = canBeLatin1(chars, length);
+
+		String* pString = new (getDataSize(length, latin1)) String(length, latin1, 0);
+		if (latin1) {
+			char* pData = pString->getLatin1Data();
+			for (int i = 0; i < length; ++i)
+				pData[i] = static_cast<char>(chars[i]);
+		} else memcpy(pString->getUTF16Data(), chars, length * sizeof(unichar));
+
+		return pString;
+	}
+
+	static ptr<String> createLatin1(const char* chars, int length) {
+		String* pString = new (getDataSize(length, true)) String(length, true, 0);
+		memcpy(pString->getLatin1Data(), chars, length);
+		return pString;
+	}
 
 	unichar charAt(int index) {
-        if (0 <= index && index < m_length)
-            return m_data[index];
-        throw new StringIndexOutOfBoundsException();
+		if (0 <= index && index < m_length)
+			return getChar(index);
+		throw new StringIndexOutOfBoundsException();
 	}
 
 	int length() { return m_length; }
 
-	virtual ~String();
+	bool isLatin1() { return m_latin1; }
+
+	virtual int hashCode() {
+		int hash = m_hash.load(std::memory_order_relaxed);
+		if (hash == 0 && m_length > 0) {
+			// Java defines the hash with wrapping int arithmetic, which in C++ needs to be done unsigned
+			unsigned int unsignedHash = 0;
+			for (int i = 0; i < m_length; ++i)
+				unsignedHash = 31 * unsignedHash + getChar(i);
+
+			hash = static_cast<int>(unsignedHash);
+			m_hash.store(hash, std::memory_order_relaxed);
+		}
+		return hash;
+	}
+
+	virtual bool equals(Object* pOther) {
+		String* pOtherString = dynamic_cast<String*>(pOther);
+		return pOtherString != NULL && equals(pOtherString);
+	}
+
+	bool equals(String* pOther) {
+		if (pOther == this)
+			return true;
+		if (pOther == NULL || pOther->m_length != m_length)
+			return false;
+
+		// If both hash codes are already known, they're a cheap way to rule out most unequal strings
+		int hash = m_hash.load(std::memory_order_relaxed);
+		int otherHash = pOther->m_hash.load(std::memory_order_relaxed);
+		if (hash != 0 && otherHash != 0 && hash != otherHash)
+			return false;
+
+		if (m_latin1 && pOther->m_latin1)
+			return memcmp(getLatin1Data(), pOther->getLatin1Data(), m_length) == 0;
+
+		for (int i = 0; i < m_length; ++i) {
+			if (getChar(i) != pOther->getChar(i))
+				return false;
+		}
+		return true;
+	}
+
+	static void* operator new(size_t size, size_t dataSize) {
+		return Object::operator new(size + dataSize);
+	}
+
+	static void operator delete(void* pMemory, size_t) {
+		Object::operator delete(pMemory);
+	}
+
+	static void operator delete(void* pMemory) {
+		Object::operator delete(pMemory);
+	}
+
+private:
+	template <int dataSize> friend class juniversal::StaticString;
+
+	String(int length, bool latin1, int hash) : m_length(length), m_hash(hash), m_latin1(latin1) {}
+
+	static bool canBeLatin1(const unichar* chars, int length) {
+#if defined(JU_NO_COMPACT_STRINGS)
+		return false;
+#else
+		for (int i = 0; i < length; ++i) {
+			if (chars[i] > 0xFF)
+				return false;
+		}
+		return true;
+#endif
+	}
+
+	static size_t getDataSize(int length, bool latin1) {
+		return latin1 ? length : length * sizeof(unichar);
+	}
+
+	// The character data directly follows the String object
+	char* getLatin1Data() { return reinterpret_cast<char*>(this + 1); }
+	unichar* getUTF16Data() { return reinterpret_cast<unichar*>(this + 1); }
+
+	unichar getChar(int index) {
+		if (m_latin1)
+			return static_cast<unsigned char>(getLatin1Data()[index]);
+		else return getUTF16Data()[index];
+	}
+
+	String(const String&);
+	String& operator=(const String&);
 
 private: // Data
 	int m_length;
-	unichar m_data[0];
+	std::atomic<int> m_hash;
+	bool m_latin1;
 };
 
 } // java_lang
+
+
+namespace juniversal {
+
+/**
+ * Statically allocated string, used for string literals.  It's laid out like a heap allocated String, with the header
+ * first & the character data right after the String object, but the header marks it as never freed or reference
+ * counted.  The translator declares them as function-local statics, constructed on first use, so a literal can't be
+ * used before it's initialized by static initializers in other source files.
+ */
+template <int dataSize> class StaticString {
+public:
+	StaticString(const void* pData, int length, bool latin1, int hash) : m_string(length, latin1, hash) {
+		memcpy(m_data, pData, dataSize);
+	}
+
+	java_lang::String* get() { return &m_string; }
+
+private: // Data
+	UncountedAllocationHeader m_header;
+	java_lang::String m_string;
+	char m_data[dataSize > 0 ? dataSize : 1];
+};
+
+}  // namespace juniversal
 #endif // STRING_H
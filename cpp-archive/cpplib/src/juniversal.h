@@ -5,7 +5,12 @@
 #define JUNIVERSAL_H
 
 #include "juniversal_defs.h"
+#include "juniversal_ptr.h"
+#include "juniversal_box.h"
 
 #include "java/lang/Object.h"
+#include "java/lang/String.h"
+#include "Array.h"
+#include "PrimitiveCollections.h"
 
 #endif // JUNIVERSAL_H
@@ -0,0 +1,391 @@
+/**
+ * This file contains the allocator used for JUniversal objects & arrays.
+ *
+ * Translated Java code tends to allocate lots of small, short lived objects, so by default objects are allocated
+ * from thread-local free lists, one per size class, carved out of larger slabs.  Allocation & free are then just a
+ * free list pop/push with no locking.  Objects larger than the biggest size class go straight to malloc.
+ *
+ * Build switches:
+ *   JU_USE_MALLOC          - allocate every object with plain malloc/free instead; useful with heap checkers
+ *   JU_ALLOCATION_STATS    - keep per-thread allocation counts, retrieved with getThreadAllocationStats()
+ *
+ * Every allocation is preceded by an AllocationHeader, holding the object's reference count and its size class.  The
+ * header is padded to the platform's maximum alignment, so the object after it is as aligned as malloc'ed memory.
+ * Memory freed on a different thread than it was allocated on goes onto the freeing thread's list.  When a thread
+ * exits its free blocks are moved to a shared list, protected by a mutex, for other threads to reuse.  Slabs are
+ * never returned to the system.
+ *
+ * Code can also run in a region, by declaring an ArenaScope; the translator does that for @RequestScope methods.
+ * While an ArenaScope is active on a thread, objects are bump allocated from an arena instead and aren't reference
+ * counted.  When the scope ends the objects are destroyed, newest first, and all the arena's memory is released at
+ * once.  Objects allocated in a scope must not be referenced after it ends, except that an exception thrown out of it
+ * stays valid until its handler finishes; see ArenaScope.
+ */
+#ifndef JUNIVERSAL_ALLOC_H
+#define JUNIVERSAL_ALLOC_H
+
+#include <cstddef>
+#include <new>
+#include "juniversal_defs.h"
+
+
+namespace juniversal {
+
+struct alignas(std::max_align_t) AllocationHeader {
+	ReferenceCount referenceCount;
+	unsigned int sizeClass;
+};
+
+// Blocks are multiples of the granularity, so it must keep each block, & the object after its header, aligned
+const size_t ALLOCATION_GRANULARITY = alignof(std::max_align_t) > 16 ? alignof(std::max_align_t) : 16;
+static_assert(sizeof(AllocationHeader) <= ALLOCATION_GRANULARITY, "AllocationHeader must fit in the smallest block");
+const unsigned int SIZE_CLASS_COUNT = 16;       // Size classes are 16, 32, ... 256 bytes, including the header
+const unsigned int LARGE_SIZE_CLASS = SIZE_CLASS_COUNT;
+const unsigned int STACK_SIZE_CLASS = SIZE_CLASS_COUNT + 1;     // Used for stack & static objects; never freed
+const unsigned int ARENA_SIZE_CLASS = SIZE_CLASS_COUNT + 2;     // Used for objects in an arena; freed with the arena
+const unsigned int DELETED_ARENA_SIZE_CLASS = SIZE_CLASS_COUNT + 3;     // Arena objects already destroyed
+const size_t ARENA_CHUNK_SIZE = 64 * 1024;
+const size_t SLAB_SIZE = 64 * 1024;
+
+struct AllocationStats {
+	unsigned long allocations[ARENA_SIZE_CLASS + 1];    // Indexed by size class, including large & arena allocations
+	unsigned long frees[ARENA_SIZE_CLASS + 1];
+	unsigned long slabs;
+};
+
+#if defined(JU_ALLOCATION_STATS)
+inline AllocationStats& getMutableThreadAllocationStats() {
+	static thread_local AllocationStats stats = {};
+	return stats;
+}
+
+/**
+ * Get the allocation counts for the current thread.  Only available when built with JU_ALLOCATION_STATS.
+ */
+inline const AllocationStats& getThreadAllocationStats() {
+	return getMutableThreadAllocationStats();
+}
+
+inline void resetThreadAllocationStats() {
+	getMutableThreadAllocationStats() = AllocationStats();
+}
+
+#define JU_COUNT_ALLOCATION(stat, sizeClass)  (++getMutableThreadAllocationStats().stat[sizeClass])
+#define JU_COUNT_SLAB()  (++getMutableThreadAllocationStats().slabs)
+#else
+#define JU_COUNT_ALLOCATION(stat, sizeClass)  ((void) 0)
+#define JU_COUNT_SLAB()  ((void) 0)
+#endif
+
+
+inline size_t getSizeClassBlockSize(unsigned int sizeClass) {
+	return (sizeClass + 1) * ALLOCATION_GRANULARITY;
+}
+
+/**
+ * Free block in a size class free list; the link is stored in the block itself.
+ */
+struct FreeBlock {
+	FreeBlock* pNext;
+};
+
+/**
+ * Free blocks left behind by threads that have exited, available for other threads to take over.
+ */
+class SharedFreeLists {
+public:
+	static SharedFreeLists& getInstance() {
+		static SharedFreeLists instance;
+		return instance;
+	}
+
+	void add(unsigned int sizeClass, FreeBlock* pFirst, FreeBlock* pLast) {
+		std::lock_guard<std::mutex> lock(m_mutex);
+		pLast->pNext = m_lists[sizeClass];
+		m_lists[sizeClass] = pFirst;
+	}
+
+	FreeBlock* takeAll(unsigned int sizeClass) {
+		std::lock_guard<std::mutex> lock(m_mutex);
+		FreeBlock* pList = m_lists[sizeClass];
+		m_lists[sizeClass] = NULL;
+		return pList;
+	}
+
+private:
+	SharedFreeLists() : m_lists() {}
+
+	std::mutex m_mutex;
+	FreeBlock* m_lists[SIZE_CLASS_COUNT];
+};
+
+/**
+ * Per-thread free lists, one for each size class.
+ */
+class ThreadAllocationCache {
+public:
+	ThreadAllocationCache() : m_freeLists() {}
+
+	~ThreadAllocationCache() {
+		isDestroyed() = true;
+
+		for (unsigned int sizeClass = 0; sizeClass < SIZE_CLASS_COUNT; ++sizeClass) {
+			FreeBlock* pFirst = m_freeLists[sizeClass];
+			if (pFirst == NULL)
+				continue;
+
+			FreeBlock* pLast = pFirst;
+			while (pLast->pNext != NULL)
+				pLast = pLast->pNext;
+			SharedFreeLists::getInstance().add(sizeClass, pFirst, pLast);
+		}
+	}
+
+	/**
+	 * Get the current thread's cache, or NULL if it's already been destroyed.  That happens at thread exit, when the
+	 * destructors of thread_local variables destroyed after the cache free objects.
+	 */
+	static ThreadAllocationCache* getInstance() {
+		if (isDestroyed())
+			return NULL;
+
+		static thread_local ThreadAllocationCache cache;
+		return &cache;
+	}
+
+	void* allocate(unsigned int sizeClass) {
+		FreeBlock* pBlock = m_freeLists[sizeClass];
+		if (pBlock == NULL)
+			pBlock = refill(sizeClass);
+
+		m_freeLists[sizeClass] = pBlock->pNext;
+		return pBlock;
+	}
+
+	void free(void* pMemory, unsigned int sizeClass) {
+		FreeBlock* pBlock = static_cast<FreeBlock*>(pMemory);
+		pBlock->pNext = m_freeLists[sizeClass];
+		m_freeLists[sizeClass] = pBlock;
+	}
+
+private:
+	// A plain bool, with no destructor, so it's still usable after the cache is destroyed
+	static bool& isDestroyed() {
+		static thread_local bool destroyed = false;
+		return destroyed;
+	}
+
+	/**
+	 * Get more free blocks for the size class, first from those left by exited threads & otherwise by carving up a
+	 * new slab.
+	 */
+	FreeBlock* refill(unsigned int sizeClass) {
+		FreeBlock* pList = SharedFreeLists::getInstance().takeAll(sizeClass);
+		if (pList != NULL)
+			return pList;
+
+		char* pSlab = static_cast<char*>(malloc(SLAB_SIZE));
+		if (pSlab == NULL)
+			throw std::bad_alloc();
+		JU_COUNT_SLAB();
+
+		size_t blockSize = getSizeClassBlockSize(sizeClass);
+		size_t blockCount = SLAB_SIZE / blockSize;
+
+		for (size_t i = 0; i < blockCount; ++i) {
+			FreeBlock* pBlock = reinterpret_cast<FreeBlock*>(pSlab + i * blockSize);
+			pBlock->pNext = i + 1 < blockCount ? reinterpret_cast<FreeBlock*>(pSlab + (i + 1) * blockSize) : NULL;
+		}
+		return reinterpret_cast<FreeBlock*>(pSlab);
+	}
+
+	FreeBlock* m_freeLists[SIZE_CLASS_COUNT];
+};
+
+/**
+ * Bump pointer arena, allocating from a list of chunks.  Allocations are linked together, newest first, so the
+ * objects in them can be destroyed when the arena is released.
+ */
+class Arena {
+public:
+	Arena() : m_pChunk(NULL), m_pNext(NULL), m_pEnd(NULL), m_pLastAllocation(NULL) {}
+
+	~Arena() { release(); }
+
+	/**
+	 * Allocate the specified number of bytes, returning memory that follows an ArenaAllocationLink.
+	 */
+	void* allocate(size_t size) {
+		size_t totalSize = roundUpToGranularity(sizeof(ArenaAllocationLink) + size);
+
+		if (static_cast<size_t>(m_pEnd - m_pNext) < totalSize)
+			addChunk(totalSize);
+
+		ArenaAllocationLink* pLink = reinterpret_cast<ArenaAllocationLink*>(m_pNext);
+		m_pNext += totalSize;
+
+		pLink->pPrevious = m_pLastAllocation;
+		m_pLastAllocation = pLink;
+		return pLink + 1;
+	}
+
+	/**
+	 * Destroy the objects allocated from the arena, via the supplied function, then free all its memory.
+	 */
+	template <class Destroy> void release(Destroy destroy) {
+		for (ArenaAllocationLink* pLink = m_pLastAllocation; pLink != NULL; pLink = pLink->pPrevious)
+			destroy(static_cast<void*>(pLink + 1));
+		m_pLastAllocation = NULL;
+
+		release();
+	}
+
+private:
+	struct ArenaChunk {
+		ArenaChunk* pPrevious;
+	};
+
+	union ArenaAllocationLink {
+		ArenaAllocationLink* pPrevious;
+		char padding[ALLOCATION_GRANULARITY];
+	};
+
+	static size_t roundUpToGranularity(size_t size) {
+		return (size + ALLOCATION_GRANULARITY - 1) & ~(ALLOCATION_GRANULARITY - 1);
+	}
+
+	void addChunk(size_t minSize) {
+		size_t headerSize = roundUpToGranularity(sizeof(ArenaChunk));
+		size_t chunkSize = headerSize + minSize > ARENA_CHUNK_SIZE ? headerSize + minSize : ARENA_CHUNK_SIZE;
+
+		ArenaChunk* pChunk = static_cast<ArenaChunk*>(malloc(chunkSize));
+		if (pChunk == NULL)
+			throw std::bad_alloc();
+		JU_COUNT_SLAB();
+
+		pChunk->pPrevious = m_pChunk;
+		m_pChunk = pChunk;
+		m_pNext = reinterpret_cast<char*>(pChunk) + headerSize;
+		m_pEnd = reinterpret_cast<char*>(pChunk) + chunkSize;
+	}
+
+	void release() {
+		while (m_pChunk != NULL) {
+			ArenaChunk* pPrevious = m_pChunk->pPrevious;
+			free(m_pChunk);
+			m_pChunk = pPrevious;
+		}
+		m_pNext = m_pEnd = NULL;
+		m_pLastAllocation = NULL;
+	}
+
+	Arena(const Arena&);
+	Arena& operator=(const Arena&);
+
+private: // Data
+	ArenaChunk* m_pChunk;
+	char* m_pNext;
+	char* m_pEnd;
+	ArenaAllocationLink* m_pLastAllocation;
+};
+
+/**
+ * Get the arena that objects are currently allocated from on this thread, or NULL if they come from the heap.
+ */
+inline Arena*& getCurrentArena() {
+	static thread_local Arena* pArena = NULL;
+	return pArena;
+}
+
+/**
+ * Allocate memory for an object of the specified size, returning a pointer to the object, just past its header.
+ * The reference count in the header starts out as zero.
+ */
+inline void* allocateObject(size_t objectSize) {
+	size_t totalSize = sizeof(AllocationHeader) + objectSize;
+
+	AllocationHeader* pHeader;
+	unsigned int sizeClass;
+
+#if defined(JU_USE_MALLOC)
+	sizeClass = LARGE_SIZE_CLASS;
+	pHeader = static_cast<AllocationHeader*>(malloc(totalSize));
+#else
+	sizeClass = static_cast<unsigned int>((totalSize - 1) / ALLOCATION_GRANULARITY);
+	Arena* pArena = getCurrentArena();
+	if (pArena != NULL) {
+		sizeClass = ARENA_SIZE_CLASS;
+		pHeader = static_cast<AllocationHeader*>(pArena->allocate(totalSize));
+	} else {
+		// Once the thread's cache is gone, at thread exit, fall back to malloc
+		ThreadAllocationCache* pCache = sizeClass < SIZE_CLASS_COUNT ? ThreadAllocationCache::getInstance() : NULL;
+		if (pCache != NULL)
+			pHeader = static_cast<AllocationHeader*>(pCache->allocate(sizeClass));
+		else {
+			sizeClass = LARGE_SIZE_CLASS;
+			pHeader = static_cast<AllocationHeader*>(malloc(totalSize));
+		}
+	}
+#endif
+
+	if (pHeader == NULL)
+		throw std::bad_alloc();
+	JU_COUNT_ALLOCATION(allocations, sizeClass);
+
+	setReferenceCount(pHeader->referenceCount, 0);
+	pHeader->sizeClass = sizeClass;
+	return pHeader + 1;
+}
+
+inline AllocationHeader* getAllocationHeader(void* pObject) {
+	return static_cast<AllocationHeader*>(pObject) - 1;
+}
+
+/**
+ * Objects on the stack or in an arena aren't reference counted; they go away with their scope.
+ */
+inline bool isReferenceCounted(const AllocationHeader* pHeader) {
+	return pHeader->sizeClass <= LARGE_SIZE_CLASS;
+}
+
+/**
+ * Header for objects that aren't heap allocated, on the stack or statically allocated, which are never reference
+ * counted or freed.  Such objects are declared directly after the header, so it's laid out like on the heap.
+ */
+struct UncountedAllocationHeader : AllocationHeader {
+	UncountedAllocationHeader() {
+		setReferenceCount(referenceCount, 0);
+		sizeClass = STACK_SIZE_CLASS;
+	}
+};
+
+/**
+ * Free memory allocated by allocateObject, given a pointer to the object.
+ */
+inline void freeObject(void* pObject) {
+	if (pObject == NULL)
+		return;
+
+	AllocationHeader* pHeader = getAllocationHeader(pObject);
+	unsigned int sizeClass = pHeader->sizeClass;
+	JU_COUNT_ALLOCATION(frees, sizeClass);
+
+	// Arena memory is only freed with the arena, but note the object is gone so the arena doesn't destroy it again
+	if (sizeClass == ARENA_SIZE_CLASS)
+		pHeader->sizeClass = DELETED_ARENA_SIZE_CLASS;
+	else if (sizeClass == LARGE_SIZE_CLASS)
+		free(pHeader);
+	else {
+		// Blocks freed after the thread's cache is gone, at thread exit, go straight to the shared lists
+		ThreadAllocationCache* pCache = ThreadAllocationCache::getInstance();
+		if (pCache != NULL)
+			pCache->free(pHeader, sizeClass);
+		else {
+			FreeBlock* pBlock = reinterpret_cast<FreeBlock*>(pHeader);
+			SharedFreeLists::getInstance().add(sizeClass, pBlock, pBlock);
+		}
+	}
+}
+
+}  // namespace juniversal
+#endif // JUNIVERSAL_ALLOC_H
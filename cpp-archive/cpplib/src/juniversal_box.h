@@ -0,0 +1,104 @@
+/**
+ * This file contains box<T>, used for boxing primitives into their java.lang wrapper objects.
+ *
+ * The translator writes autoboxing, and calls to the wrappers' valueOf(primitive) methods, as box<Integer>(value) and
+ * so on.  Like the JDK's valueOf caches, small values (-128 to 127, or 0 to 127 for Character) are boxed into shared,
+ * preallocated objects, so boxing them never allocates; other values get a new object.  The cached objects are set up
+ * the first time a type is boxed.  They're preceded by a header marking them as not reference counted, like string
+ * literals, so they can be shared between threads without any reference count traffic.
+ */
+#ifndef JUNIVERSAL_BOX_H
+#define JUNIVERSAL_BOX_H
+
+#include <new>
+#include <type_traits>
+#include "juniversal_defs.h"
+#include "juniversal_ptr.h"
+
+
+namespace java_lang {
+class Byte;
+class Short;
+class Integer;
+class Long;
+class Character;
+}
+
+namespace juniversal {
+
+/**
+ * Primitive type & range of cached values for each wrapper class that can be boxed.
+ */
+template <class B> struct BoxTraits;
+
+template <> struct BoxTraits<java_lang::Byte> {
+	typedef char Primitive;
+	static const int MIN_CACHED = -128;
+	static const int MAX_CACHED = 127;
+};
+
+template <> struct BoxTraits<java_lang::Short> {
+	typedef short Primitive;
+	static const int MIN_CACHED = -128;
+	static const int MAX_CACHED = 127;
+};
+
+template <> struct BoxTraits<java_lang::Integer> {
+	typedef int Primitive;
+	static const int MIN_CACHED = -128;
+	static const int MAX_CACHED = 127;
+};
+
+template <> struct BoxTraits<java_lang::Long> {
+	typedef long64 Primitive;
+	static const int MIN_CACHED = -128;
+	static const int MAX_CACHED = 127;
+};
+
+template <> struct BoxTraits<java_lang::Character> {
+	typedef unichar Primitive;
+	static const int MIN_CACHED = 0;
+	static const int MAX_CACHED = 127;
+};
+
+/**
+ * The cached boxes for a wrapper class.
+ */
+template <class B> class BoxCache {
+public:
+	typedef typename BoxTraits<B>::Primitive Primitive;
+
+	static B* get(Primitive value) {
+		// Function local statics are constructed on first use, thread safely
+		static BoxCache cache;
+		return cache.getBox(static_cast<int>(value) - BoxTraits<B>::MIN_CACHED);
+	}
+
+private:
+	static const int SIZE = BoxTraits<B>::MAX_CACHED - BoxTraits<B>::MIN_CACHED + 1;
+
+	BoxCache() {
+		for (int i = 0; i < SIZE; ++i)
+			new (&m_boxes[i]) StackObject<B>(static_cast<Primitive>(BoxTraits<B>::MIN_CACHED + i));
+	}
+
+	// The boxes are never destroyed, as other static objects may still reference them when the program exits
+	B* getBox(int index) {
+		return &**reinterpret_cast<StackObject<B>*>(&m_boxes[index]);
+	}
+
+	BoxCache(const BoxCache&) = delete;
+	BoxCache& operator=(const BoxCache&) = delete;
+
+private: // Data
+	typename std::aligned_storage<sizeof(StackObject<B>), alignof(StackObject<B>)>::type m_boxes[SIZE];
+};
+
+template <class B> ptr<B> box(typename BoxTraits<B>::Primitive value) {
+	if (value >= BoxTraits<B>::MIN_CACHED && value <= BoxTraits<B>::MAX_CACHED)
+		return BoxCache<B>::get(value);
+	else return new B(value);
+}
+
+}  // namespace juniversal
+#endif // JUNIVERSAL_BOX_H
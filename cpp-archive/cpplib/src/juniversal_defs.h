@@ -6,6 +6,8 @@
 
 #include <stddef.h>
 #include <stdlib.h>
+#include <mutex>
+#include <atomic>
 
 #define JU_USING_STD_NAMESPACES  using namespace juniversal;  using namespace java_lang;
 
@@ -13,7 +15,6 @@
 namespace juniversal {
 
 typedef unsigned short unichar;
-typedef unsigned long ReferenceCount;
 
 #if defined(_MSC_VER)
 typedef signed __int64 long64;
@@ -40,18 +41,43 @@ inline long64 rightShiftUnsigned(long64 value, int bits) {
 	return reinterpret_cast<long64>( reinterpret_cast<ulong64>(value) >> bits );
 }
 
-/**
- * Smart pointer type.
+/*
+ * Reference counts are atomic by default, so objects can be shared between threads.  Builds where every object stays
+ * on the thread that created it can define JU_NONATOMIC_REFERENCE_COUNTS to use plain increments & decrements instead.
+ */
+#if defined(JU_NONATOMIC_REFERENCE_COUNTS)
+typedef unsigned long ReferenceCount;
+
+inline void setReferenceCount(ReferenceCount& referenceCount, unsigned long value) {
+	referenceCount = value;
+}
+
+inline void incrementReferenceCount(ReferenceCount& referenceCount) {
+	++referenceCount;
+}
+
+inline unsigned long decrementReferenceCount(ReferenceCount& referenceCount) {
+	return --referenceCount;
+}
+#else
+typedef std::atomic<unsigned long> ReferenceCount;
+
+inline void setReferenceCount(ReferenceCount& referenceCount, unsigned long value) {
+	referenceCount.store(value, std::memory_order_relaxed);
+}
+
+/*
+ * Incrementing needs no ordering, as the caller already has a reference.  The decrement that releases the last
+ * reference must see all writes made to the object via other references before it's deleted, hence acq_rel.
  */
-template <class T> class ptr {
-public:
-	ptr<T>() { m_object = NULL; }
-	~ptr<T>() {  }
-	//operator T* { return m_object; }
-
-private: // Data
-	T* m_object;
-};
+inline void incrementReferenceCount(ReferenceCount& referenceCount) {
+	referenceCount.fetch_add(1, std::memory_order_relaxed);
+}
+
+inline unsigned long decrementReferenceCount(ReferenceCount& referenceCount) {
+	return referenceCount.fetch_sub(1, std::memory_order_acq_rel) - 1;
+}
+#endif
 
 
 }  // namespace juniversal
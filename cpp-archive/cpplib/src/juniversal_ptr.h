@@ -0,0 +1,149 @@
+/**
+ * This file contains ptr<T>, the smart pointer used for references to JUniversal objects.
+ *
+ * Reference counting is intrusive:  the count lives in the AllocationHeader just before each object (see
+ * juniversal_alloc.h), so a ptr is a single pointer and a raw T* can always be turned back into a ptr.  Copying a ptr
+ * increments the count, while moving one just transfers the pointer, leaving the count alone.  When the last ptr to
+ * an object goes away, the object is deleted.
+ */
+#ifndef JUNIVERSAL_PTR_H
+#define JUNIVERSAL_PTR_H
+
+#include <utility>
+#include "juniversal_defs.h"
+#include "juniversal_alloc.h"
+
+
+namespace juniversal {
+
+/*
+ * The object pointed to may be a base class subobject, not at the start of the allocation, so the header is found
+ * from the most derived object.  All JUniversal objects are polymorphic, so that's just an offset from the vtable.
+ */
+template <class T> inline AllocationHeader* getObjectAllocationHeader(T* pObject) {
+	return getAllocationHeader(dynamic_cast<void*>(pObject));
+}
+
+template <class T> inline void addReference(T* pObject) {
+	if (pObject != NULL) {
+		AllocationHeader* pHeader = getObjectAllocationHeader(pObject);
+		if (isReferenceCounted(pHeader))
+			incrementReferenceCount(pHeader->referenceCount);
+	}
+}
+
+template <class T> inline void releaseReference(T* pObject) {
+	if (pObject != NULL) {
+		AllocationHeader* pHeader = getObjectAllocationHeader(pObject);
+		if (isReferenceCounted(pHeader) && decrementReferenceCount(pHeader->referenceCount) == 0)
+			delete pObject;
+	}
+}
+
+/**
+ * Smart pointer type.
+ */
+template <class T> class ptr {
+public:
+	ptr() : m_object(NULL) {}
+
+	ptr(T* pObject) : m_object(pObject) { addReference(m_object); }
+
+	ptr(const ptr& other) : m_object(other.m_object) { addReference(m_object); }
+
+	template <class U> ptr(const ptr<U>& other) : m_object(other.get()) { addReference(m_object); }
+
+	ptr(ptr&& other) : m_object(other.m_object) { other.m_object = NULL; }
+
+	template <class U> ptr(ptr<U>&& other) : m_object(other.detach()) {}
+
+	~ptr() { releaseReference(m_object); }
+
+	ptr& operator=(const ptr& other) {
+		reset(other.m_object);
+		return *this;
+	}
+
+	template <class U> ptr& operator=(const ptr<U>& other) {
+		reset(other.get());
+		return *this;
+	}
+
+	ptr& operator=(ptr&& other) {
+		if (this != &other) {
+			T* pOld = m_object;
+			m_object = other.m_object;
+			other.m_object = NULL;
+			releaseReference(pOld);
+		}
+		return *this;
+	}
+
+	template <class U> ptr& operator=(ptr<U>&& other) {
+		T* pOld = m_object;
+		m_object = other.detach();
+		releaseReference(pOld);
+		return *this;
+	}
+
+	ptr& operator=(T* pObject) {
+		reset(pObject);
+		return *this;
+	}
+
+	T* operator->() const { return m_object; }
+	T& operator*() const { return *m_object; }
+	operator T*() const { return m_object; }
+	T* get() const { return m_object; }
+
+	/**
+	 * Give up ownership of the object without changing its reference count; used for moves between ptr types.
+	 */
+	T* detach() {
+		T* pObject = m_object;
+		m_object = NULL;
+		return pObject;
+	}
+
+private:
+	/*
+	 * Add the new reference before releasing the old one, so assigning a ptr to itself (or to another ptr to the same
+	 * object) doesn't delete the object along the way.
+	 */
+	void reset(T* pObject) {
+		addReference(pObject);
+		T* pOld = m_object;
+		m_object = pObject;
+		releaseReference(pOld);
+	}
+
+private: // Data
+	T* m_object;
+};
+
+/**
+ * Wrapper for an object allocated on the stack, used by the translator for objects that never escape the method that
+ * creates them.  The object is preceded by a header like heap objects are, marked as not reference counted, so
+ * temporary ptrs to it (e.g. "this" returned from a method) don't try to delete it.
+ */
+template <class T> class StackObject {
+public:
+	template <class... Args> StackObject(Args&&... args) : m_object(std::forward<Args>(args)...) {}
+
+	T* operator->() { return &m_object; }
+	T& operator*() { return m_object; }
+
+private:
+	// The object must directly follow the header, which holds as long as it needs no more alignment than the header
+	static_assert(sizeof(AllocationHeader) % alignof(T) == 0, "StackObject type alignment not supported");
+
+	StackObject(const StackObject&) = delete;
+	StackObject& operator=(const StackObject&) = delete;
+
+private: // Data
+	UncountedAllocationHeader m_header;  // Initialized first, so it's already set up when T's constructor runs
+	T m_object;
+};
+
+}  // namespace juniversal
+#endif // JUNIVERSAL_PTR_H
@@ -0,0 +1,86 @@
+/**
+ * Checks that arena scopes ended by an exception don't leak their arenas.  Build it as a console program with
+ * ../src on the include path, & run it.  Built with AddressSanitizer (-fsanitize=address on gcc & clang), that also
+ * reports an exception used after its arena was freed, and arenas leaked at exit.
+ */
+#include "java/lang/Object.h"
+#include <cassert>
+#include <cstdio>
+
+using namespace java_lang;
+using namespace juniversal;
+
+static int liveObjects = 0;
+
+class RequestFailed : public Object {
+public:
+	RequestFailed(int request) : request(request) { ++liveObjects; }
+	~RequestFailed() { --liveObjects; }
+
+	int request;
+};
+
+// Like a method called from a @RequestScope one, which throws an exception allocated in the request's arena
+static void process(int request) {
+	Object* pTemporary = new Object();
+	(void) pTemporary;
+
+	if (request % 2 == 1)
+		throw new RequestFailed(request);
+}
+
+static void handleRequest(int request) {
+	ArenaScope arenaScope;
+	process(request);
+}
+
+static void testRequestLoop() {
+	for (int request = 0; request < 1000; ++request) {
+		try {
+			handleRequest(request);
+		} catch (RequestFailed* pException) {
+			// The exception is still valid in its handler, even if another request scope runs there
+			handleRequest(0);
+			assert(pException->request == request);
+		}
+
+		// Only the last failed request's arena is kept
+		assert(ArenaScope::getUnwoundArenaCount() <= 1);
+	}
+
+	handleRequest(0);
+	assert(ArenaScope::getUnwoundArenaCount() == 0);
+	assert(liveObjects == 0);
+}
+
+static void testNestedScopes() {
+	ArenaScope outerScope;
+	try {
+		handleRequest(1);
+	} catch (RequestFailed* pException) {
+		assert(pException->request == 1);
+	}
+	assert(ArenaScope::getUnwoundArenaCount() == 1);
+
+	// Starting the inner scope frees the first arena.  Unwinding through both scopes then keeps both of theirs, until
+	// the next scope starts
+	try {
+		ArenaScope innerScope;
+		assert(ArenaScope::getUnwoundArenaCount() == 0);
+		handleRequest(3);
+	} catch (RequestFailed* pException) {
+		assert(pException->request == 3);
+		assert(ArenaScope::getUnwoundArenaCount() == 2);
+	}
+	handleRequest(0);
+	assert(ArenaScope::getUnwoundArenaCount() == 0);
+}
+
+int main() {
+	testRequestLoop();
+	testNestedScopes();
+	assert(liveObjects == 0);
+
+	puts("ArenaScopeTest passed");
+	return 0;
+}
@@ -0,0 +1,101 @@
+/**
+ * Checks String & the StaticStrings the translator writes for string literals.  Build it as a console program with
+ * ../src on the include path, & run it.  The literal definitions are written as the translator writes them (see
+ * TranslateCPlusPlusTest.testWriteStringLiteralDefinitions), with Java's hash codes for them.
+ */
+#include "java/lang/Object.h"
+#include <cassert>
+#include <cstdio>
+
+// The exception classes are translated from Java along with the rest of the library, so define the one String throws
+namespace java_lang {
+class StringIndexOutOfBoundsException : public Object {};
+}
+
+#include "java/lang/String.h"
+
+using namespace java_lang;
+using namespace juniversal;
+
+// "say\0" & "€1", a Latin-1 string & a UTF-16 one, the latter split where a hex escape is followed by a digit
+static String* juStringLiteral0() { static StaticString<4> literal(u"\x20ac" "1", 2, false, 259333); return literal.get(); }
+static String* juStringLiteral1() { static StaticString<4> literal("say\000", 4, true, 3522933); return literal.get(); }
+
+// An emoji, as a surrogate pair, & Latin-1 characters above ASCII, with "??" escaped so it isn't read as a trigraph
+static String* juStringLiteral2() { static StaticString<6> literal(u"\xd83d\xde00" "a", 3, false, 54959966); return literal.get(); }
+static String* juStringLiteral3() { static StaticString<4> literal("\351\377\?\?", 4, true, 7188374); return literal.get(); }
+
+// Literals are function-local statics, so they can be used by static initializers in other files, run before this one's
+static int initialLength = juStringLiteral2()->length();
+
+static void assertChars(String* pString, const unichar* chars, int length) {
+	assert(pString->length() == length);
+	for (int i = 0; i < length; ++i)
+		assert(pString->charAt(i) == chars[i]);
+}
+
+// The precomputed hash code matches what the runtime computes, for an equal String created at runtime
+static void assertMatchesRuntimeString(String* pLiteral, const unichar* chars, int length) {
+	ptr<String> runtimeString = String::create(chars, length);
+
+	assert(pLiteral->equals(runtimeString.get()));
+	assert(runtimeString->equals(pLiteral));
+	assert(pLiteral->hashCode() == runtimeString->hashCode());
+	assert(pLiteral->isLatin1() == runtimeString->isLatin1());
+}
+
+static void testStaticStrings() {
+	const unichar utf16Chars[] = { 0x20ac, '1' };
+	assertChars(juStringLiteral0(), utf16Chars, 2);
+	assert(!juStringLiteral0()->isLatin1());
+	assertMatchesRuntimeString(juStringLiteral0(), utf16Chars, 2);
+
+	const unichar latin1Chars[] = { 's', 'a', 'y', 0 };
+	assertChars(juStringLiteral1(), latin1Chars, 4);
+	assert(juStringLiteral1()->isLatin1());
+	assertMatchesRuntimeString(juStringLiteral1(), latin1Chars, 4);
+
+	const unichar surrogateChars[] = { 0xd83d, 0xde00, 'a' };
+	assertChars(juStringLiteral2(), surrogateChars, 3);
+	assertMatchesRuntimeString(juStringLiteral2(), surrogateChars, 3);
+	assert(initialLength == 3);
+
+	const unichar highLatin1Chars[] = { 0xe9, 0xff, '?', '?' };
+	assertChars(juStringLiteral3(), highLatin1Chars, 4);
+	assertMatchesRuntimeString(juStringLiteral3(), highLatin1Chars, 4);
+
+	// Each literal is a single object
+	assert(juStringLiteral0() == juStringLiteral0());
+	assert(!juStringLiteral0()->equals(juStringLiteral1()));
+}
+
+static void testRuntimeStrings() {
+	ptr<String> latin1 = String::createLatin1("caf\351", 4);
+	const unichar chars[] = { 'c', 'a', 'f', 0xe9 };
+	assertChars(latin1.get(), chars, 4);
+	assert(latin1->isLatin1());
+
+	// Strings created from UTF-16 are stored compactly when they can be, but compare equal either way
+	ptr<String> fromUTF16 = String::create(chars, 4);
+#if !defined(JU_NO_COMPACT_STRINGS)
+	assert(fromUTF16->isLatin1());
+#endif
+	assert(latin1->equals(fromUTF16.get()));
+	assert(latin1->hashCode() == fromUTF16->hashCode());
+
+	const unichar otherChars[] = { 'c', 'a', 'f', 0x100 };
+	ptr<String> other = String::create(otherChars, 4);
+	assert(!other->isLatin1());
+	assert(!latin1->equals(other.get()));
+
+	ptr<String> empty = String::create(chars, 0);
+	assert(empty->length() == 0 && empty->hashCode() == 0);
+}
+
+int main() {
+	testStaticStrings();
+	testRuntimeStrings();
+
+	puts("StringTest passed");
+	return 0;
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package jl;
+
+/**
+ * Benchmark comparing the library's int & long formatting, {@link IntegralToString}, against
+ * {@link HarmonyNumberFormatting}, the Harmony code it replaced, and timing double formatting & parsing
+ * ({@link RealToString} & {@link FloatingPointParser}), which had no non-native implementation before.
+ *
+ * The helpers are called directly, rather than through Integer, Double, etc., as on the JVM those are always the JDK's
+ * own classes.  Formatting into a new String therefore goes through a temporary array here, where java.lang writes
+ * straight into the String's own one.  Parsing ints isn't measured, as that's still done in Integer itself.
+ *
+ * The benchmark itself only uses what the translator & runtime library support, so it can be run translated to C++ as
+ * well as in Java.  The things that aren't available in both, reading the clock and printing results, are supplied by
+ * a {@link Host}; {@link NumberFormattingBenchmarkMain} is the Java host.
+ */
+public class NumberFormattingBenchmark {
+    public interface Host {
+        long nanoTime();
+
+        void report(String implementation, String operation, long nanosPerOperation);
+    }
+
+    private static final int VALUE_COUNT = 10000;
+
+    /*
+     * Each operation is repeated over all the values until about this many calls have been made
+     */
+    private static final int OPERATIONS_PER_MEASUREMENT = 5000000;
+
+    private final Host host;
+    private final int[] ints;
+    private final long[] longs;
+    private final double[] doubles;
+    private final String[] doubleStrings;
+    private final char[] buffer = new char[RealToString.MAX_DOUBLE_LENGTH];
+    private int checksum;
+
+    public NumberFormattingBenchmark(Host host) {
+        this.host = host;
+
+        // Half the ints are small, like counts & indexes, as those are the most common in practice
+        ints = new int[VALUE_COUNT];
+        longs = new long[VALUE_COUNT];
+        doubles = new double[VALUE_COUNT];
+        doubleStrings = new String[VALUE_COUNT];
+        for (int i = 0; i < VALUE_COUNT; ++i) {
+            int random = scramble(i);
+            ints[i] = i % 2 == 0 ? random : random % 1000;
+            longs[i] = ((long) random << 32) ^ scramble(random);
+
+            // Half the doubles are short decimals, like prices & measurements, and half need all 17 digits
+            doubles[i] = i % 2 == 0 ? (random % 10000000) / 100.0 : random * 1.2345678901234567e-7;
+            doubleStrings[i] = RealToString.toString(doubles[i]);
+        }
+    }
+
+    /**
+     * Run all the operations a few times, to get the Java implementations compiled before anything is measured.
+     */
+    public void warmUp() {
+        for (int i = 0; i < 5; ++i) {
+            for (int operation = 0; operation < OPERATION_COUNT; ++operation) {
+                runOperation(operation, false);
+                runOperation(operation, true);
+            }
+        }
+    }
+
+    public void run() {
+        int repetitions = OPERATIONS_PER_MEASUREMENT / VALUE_COUNT;
+        for (int operation = 0; operation < OPERATION_COUNT; ++operation) {
+            for (int harmony = 0; harmony < 2; ++harmony) {
+                if (harmony == 1 && !hasBaseline(operation)) {
+                    continue;
+                }
+
+                long start = host.nanoTime();
+                for (int i = 0; i < repetitions; ++i) {
+                    runOperation(operation, harmony == 1);
+                }
+                long nanos = host.nanoTime() - start;
+
+                host.report(harmony == 1 ? "Harmony" : "jl", getOperationName(operation),
+                        nanos / ((long) repetitions * VALUE_COUNT));
+            }
+        }
+    }
+
+    /**
+     * Returns a value derived from the results of all the operations, which the host should print or otherwise use so
+     * the compiler can't optimize the operations away.
+     */
+    public int getChecksum() {
+        return checksum;
+    }
+
+    private static final int INT_TO_STRING = 0;
+    private static final int LONG_TO_STRING = 1;
+    private static final int APPEND_INT = 2;
+    private static final int DOUBLE_TO_STRING = 3;
+    private static final int APPEND_DOUBLE = 4;
+    private static final int PARSE_DOUBLE = 5;
+    private static final int OPERATION_COUNT = 6;
+
+    private static String getOperationName(int operation) {
+        switch (operation) {
+            case INT_TO_STRING: return "Integer.toString";
+            case LONG_TO_STRING: return "Long.toString";
+            case APPEND_INT: return "append(int)";
+            case DOUBLE_TO_STRING: return "Double.toString";
+            case APPEND_DOUBLE: return "append(double)";
+            default: return "parseDouble";
+        }
+    }
+
+    private static boolean hasBaseline(int operation) {
+        return operation <= APPEND_INT;
+    }
+
+    private void runOperation(int operation, boolean harmony) {
+        switch (operation) {
+            case INT_TO_STRING:
+                for (int value : ints) {
+                    String string = harmony ? HarmonyNumberFormatting.toString(value) : toString(value);
+                    checksum += string.length();
+                }
+                break;
+
+            case LONG_TO_STRING:
+                for (long value : longs) {
+                    String string = harmony ? HarmonyNumberFormatting.toString(value) : toString(value);
+                    checksum += string.length();
+                }
+                break;
+
+            case APPEND_INT: {
+                // Appending to one builder, reset now and then, as when building up a larger string.  StringBuilder
+                // has the digits written directly into its buffer, so here that's approximated with a reused array
+                StringBuilder builder = new StringBuilder();
+                for (int value : ints) {
+                    if (builder.length() > 1000) {
+                        builder.setLength(0);
+                    }
+                    if (harmony) {
+                        builder.append(HarmonyNumberFormatting.toString(value));
+                    } else {
+                        int size = IntegralToString.stringSize(value);
+                        IntegralToString.getChars(value, size, buffer);
+                        builder.append(buffer, 0, size);
+                    }
+                    builder.append(',');
+                }
+                checksum += builder.length();
+                break;
+            }
+
+            case DOUBLE_TO_STRING:
+                for (double value : doubles) {
+                    checksum += RealToString.toString(value).length();
+                }
+                break;
+
+            case APPEND_DOUBLE: {
+                StringBuilder builder = new StringBuilder();
+                for (double value : doubles) {
+                    if (builder.length() > 1000) {
+                        builder.setLength(0);
+                    }
+                    int end = RealToString.getChars(value, buffer, 0);
+                    builder.append(buffer, 0, end);
+                    builder.append(',');
+                }
+                checksum += builder.length();
+                break;
+            }
+
+            default:
+                for (String string : doubleStrings) {
+                    checksum += (int) FloatingPointParser.parseDouble(string);
+                }
+                break;
+        }
+    }
+
+    private static String toString(int value) {
+        char[] chars = new char[IntegralToString.stringSize(value)];
+        IntegralToString.getChars(value, chars.length, chars);
+        return new String(chars);
+    }
+
+    private static String toString(long value) {
+        char[] chars = new char[IntegralToString.stringSize(value)];
+        IntegralToString.getChars(value, chars.length, chars);
+        return new String(chars);
+    }
+
+    /*
+     * Mixes up the bits of i; each step is reversible, so distinct inputs give distinct results
+     */
+    private static int scramble(int i) {
+        i ^= i >>> 16;
+        i *= 0x85EBCA6B;
+        i ^= i >>> 13;
+        i *= 0xC2B2AE35;
+        i ^= i >>> 16;
+        return i;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package jl;
+
+/**
+ * Runs {@link NumberFormattingBenchmark} on the JVM.  This class uses the JDK's System, so unlike the rest of the
+ * library it's compiled against the JDK rather than javalib-lang.
+ *
+ * Usage: NumberFormattingBenchmarkMain
+ */
+public class NumberFormattingBenchmarkMain {
+    public static void main(String[] args) {
+        NumberFormattingBenchmark benchmark = new NumberFormattingBenchmark(new NumberFormattingBenchmark.Host() {
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            public void report(String implementation, String operation, long nanosPerOperation) {
+                System.out.println(String.format("%-10s %-18s %6d ns/op", implementation, operation,
+                        nanosPerOperation));
+            }
+        });
+
+        benchmark.warmUp();
+        benchmark.run();
+        System.out.println("checksum " + benchmark.getChecksum());
+    }
+}
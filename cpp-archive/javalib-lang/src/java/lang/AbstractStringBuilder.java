@@ -17,6 +17,9 @@
 
 package java.lang;
 
+import jl.IntegralToString;
+import jl.RealToString;
+
 
 /**
  * A modifiable {@link CharSequence sequence of characters} for use in creating and modifying
@@ -39,16 +42,38 @@ abstract class AbstractStringBuilder {
 
     static final int INITIAL_CAPACITY = 16;
 
+    /*
+     * JUniversal ADDITION: Once the buffer holds this many characters, appends
+     * that don't fit start a new buffer instead of growing & copying the
+     * current one, so building a very large string doesn't copy its contents
+     * again each time the buffer grows.  The filled buffers are kept, in
+     * order, as a list of chunks until the contents are needed as one array.
+     */
+    static final int ROPE_CHUNK_SIZE = 32768;
+
     private char[] value;
 
+    /*
+     * The number of characters in value.  When there are chunks, the
+     * characters in value follow all the chunked ones.
+     */
     private int count;
 
     private boolean shared;
 
+    private char[][] chunks;
+
+    private int[] chunkCounts;
+
+    private int chunkCount;
+
+    private int chunkedLength;
+
     /*
      * Returns the character array.
      */
     final char[] getValue() {
+        flatten();
         return value;
     }
 
@@ -56,6 +81,7 @@ abstract class AbstractStringBuilder {
      * Returns the underlying buffer and sets the shared flag.
      */
     final char[] shareValue() {
+        flatten();
         shared = true;
         return value;
     }
@@ -75,21 +101,97 @@ abstract class AbstractStringBuilder {
         count = string.length();
         shared = false;
         value = new char[count + INITIAL_CAPACITY];
-        string.getChars(0, count, value, 0);
+        JUniversalHelper.arraycopy(string.getValue(), value, count);
     }
 
+    /*
+     * JUniversal CHANGE: Grows by doubling, rather than by half, since with
+     * large contents going into chunks the doubling never gets far past
+     * ROPE_CHUNK_SIZE, and it means fewer copies on the way there.
+     */
     private void enlargeBuffer(int min) {
-        int newSize = ((value.length >> 1) + value.length) + 2;
+        int newSize = (value.length << 1) + 2;
         char[] newData = new char[min > newSize ? min : newSize];
         JUniversalHelper.arraycopy(value, newData, count);
         value = newData;
         shared = false;
     }
 
+    /*
+     * Makes room to append the specified number of characters, either by
+     * growing the buffer or, if it's already big, by moving it to the chunk
+     * list & starting a new one.  Note that in the latter case count is reset
+     * to 0, so callers must only use count after calling this.
+     */
+    private void makeRoom(int adding) {
+        if (count < ROPE_CHUNK_SIZE) {
+            enlargeBuffer(count + adding);
+            return;
+        }
+
+        if (chunks == null) {
+            chunks = new char[INITIAL_CAPACITY][];
+            chunkCounts = new int[INITIAL_CAPACITY];
+        } else if (chunkCount == chunks.length) {
+            char[][] newChunks = new char[chunkCount << 1][];
+            int[] newChunkCounts = new int[chunkCount << 1];
+            for (int i = 0; i < chunkCount; ++i) {
+                newChunks[i] = chunks[i];
+                newChunkCounts[i] = chunkCounts[i];
+            }
+            chunks = newChunks;
+            chunkCounts = newChunkCounts;
+        }
+
+        // The chunks are never modified, so it doesn't matter if the buffer is shared with a string
+        chunks[chunkCount] = value;
+        chunkCounts[chunkCount] = count;
+        ++chunkCount;
+        chunkedLength += count;
+
+        value = new char[adding > ROPE_CHUNK_SIZE ? adding : ROPE_CHUNK_SIZE];
+        count = 0;
+        shared = false;
+    }
+
+    /*
+     * Copies all the chunks, if there are any, and then the current buffer's
+     * contents into dest.
+     */
+    private void copyChunks(char[] dest) {
+        int position = 0;
+        for (int i = 0; i < chunkCount; ++i) {
+            JUniversalHelper.arraycopy(chunks[i], 0, dest, position, chunkCounts[i]);
+            position += chunkCounts[i];
+        }
+        JUniversalHelper.arraycopy(value, 0, dest, position, count);
+    }
+
+    /*
+     * Joins any chunks & the current buffer into a single buffer.  Everything
+     * other than appending needs the contents in one piece, so calls this
+     * first.
+     */
+    private void flatten() {
+        if (chunks == null) {
+            return;
+        }
+
+        // Keep the room the current buffer has for appending
+        char[] newData = new char[chunkedLength + value.length];
+        copyChunks(newData);
+        count += chunkedLength;
+        value = newData;
+        shared = false;
+        chunks = null;
+        chunkCounts = null;
+        chunkCount = 0;
+        chunkedLength = 0;
+    }
+
     final void appendNull() {
-        int newSize = count + 4;
-        if (newSize > value.length) {
-            enlargeBuffer(newSize);
+        if (count + 4 > value.length) {
+            makeRoom(4);
         }
         value[count++] = 'n';
         value[count++] = 'u';
@@ -98,12 +200,12 @@ abstract class AbstractStringBuilder {
     }
 
     final void append0(char[] chars) {
-        int newSize = count + chars.length;
-        if (newSize > value.length) {
-            enlargeBuffer(newSize);
+        int length = chars.length;
+        if (count + length > value.length) {
+            makeRoom(length);
         }
-        JUniversalHelper.arraycopy(chars, 0, value, count, chars.length);
-        count = newSize;
+        JUniversalHelper.arraycopy(chars, 0, value, count, length);
+        count += length;
     }
 
     final void append0(char[] chars, int offset, int length) {
@@ -119,33 +221,75 @@ abstract class AbstractStringBuilder {
             		new StringBuilder("Length out of bounds : ").append(length).toString());
         }
 
-        int newSize = count + length;
-        if (newSize > value.length) {
-            enlargeBuffer(newSize);
+        if (count + length > value.length) {
+            makeRoom(length);
         }
         JUniversalHelper.arraycopy(chars, offset, value, count, length);
-        count = newSize;
+        count += length;
     }
 
     final void append0(char ch) {
         if (count == value.length) {
-            enlargeBuffer(count + 1);
+            makeRoom(1);
         }
         value[count++] = ch;
     }
 
+    /*
+     * Appends the decimal representation of an int or long, writing the digits
+     * directly into the buffer instead of appending a temporary string.
+     */
+    final void append0(int i) {
+        int size = IntegralToString.stringSize(i);
+        if (count + size > value.length) {
+            makeRoom(size);
+        }
+        count += size;
+        IntegralToString.getChars(i, count, value);
+    }
+
+    final void append0(long l) {
+        int size = IntegralToString.stringSize(l);
+        if (count + size > value.length) {
+            makeRoom(size);
+        }
+        count += size;
+        IntegralToString.getChars(l, count, value);
+    }
+
+    /*
+     * Appends the string representation of a double or float, likewise
+     * directly into the buffer.  Room is made for the longest possible result.
+     */
+    final void append0(double d) {
+        if (count + RealToString.MAX_DOUBLE_LENGTH > value.length) {
+            makeRoom(RealToString.MAX_DOUBLE_LENGTH);
+        }
+        count = RealToString.getChars(d, value, count);
+    }
+
+    final void append0(float f) {
+        if (count + RealToString.MAX_FLOAT_LENGTH > value.length) {
+            makeRoom(RealToString.MAX_FLOAT_LENGTH);
+        }
+        count = RealToString.getChars(f, value, count);
+    }
+
+    /*
+     * JUniversal CHANGE: Copies straight from the string's array, rather than
+     * via String.getChars, which would check the range again.
+     */
     final void append0(String string) {
         if (string == null) {
             appendNull();
             return;
         }
         int adding = string.length();
-        int newSize = count + adding;
-        if (newSize > value.length) {
-            enlargeBuffer(newSize);
+        if (count + adding > value.length) {
+            makeRoom(adding);
         }
-        string.getChars(0, adding, value, count);
-        count = newSize;
+        JUniversalHelper.arraycopy(string.getValue(), 0, value, count, adding);
+        count += adding;
     }
 
     final void append0(CharSequence s, int start, int end) {
@@ -167,7 +311,7 @@ abstract class AbstractStringBuilder {
      * @see #length
      */
     public int capacity() {
-        return value.length;
+        return chunkedLength + value.length;
     }
 
     /**
@@ -181,6 +325,7 @@ abstract class AbstractStringBuilder {
      *             current {@link #length()}.
      */
     public char charAt(int index) {
+        flatten();
         if (index < 0 || index >= count) {
             throw new java.lang.StringIndexOutOfBoundsException(index);
         }
@@ -188,6 +333,7 @@ abstract class AbstractStringBuilder {
     }
 
     final void delete0(int start, int end) {
+        flatten();
         if (start >= 0) {
             if (end > count) {
                 end = count;
@@ -216,6 +362,7 @@ abstract class AbstractStringBuilder {
     }
 
     final void deleteCharAt0(int location) {
+        flatten();
         if (0 > location || location >= count) {
             throw new java.lang.StringIndexOutOfBoundsException(location);
         }
@@ -247,6 +394,7 @@ abstract class AbstractStringBuilder {
      *            the new minimum capacity to set.
      */
     public void ensureCapacity(int min) {
+        flatten();
         if (min > value.length) {
             int twice = (value.length << 1) + 2;
             enlargeBuffer(twice > min ? twice : min);
@@ -273,6 +421,7 @@ abstract class AbstractStringBuilder {
      *             {@code dest.length}.
      */
     public void getChars(int start, int end, char[] dest, int destStart) {
+        flatten();
         if (start > count || end > count || start > end) {
             throw new java.lang.StringIndexOutOfBoundsException();
         }
@@ -280,6 +429,7 @@ abstract class AbstractStringBuilder {
     }
 
     final void insert0(int index, char[] chars) {
+        flatten();
         if (0 > index || index > count) {
             throw new java.lang.StringIndexOutOfBoundsException(index);
         }
@@ -291,6 +441,7 @@ abstract class AbstractStringBuilder {
     }
 
     final void insert0(int index, char[] chars, int start, int length) {
+        flatten();
         if (0 <= index && index <= count) {
             // start + length could overflow, start/length maybe MaxInt
             if (start >= 0 && 0 <= length && length <= chars.length - start) {
@@ -309,6 +460,7 @@ abstract class AbstractStringBuilder {
     }
 
     final void insert0(int index, char ch) {
+        flatten();
         if (0 > index || index > count) {
             // RI compatible exception type
             throw new java.lang.ArrayIndexOutOfBoundsException(index);
@@ -319,6 +471,7 @@ abstract class AbstractStringBuilder {
     }
 
     final void insert0(int index, String string) {
+        flatten();
         if (0 <= index && index <= count) {
             if (string == null) {
                 string = "null"; //$NON-NLS-1$
@@ -335,6 +488,7 @@ abstract class AbstractStringBuilder {
     }
 
     final void insert0(int index, CharSequence s, int start, int end) {
+        flatten();
         if (s == null) {
             s = "null"; //$NON-NLS-1$
         }
@@ -351,7 +505,7 @@ abstract class AbstractStringBuilder {
      * @return the number of characters contained in this instance.
      */
     public int length() {
-        return count;
+        return chunkedLength + count;
     }
 
     private void move(int size, int index) {
@@ -377,6 +531,7 @@ abstract class AbstractStringBuilder {
     }
 
     final void replace0(int start, int end, String string) {
+        flatten();
         if (start >= 0) {
             if (end > count) {
                 end = count;
@@ -421,6 +576,7 @@ abstract class AbstractStringBuilder {
     }
 
     final void reverse0() {
+        flatten();
         if (count < 2) {
             return;
         }
@@ -509,6 +665,7 @@ abstract class AbstractStringBuilder {
      *             current {@link #length()}.
      */
     public void setCharAt(int index, char ch) {
+        flatten();
         if (0 > index || index >= count) {
             throw new java.lang.StringIndexOutOfBoundsException(index);
         }
@@ -531,6 +688,7 @@ abstract class AbstractStringBuilder {
      * @see #length
      */
     public void setLength(int length) {
+        flatten();
         if (length < 0) {
             throw new java.lang.StringIndexOutOfBoundsException(length);
         }
@@ -564,6 +722,7 @@ abstract class AbstractStringBuilder {
      *             {@link #length()}.
      */
     public String substring(int start) {
+        flatten();
         if (0 <= start && start <= count) {
             if (start == count) {
                 return ""; //$NON-NLS-1$
@@ -589,6 +748,7 @@ abstract class AbstractStringBuilder {
      *             {@code end} is greater than the current {@link #length()}.
      */
     public String substring(int start, int end) {
+        flatten();
         if (0 <= start && start <= end && end <= count) {
             if (start == end) {
                 return ""; //$NON-NLS-1$
@@ -603,17 +763,35 @@ abstract class AbstractStringBuilder {
     /**
      * Returns the current String representation.
      * 
-     * JUniversal CHANGE: Made so always creates a new string, that's never shared
+     * JUniversal CHANGE: When little of the buffer would be wasted, the string
+     * takes over the buffer rather than copying it, as Harmony originally did,
+     * with the buffer marked shared so any later change to the builder copies
+     * it first.  That's the common case when the builder was created with a
+     * good capacity, as the translator does for string concatenation.  When
+     * the contents are in chunks, they're copied once, straight into the new
+     * string.
      * 
      * @return a String containing the characters in this instance.
      */
     @Override
     public String toString() {
-        if (count == 0) {
+        int length = chunkedLength + count;
+        if (length == 0) {
             return ""; //$NON-NLS-1$
         }
 
-        return new String(value, 0, count);
+        if (chunks != null) {
+            String string = new String(length);
+            copyChunks(string.getValue());
+            return string;
+        }
+
+        int wasted = value.length - count;
+        if (wasted >= 256 || (wasted >= INITIAL_CAPACITY && wasted >= (count >> 1))) {
+            return new String(value, 0, count);
+        }
+        shared = true;
+        return new String(value, count);
     }
 
     /**
@@ -663,6 +841,7 @@ abstract class AbstractStringBuilder {
      * @since 1.4
      */
     public int indexOf(String subString, int start) {
+        flatten();
         if (start < 0) {
             start = 0;
         }
@@ -712,7 +891,7 @@ abstract class AbstractStringBuilder {
      * @since 1.4
      */
     public int lastIndexOf(String string) {
-        return lastIndexOf(string, count);
+        return lastIndexOf(string, length());
     }
 
     /**
@@ -731,6 +910,7 @@ abstract class AbstractStringBuilder {
      * @since 1.4
      */
     public int lastIndexOf(String subString, int start) {
+        flatten();
         int subCount = subString.length();
         if (subCount <= count && start >= 0) {
             if (subCount > 0) {
@@ -775,6 +955,7 @@ abstract class AbstractStringBuilder {
      * @since 1.5
      */
     public void trimToSize() {
+        flatten();
         if (count < value.length) {
             char[] newValue = new char[count];
             JUniversalHelper.arraycopy(value, newValue, count);
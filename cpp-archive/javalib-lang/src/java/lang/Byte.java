@@ -275,9 +275,10 @@ public final class Byte extends Number implements Comparable<Byte> {
      * recommended to use this method instead of the constructor, since it
      * maintains a cache of instances which may result in better performance.
      * 
-	 * JUniversal CHANGE: Removed the CACHE, which cached all bytes on first access, in
-	 * order to make things a little simpler & since static initializers & synchronized aren't
-	 * currently supported.
+	 * JUniversal CHANGE: Removed the CACHE, which cached all bytes, since
+	 * static initializers aren't currently supported.  In C++ the translator
+	 * writes calls to this method, like autoboxing, as box<Byte>(), which has
+	 * the same cache built into the runtime.
 	 * 
      * @param b
      *            the byte value to store in the instance.
@@ -140,7 +140,9 @@ public final class Character implements Comparable<Character> {
      * value up to 512), this method should be used instead of the constructor,
      * as it maintains a cache of corresponding {@code Character} instances.
      *
-     * JUniversal CHANGE: Cache optimization was removed for now
+     * JUniversal CHANGE: Cache optimization was removed here.  In C++ the
+     * translator writes calls to this method, like autoboxing, as
+     * box<Character>(), which caches 0 to 127 in the runtime.
      *
      * @param c
      *            the char value for which to get a {@code Character} instance.
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package java.lang;
+
+import jl.FloatingPointParser;
+import jl.RealToString;
+
+/**
+ * The wrapper for the primitive type {@code double}.
+ *
+ * JUniversal REMOVED:
+ *
+ * Double objects, and so all instance methods, since boxing doubles isn't currently supported.  Only the static
+ * parsing, formatting & testing methods are here.
+ *
+ * Constants, which need static initializers, and bit conversion methods
+ *
+ * Hexadecimal strings, in parsing & toHexString
+ */
+public final class Double {
+    private Double() {
+    }
+
+    /**
+     * Parses the specified string as a double value.
+     *
+     * @param string
+     *            the string representation of a double value.
+     * @return the primitive double value represented by {@code string}.
+     * @throws NumberFormatException
+     *             if {@code string} is {@code null}, has a length of zero or
+     *             can not be parsed as a double value.
+     */
+    public static double parseDouble(String string) throws NumberFormatException {
+        if (string == null) {
+            throw new NumberFormatException();
+        }
+        return FloatingPointParser.parseDouble(string);
+    }
+
+    /**
+     * Returns a string containing a concise, human-readable description of the
+     * specified double value:  the shortest decimal that rounds back to it.
+     *
+     * @param d
+     *             the double to convert to a string.
+     * @return a printable representation of {@code d}.
+     */
+    public static String toString(double d) {
+        return RealToString.toString(d);
+    }
+
+    /**
+     * Indicates whether the specified double represents an infinite value.
+     *
+     * @param d
+     *            the double to check.
+     * @return {@code true} if the value of {@code d} is positive or negative
+     *         infinity; {@code false} otherwise.
+     */
+    public static boolean isInfinite(double d) {
+        return d == d && d - d != 0;
+    }
+
+    /**
+     * Indicates whether the specified double is a <em>Not-a-Number (NaN)</em>
+     * value.
+     *
+     * @param d
+     *            the double value to check.
+     * @return {@code true} if {@code d} is <em>Not-a-Number</em>;
+     *         {@code false} if it is a (potentially infinite) double number.
+     */
+    public static boolean isNaN(double d) {
+        return d != d;
+    }
+}
@@ -17,6 +17,8 @@
 
 package java.lang;
 
+import jl.IntegralToString;
+
 /**
  * The wrapper for the primitive type {@code int}.
  * <p>
@@ -60,15 +62,6 @@ public final class Integer extends Number implements Comparable<Integer> {
      */
     public static final int SIZE = 32;
     
-    /*
-     * Progressively smaller decimal order of magnitude that can be represented
-     * by an instance of Integer. Used to help compute the String
-     * representation.
-     */
-    //private static final int[] decimalScale = new int[] { 1000000000, 100000000,
-    //        10000000, 1000000, 100000, 10000, 1000, 100, 10, 1 };
-    private static int[] decimalScale = null;
-
     // Note: This can't be set to "int.class", since *that* is
     // defined to be "java.lang.Integer.TYPE";
 
@@ -264,7 +257,12 @@ public final class Integer extends Number implements Comparable<Integer> {
         int max = Integer.MIN_VALUE / radix;
         int result = 0, length = string.length();
         while (offset < length) {
-            int digit = Character.digit(string.charAt(offset++), radix);
+            // Decimal digits, by far the most common, don't need the general lookup
+            char ch = string.charAt(offset++);
+            int digit = ch - '0';
+            if (digit < 0 || digit > 9 || digit >= radix) {
+                digit = Character.digit(ch, radix);
+            }
             if (digit == -1) {
                 throw new NumberFormatException(string);
             }
@@ -392,112 +390,19 @@ public final class Integer extends Number implements Comparable<Integer> {
      * The returned string is a concatenation of a minus sign if the number is
      * negative and characters from '0' to '9'.
      * 
+     * JUniversal CHANGE: Replaced the Harmony algorithm, which needed the
+     * decimalScale table and a temporary buffer, with IntegralToString, which
+     * writes two digits at a time directly into the new string.
+     * 
      * @param value
      *            the integer to convert.
      * @return the decimal string representation of {@code value}.
      */
     public static String toString(int value) {
-    	// TODO: Switch back to array with initializer when it's supported
-    	if (decimalScale == null) {
-    		decimalScale[0] = 1000000000;
-    		decimalScale[1] = 100000000;
-    		decimalScale[2] = 10000000;
-    		decimalScale[3] = 1000000;
-    		decimalScale[4] = 100000;
-    		decimalScale[5] = 10000;
-    		decimalScale[6] = 1000;
-    		decimalScale[7] = 100;
-    		decimalScale[8] = 10;
-    		decimalScale[9] = 1;
-    	}
-
-        if (value == 0) {
-            return "0"; //$NON-NLS-1$
-        }
-
-        // Faster algorithm for smaller Integers
-        if (value < 1000 && value > -1000) {
-            char[] buffer = new char[4];
-            int positive_value = value < 0 ? -value : value;
-            int first_digit = 0;
-            if (value < 0) {
-                buffer[0] = '-';
-                first_digit++;
-            }
-            int last_digit = first_digit;
-            int quot = positive_value;
-            do {
-                int res = quot / 10;
-                int digit_value = quot - ((res << 3) + (res << 1));
-                digit_value += '0';
-                buffer[last_digit++] = (char) digit_value;
-                quot = res;
-            } while (quot != 0);
-
-            int count = last_digit--;
-            do {
-                char tmp = buffer[last_digit];
-                buffer[last_digit--] = buffer[first_digit];
-                buffer[first_digit++] = tmp;
-            } while (first_digit < last_digit);
-            return new String(buffer, 0, count);
-        }
-        if (value == MIN_VALUE) {
-            return "-2147483648";//$NON-NLS-1$
-        }
-
-        char[] buffer = new char[11];
-        int positive_value = value < 0 ? -value : value;
-        byte first_digit = 0;
-        if (value < 0) {
-            buffer[0] = '-';
-            first_digit++;
-        }
-        byte last_digit = first_digit;
-        byte count;
-        int number;
-        boolean start = false;
-        for (int i = 0; i < 9; i++) {
-            count = 0;
-            if (positive_value < (number = decimalScale[i])) {
-                if (start) {
-                    buffer[last_digit++] = '0';
-                }
-                continue;
-            }
-
-            if (i > 0) {
-                number = (decimalScale[i] << 3);
-                if (positive_value >= number) {
-                    positive_value -= number;
-                    count += 8;
-                }
-                number = (decimalScale[i] << 2);
-                if (positive_value >= number) {
-                    positive_value -= number;
-                    count += 4;
-                }
-            }
-            number = (decimalScale[i] << 1);
-            if (positive_value >= number) {
-                positive_value -= number;
-                count += 2;
-            }
-            if (positive_value >= decimalScale[i]) {
-                positive_value -= decimalScale[i];
-                count++;
-            }
-            if (count > 0 && !start) {
-                start = true;
-            }
-            if (start) {
-                buffer[last_digit++] = (char) (count + '0');
-            }
-        }
-
-        buffer[last_digit++] = (char) (positive_value + '0');
-        count = last_digit--;
-        return new String(buffer, 0, count);
+        int size = IntegralToString.stringSize(value);
+        String string = new String(size);
+        IntegralToString.getChars(value, size, string.getValue());
+        return string;
     }
 
     /**
@@ -770,9 +675,10 @@ public final class Integer extends Number implements Comparable<Integer> {
 	 * recommended to use this method instead of the constructor, since it
 	 * maintains a cache of instances which may result in better performance.
 	 * 
-	 * JUniversal CHANGE: Removed the valueOfCache, which cached -128 to 127, in
-	 * order to make things a little simpler & since static initializers aren't
-	 * currently supported.
+	 * JUniversal CHANGE: Removed the valueOfCache, which cached -128 to 127, since
+	 * static initializers aren't currently supported.  In C++ the translator
+	 * writes calls to this method, like autoboxing, as box<Integer>(), which has
+	 * the same cache built into the runtime.
 	 * 
 	 * @param i
 	 *            the integer value to store in the instance.
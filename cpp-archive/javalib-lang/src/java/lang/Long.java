@@ -17,6 +17,8 @@
 
 package java.lang;
 
+import jl.IntegralToString;
+
 /**
  * The wrapper for the primitive type {@code long}.
  * <p>
@@ -30,7 +32,8 @@ package java.lang;
  * 
  * TYPE since there are no Class objects currently
  *
- * longValue
+ * longValue from Number; Long still has its own longValue, which the C++
+ * translator uses for unboxing
  * 
  * @see java.lang.Number
  * @since 1.0
@@ -196,6 +199,15 @@ public final class Long extends Number implements Comparable<Long> {
         return (int) value;
     }
 
+    /**
+     * Gets the primitive value of this long.
+     * 
+     * @return this object's primitive value.
+     */
+    public long longValue() {
+        return value;
+    }
+
     /**
      * Parses the specified string as a signed decimal long value. The ASCII
      * character \u002d ('-') is recognized as the minus sign.
@@ -250,7 +262,12 @@ public final class Long extends Number implements Comparable<Long> {
         long max = Long.MIN_VALUE / radix;
         long result = 0, length = string.length();
         while (offset < length) {
-            int digit = Character.digit(string.charAt(offset++), radix);
+            // Decimal digits, by far the most common, don't need the general lookup
+            char ch = string.charAt(offset++);
+            int digit = ch - '0';
+            if (digit < 0 || digit > 9 || digit >= radix) {
+                digit = Character.digit(ch, radix);
+            }
             if (digit == -1) {
                 throw new NumberFormatException(string);
             }
@@ -381,12 +398,18 @@ public final class Long extends Number implements Comparable<Long> {
      * The returned string is a concatenation of a minus sign if the number is
      * negative and characters from '0' to '9'.
      * 
+     * JUniversal CHANGE: Uses IntegralToString, which writes two digits at a
+     * time directly into the new string, instead of the general radix code.
+     * 
      * @param l
      *            the long to convert.
      * @return the decimal string representation of {@code l}.
      */
     public static String toString(long l) {
-        return toString(l, 10);
+        int size = IntegralToString.stringSize(l);
+        String string = new String(size);
+        IntegralToString.getChars(l, size, string.getValue());
+        return string;
     }
 
     /**
@@ -672,9 +695,10 @@ public final class Long extends Number implements Comparable<Long> {
      * recommended to use this method instead of the constructor, since it
      * maintains a cache of instances which may result in better performance.
      *
-	 * JUniversal CHANGE: Removed the valueOfCache, which cached -128 to 127, in
-	 * order to make things a little simpler & since static initializers aren't
-	 * currently supported.
+	 * JUniversal CHANGE: Removed the valueOfCache, which cached -128 to 127, since
+	 * static initializers aren't currently supported.  In C++ the translator
+	 * writes calls to this method, like autoboxing, as box<Long>(), which has
+	 * the same cache built into the runtime.
 	 * 
      * @param lng
      *            the long value to store in the instance.
@@ -289,9 +289,10 @@ public final class Short extends Number implements Comparable<Short> {
      * recommended to use this method instead of the constructor, since it
      * maintains a cache of instances which may result in better performance.
      *
-	 * JUniversal CHANGE: Removed the valueOfCache, which cached -128 to 127, in
-	 * order to make things a little simpler & since static initializers aren't
-	 * currently supported.
+	 * JUniversal CHANGE: Removed the valueOfCache, which cached -128 to 127, since
+	 * static initializers aren't currently supported.  In C++ the translator
+	 * writes calls to this method, like autoboxing, as box<Short>(), which has
+	 * the same cache built into the runtime.
 	 * 
      * @param s
      *            the short value to store in the instance.
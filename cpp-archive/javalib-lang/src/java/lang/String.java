@@ -40,8 +40,6 @@ package java.lang;
  * 
  * Deprecated constructors converting from a byte array with no charset specified
  * 
- * valueOf methods for Double and Float
- * 
  * CASE_INSENSITIVE_ORDER
  * 
  * intern method
@@ -148,6 +146,18 @@ public final class String implements Comparable<String>, CharSequence {
         count = length;
     }
 
+    /*
+     * JUniversal ADDITION
+     * 
+     * Internal version of string constructor, used by AbstractStringBuilder to hand over its buffer
+     * instead of copying it. The string is the first length characters of the buffer, which may be
+     * longer; the caller mustn't change those characters afterwards.
+     */
+    String(char[] buffer, int length) {
+        value = buffer;
+        count = length;
+    }
+
     /**
      * Creates a {@code String} that is a copy of the specified string.
      * 
@@ -1163,6 +1173,28 @@ public final class String implements Comparable<String>, CharSequence {
         return Long.toString(value);
     }
 
+    /**
+     * Converts the specified double to its string representation.
+     * 
+     * @param value
+     *            the double.
+     * @return the double converted to a string.
+     */
+    public static String valueOf(double value) {
+        return Double.toString(value);
+    }
+
+    /**
+     * Converts the specified float to its string representation.
+     * 
+     * @param value
+     *            the float.
+     * @return the float converted to a string.
+     */
+    public static String valueOf(float value) {
+        return Float.toString(value);
+    }
+
     /**
      * Converts the specified object to its string representation. If the object
      * is null return the string {@code "null"}, otherwise use {@code
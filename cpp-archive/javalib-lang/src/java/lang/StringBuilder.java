@@ -37,7 +37,7 @@ package java.lang;
  * 
  * serialization related methods
  * 
- * append & insert methods for double and float
+ * insert methods for double and float
  * 
  * 
  * @see CharSequence
@@ -140,7 +140,7 @@ public final class StringBuilder extends AbstractStringBuilder implements Append
      * @see String#valueOf(int)
      */
     public StringBuilder append(int i) {
-        append0(Integer.toString(i));
+        append0(i);
         return this;
     }
 
@@ -155,7 +155,37 @@ public final class StringBuilder extends AbstractStringBuilder implements Append
      * @see String#valueOf(long)
      */
     public StringBuilder append(long lng) {
-        append0(Long.toString(lng));
+        append0(lng);
+        return this;
+    }
+
+    /**
+     * Appends the string representation of the specified {@code float} value.
+     * The {@code float} value is converted to a string according to the rule
+     * defined by {@link String#valueOf(float)}.
+     *
+     * @param f
+     *            the {@code float} value to append.
+     * @return this builder.
+     * @see String#valueOf(float)
+     */
+    public StringBuilder append(float f) {
+        append0(f);
+        return this;
+    }
+
+    /**
+     * Appends the string representation of the specified {@code double} value.
+     * The {@code double} value is converted to a string according to the rule
+     * defined by {@link String#valueOf(double)}.
+     *
+     * @param d
+     *            the {@code double} value to append.
+     * @return this builder.
+     * @see String#valueOf(double)
+     */
+    public StringBuilder append(double d) {
+        append0(d);
         return this;
     }
 
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package jl;
+
+/**
+ * A minimal mutable unsigned big integer, with just the operations the exact (slow) paths of RealToString &
+ * FloatingPointParser need.  Those only run for values that the fast, floating point based paths can't handle
+ * exactly, so this favors being small & simple over being fast.
+ * <p>
+ * The value is stored as 32 bit "digits", least significant first, in the low bits of each int.
+ */
+class Bignum {
+    private int[] digits;
+    private int used;
+
+    Bignum() {
+        digits = new int[8];
+        used = 0;
+    }
+
+    void assign(long value) {
+        used = 0;
+        while (value != 0) {
+            ensureCapacity(used + 1);
+            digits[used++] = (int) value;
+            value >>>= 32;
+        }
+    }
+
+    void assign(Bignum other) {
+        ensureCapacity(other.used);
+        for (int i = 0; i < other.used; ++i) {
+            digits[i] = other.digits[i];
+        }
+        used = other.used;
+    }
+
+    boolean isZero() {
+        return used == 0;
+    }
+
+    /**
+     * Returns the number of bits needed to represent the value; 0 for 0.
+     */
+    int bitLength() {
+        if (used == 0) {
+            return 0;
+        }
+        int top = digits[used - 1];
+        int topBits = 0;
+        while (top != 0) {
+            ++topBits;
+            top >>>= 1;
+        }
+        return (used - 1) * 32 + topBits;
+    }
+
+    /**
+     * Returns the bits of the value from bit position start (counting from the least significant bit) upward, up to 63
+     * of them.
+     */
+    long getBits(int start, int count) {
+        long result = 0;
+        for (int i = count - 1; i >= 0; --i) {
+            result = (result << 1) | getBit(start + i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if any of the bits below position end are set.
+     */
+    boolean hasBitsBelow(int end) {
+        int fullDigits = end / 32;
+        for (int i = 0; i < fullDigits && i < used; ++i) {
+            if (digits[i] != 0) {
+                return true;
+            }
+        }
+        if (fullDigits < used) {
+            int partialBits = end % 32;
+            if (partialBits != 0 && (digits[fullDigits] & ((1 << partialBits) - 1)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getBit(int position) {
+        int index = position / 32;
+        if (position < 0 || index >= used) {
+            return 0;
+        }
+        return (digits[index] >>> (position % 32)) & 1;
+    }
+
+    void multiply(int factor) {
+        multiplyAdd(factor, 0);
+    }
+
+    /**
+     * Sets the value to value * factor + addend, for nonnegative factor & addend.
+     */
+    void multiplyAdd(int factor, int addend) {
+        long carry = addend;
+        for (int i = 0; i < used; ++i) {
+            long product = (digits[i] & 0xFFFFFFFFL) * factor + carry;
+            digits[i] = (int) product;
+            carry = product >>> 32;
+        }
+        if (carry != 0) {
+            ensureCapacity(used + 1);
+            digits[used++] = (int) carry;
+        }
+    }
+
+    /**
+     * Multiplies the value by 10^exponent, for nonnegative exponent.
+     */
+    void multiplyByPowerOfTen(int exponent) {
+        while (exponent >= 9) {
+            multiply(1000000000);
+            exponent -= 9;
+        }
+        int factor = 1;
+        while (exponent > 0) {
+            factor *= 10;
+            --exponent;
+        }
+        if (factor != 1) {
+            multiply(factor);
+        }
+    }
+
+    void shiftLeft(int bits) {
+        if (used == 0 || bits == 0) {
+            return;
+        }
+        int digitShift = bits / 32;
+        int bitShift = bits % 32;
+        ensureCapacity(used + digitShift + 1);
+
+        digits[used + digitShift] = 0;
+        for (int i = used - 1; i >= 0; --i) {
+            int digit = digits[i];
+            if (bitShift != 0) {
+                digits[i + digitShift + 1] |= digit >>> (32 - bitShift);
+            }
+            digits[i + digitShift] = digit << bitShift;
+        }
+        for (int i = 0; i < digitShift; ++i) {
+            digits[i] = 0;
+        }
+        used += digitShift + 1;
+        trim();
+    }
+
+    void shiftRightByOne() {
+        for (int i = 0; i < used; ++i) {
+            int higher = i + 1 < used ? digits[i + 1] : 0;
+            digits[i] = (digits[i] >>> 1) | (higher << 31);
+        }
+        trim();
+    }
+
+    void add(Bignum other) {
+        int length = used > other.used ? used : other.used;
+        ensureCapacity(length + 1);
+        long carry = 0;
+        for (int i = 0; i < length; ++i) {
+            long sum = carry;
+            if (i < used) {
+                sum += digits[i] & 0xFFFFFFFFL;
+            }
+            if (i < other.used) {
+                sum += other.digits[i] & 0xFFFFFFFFL;
+            }
+            digits[i] = (int) sum;
+            carry = sum >>> 32;
+        }
+        used = length;
+        if (carry != 0) {
+            digits[used++] = (int) carry;
+        }
+    }
+
+    /**
+     * Subtracts other from the value, which must be at least as large.
+     */
+    void subtract(Bignum other) {
+        long borrow = 0;
+        int i = 0;
+        for (; i < other.used; ++i) {
+            long difference = (digits[i] & 0xFFFFFFFFL) - (other.digits[i] & 0xFFFFFFFFL) - borrow;
+            digits[i] = (int) difference;
+            borrow = difference < 0 ? 1 : 0;
+        }
+        for (; borrow != 0 && i < used; ++i) {
+            long difference = (digits[i] & 0xFFFFFFFFL) - borrow;
+            digits[i] = (int) difference;
+            borrow = difference < 0 ? 1 : 0;
+        }
+        trim();
+    }
+
+    /**
+     * Divides the value by divisor, leaving the remainder as the value & returning the quotient, which must be small
+     * (like a single decimal digit) as it's found by repeated subtraction.
+     */
+    int divideModuloSmallQuotient(Bignum divisor) {
+        int quotient = 0;
+        while (compare(this, divisor) >= 0) {
+            subtract(divisor);
+            ++quotient;
+        }
+        return quotient;
+    }
+
+    /**
+     * Returns a negative number, zero, or a positive number as a is less than, equal to, or greater than b.
+     */
+    static int compare(Bignum a, Bignum b) {
+        if (a.used != b.used) {
+            return a.used < b.used ? -1 : 1;
+        }
+        for (int i = a.used - 1; i >= 0; --i) {
+            int digitA = a.digits[i] ^ 0x80000000;
+            int digitB = b.digits[i] ^ 0x80000000;
+            if (digitA != digitB) {
+                return digitA < digitB ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    private void trim() {
+        while (used > 0 && digits[used - 1] == 0) {
+            --used;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > digits.length) {
+            int newLength = digits.length * 2;
+            int[] newDigits = new int[newLength > capacity ? newLength : capacity];
+            for (int i = 0; i < used; ++i) {
+                newDigits[i] = digits[i];
+            }
+            digits = newDigits;
+        }
+    }
+}
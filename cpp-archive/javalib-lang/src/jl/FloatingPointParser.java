@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package jl;
+
+/**
+ * Parsing of doubles & floats for Double.parseDouble & Float.parseFloat, returning the value closest to the decimal
+ * in the string, with ties rounded to even.
+ * <p>
+ * The string is scanned once, without creating substrings, collecting up to 18 significant digits as a long along with
+ * the decimal exponent.  When that's exact and small enough, the result is computed with a single floating point
+ * multiplication or division, which is then correctly rounded (Clinger's fast path).  That covers most strings seen in
+ * practice.  Otherwise all the digits are converted exactly with Bignum arithmetic and then rounded.
+ * <p>
+ * JUniversal: Hexadecimal floating point strings (like "0x1.8p1") aren't currently supported.
+ */
+public class FloatingPointParser {
+    // Significant digits beyond this many don't fit in the long; they're only checked for being zero
+    private static final int MAX_SIGNIFICAND_DIGITS = 18;
+
+    private static final double TWO_TO_32 = 4294967296.0;
+
+    private final String string;
+    private boolean negative;
+    private int digitsStart;
+    private int digitsEnd;
+
+    // The first significant digits, with value = significand * 10^exponent if none of the others are nonzero
+    private long significand;
+    private int exponent;
+    private boolean truncated;
+
+    // All the significant digits, with value = (the digits as an integer) * 10^allDigitsExponent
+    private int significantDigits;
+    private int allDigitsExponent;
+
+    private FloatingPointParser(String string) {
+        this.string = string;
+    }
+
+    public static double parseDouble(String string) {
+        FloatingPointParser parser = new FloatingPointParser(string);
+        double result = parser.parse(false);
+        return parser.negative ? -result : result;
+    }
+
+    public static float parseFloat(String string) {
+        FloatingPointParser parser = new FloatingPointParser(string);
+        // The result is already rounded to float precision, so converting it is exact
+        float result = (float) parser.parse(true);
+        return parser.negative ? -result : result;
+    }
+
+    /**
+     * Parses the string, returning its absolute value rounded to double or float precision.
+     */
+    private double parse(boolean isFloat) {
+        int length = string.length();
+        int start = 0;
+        int end = length;
+        while (start < end && string.charAt(start) <= ' ') {
+            ++start;
+        }
+        while (end > start && string.charAt(end - 1) <= ' ') {
+            --end;
+        }
+        if (start == end) {
+            throw new NumberFormatException(string);
+        }
+
+        char ch = string.charAt(start);
+        if (ch == '-' || ch == '+') {
+            negative = ch == '-';
+            ++start;
+        }
+
+        if (end - start == 8 && string.regionMatches(start, "Infinity", 0, 8)) {
+            double zero = 0;
+            return 1 / zero;
+        }
+        if (end - start == 3 && string.regionMatches(start, "NaN", 0, 3)) {
+            double zero = 0;
+            return zero / zero;
+        }
+
+        // An optional type suffix
+        ch = string.charAt(end - 1);
+        if (ch == 'd' || ch == 'D' || ch == 'f' || ch == 'F') {
+            --end;
+        }
+
+        scanDigits(start, end);
+
+        if (significantDigits == 0) {
+            return 0;
+        }
+
+        if (!truncated) {
+            if (isFloat) {
+                if (significand < (1L << 24) && exponent >= -10 && exponent <= 10) {
+                    float power = 1;
+                    for (int i = exponent < 0 ? -exponent : exponent; i > 0; --i) {
+                        power *= 10;
+                    }
+                    return exponent < 0 ? significand / power : significand * power;
+                }
+            } else if (significand < (1L << 53) && exponent >= -22 && exponent <= 22) {
+                // The significand & 10^|exponent| are both exact doubles, so the result is correctly rounded
+                double power = 1;
+                for (int i = exponent < 0 ? -exponent : exponent; i > 0; --i) {
+                    power *= 10;
+                }
+                return exponent < 0 ? significand / power : significand * power;
+            }
+        }
+
+        return isFloat ? parseExactly(24, -149, 127, 39, -46) : parseExactly(53, -1074, 1023, 309, -325);
+    }
+
+    /**
+     * Scans the digits, decimal point & exponent between start & end, throwing NumberFormatException if they aren't
+     * a valid decimal.
+     */
+    private void scanDigits(int start, int end) {
+        digitsStart = start;
+        int position = start;
+        boolean sawDigit = false;
+        boolean sawPoint = false;
+        int digitsAfterPoint = 0;
+        int droppedDigits = 0;
+
+        for (; position < end; ++position) {
+            char ch = string.charAt(position);
+            if (ch == '.') {
+                if (sawPoint) {
+                    throw new NumberFormatException(string);
+                }
+                sawPoint = true;
+                continue;
+            }
+
+            int digit = ch - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            sawDigit = true;
+            if (sawPoint) {
+                ++digitsAfterPoint;
+            }
+
+            // Leading zeros aren't significant
+            if (digit == 0 && significantDigits == 0) {
+                continue;
+            }
+            if (significantDigits < MAX_SIGNIFICAND_DIGITS) {
+                significand = significand * 10 + digit;
+            } else {
+                ++droppedDigits;
+                if (digit != 0) {
+                    truncated = true;
+                }
+            }
+            ++significantDigits;
+        }
+        digitsEnd = position;
+        if (!sawDigit) {
+            throw new NumberFormatException(string);
+        }
+
+        int explicitExponent = 0;
+        if (position < end) {
+            char ch = string.charAt(position++);
+            if (ch != 'e' && ch != 'E' || position == end) {
+                throw new NumberFormatException(string);
+            }
+
+            boolean negativeExponent = false;
+            ch = string.charAt(position);
+            if (ch == '-' || ch == '+') {
+                negativeExponent = ch == '-';
+                if (++position == end) {
+                    throw new NumberFormatException(string);
+                }
+            }
+
+            for (; position < end; ++position) {
+                int digit = string.charAt(position) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException(string);
+                }
+                // Any exponent this big overflows or underflows anyway, so stop before the int does
+                if (explicitExponent < 100000) {
+                    explicitExponent = explicitExponent * 10 + digit;
+                }
+            }
+            if (negativeExponent) {
+                explicitExponent = -explicitExponent;
+            }
+        }
+
+        allDigitsExponent = explicitExponent - digitsAfterPoint;
+        exponent = allDigitsExponent + droppedDigits;
+    }
+
+    /**
+     * Converts all the digits exactly, then rounds to the specified precision.  A value with more than
+     * overflowDigits digits before the decimal point is infinite, and one less than 10^underflowExponent is zero.
+     */
+    private double parseExactly(int precision, int minExponent, int maxExponent, int overflowDigits,
+            int underflowExponent) {
+        int magnitude = significantDigits + allDigitsExponent;
+        if (magnitude > overflowDigits) {
+            double zero = 0;
+            return 1 / zero;
+        }
+        if (magnitude < underflowExponent) {
+            return 0;
+        }
+
+        // The digits, nine at a time
+        Bignum value = new Bignum();
+        int chunk = 0;
+        int chunkScale = 1;
+        for (int i = digitsStart; i < digitsEnd; ++i) {
+            char ch = string.charAt(i);
+            if (ch != '.') {
+                chunk = chunk * 10 + (ch - '0');
+                chunkScale *= 10;
+                if (chunkScale == 1000000000) {
+                    value.multiplyAdd(chunkScale, chunk);
+                    chunk = 0;
+                    chunkScale = 1;
+                }
+            }
+        }
+        if (chunkScale != 1) {
+            value.multiplyAdd(chunkScale, chunk);
+        }
+
+        long mantissa;
+        int binaryExponent;
+        boolean sticky;
+        if (allDigitsExponent >= 0) {
+            value.multiplyByPowerOfTen(allDigitsExponent);
+            int bitLength = value.bitLength();
+            int low = bitLength > 63 ? bitLength - 63 : 0;
+            mantissa = value.getBits(low, bitLength - low);
+            binaryExponent = low;
+            sticky = value.hasBitsBelow(low);
+        } else {
+            // Divide by 10^-exponent, first scaling so the quotient has 62 or 63 bits
+            Bignum divisor = new Bignum();
+            divisor.assign(1);
+            divisor.multiplyByPowerOfTen(-allDigitsExponent);
+            int shift = divisor.bitLength() - value.bitLength() + 62;
+            if (shift >= 0) {
+                value.shiftLeft(shift);
+            } else {
+                divisor.shiftLeft(-shift);
+            }
+
+            // Long division, a bit at a time
+            divisor.shiftLeft(62);
+            mantissa = 0;
+            for (int bit = 62; bit >= 0; --bit) {
+                if (Bignum.compare(value, divisor) >= 0) {
+                    value.subtract(divisor);
+                    mantissa |= 1L << bit;
+                }
+                divisor.shiftRightByOne();
+            }
+            binaryExponent = -shift;
+            sticky = !value.isZero();
+        }
+
+        return round(mantissa, binaryExponent, sticky, precision, minExponent, maxExponent);
+    }
+
+    /**
+     * Rounds mantissa * 2^exponent, plus a bit more if sticky is set, to the specified precision, returning it as a
+     * double.  The precision is reduced for subnormal values, whose lowest bit can't be below 2^minExponent, and values
+     * whose highest bit is above 2^maxExponent are infinite.
+     */
+    private static double round(long mantissa, int exponent, boolean sticky, int precision, int minExponent,
+            int maxExponent) {
+        int shift = 64 - Long.numberOfLeadingZeros(mantissa) - precision;
+        if (exponent + shift < minExponent) {
+            shift = minExponent - exponent;
+        }
+
+        if (shift >= 64) {
+            return 0;
+        } else if (shift > 0) {
+            long half = 1L << (shift - 1);
+            long dropped = mantissa & ((1L << shift) - 1);
+            mantissa >>>= shift;
+            exponent += shift;
+            if (dropped > half || (dropped == half && (sticky || (mantissa & 1) != 0))) {
+                ++mantissa;
+            }
+        } else {
+            mantissa <<= -shift;
+            exponent += shift;
+        }
+
+        if (mantissa == 0) {
+            return 0;
+        }
+        if (exponent + 63 - Long.numberOfLeadingZeros(mantissa) > maxExponent) {
+            double zero = 0;
+            return 1 / zero;
+        }
+
+        // Scaling by powers of two is exact, since the result is representable
+        double result = mantissa;
+        while (exponent >= 32) {
+            result *= TWO_TO_32;
+            exponent -= 32;
+        }
+        while (exponent <= -32) {
+            result /= TWO_TO_32;
+            exponent += 32;
+        }
+        if (exponent > 0) {
+            result *= 1L << exponent;
+        } else if (exponent < 0) {
+            result /= 1L << -exponent;
+        }
+        return result;
+    }
+}
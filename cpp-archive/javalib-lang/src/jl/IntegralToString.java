@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package jl;
+
+/**
+ * Decimal formatting of ints & longs, shared by Integer, Long, String & AbstractStringBuilder.  Callers find the length
+ * of the result first with stringSize, then have getChars write the characters directly into the array that ends up
+ * holding them--a new String's or a StringBuilder's--so no temporary buffer or String is needed.
+ * <p>
+ * Digits are produced two at a time, so there's one division per two digits instead of one per digit.  The tens &
+ * ones digits of each pair are found with a multiply & shift rather than another division or a table lookup.
+ * <p>
+ * Values are converted by working with their negation when positive, as unlike the positive range the negative one
+ * holds every value, so MIN_VALUE needs no special case.
+ * <p>
+ * This and the other number conversion helpers are in jl rather than java.lang, as on the JVM java.lang is always the
+ * JDK's; that way the library's own code can be run, & benchmarked, there too.
+ */
+public class IntegralToString {
+    /**
+     * Returns the number of characters needed to represent the specified value in decimal, including any minus sign.
+     */
+    public static int stringSize(int value) {
+        int negativeValue = value < 0 ? value : -value;
+        int digits = 1;
+        int limit = -10;
+        while (negativeValue <= limit) {
+            if (++digits == 10) {
+                break;
+            }
+            limit *= 10;
+        }
+        return value < 0 ? digits + 1 : digits;
+    }
+
+    /**
+     * Returns the number of characters needed to represent the specified value in decimal, including any minus sign.
+     */
+    public static int stringSize(long value) {
+        long negativeValue = value < 0 ? value : -value;
+        int digits = 1;
+        long limit = -10;
+        while (negativeValue <= limit) {
+            if (++digits == 19) {
+                break;
+            }
+            limit *= 10;
+        }
+        return value < 0 ? digits + 1 : digits;
+    }
+
+    /**
+     * Writes the decimal representation of the specified value into the array, ending just before index end.  The
+     * array must have room for stringSize(value) characters before end.
+     */
+    public static void getChars(int value, int end, char[] buffer) {
+        int start = getDigits(value < 0 ? value : -value, end, buffer);
+        if (value < 0) {
+            buffer[start - 1] = '-';
+        }
+    }
+
+    /**
+     * Writes the decimal representation of the specified value into the array, ending just before index end.  The
+     * array must have room for stringSize(value) characters before end.
+     */
+    public static void getChars(long value, int end, char[] buffer) {
+        int position = end;
+        long negativeValue = value < 0 ? value : -value;
+
+        // Once what's left fits in an int, the cheaper int arithmetic takes over
+        while (negativeValue < Integer.MIN_VALUE) {
+            long quotient = negativeValue / 100;
+            int pair = (int) (quotient * 100 - negativeValue);
+            negativeValue = quotient;
+            position = getPair(pair, position, buffer);
+        }
+
+        int start = getDigits((int) negativeValue, position, buffer);
+        if (value < 0) {
+            buffer[start - 1] = '-';
+        }
+    }
+
+    /**
+     * Writes the digits of -negativeValue ending just before index end, returning the index of the first digit.
+     */
+    private static int getDigits(int negativeValue, int end, char[] buffer) {
+        int position = end;
+
+        // Two digits at a time while there are more than two left
+        while (negativeValue <= -100) {
+            int quotient = negativeValue / 100;
+            int pair = quotient * 100 - negativeValue;
+            negativeValue = quotient;
+            position = getPair(pair, position, buffer);
+        }
+
+        if (negativeValue <= -10) {
+            return getPair(-negativeValue, position, buffer);
+        }
+        buffer[--position] = (char) ('0' - negativeValue);
+        return position;
+    }
+
+    /**
+     * Writes both digits of a value from 0 to 99 ending just before index end, returning the index of the first.
+     */
+    private static int getPair(int pair, int end, char[] buffer) {
+        // (pair * 103) >>> 10 == pair / 10 for all pairs from 0 to 99
+        int tens = (pair * 103) >>> 10;
+        buffer[end - 1] = (char) ('0' + (pair - tens * 10));
+        buffer[end - 2] = (char) ('0' + tens);
+        return end - 2;
+    }
+}
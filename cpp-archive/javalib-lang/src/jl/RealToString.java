@@ -0,0 +1,515 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package jl;
+
+/**
+ * Formatting of doubles & floats, producing the same strings as Double.toString & Float.toString:  the shortest
+ * decimal that rounds back to the same value (choosing the closest one if there are several), written in plain or
+ * computerized scientific notation depending on its magnitude.
+ * <p>
+ * Most values seen in practice--ones that came from short decimals in the first place, like 0.1 or 1234.5--are
+ * handled by a fast path that scales the value by increasing powers of ten until it's an integer that rounds back to
+ * it, using only floating point arithmetic that's exact for the magnitudes involved.  Everything else goes through the
+ * exact "free-format" algorithm from Burger & Dybvig, "Printing Floating-Point Numbers Quickly and Accurately", using
+ * Bignum arithmetic.
+ * <p>
+ * Like IntegralToString, the digits are written directly into the caller's array.
+ */
+public class RealToString {
+    /**
+     * Maximum length of a double, like "-2.2250738585072014E-308", and of a float, like "-1.17549435E-38".
+     */
+    public static final int MAX_DOUBLE_LENGTH = 24;
+    public static final int MAX_FLOAT_LENGTH = 15;
+
+    // 2^50 & 2^21, the limits for the fast path
+    private static final double DOUBLE_FAST_LIMIT = 1125899906842624.0;
+    private static final float FLOAT_FAST_LIMIT = 2097152.0f;
+
+    // 2^53 & 2^24; integers below these are all exactly representable
+    private static final double DOUBLE_EXACT_INTEGER_LIMIT = 9007199254740992.0;
+    private static final float FLOAT_EXACT_INTEGER_LIMIT = 16777216.0f;
+
+    private static final double TWO_TO_64 = 18446744073709551616.0;
+
+    // Largest s for the long version of the exact algorithm; its intermediate values, up to 11 * s, then fit in a long
+    private static final long LONG_LIMIT = 1L << 59;
+
+    public static String toString(double d) {
+        char[] buffer = new char[MAX_DOUBLE_LENGTH];
+        int length = getChars(d, buffer, 0);
+        return new String(buffer, 0, length);
+    }
+
+    public static String toString(float f) {
+        char[] buffer = new char[MAX_FLOAT_LENGTH];
+        int length = getChars(f, buffer, 0);
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * Writes the string representation of the specified double into the array starting at index start, returning the
+     * index just past the end.  The array must have room for MAX_DOUBLE_LENGTH characters after start.
+     */
+    public static int getChars(double d, char[] buffer, int start) {
+        if (d != d) {
+            return putString("NaN", buffer, start);
+        }
+
+        int position = start;
+        if (d < 0 || (d == 0 && 1 / d < 0)) {
+            buffer[position++] = '-';
+            d = -d;
+        }
+        if (d == 0) {
+            return putString("0.0", buffer, position);
+        }
+        if (d - d != 0) {
+            return putString("Infinity", buffer, position);
+        }
+
+        // The digits go one past where they'll end up, leaving room for layOut to move some of them over
+        int digitsStart = position + 1;
+
+        // Integers up to 2^53 are all exact, so the shortest representation is just the integer's digits
+        long integerValue = (long) d;
+        if (d < DOUBLE_EXACT_INTEGER_LIMIT && integerValue == d) {
+            return layOutInteger(integerValue, buffer, position);
+        }
+
+        // Try 1, 2, ... digits after the decimal point.  While the scaled value is below 2^50 its ulp is at most 1/8, and
+        // so is the ulp of the original value times the scale.  Any integer that rounds back to the original value is
+        // then within 1/8 of the exact scaled value, and the computed scaled value is within 1/16 of that, so rounding
+        // the computed value finds the integer if there is one.  There can't be more than one either, as the interval
+        // that rounds back is less than one unit in the last digit wide.  The powers of ten are exact up to 10^22.
+        double scale = 1;
+        for (int fractionDigits = 1; fractionDigits <= 22; ++fractionDigits) {
+            scale *= 10;
+            double scaled = d * scale;
+            if (scaled >= DOUBLE_FAST_LIMIT) {
+                break;
+            }
+
+            long digits = (long) (scaled + 0.5);
+            if (digits / scale == d) {
+                int digitCount = IntegralToString.stringSize(digits);
+                IntegralToString.getChars(digits, digitsStart + digitCount, buffer);
+                return layOut(buffer, position, digitCount, digitCount - fractionDigits);
+            }
+        }
+
+        // Decompose into mantissa * 2^exponent, with the mantissa's high bit at 2^52 (scaling by powers of two is exact)
+        double mantissa = d;
+        int exponent = 0;
+        while (mantissa >= DOUBLE_EXACT_INTEGER_LIMIT * TWO_TO_64) {
+            mantissa /= TWO_TO_64;
+            exponent += 64;
+        }
+        while (mantissa >= DOUBLE_EXACT_INTEGER_LIMIT) {
+            mantissa /= 2;
+            ++exponent;
+        }
+        while (mantissa < DOUBLE_EXACT_INTEGER_LIMIT / TWO_TO_64) {
+            mantissa *= TWO_TO_64;
+            exponent -= 64;
+        }
+        while (mantissa < DOUBLE_EXACT_INTEGER_LIMIT / 256) {
+            mantissa *= 256;
+            exponent -= 8;
+        }
+        while (mantissa < DOUBLE_EXACT_INTEGER_LIMIT / 2) {
+            mantissa *= 2;
+            --exponent;
+        }
+        return getExactChars((long) mantissa, exponent, 53, -1074, buffer, position);
+    }
+
+    /**
+     * Writes the string representation of the specified float into the array starting at index start, returning the
+     * index just past the end.  The array must have room for MAX_FLOAT_LENGTH characters after start.
+     */
+    public static int getChars(float f, char[] buffer, int start) {
+        if (f != f) {
+            return putString("NaN", buffer, start);
+        }
+
+        int position = start;
+        if (f < 0 || (f == 0 && 1 / f < 0)) {
+            buffer[position++] = '-';
+            f = -f;
+        }
+        if (f == 0) {
+            return putString("0.0", buffer, position);
+        }
+        if (f - f != 0) {
+            return putString("Infinity", buffer, position);
+        }
+
+        int digitsStart = position + 1;
+
+        long integerValue = (long) f;
+        if (f < FLOAT_EXACT_INTEGER_LIMIT && integerValue == f) {
+            return layOutInteger(integerValue, buffer, position);
+        }
+
+        // The same as for doubles, but in float arithmetic, where powers of ten are exact up to 10^10
+        float scale = 1;
+        for (int fractionDigits = 1; fractionDigits <= 10; ++fractionDigits) {
+            scale *= 10;
+            float scaled = f * scale;
+            if (scaled >= FLOAT_FAST_LIMIT) {
+                break;
+            }
+
+            long digits = (long) (scaled + 0.5f);
+            if (digits / scale == f) {
+                int digitCount = IntegralToString.stringSize(digits);
+                IntegralToString.getChars(digits, digitsStart + digitCount, buffer);
+                return layOut(buffer, position, digitCount, digitCount - fractionDigits);
+            }
+        }
+
+        // Every float is exactly representable as a double, so decompose it that way
+        double mantissa = f;
+        int exponent = 0;
+        while (mantissa >= FLOAT_EXACT_INTEGER_LIMIT) {
+            mantissa /= 2;
+            ++exponent;
+        }
+        while (mantissa < FLOAT_EXACT_INTEGER_LIMIT / TWO_TO_64) {
+            mantissa *= TWO_TO_64;
+            exponent -= 64;
+        }
+        while (mantissa < FLOAT_EXACT_INTEGER_LIMIT / 256) {
+            mantissa *= 256;
+            exponent -= 8;
+        }
+        while (mantissa < FLOAT_EXACT_INTEGER_LIMIT / 2) {
+            mantissa *= 2;
+            --exponent;
+        }
+        return getExactChars((long) mantissa, exponent, 24, -149, buffer, position);
+    }
+
+    private static int layOutInteger(long value, char[] buffer, int position) {
+        int trailingZeros = 0;
+        while (value % 10 == 0) {
+            value /= 10;
+            ++trailingZeros;
+        }
+        int digitCount = IntegralToString.stringSize(value);
+        IntegralToString.getChars(value, position + 1 + digitCount, buffer);
+        return layOut(buffer, position, digitCount, digitCount + trailingZeros);
+    }
+
+    /**
+     * Writes the shortest digits for mantissa * 2^exponent with Burger & Dybvig's algorithm, then lays them out.
+     * mantissa must be normalized to have its high bit at 2^(precision - 1), unless the exponent is below
+     * minExponent, which means the value is subnormal.
+     */
+    private static int getExactChars(long mantissa, int exponent, int precision, int minExponent, char[] buffer,
+            int position) {
+        if (exponent < minExponent) {
+            mantissa >>= minExponent - exponent;
+            exponent = minExponent;
+        }
+
+        // The interval of values that round to this one is inclusive when the mantissa is even (round half even)
+        boolean even = (mantissa & 1) == 0;
+
+        // value = r / s, with the interval extending m- below & m+ above it.  Each is a power of two times a power of
+        // ten.  At a power of two the next lower value is closer than the next higher one, so m+ is twice m-.
+        int unequalGaps = mantissa == 1L << (precision - 1) && exponent > minExponent ? 1 : 0;
+        int positiveExponent = exponent > 0 ? exponent : 0;
+        int rShift = positiveExponent + 1 + unequalGaps;
+        int sShift = positiveExponent - exponent + 1 + unequalGaps;
+        int mPlusShift = positiveExponent + unequalGaps;
+        int mMinusShift = positiveExponent;
+
+        // Estimate k, the decimal exponent with value = 0.d1d2... * 10^k, from the binary exponent; this can be one
+        // too low but never too high.  s is multiplied by 10^k, or the others by 10^-k if it's negative.
+        int bitLength = 64 - Long.numberOfLeadingZeros(mantissa);
+        double estimate = (exponent + bitLength - 1) * 0.30102999566398114 - 1e-10;
+        int k = (int) estimate;
+        if (k < estimate) {
+            ++k;
+        }
+
+        int end = getLongChars(mantissa, rShift, sShift, mPlusShift, mMinusShift, k, even, buffer, position);
+        if (end < 0) {
+            end = getBignumChars(mantissa, rShift, sShift, mPlusShift, mMinusShift, k, even, buffer, position);
+        }
+        return end;
+    }
+
+    /**
+     * Generates the digits with Bignum arithmetic, which works for any value.
+     */
+    private static int getBignumChars(long mantissa, int rShift, int sShift, int mPlusShift, int mMinusShift, int k,
+            boolean even, char[] buffer, int position) {
+        Bignum r = new Bignum();
+        Bignum s = new Bignum();
+        Bignum mPlus = new Bignum();
+        Bignum mMinus = new Bignum();
+        r.assign(mantissa);
+        r.shiftLeft(rShift);
+        s.assign(1);
+        s.shiftLeft(sShift);
+        mPlus.assign(1);
+        mPlus.shiftLeft(mPlusShift);
+        mMinus.assign(1);
+        mMinus.shiftLeft(mMinusShift);
+        if (k >= 0) {
+            s.multiplyByPowerOfTen(k);
+        } else {
+            r.multiplyByPowerOfTen(-k);
+            mPlus.multiplyByPowerOfTen(-k);
+            mMinus.multiplyByPowerOfTen(-k);
+        }
+
+        Bignum sum = new Bignum();
+        sum.assign(r);
+        sum.add(mPlus);
+        if (Bignum.compare(sum, s) >= (even ? 0 : 1)) {
+            s.multiply(10);
+            ++k;
+        }
+
+        int digitsStart = position + 1;
+        int digitCount = 0;
+        while (true) {
+            r.multiply(10);
+            mPlus.multiply(10);
+            mMinus.multiply(10);
+            int digit = r.divideModuloSmallQuotient(s);
+
+            sum.assign(r);
+            sum.add(mPlus);
+            boolean low = Bignum.compare(r, mMinus) < (even ? 1 : 0);
+            boolean high = Bignum.compare(sum, s) >= (even ? 0 : 1);
+
+            if (digitCount == 0 && (low || high)) {
+                // A single digit would do, but the closest two digit decimal is used instead, as Java does.  If the
+                // value is just below 10^(k-1), that's in the decade below.
+                if (digit == 0) {
+                    --k;
+                    r.multiply(10);
+                    digit = r.divideModuloSmallQuotient(s);
+                }
+                r.multiply(10);
+                int secondDigit = r.divideModuloSmallQuotient(s);
+                r.multiply(2);
+                int comparison = Bignum.compare(r, s);
+                if (comparison > 0 || (comparison == 0 && (secondDigit & 1) != 0)) {
+                    ++secondDigit;
+                }
+                return layOutTwoDigits(buffer, position, digit, secondDigit, k);
+            }
+
+            if (low || high) {
+                if (low && high) {
+                    // Both digits are in the interval, so pick the closer one, or the even one if they're equally close
+                    r.multiply(2);
+                    int comparison = Bignum.compare(r, s);
+                    if (comparison > 0 || (comparison == 0 && (digit & 1) != 0)) {
+                        ++digit;
+                    }
+                } else if (high) {
+                    ++digit;
+                }
+                buffer[digitsStart + digitCount++] = (char) ('0' + digit);
+                return layOut(buffer, position, digitCount, k);
+            }
+            buffer[digitsStart + digitCount++] = (char) ('0' + digit);
+        }
+    }
+
+    /**
+     * Generates the digits with long arithmetic, which is much faster, returning -1 if the values don't fit.  They do
+     * for doubles from about 0.02 to 10^17, and for all floats from about 10^-11 on.  The loop below is the same as
+     * the one in getBignumChars.
+     */
+    private static int getLongChars(long mantissa, int rShift, int sShift, int mPlusShift, int mMinusShift, int k,
+            boolean even, char[] buffer, int position) {
+        int rPowerOfTen = k < 0 ? -k : 0;
+        int sPowerOfTen = k > 0 ? k : 0;
+        long r = scaleToLong(mantissa, rShift, rPowerOfTen);
+        long s = scaleToLong(1, sShift, sPowerOfTen);
+        long mPlus = scaleToLong(1, mPlusShift, rPowerOfTen);
+        long mMinus = scaleToLong(1, mMinusShift, rPowerOfTen);
+        if (r < 0 || s < 0 || mPlus < 0 || mMinus < 0) {
+            return -1;
+        }
+
+        if (even ? r + mPlus >= s : r + mPlus > s) {
+            if (s >= LONG_LIMIT / 10) {
+                return -1;
+            }
+            s *= 10;
+            ++k;
+        }
+
+        int digitsStart = position + 1;
+        int digitCount = 0;
+        while (true) {
+            r *= 10;
+            mPlus *= 10;
+            mMinus *= 10;
+            int digit = (int) (r / s);
+            r -= digit * s;
+
+            boolean low = even ? r <= mMinus : r < mMinus;
+            boolean high = even ? r + mPlus >= s : r + mPlus > s;
+
+            if (digitCount == 0 && (low || high)) {
+                if (digit == 0) {
+                    --k;
+                    r *= 10;
+                    digit = (int) (r / s);
+                    r -= digit * s;
+                }
+                r *= 10;
+                int secondDigit = (int) (r / s);
+                r -= secondDigit * s;
+                if (2 * r > s || (2 * r == s && (secondDigit & 1) != 0)) {
+                    ++secondDigit;
+                }
+                return layOutTwoDigits(buffer, position, digit, secondDigit, k);
+            }
+
+            if (low || high) {
+                if (low && high) {
+                    if (2 * r > s || (2 * r == s && (digit & 1) != 0)) {
+                        ++digit;
+                    }
+                } else if (high) {
+                    ++digit;
+                }
+                buffer[digitsStart + digitCount++] = (char) ('0' + digit);
+                return layOut(buffer, position, digitCount, k);
+            }
+            buffer[digitsStart + digitCount++] = (char) ('0' + digit);
+        }
+    }
+
+    /**
+     * Returns value * 2^shift * 10^powerOfTen, or -1 if that's LONG_LIMIT or more.
+     */
+    private static long scaleToLong(long value, int shift, int powerOfTen) {
+        if (shift >= 63 || value >= LONG_LIMIT >> shift) {
+            return -1;
+        }
+        value <<= shift;
+        for (int i = 0; i < powerOfTen; ++i) {
+            if (value >= LONG_LIMIT / 10) {
+                return -1;
+            }
+            value *= 10;
+        }
+        return value;
+    }
+
+    /**
+     * Lays out a two digit result, rounded up from the second digit, which may carry into the first.
+     */
+    private static int layOutTwoDigits(char[] buffer, int position, int digit, int secondDigit, int k) {
+        if (secondDigit == 10) {
+            secondDigit = 0;
+            ++digit;
+        }
+        if (digit == 10) {
+            digit = 1;
+            ++k;
+        }
+        int digitsStart = position + 1;
+        buffer[digitsStart] = (char) ('0' + digit);
+        if (secondDigit == 0) {
+            return layOut(buffer, position, 1, k);
+        }
+        buffer[digitsStart + 1] = (char) ('0' + secondDigit);
+        return layOut(buffer, position, 2, k);
+    }
+
+    /**
+     * Lays out the digits, which were written starting at index position + 1, as the value 0.d1d2... * 10^exponent
+     * in Java's format, returning the index just past the end.  Values from 10^-3 up to (but not including) 10^7 are
+     * written in plain notation, with at least one digit after the decimal point, and others in scientific notation.
+     */
+    private static int layOut(char[] buffer, int position, int digitCount, int exponent) {
+        int digitsStart = position + 1;
+
+        if (exponent < -2 || exponent > 7) {
+            // d.ddddEn, moving the first digit over to make room for the decimal point
+            buffer[position] = buffer[digitsStart];
+            buffer[position + 1] = '.';
+            int end = digitsStart + digitCount;
+            if (digitCount == 1) {
+                buffer[end++] = '0';
+            }
+            buffer[end++] = 'E';
+            int size = IntegralToString.stringSize(exponent - 1);
+            IntegralToString.getChars(exponent - 1, end + size, buffer);
+            return end + size;
+        }
+
+        if (exponent <= 0) {
+            // 0.00ddd
+            int leadingZeros = -exponent;
+            for (int i = digitCount - 1; i >= 0; --i) {
+                buffer[position + 2 + leadingZeros + i] = buffer[digitsStart + i];
+            }
+            buffer[position] = '0';
+            buffer[position + 1] = '.';
+            for (int i = 0; i < leadingZeros; ++i) {
+                buffer[position + 2 + i] = '0';
+            }
+            return position + 2 + leadingZeros + digitCount;
+        }
+
+        // The digits before the decimal point move over by one
+        int integerDigits = exponent < digitCount ? exponent : digitCount;
+        for (int i = 0; i < integerDigits; ++i) {
+            buffer[position + i] = buffer[digitsStart + i];
+        }
+        if (exponent < digitCount) {
+            // ddd.ddd
+            buffer[position + exponent] = '.';
+            return digitsStart + digitCount;
+        }
+
+        // ddd00.0
+        int end = position + digitCount;
+        for (int i = digitCount; i < exponent; ++i) {
+            buffer[end++] = '0';
+        }
+        buffer[end++] = '.';
+        buffer[end++] = '0';
+        return end;
+    }
+
+    private static int putString(String string, char[] buffer, int position) {
+        int length = string.length();
+        string.getChars(0, length, buffer, position);
+        return position + length;
+    }
+}
@@ -0,0 +1,181 @@
+package ju.util;
+
+/**
+ * Benchmark comparing the open addressing {@link HashMap} against {@link ChainedHashMap}, the chained implementation
+ * it replaced, for put, get, remove & iteration at a range of map sizes.
+ *
+ * The benchmark itself only uses what the translator & runtime library support, so it can be run translated to C++ as
+ * well as in Java.  The things that aren't available in both, reading the clock and printing results, are supplied by
+ * a {@link Host}; {@link HashMapBenchmarkMain} is the Java host.
+ */
+public class HashMapBenchmark {
+    public interface Host {
+        long nanoTime();
+
+        void report(String mapName, String operation, int size, long nanosPerOperation);
+    }
+
+    public static final int[] DEFAULT_SIZES = {1000, 10000, 100000, 1000000, 10000000};
+
+    /*
+     * Each operation is repeated, on fresh maps where needed, until about this many calls have been made, so the
+     * small sizes run long enough to time
+     */
+    private static final int OPERATIONS_PER_MEASUREMENT = 10000000;
+
+    private final Host host;
+    private int checksum;
+
+    public HashMapBenchmark(Host host) {
+        this.host = host;
+    }
+
+    public void run(int[] sizes) {
+        for (int size : sizes) {
+            run(false, size);
+            run(true, size);
+        }
+    }
+
+    /**
+     * Run all the operations once on a small map, to get the Java implementations compiled before anything is
+     * measured.
+     */
+    public void warmUp() {
+        Integer[] keys = createKeys(100000);
+        for (int i = 0; i < 5; ++i) {
+            for (int chained = 0; chained < 2; ++chained) {
+                Map<Integer, Integer> map = createMap(chained == 1);
+                putAll(map, keys);
+                getAll(map, keys);
+                iterate(map);
+                removeAll(map, keys);
+            }
+        }
+    }
+
+    /**
+     * Returns a value derived from the results of all the map operations, which the host should print or otherwise
+     * use so the compiler can't optimize the operations away.
+     */
+    public int getChecksum() {
+        return checksum;
+    }
+
+    private void run(boolean chained, int size) {
+        String mapName = chained ? "ChainedHashMap" : "HashMap";
+        Integer[] keys = createKeys(size);
+        Integer[] lookupKeys = shuffle(keys);
+        int repetitions = Math.max(1, OPERATIONS_PER_MEASUREMENT / size);
+
+        long putNanos = 0;
+        long getNanos = 0;
+        long iterateNanos = 0;
+        long removeNanos = 0;
+        for (int i = 0; i < repetitions; ++i) {
+            Map<Integer, Integer> map = createMap(chained);
+
+            long start = host.nanoTime();
+            putAll(map, keys);
+            long afterPut = host.nanoTime();
+            getAll(map, lookupKeys);
+            long afterGet = host.nanoTime();
+            iterate(map);
+            long afterIterate = host.nanoTime();
+            removeAll(map, lookupKeys);
+            long afterRemove = host.nanoTime();
+
+            putNanos += afterPut - start;
+            getNanos += afterGet - afterPut;
+            iterateNanos += afterIterate - afterGet;
+            removeNanos += afterRemove - afterIterate;
+        }
+
+        long operations = (long) repetitions * size;
+        host.report(mapName, "put", size, putNanos / operations);
+        host.report(mapName, "get", size, getNanos / operations);
+        host.report(mapName, "iterate", size, iterateNanos / operations);
+        host.report(mapName, "remove", size, removeNanos / operations);
+    }
+
+    private static Map<Integer, Integer> createMap(boolean chained) {
+        if (chained)
+            return new ChainedHashMap<Integer, Integer>();
+        else return new HashMap<Integer, Integer>();
+    }
+
+    /*
+     * The keys are created up front, so boxing isn't part of what's measured.  They're distinct but otherwise look
+     * random.  Sequential keys, or any whose low bits are all different, would never collide in ChainedHashMap, which
+     * isn't representative of real keys.
+     */
+    private static Integer[] createKeys(int size) {
+        Integer[] keys = new Integer[size];
+        for (int i = 0; i < size; ++i)
+            keys[i] = new Integer(scramble(i));
+        return keys;
+    }
+
+    /*
+     * Mixes up the bits of i; each step is reversible, so distinct inputs give distinct results
+     */
+    private static int scramble(int i) {
+        i ^= i >>> 16;
+        i *= 0x85EBCA6B;
+        i ^= i >>> 13;
+        i *= 0xC2B2AE35;
+        i ^= i >>> 16;
+        return i;
+    }
+
+    /*
+     * Returns the keys in a different, pseudorandom, order.  Looking keys up in the order they were added would favor
+     * ChainedHashMap, as its entries tend to be laid out in memory in that order.
+     */
+    private static Integer[] shuffle(Integer[] keys) {
+        Integer[] shuffled = new Integer[keys.length];
+        for (int i = 0; i < keys.length; ++i)
+            shuffled[i] = keys[i];
+
+        int random = 12345;
+        for (int i = shuffled.length - 1; i > 0; --i) {
+            random = random * 1103515245 + 12345;
+            int j = (random & 0x7FFFFFFF) % (i + 1);
+
+            Integer temp = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = temp;
+        }
+        return shuffled;
+    }
+
+    private void putAll(Map<Integer, Integer> map, Integer[] keys) {
+        for (Integer key : keys)
+            map.put(key, key);
+        checksum += map.size();
+    }
+
+    private void getAll(Map<Integer, Integer> map, Integer[] keys) {
+        for (Integer key : keys) {
+            if (map.get(key) != key)
+                checksum++;
+        }
+    }
+
+    /*
+     * Map doesn't have entrySet or any other way to iterate yet, so this times containsValue for a value that isn't
+     * there, which visits every mapping.
+     */
+    private void iterate(Map<Integer, Integer> map) {
+        if (map.containsValue(this))
+            checksum++;
+    }
+
+    private void removeAll(Map<Integer, Integer> map, Integer[] keys) {
+        for (Integer key : keys) {
+            if (map.remove(key) != key)
+                checksum++;
+        }
+        checksum += map.size();
+    }
+}
@@ -0,0 +1,33 @@
+package ju.util;
+
+/**
+ * Runs {@link HashMapBenchmark} on the JVM.  This class uses the JDK's System, so unlike the rest of the library it's
+ * compiled against the JDK rather than javalib-lang.
+ *
+ * Usage: HashMapBenchmarkMain [size ...]
+ */
+public class HashMapBenchmarkMain {
+    public static void main(String[] args) {
+        int[] sizes = HashMapBenchmark.DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; ++i)
+                sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        HashMapBenchmark benchmark = new HashMapBenchmark(new HashMapBenchmark.Host() {
+            public long nanoTime() {
+                return System.nanoTime();
+            }
+
+            public void report(String mapName, String operation, int size, long nanosPerOperation) {
+                System.out.println(String.format("%-16s %-8s %10d %6d ns/op", mapName, operation, size,
+                        nanosPerOperation));
+            }
+        });
+
+        benchmark.warmUp();
+        benchmark.run(sizes);
+        System.out.println("checksum " + benchmark.getChecksum());
+    }
+}
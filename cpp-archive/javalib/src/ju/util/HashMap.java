@@ -21,18 +21,40 @@ package ju.util;
 /**
  * HashMap is an implementation of Map. All optional operations (adding and
  * removing) are supported. Keys and values can be any objects.
+ *
+ * The table uses open addressing with linear probing: keys, values and key
+ * hashes are held in parallel arrays, so adding a mapping doesn't allocate
+ * anything beyond the occasional resize. Removal shifts later entries in the
+ * probe sequence back rather than leaving tombstones. The mapping for the
+ * null key, if any, is kept outside the table.
  */
 public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
 
     /*
-     * Actual count of entries
+     * Actual count of entries, including the one for the null key
      */
     int elementCount;
 
     /*
-     * The internal data structure to hold Entries
+     * The table, as parallel arrays; the length is always a power of two.
+     * Probing only reads hashes until it finds a possible match, with a hash
+     * of 0 marking an empty slot.
+     */
+    Object[] keys;
+    Object[] values;
+    int[] hashes;
+
+    /*
+     * 32 - log2(table length), to get a table index from the high bits of a
+     * hash
+     */
+    int indexShift;
+
+    /*
+     * The mapping for the null key
      */
-    Entry<K, V>[] elementData;
+    boolean hasNullKey;
+    V nullKeyValue;
 
     /*
      * modification count, to keep track of structural modifications between the
@@ -54,36 +76,11 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
 
     /*
      * maximum number of elements that can be put in this map before having to
-     * rehash
+     * rehash; always less than the table length, so there's an empty slot to
+     * end every probe sequence
      */
     int threshold;
 
-    static class Entry<K, V> extends MapEntry<K, V> {
-        final int origKeyHash;
-        Entry<K, V> next;
-
-        Entry(K theKey, int hash) {
-            super(theKey, null);
-            this.origKeyHash = hash;
-        }
-
-        Entry(K theKey, V theValue) {
-            super(theKey, theValue);
-            origKeyHash = (theKey == null ? 0 : computeHashCode(theKey));
-        }
-    }
-
-    /**
-     * Create a new element array
-     *
-     * @param s
-     * @return Reference to the element array
-     */
-    @SuppressWarnings("unchecked")
-    Entry<K, V>[] newElementArray(int s) {
-        return new Entry[s];
-    }
-
     /**
      * Constructs a new empty {@code HashMap} instance.
      */
@@ -148,15 +145,19 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
 
 	private void init(int capacity) {
 		if (capacity >= 0 && loadFactor > 0) {
-            capacity = calculateCapacity(capacity);
+            // At least 2, as a 1 entry table would need an index shift of 32
+            capacity = Math.max(calculateCapacity(capacity), 2);
             elementCount = 0;
-            elementData = newElementArray(capacity);
+            keys = new Object[capacity];
+            values = new Object[capacity];
+            hashes = new int[capacity];
+            indexShift = computeIndexShift(capacity);
             computeThreshold();
         } else {
             throw new IllegalArgumentException();
         }
 	}
-    
+
     /**
      * Removes all mappings from this hash map, leaving it empty.
      *
@@ -168,19 +169,32 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
         if (elementCount > 0) {
             elementCount = 0;
 
-            int length = elementData.length;
-            for (int i = 0; i < length; ++i)
-            	elementData[i] = null;
+            int length = keys.length;
+            for (int i = 0; i < length; ++i) {
+                keys[i] = null;
+                values[i] = null;
+                hashes[i] = 0;
+            }
+
+            hasNullKey = false;
+            nullKeyValue = null;
 
             modCount++;
         }
     }
 
+    private static int computeIndexShift(int capacity) {
+        return Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
     /**
      * Computes the threshold for rehashing
      */
     private void computeThreshold() {
-        threshold = (int) (elementData.length * loadFactor);
+        threshold = (int) (keys.length * loadFactor);
+        if (threshold >= keys.length) {
+            threshold = keys.length - 1;
+        }
     }
 
     /**
@@ -193,8 +207,10 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
      */
     @Override
     public boolean containsKey(Object key) {
-        Entry<K, V> m = getEntry(key);
-        return m != null;
+        if (key == null) {
+            return hasNullKey;
+        }
+        return findIndex(key, computeTableHash(key)) != -1;
     }
 
     /**
@@ -207,24 +223,21 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
      */
     @Override
     public boolean containsValue(Object value) {
+        if (hasNullKey && (value == null ? nullKeyValue == null : areEqualValues(value, nullKeyValue))) {
+            return true;
+        }
+
+        int length = keys.length;
         if (value != null) {
-            for (int i = 0; i < elementData.length; i++) {
-                Entry<K, V> entry = elementData[i];
-                while (entry != null) {
-                    if (areEqualValues(value, entry.value)) {
-                        return true;
-                    }
-                    entry = entry.next;
+            for (int i = 0; i < length; i++) {
+                if (hashes[i] != 0 && areEqualValues(value, values[i])) {
+                    return true;
                 }
             }
         } else {
-            for (int i = 0; i < elementData.length; i++) {
-                Entry<K, V> entry = elementData[i];
-                while (entry != null) {
-                    if (entry.value == null) {
-                        return true;
-                    }
-                    entry = entry.next;
+            for (int i = 0; i < length; i++) {
+                if (hashes[i] != 0 && values[i] == null) {
+                    return true;
                 }
             }
         }
@@ -240,40 +253,34 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
      *         if no mapping for the specified key is found.
      */
     @Override
+    @SuppressWarnings("unchecked")
     public V get(Object key) {
-        Entry<K, V> m = getEntry(key);
-        if (m != null) {
-            return m.value;
-        }
-        return null;
-    }
-
-    final Entry<K, V> getEntry(Object key) {
-        Entry<K, V> m;
         if (key == null) {
-            m = findNullKeyEntry();
-        } else {
-            int hash = computeHashCode(key);
-            int index = hash & (elementData.length - 1);
-            m = findNonNullKeyEntry(key, index, hash);
+            return nullKeyValue;
         }
-        return m;
-    }
 
-    final Entry<K,V> findNonNullKeyEntry(Object key, int index, int keyHash) {
-        Entry<K,V> m = elementData[index];
-        while (m != null
-                && (m.origKeyHash != keyHash || !areEqualKeys(key, m.key))) {
-            m = m.next;
+        int index = findIndex(key, computeTableHash(key));
+        if (index != -1) {
+            return (V) values[index];
         }
-        return m;
+        return null;
     }
 
-    final Entry<K,V> findNullKeyEntry() {
-        Entry<K,V> m = elementData[0];
-        while (m != null && m.key != null)
-            m = m.next;
-        return m;
+    /*
+     * Returns the table index holding the specified non-null key, or -1 if
+     * it's not in the map.
+     */
+    final int findIndex(Object key, int keyHash) {
+        int mask = keys.length - 1;
+        int index = indexFor(keyHash, indexShift);
+        int hash;
+        while ((hash = hashes[index]) != 0) {
+            if (hash == keyHash && areEqualKeys(key, keys[index])) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
     }
 
     /**
@@ -303,70 +310,71 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
         return putImpl(key, value);
     }
 
+    @SuppressWarnings("unchecked")
     V putImpl(K key, V value) {
-        Entry<K,V> entry;
-        if(key == null) {
-            entry = findNullKeyEntry();
-            if (entry == null) {
-                modCount++;
-                entry = createHashedEntry(null, 0, 0);
-                if (++elementCount > threshold) {
-                    rehash();
-                }
-            }
-        } else {
-            int hash = computeHashCode(key);
-            int index = hash & (elementData.length - 1);
-            entry = findNonNullKeyEntry(key, index, hash);
-            if (entry == null) {
+        if (key == null) {
+            if (!hasNullKey) {
+                hasNullKey = true;
+                elementCount++;
                 modCount++;
-                entry = createHashedEntry(key, index, hash);
-                if (++elementCount > threshold) {
-                    rehash();
-                }
             }
+            V result = nullKeyValue;
+            nullKeyValue = value;
+            return result;
         }
 
-        V result = entry.value;
-        entry.value = value;
-        return result;
-    }
-
-    Entry<K, V> createEntry(K key, int index, V value) {
-        Entry<K, V> entry = new Entry<K, V>(key, value);
-        entry.next = elementData[index];
-        elementData[index] = entry;
-        return entry;
-    }
+        int hash = computeTableHash(key);
+        int mask = keys.length - 1;
+        int index = indexFor(hash, indexShift);
+        int slotHash;
+        while ((slotHash = hashes[index]) != 0) {
+            if (slotHash == hash && areEqualKeys(key, keys[index])) {
+                V result = (V) values[index];
+                values[index] = value;
+                return result;
+            }
+            index = (index + 1) & mask;
+        }
 
-    Entry<K,V> createHashedEntry(K key, int index, int hash) {
-        Entry<K,V> entry = new Entry<K,V>(key,hash);
-        entry.next = elementData[index];
-        elementData[index] = entry;
-        return entry;
+        keys[index] = key;
+        values[index] = value;
+        hashes[index] = hash;
+        modCount++;
+        if (++elementCount > threshold) {
+            rehash();
+        }
+        return null;
     }
 
     void rehash(int capacity) {
         int length = calculateCapacity((capacity == 0 ? 1 : capacity << 1));
-
-        Entry<K, V>[] newData = newElementArray(length);
-        for (int i = 0; i < elementData.length; i++) {
-            Entry<K, V> entry = elementData[i];
-            elementData[i] = null;
-            while (entry != null) {
-                int index = entry.origKeyHash & (length - 1);
-                Entry<K, V> next = entry.next;
-                entry.next = newData[index];
-                newData[index] = entry;
-                entry = next;
+        int mask = length - 1;
+        int shift = computeIndexShift(length);
+
+        Object[] newKeys = new Object[length];
+        Object[] newValues = new Object[length];
+        int[] newHashes = new int[length];
+        for (int i = 0; i < keys.length; i++) {
+            int hash = hashes[i];
+            if (hash != 0) {
+                int index = indexFor(hash, shift);
+                while (newHashes[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                newKeys[index] = keys[i];
+                newValues[index] = values[i];
+                newHashes[index] = hash;
             }
         }
-        elementData = newData;
+        keys = newKeys;
+        values = newValues;
+        hashes = newHashes;
+        indexShift = shift;
         computeThreshold();
     }
 
     void rehash() {
-        rehash(elementData.length);
+        rehash(keys.length);
     }
 
     /**
@@ -378,64 +386,55 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
      *         for the specified key was found.
      */
     @Override
+    @SuppressWarnings("unchecked")
     public V remove(Object key) {
-        Entry<K, V> entry = removeEntry(key);
-        if (entry != null) {
-            return entry.value;
+        if (key == null) {
+            V result = nullKeyValue;
+            if (hasNullKey) {
+                hasNullKey = false;
+                nullKeyValue = null;
+                modCount++;
+                elementCount--;
+            }
+            return result;
         }
-        return null;
+
+        int index = findIndex(key, computeTableHash(key));
+        if (index == -1) {
+            return null;
+        }
+        V result = (V) values[index];
+        removeAt(index);
+        return result;
     }
 
     /*
-     * Remove the given entry from the hashmap.
-     * Assumes that the entry is in the map.
+     * Remove the entry at the given table index. Entries later in the same
+     * probe sequence are shifted back into the hole, unless that would move
+     * them before their home slot, so lookups never have to skip over
+     * deleted slots.
      */
-    final void removeEntry(Entry<K, V> entry) {
-        int index = entry.origKeyHash & (elementData.length - 1);
-        Entry<K, V> m = elementData[index];
-        if (m == entry) {
-            elementData[index] = entry.next;
-        } else {
-            while (m.next != entry) {
-                m = m.next;
+    final void removeAt(int index) {
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = (index + 1) & mask;
+        int hash;
+        while ((hash = hashes[next]) != 0) {
+            int home = indexFor(hash, indexShift);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hashes[hole] = hash;
+                hole = next;
             }
-            m.next = entry.next;
-
+            next = (next + 1) & mask;
         }
-        modCount++;
-        elementCount--;
-    }
+        keys[hole] = null;
+        values[hole] = null;
+        hashes[hole] = 0;
 
-    final Entry<K, V> removeEntry(Object key) {
-        int index = 0;
-        Entry<K, V> entry;
-        Entry<K, V> last = null;
-        if (key != null) {
-            int hash = computeHashCode(key);
-            index = hash & (elementData.length - 1);
-            entry = elementData[index];
-            while (entry != null && !(entry.origKeyHash == hash && areEqualKeys(key, entry.key))) {
-                last = entry;
-                entry = entry.next;
-            }
-        } else {
-            entry = elementData[0];
-            while (entry != null && entry.key != null) {
-                last = entry;
-                entry = entry.next;
-            }
-        }
-        if (entry == null) {
-            return null;
-        }
-        if (last == null) {
-            elementData[index] = entry.next;
-        } else {
-            last.next = entry.next;
-        }
         modCount++;
         elementCount--;
-        return entry;
     }
 
     /**
@@ -448,6 +447,25 @@ public class HashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
         return elementCount;
     }
 
+    /*
+     * Returns the hash stored in the table for a non-null key. 0 marks an
+     * empty slot, so it's never used as a key's hash.
+     */
+    static int computeTableHash(Object key) {
+        int hash = computeHashCode(key);
+        return hash == 0 ? 1 : hash;
+    }
+
+    /*
+     * Returns the home slot for a hash. Multiplying by 2^32 / the golden
+     * ratio and taking the high bits spreads out both sequential hashes and
+     * ones that differ only in their high bits, which would otherwise form
+     * long runs of occupied slots with linear probing.
+     */
+    static int indexFor(int tableHash, int indexShift) {
+        return (tableHash * 0x9E3779B9) >>> indexShift;
+    }
+
 	/*
 	 * Contract-related functionality
 	 */
@@ -28,6 +28,7 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -243,6 +244,176 @@ public class ASTUtil {
         return getAccessModifier(bodyDeclaration.modifiers()) == AccessLevel.PRIVATE;
     }
 
+    /**
+     * Returns a local variable name, starting with the specified base name, that isn't used as an identifier anywhere
+     * in the method (or other body declaration) containing the node.   It's used to name synthesized locals, like loop
+     * indexes, so they don't conflict with anything in the source.
+     *
+     * @param node     node where synthesized variable will be used
+     * @param baseName preferred name for the variable
+     * @return baseName if it's not already used, otherwise baseName with a numeric suffix
+     */
+    public static String getUnusedLocalName(ASTNode node, String baseName) {
+        ASTNode scope = node;
+        while (scope.getParent() != null && !(scope instanceof BodyDeclaration))
+            scope = scope.getParent();
+
+        HashSet<String> identifiers = new HashSet<>();
+        scope.accept(new ASTVisitor() {
+            @Override public boolean visit(SimpleName simpleName) {
+                identifiers.add(simpleName.getIdentifier());
+                return false;
+            }
+        });
+
+        String name = baseName;
+        for (int suffix = 2; identifiers.contains(name); ++suffix)
+            name = baseName + suffix;
+        return name;
+    }
+
+    /**
+     * Determine if the specified variable is assigned to anywhere within the specified node.
+     *
+     * @param variableBinding variable in question; if null, it's treated as assigned, to be conservative
+     * @param scope           node to look in, typically the method or block declaring the variable
+     * @return true if the variable may be assigned
+     */
+    public static boolean isAssigned(@Nullable IVariableBinding variableBinding, ASTNode scope) {
+        if (variableBinding == null)
+            return true;
+
+        boolean[] assigned = {false};
+        scope.accept(new ASTVisitor() {
+            @Override public boolean visit(Assignment assignment) {
+                checkAssigned(assignment.getLeftHandSide());
+                return true;
+            }
+
+            @Override public boolean visit(PrefixExpression prefixExpression) {
+                PrefixExpression.Operator operator = prefixExpression.getOperator();
+                if (operator == PrefixExpression.Operator.INCREMENT || operator == PrefixExpression.Operator.DECREMENT)
+                    checkAssigned(prefixExpression.getOperand());
+                return true;
+            }
+
+            @Override public boolean visit(PostfixExpression postfixExpression) {
+                checkAssigned(postfixExpression.getOperand());
+                return true;
+            }
+
+            private void checkAssigned(Expression expression) {
+                if (expression instanceof SimpleName) {
+                    @Nullable IBinding binding = ((SimpleName) expression).resolveBinding();
+                    if (binding != null && binding.isEqualTo(variableBinding))
+                        assigned[0] = true;
+                }
+            }
+        });
+        return assigned[0];
+    }
+
+    public static boolean isSynchronized(BodyDeclaration bodyDeclaration) {
+        return Modifier.isSynchronized(bodyDeclaration.getModifiers());
+    }
+
+    /**
+     * Return true if the specified method has an @RequestScope annotation, marking it as the entry point for handling a
+     * request, where everything allocated during the call is garbage once it returns.  Targets with manual memory
+     * management can then allocate those objects from a region freed all at once when the method exits.  Like @Lock,
+     * any annotation with simple name "RequestScope" counts.
+     *
+     * @param methodDeclaration method in question
+     * @return true if the method is annotated as a request scope
+     */
+    public static boolean isRequestScope(MethodDeclaration methodDeclaration) {
+        return anyMatch(methodDeclaration.modifiers(), (IExtendedModifier extendedModifier) -> {
+            if (!(extendedModifier instanceof MarkerAnnotation))
+                return false;
+
+            Name typeName = ((MarkerAnnotation) extendedModifier).getTypeName();
+            return typeName.isSimpleName() && ((SimpleName) typeName).getIdentifier().equals("RequestScope");
+        });
+    }
+
+    /**
+     * Return true if the specified field has an @Lock annotation, marking it as a field used only as the target of
+     * synchronized statements.  Such fields can be translated to a lock/mutex type specific to the target language.
+     * As with @Nullable, any annotation with simple name "Lock" counts, so projects can define their own.
+     *
+     * @param variableBinding field in question
+     * @return true if the field is annotated as a lock
+     */
+    public static boolean isLockField(@Nullable IVariableBinding variableBinding) {
+        if (variableBinding == null || !variableBinding.isField())
+            return false;
+
+        return anyMatch(variableBinding.getAnnotations(),
+                (IAnnotationBinding annotationBinding) -> annotationBinding.getAnnotationType().getName().equals("Lock"));
+    }
+
+    /**
+     * If the expression (typically the expression for a synchronized statement) refers to an @Lock annotated field,
+     * of this or another object or a static one, as "foo", "this.foo", "other.foo", "Type.foo" or "getOther().foo",
+     * return the binding for that field.   Otherwise return null.
+     *
+     * @param expression expression in question
+     * @return field binding for the lock field or null if the expression isn't a lock field
+     */
+    public static @Nullable IVariableBinding getLockField(Expression expression) {
+        @Nullable IVariableBinding variableBinding = null;
+        if (expression instanceof Name) {
+            @Nullable IBinding binding = ((Name) expression).resolveBinding();
+            if (binding instanceof IVariableBinding)
+                variableBinding = (IVariableBinding) binding;
+        } else if (expression instanceof FieldAccess)
+            variableBinding = ((FieldAccess) expression).resolveFieldBinding();
+        else if (expression instanceof SuperFieldAccess)
+            variableBinding = ((SuperFieldAccess) expression).resolveFieldBinding();
+        else if (expression instanceof ParenthesizedExpression)
+            return getLockField(((ParenthesizedExpression) expression).getExpression());
+
+        return isLockField(variableBinding) ? variableBinding : null;
+    }
+
+    /**
+     * Returns true if the type uses its own monitor, either via a synchronized instance method or via a
+     * "synchronized (this)" statement.   Nested types aren't included; they have their own monitor.
+     *
+     * @param typeDeclaration type in question
+     * @return true if the instance monitor is used
+     */
+    public static boolean usesInstanceMonitor(TypeDeclaration typeDeclaration) {
+        Var<Boolean> usesMonitor = new Var<>(false);
+
+        for (MethodDeclaration methodDeclaration : typeDeclaration.getMethods()) {
+            if (isSynchronized(methodDeclaration) && !isStatic(methodDeclaration))
+                usesMonitor.set(true);
+        }
+
+        typeDeclaration.accept(new ASTVisitor() {
+            @Override public boolean visit(TypeDeclaration nestedTypeDeclaration) {
+                return nestedTypeDeclaration == typeDeclaration;
+            }
+
+            @Override public boolean visit(AnonymousClassDeclaration anonymousClassDeclaration) {
+                return false;
+            }
+
+            @Override public boolean visit(SynchronizedStatement synchronizedStatement) {
+                if (isUnqualifiedThis(synchronizedStatement.getExpression()))
+                    usesMonitor.set(true);
+                return true;
+            }
+        });
+
+        return usesMonitor.value();
+    }
+
+    public static boolean isUnqualifiedThis(Expression expression) {
+        return expression instanceof ThisExpression && ((ThisExpression) expression).getQualifier() == null;
+    }
+
     public static boolean isFinal(AbstractTypeDeclaration typeDeclaration) {
         // Enums are implicitly final
         return typeDeclaration instanceof EnumDeclaration || containsFinal(typeDeclaration.modifiers());
@@ -264,6 +435,20 @@ public class ASTUtil {
         return (methodBinding.getModifiers() & Modifier.STATIC) != 0;
     }
 
+    /**
+     * Returns true if the method is the specified static method of the specified class, like System.arraycopy.
+     *
+     * @param methodBinding      method in question
+     * @param qualifiedClassName fully qualified name of the class
+     * @param methodName         name of the method
+     * @return true iff it's that static method (any overload)
+     */
+    public static boolean isStaticMethod(@Nullable IMethodBinding methodBinding, String qualifiedClassName,
+                                         String methodName) {
+        return methodBinding != null && isStatic(methodBinding) && methodBinding.getName().equals(methodName) &&
+               isType(methodBinding.getDeclaringClass(), qualifiedClassName);
+    }
+
     public static boolean isType(Type type, String qualifiedTypeName) {
         return isType(type.resolveBinding(), qualifiedTypeName);
     }
@@ -310,15 +495,15 @@ public class ASTUtil {
     public static boolean isArrayLengthField(FieldAccess fieldAccess) {
         if (!fieldAccess.getName().getIdentifier().equals("length"))
             return false;
-        @Nullable IVariableBinding variableBinding = fieldAccess.resolveFieldBinding();
-        return variableBinding != null && variableBinding.getType().isArray();
+        @Nullable ITypeBinding binding = fieldAccess.getExpression().resolveTypeBinding();
+        return binding != null && binding.isArray();
     }
 
     public static boolean isArrayLengthField(QualifiedName qualifiedName) {
         if (!qualifiedName.getName().getIdentifier().equals("length"))
             return false;
         @Nullable ITypeBinding binding = qualifiedName.getQualifier().resolveTypeBinding();
-        return binding != null;
+        return binding != null && binding.isArray();
     }
 
     /**
@@ -412,6 +597,109 @@ public class ASTUtil {
                code == PrimitiveType.LONG || code == PrimitiveType.FLOAT || code == PrimitiveType.DOUBLE;
     }
 
+    /**
+     * Returns true if the type is one of the java.lang wrappers for a primitive type (Integer, Long, Character, etc.).
+     *
+     * @param typeBinding type in question
+     * @return true if the type is a primitive wrapper class
+     */
+    public static boolean isPrimitiveWrapperType(@Nullable ITypeBinding typeBinding) {
+        if (typeBinding == null)
+            return false;
+
+        switch (typeBinding.getQualifiedName()) {
+            case "java.lang.Byte":
+            case "java.lang.Short":
+            case "java.lang.Integer":
+            case "java.lang.Long":
+            case "java.lang.Float":
+            case "java.lang.Double":
+            case "java.lang.Character":
+            case "java.lang.Boolean":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Get the name of the primitive type wrapped by the specified primitive wrapper class, e.g. "int" for Integer.
+     *
+     * @param typeBinding type in question
+     * @return primitive type name or null if the type isn't a primitive wrapper
+     */
+    public static @Nullable String getWrappedPrimitiveTypeName(@Nullable ITypeBinding typeBinding) {
+        if (typeBinding == null)
+            return null;
+
+        switch (typeBinding.getQualifiedName()) {
+            case "java.lang.Byte":
+                return "byte";
+            case "java.lang.Short":
+                return "short";
+            case "java.lang.Integer":
+                return "int";
+            case "java.lang.Long":
+                return "long";
+            case "java.lang.Float":
+                return "float";
+            case "java.lang.Double":
+                return "double";
+            case "java.lang.Character":
+                return "char";
+            case "java.lang.Boolean":
+                return "boolean";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Get the simple name of the java.lang class that boxes the specified primitive type, e.g. "Integer" for int.
+     *
+     * @param typeBinding primitive type
+     * @return wrapper class name or null if the type isn't a primitive type that can be boxed
+     */
+    public static @Nullable String getPrimitiveWrapperName(ITypeBinding typeBinding) {
+        switch (typeBinding.getName()) {
+            case "byte":
+                return "Byte";
+            case "short":
+                return "Short";
+            case "int":
+                return "Integer";
+            case "long":
+                return "Long";
+            case "float":
+                return "Float";
+            case "double":
+                return "Double";
+            case "char":
+                return "Character";
+            case "boolean":
+                return "Boolean";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns true if the type is a parameterized type, like ArrayList<Integer> or HashMap<Integer, Long>, where all
+     * the type arguments are primitive wrappers.   Such types can potentially be mapped to a primitive specialized
+     * collection in the target language, avoiding boxing.
+     *
+     * @param typeBinding type in question
+     * @return true if the type has type arguments and they're all primitive wrapper classes
+     */
+    public static boolean hasOnlyPrimitiveWrapperTypeArguments(@Nullable ITypeBinding typeBinding) {
+        if (typeBinding == null || !typeBinding.isParameterizedType())
+            return false;
+
+        ITypeBinding[] typeArguments = typeBinding.getTypeArguments();
+        return typeArguments.length > 0 &&
+               !anyMatch(typeArguments, (ITypeBinding typeArgument) -> !isPrimitiveWrapperType(typeArgument));
+    }
+
     public static boolean isGenericImport(ImportDeclaration importDeclaration) {
         @Nullable IBinding binding = importDeclaration.resolveBinding();
         return binding != null && binding instanceof ITypeBinding && ((ITypeBinding) binding).isGenericType();
@@ -633,4 +921,101 @@ public class ASTUtil {
             return new BigInteger(token.substring(1), 8);
         else return new BigInteger(token, 10);
     }
+
+    /**
+     * Get the type that an expression, like a null literal, is converted to, based on where it's used--assigned to a
+     * variable, returned from a method, passed as an argument, cast, put in an array initializer, or used as one of the
+     * results of a conditional expression.   Other contexts return null.
+     *
+     * @param expression expression in question
+     * @return type the expression is converted to, or null if not known
+     */
+    public static @Nullable ITypeBinding getExpectedType(Expression expression) {
+        ASTNode parent = expression.getParent();
+
+        if (parent instanceof ParenthesizedExpression)
+            return getExpectedType((ParenthesizedExpression) parent);
+        else if (parent instanceof ConditionalExpression) {
+            // The results are converted to the conditional's type (for a reference conditional, the type it's then
+            // converted to).   In "cond ? p : null" though, the targets convert null to the type of p
+            ConditionalExpression conditionalExpression = (ConditionalExpression) parent;
+            if (conditionalExpression.getExpression() == expression)
+                return null;
+
+            Expression result = expression;
+            while (result instanceof ParenthesizedExpression)
+                result = ((ParenthesizedExpression) result).getExpression();
+            if (result instanceof NullLiteral) {
+                Expression otherResult = conditionalExpression.getThenExpression() == expression ?
+                        conditionalExpression.getElseExpression() : conditionalExpression.getThenExpression();
+                @Nullable ITypeBinding otherResultType = otherResult.resolveTypeBinding();
+                if (otherResultType != null && !otherResultType.isNullType())
+                    return otherResultType;
+            }
+            return conditionalExpression.resolveTypeBinding();
+        } else if (parent instanceof CastExpression)
+            return ((CastExpression) parent).getType().resolveBinding();
+        else if (parent instanceof ArrayInitializer) {
+            @Nullable ITypeBinding arrayType = ((ArrayInitializer) parent).resolveTypeBinding();
+            return arrayType == null ? null : arrayType.getComponentType();
+        } else if (parent instanceof Assignment)
+            return ((Assignment) parent).getLeftHandSide().resolveTypeBinding();
+        else if (parent instanceof VariableDeclarationFragment) {
+            @Nullable IVariableBinding variableBinding = ((VariableDeclarationFragment) parent).resolveBinding();
+            return variableBinding == null ? null : variableBinding.getType();
+        } else if (parent instanceof ReturnStatement) {
+            ASTNode ancestor = parent;
+            while (ancestor != null && !(ancestor instanceof MethodDeclaration || ancestor instanceof LambdaExpression))
+                ancestor = ancestor.getParent();
+
+            if (ancestor instanceof MethodDeclaration) {
+                @Nullable IMethodBinding methodBinding = ((MethodDeclaration) ancestor).resolveBinding();
+                return methodBinding == null ? null : methodBinding.getReturnType();
+            } else return null;
+        } else if (parent instanceof MethodInvocation) {
+            MethodInvocation methodInvocation = (MethodInvocation) parent;
+            return getParameterType(methodInvocation.resolveMethodBinding(), methodInvocation.arguments(), expression);
+        } else if (parent instanceof ClassInstanceCreation) {
+            ClassInstanceCreation classInstanceCreation = (ClassInstanceCreation) parent;
+            return getParameterType(classInstanceCreation.resolveConstructorBinding(), classInstanceCreation.arguments(),
+                    expression);
+        } else if (parent instanceof SuperMethodInvocation) {
+            SuperMethodInvocation superMethodInvocation = (SuperMethodInvocation) parent;
+            return getParameterType(superMethodInvocation.resolveMethodBinding(), superMethodInvocation.arguments(),
+                    expression);
+        } else if (parent instanceof ConstructorInvocation) {
+            ConstructorInvocation constructorInvocation = (ConstructorInvocation) parent;
+            return getParameterType(constructorInvocation.resolveConstructorBinding(), constructorInvocation.arguments(),
+                    expression);
+        } else if (parent instanceof SuperConstructorInvocation) {
+            SuperConstructorInvocation superConstructorInvocation = (SuperConstructorInvocation) parent;
+            return getParameterType(superConstructorInvocation.resolveConstructorBinding(),
+                    superConstructorInvocation.arguments(), expression);
+        } else return null;
+    }
+
+    private static @Nullable ITypeBinding getParameterType(@Nullable IMethodBinding methodBinding, List<?> arguments,
+                                                           Expression argument) {
+        if (methodBinding == null)
+            return null;
+
+        int index = arguments.indexOf(argument);
+        ITypeBinding[] parameterTypes = methodBinding.getParameterTypes();
+        if (index == -1)
+            return null;
+
+        // Varargs arguments convert to the element type, unless a single one is the array itself
+        if (methodBinding.isVarargs() && index >= parameterTypes.length - 1) {
+            ITypeBinding varargsType = parameterTypes[parameterTypes.length - 1];
+            @Nullable ITypeBinding argumentType = argument.resolveTypeBinding();
+            if (arguments.size() == parameterTypes.length &&
+                (argumentType == null || argumentType.isNullType() || argumentType.isAssignmentCompatible(varargsType)))
+                return varargsType;
+            return varargsType.getComponentType();
+        }
+
+        if (index >= parameterTypes.length)
+            return null;
+        return parameterTypes[index];
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * ArrayBoundsAnalysis finds array accesses whose index is provably within the array's bounds, so targets that check
+ * bounds explicitly can skip the check there.
+ * <p>
+ * Like EscapeAnalysis, the analysis is deliberately simple.   It only recognizes accesses "a[i]" in the body of
+ * canonical counted loops over a local (or parameter) array, of the forms:
+ * <pre>
+ * for (int i = start; i < a.length; i++)           where start is a constant >= 0
+ * for (int i = a.length - offset; i >= end; i--)   where offset is a constant >= 1 and end a constant >= 0
+ * </pre>
+ * Neither the index nor the array variable can be assigned in the loop body.   Fields aren't handled, as code called
+ * from the loop could change them.   Steps other than 1 aren't handled either, since they could overflow past the
+ * bound.
+ */
+public class ArrayBoundsAnalysis {
+    /**
+     * Determine if the index of the specified array access is always within the array's bounds.
+     *
+     * @param arrayAccess array access in question
+     * @return true if the access can't be out of bounds (though the array could still be null)
+     */
+    public static boolean isIndexInBounds(ArrayAccess arrayAccess) {
+        @Nullable IVariableBinding arrayVariable = getLocalVariable(arrayAccess.getArray());
+        @Nullable IVariableBinding indexVariable = getLocalVariable(arrayAccess.getIndex());
+        if (arrayVariable == null || indexVariable == null)
+            return false;
+
+        // Look for an enclosing loop, with the access in its body, that bounds the index
+        ASTNode child = arrayAccess;
+        for (ASTNode node = arrayAccess.getParent(); node != null && !(node instanceof BodyDeclaration);
+             node = node.getParent()) {
+            if (node instanceof ForStatement) {
+                ForStatement forStatement = (ForStatement) node;
+                if (child == forStatement.getBody() && isCountedLoop(forStatement, indexVariable, arrayVariable))
+                    return true;
+            }
+            child = node;
+        }
+        return false;
+    }
+
+    private static boolean isCountedLoop(ForStatement forStatement, IVariableBinding indexVariable,
+                                         IVariableBinding arrayVariable) {
+        if (forStatement.initializers().size() != 1 || forStatement.updaters().size() != 1)
+            return false;
+
+        // The index must be declared by the loop, as "int i = ..."
+        Expression initializer = (Expression) forStatement.initializers().get(0);
+        if (!(initializer instanceof VariableDeclarationExpression))
+            return false;
+        VariableDeclarationExpression indexDeclaration = (VariableDeclarationExpression) initializer;
+        if (indexDeclaration.fragments().size() != 1 || !isType(indexDeclaration.getType(), PrimitiveType.INT))
+            return false;
+        VariableDeclarationFragment indexFragment = (VariableDeclarationFragment) indexDeclaration.fragments().get(0);
+        if (!indexVariable.isEqualTo(indexFragment.resolveBinding()) || indexFragment.getInitializer() == null)
+            return false;
+
+        Expression start = indexFragment.getInitializer();
+        Expression condition = forStatement.getExpression();
+        Expression updater = (Expression) forStatement.updaters().get(0);
+        if (!(condition instanceof InfixExpression))
+            return false;
+        InfixExpression comparison = (InfixExpression) condition;
+        if (comparison.hasExtendedOperands() || !isVariable(comparison.getLeftOperand(), indexVariable))
+            return false;
+
+        boolean bounded;
+        if (comparison.getOperator() == InfixExpression.Operator.LESS) {
+            // Counting up:  for (int i = start; i < a.length; i++)
+            bounded = getIntConstant(start, 0) != null &&
+                      isArrayLength(comparison.getRightOperand(), arrayVariable) &&
+                      isStep(updater, indexVariable, true);
+        } else if (comparison.getOperator() == InfixExpression.Operator.GREATER_EQUALS) {
+            // Counting down:  for (int i = a.length - offset; i >= end; i--)
+            bounded = start instanceof InfixExpression &&
+                      ((InfixExpression) start).getOperator() == InfixExpression.Operator.MINUS &&
+                      !((InfixExpression) start).hasExtendedOperands() &&
+                      isArrayLength(((InfixExpression) start).getLeftOperand(), arrayVariable) &&
+                      getIntConstant(((InfixExpression) start).getRightOperand(), 1) != null &&
+                      getIntConstant(comparison.getRightOperand(), 0) != null &&
+                      isStep(updater, indexVariable, false);
+        } else bounded = false;
+
+        Statement body = forStatement.getBody();
+        return bounded && !ASTUtil.isAssigned(indexVariable, body) && !ASTUtil.isAssigned(arrayVariable, body);
+    }
+
+    /**
+     * Returns true for "i++" or "++i" (or the decrement equivalents, when not counting up) on the specified variable.
+     */
+    private static boolean isStep(Expression updater, IVariableBinding indexVariable, boolean up) {
+        if (updater instanceof PostfixExpression) {
+            PostfixExpression postfixExpression = (PostfixExpression) updater;
+            return postfixExpression.getOperator() ==
+                   (up ? PostfixExpression.Operator.INCREMENT : PostfixExpression.Operator.DECREMENT) &&
+                   isVariable(postfixExpression.getOperand(), indexVariable);
+        } else if (updater instanceof PrefixExpression) {
+            PrefixExpression prefixExpression = (PrefixExpression) updater;
+            return prefixExpression.getOperator() ==
+                   (up ? PrefixExpression.Operator.INCREMENT : PrefixExpression.Operator.DECREMENT) &&
+                   isVariable(prefixExpression.getOperand(), indexVariable);
+        } else return false;
+    }
+
+    private static boolean isArrayLength(Expression expression, IVariableBinding arrayVariable) {
+        return expression instanceof QualifiedName && ASTUtil.isArrayLengthField((QualifiedName) expression) &&
+               isVariable(((QualifiedName) expression).getQualifier(), arrayVariable);
+    }
+
+    private static boolean isVariable(Expression expression, IVariableBinding variable) {
+        return expression instanceof SimpleName && variable.isEqualTo(((SimpleName) expression).resolveBinding());
+    }
+
+    private static boolean isType(Type type, PrimitiveType.Code code) {
+        return type.isPrimitiveType() && ((PrimitiveType) type).getPrimitiveTypeCode() == code;
+    }
+
+    /**
+     * Returns the value of the expression if it's an int constant of at least the specified minimum, otherwise null.
+     */
+    private static @Nullable Integer getIntConstant(Expression expression, int minimum) {
+        @Nullable Object value = expression.resolveConstantExpressionValue();
+        if (value instanceof Integer && (Integer) value >= minimum)
+            return (Integer) value;
+        else return null;
+    }
+
+    /**
+     * Returns the local variable (or parameter) referenced by the expression, or null if it's something else.
+     */
+    private static @Nullable IVariableBinding getLocalVariable(Expression expression) {
+        if (!(expression instanceof SimpleName))
+            return null;
+
+        @Nullable IBinding binding = ((SimpleName) expression).resolveBinding();
+        if (binding instanceof IVariableBinding && !((IVariableBinding) binding).isField())
+            return (IVariableBinding) binding;
+        else return null;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Predicate;
+
+/**
+ * BoxingAnalysis finds local variables of a primitive wrapper type (Integer, Long, etc.) that only ever hold boxed
+ * primitives and are only ever used as primitives, so targets can declare them with the primitive type instead and
+ * skip the box/unbox round trips.  That's typically counters & accumulators declared as Integer, and values read from
+ * a generic collection, updated, and put back.
+ * <p>
+ * Like EscapeAnalysis, the analysis is intra-procedural and deliberately simple.   The variable must be initialized, and
+ * every value assigned to it must be a primitive that Java boxes.   Every other use must be one Java unboxes:
+ * arithmetic, relational comparisons, assignment to a primitive, etc.   Anything needing the object itself--comparing
+ * it with == or to null, calling a method on it, passing it where an Object is expected--means it's left boxed.   The
+ * caller can also supply expressions that the target has unboxed even though Java doesn't, like elements read from or
+ * added to a collection the target stores unboxed; those count as primitive values & unboxed uses too.
+ */
+public class BoxingAnalysis {
+    /**
+     * Determine if the specified local variable can hold its value unboxed.
+     *
+     * @param variableDeclarationFragment local variable declaration fragment in question
+     * @param isUnboxedInTarget           returns true for wrapper typed expressions that the target has unboxed,
+     *                                    where the value is produced or used
+     * @return true if the variable can be declared with the primitive type
+     */
+    public static boolean isUnboxedLocal(VariableDeclarationFragment variableDeclarationFragment,
+                                         Predicate<Expression> isUnboxedInTarget) {
+        // Only handle simple "Integer foo = ...;" statements & for loop initializers
+        ASTNode parent = variableDeclarationFragment.getParent();
+        if (!(parent instanceof VariableDeclarationStatement &&
+              ((VariableDeclarationStatement) parent).fragments().size() == 1) &&
+            !(parent instanceof VariableDeclarationExpression &&
+              ((VariableDeclarationExpression) parent).fragments().size() == 1 &&
+              parent.getParent() instanceof ForStatement))
+            return false;
+        ASTNode scope = parent.getParent();
+
+        @Nullable IVariableBinding variableBinding = variableDeclarationFragment.resolveBinding();
+        if (variableBinding == null || !ASTUtil.isPrimitiveWrapperType(variableBinding.getType()))
+            return false;
+
+        @Nullable Expression initializer = variableDeclarationFragment.getInitializer();
+        if (initializer == null || !isPrimitiveValue(initializer, isUnboxedInTarget))
+            return false;
+
+        UseChecker useChecker = new UseChecker(variableDeclarationFragment, variableBinding, isUnboxedInTarget);
+        scope.accept(useChecker);
+        return !useChecker.needsBox;
+    }
+
+    private static boolean isPrimitiveValue(Expression expression, Predicate<Expression> isUnboxedInTarget) {
+        return expression.resolveBoxing() || isUnboxedInTarget.test(expression);
+    }
+
+    /**
+     * Visitor that checks each use of the variable in its scope, noting if any of them needs the boxed object.
+     */
+    private static class UseChecker extends ASTVisitor {
+        private final VariableDeclarationFragment variableDeclarationFragment;
+        private final IVariableBinding variableBinding;
+        private final Predicate<Expression> isUnboxedInTarget;
+        private boolean needsBox = false;
+
+        UseChecker(VariableDeclarationFragment variableDeclarationFragment, IVariableBinding variableBinding,
+                   Predicate<Expression> isUnboxedInTarget) {
+            this.variableDeclarationFragment = variableDeclarationFragment;
+            this.variableBinding = variableBinding;
+            this.isUnboxedInTarget = isUnboxedInTarget;
+        }
+
+        @Override public boolean visit(SimpleName simpleName) {
+            if (simpleName != variableDeclarationFragment.getName()) {
+                @Nullable IBinding binding = simpleName.resolveBinding();
+                if (binding != null && binding.isEqualTo(variableBinding) && !isUnboxedUse(simpleName))
+                    needsBox = true;
+            }
+            return false;
+        }
+
+        @Override public boolean preVisit2(ASTNode node) {
+            return !needsBox;
+        }
+
+        private boolean isUnboxedUse(SimpleName simpleName) {
+            ASTNode parent = simpleName.getParent();
+
+            if (parent instanceof Assignment && ((Assignment) parent).getLeftHandSide() == simpleName) {
+                Assignment assignment = (Assignment) parent;
+                if (assignment.getOperator() == Assignment.Operator.ASSIGN &&
+                    !isPrimitiveValue(assignment.getRightHandSide(), isUnboxedInTarget))
+                    return false;
+                return isResultUnboxedOrUnused(assignment);
+            } else if (parent instanceof PostfixExpression ||
+                       (parent instanceof PrefixExpression && isIncrementOrDecrement((PrefixExpression) parent)))
+                return isResultUnboxedOrUnused((Expression) parent);
+            else return simpleName.resolveUnboxing() || isUnboxedInTarget.test(simpleName);
+        }
+
+        /**
+         * The result of an assignment or increment/decrement of a wrapper typed variable is itself boxed, so it's only
+         * OK if Java unboxes it or it isn't used at all.
+         */
+        private boolean isResultUnboxedOrUnused(Expression expression) {
+            ASTNode parent = expression.getParent();
+            return parent instanceof ExpressionStatement ||
+                   (parent instanceof ForStatement && ((ForStatement) parent).updaters().contains(expression)) ||
+                   expression.resolveUnboxing();
+        }
+
+        private static boolean isIncrementOrDecrement(PrefixExpression prefixExpression) {
+            PrefixExpression.Operator operator = prefixExpression.getOperator();
+            return operator == PrefixExpression.Operator.INCREMENT || operator == PrefixExpression.Operator.DECREMENT;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * EnhancedForLowering decides when a Java enhanced for statement ("for (T x : coll)") can safely be written in the
+ * target language as an indexed for loop, with the length/count cached up front, instead of as an iterator based loop.
+ * Indexed loops avoid allocating an enumerator & going through interface dispatch for each element, and for C++,
+ * which has no iterator equivalent for our arrays, they're the only option.
+ * <p>
+ * Only the simple, common cases are lowered:  the collection must be a local variable (or parameter) that's either an
+ * array or a java.util.List/ArrayList.   Arrays have a fixed length, so for them only reassigning the variable in the
+ * body matters.   A list's size can change through the variable, through views of it (iterators & sub lists), or
+ * through some other reference to the same list, so a list loop is only lowered when the body just reads the list
+ * and either:
+ * <ul>
+ * <li>the list is a local created in the method as a new ArrayList & never aliased--every use of it anywhere in the
+ * method is a call to a method that doesn't return a view of it, or</li>
+ * <li>the body can't run any code that could reach the list--the only calls it makes are read only calls on the list
+ * itself & calls to java.lang classes like String & Math</li>
+ * </ul>
+ * If any of that can't be determined, typically because a binding doesn't resolve, the loop isn't lowered and callers
+ * should fall back to writing it as is.
+ */
+public class EnhancedForLowering {
+    public enum CollectionKind {
+        ARRAY,
+        LIST
+    }
+
+    /**
+     * List methods that don't change the list.   None of them return a view of the list.
+     */
+    private static final HashSet<String> readOnlyListMethods = new HashSet<>(Arrays.asList(
+            "contains", "containsAll", "equals", "get", "hashCode", "indexOf", "isEmpty", "lastIndexOf", "size",
+            "toString"));
+
+    /**
+     * List methods that can change the list, but don't return a view of it, so can't create an alias.
+     */
+    private static final HashSet<String> listMutatorMethods = new HashSet<>(Arrays.asList(
+            "add", "addAll", "clear", "remove", "removeAll", "retainAll", "set", "toArray"));
+
+    /**
+     * Classes whose methods & constructors can't reach a list they aren't passed.
+     */
+    private static final HashSet<String> listSafeClasses = new HashSet<>(Arrays.asList(
+            "java.lang.Boolean", "java.lang.Byte", "java.lang.Character", "java.lang.Double", "java.lang.Float",
+            "java.lang.Integer", "java.lang.Long", "java.lang.Math", "java.lang.Short", "java.lang.String",
+            "java.lang.StringBuilder"));
+
+    /**
+     * Determine if the specified enhanced for statement can be lowered to an indexed loop and, if so, what kind of
+     * collection it iterates over.
+     *
+     * @param enhancedForStatement enhanced for statement in question
+     * @return kind of collection being iterated, or null if the loop can't safely be lowered
+     */
+    public static @Nullable CollectionKind getLowerableCollectionKind(EnhancedForStatement enhancedForStatement) {
+        Expression expression = enhancedForStatement.getExpression();
+        if (!(expression instanceof SimpleName))
+            return null;
+
+        @Nullable IBinding binding = ((SimpleName) expression).resolveBinding();
+        if (!(binding instanceof IVariableBinding) || ((IVariableBinding) binding).isField())
+            return null;
+        IVariableBinding collectionVariable = (IVariableBinding) binding;
+
+        @Nullable ITypeBinding typeBinding = expression.resolveTypeBinding();
+        if (typeBinding == null)
+            return null;
+
+        if (typeBinding.isArray()) {
+            ArrayReassignmentFinder reassignmentFinder = new ArrayReassignmentFinder(collectionVariable);
+            enhancedForStatement.getBody().accept(reassignmentFinder);
+            return reassignmentFinder.reassigned ? null : CollectionKind.ARRAY;
+        } else if (isListType(typeBinding)) {
+            ListUseChecker bodyChecker = new ListUseChecker(collectionVariable, readOnlyListMethods,
+                    !isUnaliasedLocalList(expression, collectionVariable));
+            enhancedForStatement.getBody().accept(bodyChecker);
+            return bodyChecker.unsafe ? null : CollectionKind.LIST;
+        } else return null;
+    }
+
+    private static boolean isListType(ITypeBinding typeBinding) {
+        String qualifiedName = typeBinding.getErasure().getQualifiedName();
+        return qualifiedName.equals("java.util.List") || qualifiedName.equals("java.util.ArrayList");
+    }
+
+    /**
+     * Determine if the list variable is a local initialized with a new ArrayList, with no other references to that
+     * list anywhere in the method:  the variable is never reassigned, passed, stored, captured, or used to create an
+     * iterator or sub list.
+     */
+    private static boolean isUnaliasedLocalList(Expression expression, IVariableBinding listVariable) {
+        ASTNode declaration = ((CompilationUnit) expression.getRoot()).findDeclaringNode(listVariable);
+        if (!(declaration instanceof VariableDeclarationFragment))
+            return false;
+
+        Expression initializer = ((VariableDeclarationFragment) declaration).getInitializer();
+        if (!(initializer instanceof ClassInstanceCreation) ||
+            ((ClassInstanceCreation) initializer).getAnonymousClassDeclaration() != null)
+            return false;
+        @Nullable ITypeBinding initializerType = initializer.resolveTypeBinding();
+        if (initializerType == null || !initializerType.getErasure().getQualifiedName().equals("java.util.ArrayList"))
+            return false;
+
+        HashSet<String> nonViewMethods = new HashSet<>(readOnlyListMethods);
+        nonViewMethods.addAll(listMutatorMethods);
+
+        ListUseChecker methodChecker = new ListUseChecker(listVariable, nonViewMethods, false);
+        declaration.getParent().getParent().accept(methodChecker);
+        return !methodChecker.unsafe;
+    }
+
+    /**
+     * Visitor that notes if an array variable is assigned to, changing which array is iterated.
+     */
+    private static class ArrayReassignmentFinder extends ASTVisitor {
+        private final IVariableBinding arrayVariable;
+        private boolean reassigned = false;
+
+        ArrayReassignmentFinder(IVariableBinding arrayVariable) {
+            this.arrayVariable = arrayVariable;
+        }
+
+        @Override public boolean visit(Assignment assignment) {
+            Expression leftHandSide = assignment.getLeftHandSide();
+            if (leftHandSide instanceof SimpleName) {
+                @Nullable IBinding binding = ((SimpleName) leftHandSide).resolveBinding();
+                if (binding == null || binding.isEqualTo(arrayVariable))
+                    reassigned = true;
+            }
+            return !reassigned;
+        }
+    }
+
+    /**
+     * Visitor that checks each use of a list variable, noting if it's anything other than the receiver of one of the
+     * allowed methods or the collection of an enhanced for.   If checkCalls is set, it also notes any other code that
+     * might reach the list:  calls & object creation, other than for listSafeClasses.
+     */
+    private static class ListUseChecker extends ASTVisitor {
+        private final IVariableBinding listVariable;
+        private final HashSet<String> allowedMethods;
+        private final boolean checkCalls;
+        private boolean unsafe = false;
+
+        ListUseChecker(IVariableBinding listVariable, HashSet<String> allowedMethods, boolean checkCalls) {
+            this.listVariable = listVariable;
+            this.allowedMethods = allowedMethods;
+            this.checkCalls = checkCalls;
+        }
+
+        @Override public boolean preVisit2(ASTNode node) {
+            return !unsafe;
+        }
+
+        @Override public boolean visit(SimpleName simpleName) {
+            @Nullable IBinding binding = simpleName.resolveBinding();
+            if (binding != null && binding.isEqualTo(listVariable) && !simpleName.isDeclaration() &&
+                !isAllowedUse(simpleName))
+                unsafe = true;
+            return false;
+        }
+
+        @Override public boolean visit(MethodInvocation methodInvocation) {
+            if (checkCalls && !isListVariable(methodInvocation.getExpression()) &&
+                !isListSafe(methodInvocation.resolveMethodBinding()))
+                unsafe = true;
+            return !unsafe;
+        }
+
+        @Override public boolean visit(ClassInstanceCreation classInstanceCreation) {
+            if (checkCalls && !isListSafe(classInstanceCreation.resolveConstructorBinding()))
+                unsafe = true;
+            return !unsafe;
+        }
+
+        @Override public boolean visit(SuperMethodInvocation superMethodInvocation) {
+            if (checkCalls)
+                unsafe = true;
+            return !unsafe;
+        }
+
+        @Override public boolean visit(LambdaExpression lambdaExpression) {
+            // A use inside a lambda can happen at any time, after the lambda escapes
+            if (containsListVariable(lambdaExpression))
+                unsafe = true;
+            return !unsafe;
+        }
+
+        @Override public boolean visit(AnonymousClassDeclaration anonymousClassDeclaration) {
+            if (containsListVariable(anonymousClassDeclaration))
+                unsafe = true;
+            return !unsafe;
+        }
+
+        private boolean isAllowedUse(SimpleName simpleName) {
+            ASTNode parent = simpleName.getParent();
+            if (parent instanceof MethodInvocation && ((MethodInvocation) parent).getExpression() == simpleName)
+                return allowedMethods.contains(((MethodInvocation) parent).getName().getIdentifier());
+            else return parent instanceof EnhancedForStatement &&
+                        ((EnhancedForStatement) parent).getExpression() == simpleName;
+        }
+
+        private boolean isListVariable(@Nullable Expression expression) {
+            if (!(expression instanceof SimpleName))
+                return false;
+            @Nullable IBinding binding = ((SimpleName) expression).resolveBinding();
+            return binding != null && binding.isEqualTo(listVariable);
+        }
+
+        private boolean isListSafe(@Nullable IMethodBinding methodBinding) {
+            return methodBinding != null &&
+                   listSafeClasses.contains(methodBinding.getDeclaringClass().getErasure().getQualifiedName());
+        }
+
+        private boolean containsListVariable(ASTNode node) {
+            Var<Boolean> found = new Var<>(false);
+            node.accept(new ASTVisitor() {
+                @Override public boolean visit(SimpleName simpleName) {
+                    @Nullable IBinding binding = simpleName.resolveBinding();
+                    if (binding != null && binding.isEqualTo(listVariable))
+                        found.set(true);
+                    return false;
+                }
+            });
+            return found.value();
+        }
+    }
+}
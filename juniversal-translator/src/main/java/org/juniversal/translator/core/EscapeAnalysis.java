@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.juniversal.translator.core.ASTUtil.anyTypeOrAncestorMatch;
+import static org.juniversal.translator.core.ASTUtil.isAssigned;
+import static org.juniversal.translator.core.ASTUtil.isType;
+
+/**
+ * EscapeAnalysis finds local variables holding objects that never escape the method that creates them, so targets
+ * with manual memory management can allocate them on the stack instead of on the heap.   That's typically temporary
+ * iterators, builders, and small math objects used within a single method.
+ * <p>
+ * The analysis is intra-procedural and deliberately simple.   A local is non-escaping if it's initialized with a new
+ * object of exactly its declared type, is never reassigned, and every use of it is either accessing one of its fields
+ * or calling a method on it where the result can't be the object itself (or, for fluent calls like
+ * StringBuilder.append, where that result is in turn only used the same way).   The object can't be passed as an
+ * argument, returned, stored anywhere, compared, or captured by a lambda or inner class.   Code called on the object
+ * (its constructor & methods) isn't analyzed--it's assumed not to store "this" somewhere that outlives the call.
+ * <p>
+ * It also checks @RequestScope methods, where everything allocated during the call is freed when it returns, for
+ * objects that could outlive the call.
+ */
+public class EscapeAnalysis {
+    private static final Set<String> collectionStoreMethods = new HashSet<>(Arrays.asList(
+            "add", "addAll", "addElement", "addFirst", "addLast", "compute", "computeIfAbsent", "computeIfPresent",
+            "insertElementAt", "merge", "offer", "offerFirst", "offerLast", "push", "put", "putAll", "putIfAbsent",
+            "replace", "set", "setElementAt"));
+
+    /**
+     * Determine if the specified local variable declaration holds a newly created object that never escapes the
+     * enclosing block.
+     *
+     * @param variableDeclarationFragment local variable declaration fragment in question
+     * @return true if the object can safely be allocated in the scope of the declaration
+     */
+    public static boolean isNonEscapingLocal(VariableDeclarationFragment variableDeclarationFragment) {
+        // Only handle simple "Foo foo = new Foo(...);" statements, directly in a block
+        ASTNode parent = variableDeclarationFragment.getParent();
+        if (!(parent instanceof VariableDeclarationStatement) ||
+            ((VariableDeclarationStatement) parent).fragments().size() != 1 ||
+            !(parent.getParent() instanceof Block))
+            return false;
+        Block scope = (Block) parent.getParent();
+
+        Expression initializer = variableDeclarationFragment.getInitializer();
+        if (!(initializer instanceof ClassInstanceCreation))
+            return false;
+        ClassInstanceCreation classInstanceCreation = (ClassInstanceCreation) initializer;
+        if (classInstanceCreation.getAnonymousClassDeclaration() != null || classInstanceCreation.getExpression() != null)
+            return false;
+
+        @Nullable IVariableBinding variableBinding = variableDeclarationFragment.resolveBinding();
+        @Nullable ITypeBinding objectType = classInstanceCreation.resolveTypeBinding();
+        if (variableBinding == null || objectType == null || !objectType.isClass() ||
+            !objectType.isEqualTo(variableBinding.getType()) || ValueTypes.isValueType(objectType))
+            return false;
+
+        UseChecker useChecker = new UseChecker(variableDeclarationFragment, variableBinding, objectType, scope);
+        scope.accept(useChecker);
+        return !useChecker.escapes;
+    }
+
+    /**
+     * Check that objects allocated in a @RequestScope method can't be referenced after it returns, when the arena
+     * they're allocated from is freed.   The method can't throw, return objects, or store them in fields, statics,
+     * arrays, or collections other than ones it created itself.   What's stored is OK if it's known to come from
+     * outside the scope: null, a string literal, this, a field of this, a static, or an unassigned parameter.   As
+     * with isNonEscapingLocal, code called from the method isn't analyzed--it's assumed not to keep the objects passed
+     * to it, or that it allocates, past the end of the call.   If a problem is found, a SourceNotSupportedException is
+     * thrown.
+     *
+     * @param sourceFile                   source file containing the method
+     * @param methodDeclaration            @RequestScope method
+     * @param isUnboxedPrimitiveCollection predicate returning true for collection types that store primitives
+     *                                     directly, without boxing them in objects
+     */
+    public static void validateRequestScope(SourceFile sourceFile, MethodDeclaration methodDeclaration,
+                                            Predicate<ITypeBinding> isUnboxedPrimitiveCollection) {
+        methodDeclaration.getBody().accept(new ASTVisitor() {
+            @Override public boolean visit(ThrowStatement throwStatement) {
+                throw sourceNotSupported(sourceFile, throwStatement,
+                        "@RequestScope methods can't throw exceptions, as objects allocated during the call, like the exception, are freed when it exits");
+            }
+
+            @Override public boolean visit(ReturnStatement returnStatement) {
+                @Nullable Expression expression = returnStatement.getExpression();
+                if (expression != null && getEnclosingFunction(returnStatement) == methodDeclaration &&
+                    !isOutsideArena(expression, methodDeclaration.getReturnType2().resolveBinding()))
+                    throw sourceNotSupported(sourceFile, returnStatement,
+                            "@RequestScope methods can't return objects allocated during the call, as they're freed when it returns");
+                return true;
+            }
+
+            @Override public boolean visit(Assignment assignment) {
+                Expression leftHandSide = assignment.getLeftHandSide();
+                ITypeBinding leftHandSideType = leftHandSide.resolveTypeBinding();
+
+                // Compound assignments to objects, like "+=" on a String, create a new object
+                boolean storesOutsideArena = assignment.getOperator() == Assignment.Operator.ASSIGN ?
+                        isOutsideArena(assignment.getRightHandSide(), leftHandSideType) :
+                        leftHandSideType != null && leftHandSideType.isPrimitive();
+
+                if (!storesOutsideArena && !isScopeStorage(leftHandSide))
+                    throw sourceNotSupported(sourceFile, assignment,
+                            "Objects allocated in a @RequestScope method can't be stored in fields, statics, or arrays that outlive the call");
+                return true;
+            }
+
+            @Override public boolean visit(MethodInvocation methodInvocation) {
+                @Nullable Expression expression = methodInvocation.getExpression();
+                @Nullable IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+                if (methodBinding == null || !isCollectionStore(methodBinding) ||
+                    (expression != null && isScopeLocal(expression)))
+                    return true;
+
+                boolean unboxed = isUnboxedPrimitiveCollection.test(expression != null ?
+                        expression.resolveTypeBinding() : methodBinding.getDeclaringClass());
+                for (Object argument : methodInvocation.arguments()) {
+                    ITypeBinding argumentType = ((Expression) argument).resolveTypeBinding();
+                    if (!(unboxed && argumentType != null && argumentType.isPrimitive()) &&
+                        !isOutsideArena((Expression) argument, null))
+                        throw sourceNotSupported(sourceFile, methodInvocation,
+                                "Objects allocated in a @RequestScope method can't be added to collections that outlive the call");
+                }
+                return true;
+            }
+
+            /**
+             * Returns true if the expression's value is known not to be allocated from the arena, when stored in a
+             * variable of the specified type (null for Object).   Primitives are boxed in new objects when stored
+             * as an object.
+             */
+            private boolean isOutsideArena(Expression expression, @Nullable ITypeBinding targetType) {
+                if (targetType != null && targetType.isPrimitive())
+                    return true;
+
+                ITypeBinding type = expression.resolveTypeBinding();
+                if (type != null && type.isPrimitive())
+                    return false;
+                if (ValueTypes.isValueType(type) && hasOnlyPrimitiveFields(type))
+                    return true;
+
+                if (expression instanceof NullLiteral || expression instanceof StringLiteral ||
+                    expression instanceof TypeLiteral || expression instanceof ThisExpression ||
+                    expression instanceof SuperFieldAccess)
+                    return true;
+                else if (expression instanceof FieldAccess)
+                    return ((FieldAccess) expression).getExpression() instanceof ThisExpression;
+                else if (expression instanceof ParenthesizedExpression)
+                    return isOutsideArena(((ParenthesizedExpression) expression).getExpression(), targetType);
+                else if (expression instanceof CastExpression)
+                    return isOutsideArena(((CastExpression) expression).getExpression(), targetType);
+                else if (expression instanceof ConditionalExpression) {
+                    ConditionalExpression conditionalExpression = (ConditionalExpression) expression;
+                    return isOutsideArena(conditionalExpression.getThenExpression(), targetType) &&
+                           isOutsideArena(conditionalExpression.getElseExpression(), targetType);
+                } else if (expression instanceof Name) {
+                    // Fields of this & statics can only hold objects from outside, as stores to them are checked here
+                    @Nullable IBinding binding = ((Name) expression).resolveBinding();
+                    if (!(binding instanceof IVariableBinding))
+                        return false;
+                    IVariableBinding variableBinding = (IVariableBinding) binding;
+                    if (variableBinding.isField())
+                        return expression instanceof SimpleName || Modifier.isStatic(variableBinding.getModifiers());
+                    return variableBinding.isParameter() && !isAssigned(variableBinding, methodDeclaration);
+                } else return false;
+            }
+
+            /**
+             * Returns true if the expression stores to a local variable or to a field or element of an object or
+             * array created in the method, which are gone along with the arena.
+             */
+            private boolean isScopeStorage(Expression leftHandSide) {
+                if (leftHandSide instanceof SimpleName) {
+                    @Nullable IBinding binding = ((SimpleName) leftHandSide).resolveBinding();
+                    return binding instanceof IVariableBinding && !((IVariableBinding) binding).isField();
+                } else if (leftHandSide instanceof QualifiedName)
+                    return isScopeLocal(((QualifiedName) leftHandSide).getQualifier());
+                else if (leftHandSide instanceof FieldAccess)
+                    return isScopeLocal(((FieldAccess) leftHandSide).getExpression());
+                else if (leftHandSide instanceof ArrayAccess)
+                    return isScopeLocal(((ArrayAccess) leftHandSide).getArray());
+                else if (leftHandSide instanceof ParenthesizedExpression)
+                    return isScopeStorage(((ParenthesizedExpression) leftHandSide).getExpression());
+                else return false;
+            }
+
+            /**
+             * Returns true if the expression is a local variable that's only ever set to a new object or array,
+             * created in the method, so not visible outside of it.
+             */
+            private boolean isScopeLocal(Expression expression) {
+                if (!(expression instanceof SimpleName))
+                    return false;
+
+                @Nullable IBinding binding = ((SimpleName) expression).resolveBinding();
+                if (!(binding instanceof IVariableBinding))
+                    return false;
+                IVariableBinding variableBinding = (IVariableBinding) binding;
+                if (variableBinding.isField() || variableBinding.isParameter() ||
+                    isAssigned(variableBinding, methodDeclaration))
+                    return false;
+
+                ASTNode declaration = ((CompilationUnit) methodDeclaration.getRoot()).findDeclaringNode(variableBinding);
+                if (!(declaration instanceof VariableDeclarationFragment))
+                    return false;
+                @Nullable Expression initializer = ((VariableDeclarationFragment) declaration).getInitializer();
+                return initializer instanceof ClassInstanceCreation || initializer instanceof ArrayCreation ||
+                       initializer instanceof ArrayInitializer;
+            }
+        });
+    }
+
+    private static boolean isCollectionStore(IMethodBinding methodBinding) {
+        return collectionStoreMethods.contains(methodBinding.getName()) &&
+               anyTypeOrAncestorMatch(methodBinding.getDeclaringClass(), (ITypeBinding type) ->
+                       isType(type.getErasure(), "java.util.Collection") || isType(type.getErasure(), "java.util.Map"));
+    }
+
+    private static boolean hasOnlyPrimitiveFields(ITypeBinding valueType) {
+        for (IVariableBinding field : valueType.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the method or lambda containing the node, which a return statement there returns from.
+     */
+    private static @Nullable ASTNode getEnclosingFunction(ASTNode node) {
+        for (ASTNode parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent instanceof MethodDeclaration || parent instanceof LambdaExpression)
+                return parent;
+        }
+        return null;
+    }
+
+    private static SourceNotSupportedException sourceNotSupported(SourceFile sourceFile, ASTNode node,
+                                                                  String baseMessage) {
+        return new SourceNotSupportedException(baseMessage, sourceFile.getPositionDescription(node.getStartPosition()));
+    }
+
+    /**
+     * Visitor that checks each use of the variable in its scope, noting if any of them might let the object escape.
+     */
+    private static class UseChecker extends ASTVisitor {
+        private final VariableDeclarationFragment variableDeclarationFragment;
+        private final IVariableBinding variableBinding;
+        private final ITypeBinding objectType;
+        private final Block scope;
+        private boolean escapes = false;
+
+        UseChecker(VariableDeclarationFragment variableDeclarationFragment, IVariableBinding variableBinding,
+                   ITypeBinding objectType, Block scope) {
+            this.variableDeclarationFragment = variableDeclarationFragment;
+            this.variableBinding = variableBinding;
+            this.objectType = objectType;
+            this.scope = scope;
+        }
+
+        @Override public boolean visit(SimpleName simpleName) {
+            if (simpleName != variableDeclarationFragment.getName()) {
+                @Nullable IBinding binding = simpleName.resolveBinding();
+                if (binding != null && binding.isEqualTo(variableBinding) && !isContainedUse(simpleName))
+                    escapes = true;
+            }
+            return false;
+        }
+
+        @Override public boolean preVisit2(ASTNode node) {
+            return !escapes;
+        }
+
+        private boolean isContainedUse(SimpleName simpleName) {
+            if (isCaptured(simpleName))
+                return false;
+
+            ASTNode parent = simpleName.getParent();
+            if (parent instanceof MethodInvocation && ((MethodInvocation) parent).getExpression() == simpleName)
+                return isContainedResult((MethodInvocation) parent);
+            else if (parent instanceof FieldAccess && ((FieldAccess) parent).getExpression() == simpleName)
+                return true;
+            else if (parent instanceof QualifiedName && ((QualifiedName) parent).getQualifier() == simpleName)
+                return true;
+            else return false;
+        }
+
+        /**
+         * A method called on the object could return the object itself (e.g. StringBuilder.append), unless its
+         * return type is primitive/void or something the object's type can't be assigned to.  If it might return the
+         * object, then the result is only OK if it's discarded or just used to call another method on.
+         */
+        private boolean isContainedResult(MethodInvocation methodInvocation) {
+            @Nullable IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+            if (methodBinding == null)
+                return false;
+
+            ITypeBinding returnType = methodBinding.getReturnType();
+            if (returnType.isPrimitive() || !objectType.isAssignmentCompatible(returnType))
+                return true;
+
+            ASTNode parent = methodInvocation.getParent();
+            if (parent instanceof ExpressionStatement)
+                return true;
+            else if (parent instanceof MethodInvocation && ((MethodInvocation) parent).getExpression() == methodInvocation)
+                return isContainedResult((MethodInvocation) parent);
+            else return false;
+        }
+
+        /**
+         * Uses in a lambda or inner class body capture the variable, so the object may outlive the scope.
+         */
+        private boolean isCaptured(SimpleName simpleName) {
+            for (ASTNode node = simpleName.getParent(); node != scope && node != null; node = node.getParent()) {
+                if (node instanceof LambdaExpression || node instanceof AnonymousClassDeclaration ||
+                    node instanceof TypeDeclarationStatement)
+                    return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.function.Function;
+
+import static org.juniversal.translator.core.ASTUtil.anyTypeOrAncestorMatch;
+import static org.juniversal.translator.core.ASTUtil.getExpectedType;
+import static org.juniversal.translator.core.ASTUtil.isType;
+
+/**
+ * With primitive collection mapping turned on (see Translator.getMapPrimitiveCollections), a List or Map whose type
+ * arguments are all primitive wrappers is written as a target collection that stores its elements unboxed.  Those
+ * collections can't hold null, so only the methods here, whose meaning doesn't depend on null, are supported on them;
+ * each target writes them as the equivalent calls on its collection.
+ * <p>
+ * In particular Map.get, which returns null for a missing key, isn't supported--containsKey & getOrDefault can be used
+ * instead.   The methods that return the previous value (List.set, Map.put & Map.remove) or always return true
+ * (List.add) are only supported as statements, where that value isn't used.
+ * <p>
+ * The target collection is unrelated to the target's versions of the other collection types, so a primitive collection
+ * also can't be converted to another type, like Collection, Iterable or Object, or be subclassed; validateUses checks
+ * that.
+ */
+public class PrimitiveCollectionMethods {
+    private static final HashSet<String> listMethods = new HashSet<>(Arrays.asList(
+            "add", "clear", "contains", "get", "isEmpty", "set", "size"));
+
+    private static final HashSet<String> mapMethods = new HashSet<>(Arrays.asList(
+            "clear", "containsKey", "getOrDefault", "isEmpty", "put", "remove", "size"));
+
+    private static final HashSet<String> statementOnlyMethods = new HashSet<>(Arrays.asList(
+            "add", "put", "remove", "set"));
+
+    /**
+     * Returns true if the collection type, a List or Map with primitive wrapper type arguments, is a Map.
+     *
+     * @param collectionType collection type
+     * @return true for maps, false for lists
+     */
+    public static boolean isMap(ITypeBinding collectionType) {
+        return anyTypeOrAncestorMatch(collectionType, (ITypeBinding type) -> isType(type.getErasure(), "java.util.Map"));
+    }
+
+    /**
+     * Check that a method invoked on a primitive collection is supported, returning a message saying why not if it
+     * isn't.
+     *
+     * @param methodInvocation method invocation, whose expression is the primitive collection
+     * @param collectionType   type of the primitive collection
+     * @return null if the method is supported, otherwise the reason it isn't
+     */
+    public static @Nullable String getUnsupportedReason(MethodInvocation methodInvocation, ITypeBinding collectionType) {
+        String methodName = methodInvocation.getName().getIdentifier();
+        int argumentCount = methodInvocation.arguments().size();
+        boolean isMap = isMap(collectionType);
+        String typeName = collectionType.getErasure().getName();
+
+        if (isMap && methodName.equals("get"))
+            return "Map.get isn't supported on primitive collections, since they can't return null for a missing key; use containsKey or getOrDefault instead";
+
+        // add(index, element) & the other overloads of the supported methods aren't supported
+        boolean supported;
+        if (isMap)
+            supported = mapMethods.contains(methodName) && !(methodName.equals("remove") && argumentCount != 1);
+        else supported = listMethods.contains(methodName) && !(methodName.equals("add") && argumentCount != 1);
+
+        if (!supported)
+            return "Method " + typeName + "." + methodName + " isn't supported on primitive collections";
+
+        if (statementOnlyMethods.contains(methodName) && !(methodInvocation.getParent() instanceof ExpressionStatement))
+            return "The return value of " + typeName + "." + methodName + " can't be used for primitive collections; call it as a statement instead";
+
+        return null;
+    }
+
+    /**
+     * Check that primitive collections are only used as the collection type they're mapped to:  never converted to or
+     * from a type that's mapped differently or not at all, like Collection, Iterable or Object, and never extended.
+     * If a problem is found, a SourceNotSupportedException is thrown.
+     *
+     * @param sourceFile    source file containing the node
+     * @param node          node to check, along with everything in it
+     * @param getMappedType returns the target collection type that a type is mapped to, or null if it isn't a
+     *                      primitive collection
+     */
+    public static void validateUses(SourceFile sourceFile, ASTNode node,
+                                    Function<ITypeBinding, String> getMappedType) {
+        node.accept(new ASTVisitor() {
+            @Override public boolean visit(TypeDeclaration typeDeclaration) {
+                validateSupertypes(typeDeclaration, typeDeclaration.resolveBinding());
+                return true;
+            }
+
+            @Override public boolean visit(AnonymousClassDeclaration anonymousClassDeclaration) {
+                validateSupertypes(anonymousClassDeclaration, anonymousClassDeclaration.resolveBinding());
+                return true;
+            }
+
+            @Override public void postVisit(ASTNode node) {
+                if (!(node instanceof Expression))
+                    return;
+
+                @Nullable ITypeBinding type = ((Expression) node).resolveTypeBinding();
+                @Nullable ITypeBinding expectedType = getExpectedType((Expression) node);
+                if (type == null || expectedType == null || type.isNullType())
+                    return;
+
+                @Nullable String mappedType = getMappedType.apply(type);
+                @Nullable String mappedExpectedType = getMappedType.apply(expectedType);
+                if ((mappedType != null || mappedExpectedType != null) &&
+                    (mappedType == null || !mappedType.equals(mappedExpectedType)))
+                    throw sourceNotSupported(node,
+                            "Primitive collections can't be converted to or from other types, like Collection, Iterable or Object, as they're written as a different class");
+            }
+
+            private void validateSupertypes(ASTNode node, @Nullable ITypeBinding typeBinding) {
+                if (typeBinding == null)
+                    return;
+
+                boolean extendsPrimitiveCollection = typeBinding.getSuperclass() != null &&
+                                                     getMappedType.apply(typeBinding.getSuperclass()) != null;
+                for (ITypeBinding interfaceType : typeBinding.getInterfaces()) {
+                    if (getMappedType.apply(interfaceType) != null)
+                        extendsPrimitiveCollection = true;
+                }
+
+                if (extendsPrimitiveCollection)
+                    throw sourceNotSupported(node,
+                            "Primitive collections can't be subclassed or implemented, as they're written as a different class");
+            }
+
+            private SourceNotSupportedException sourceNotSupported(ASTNode node, String baseMessage) {
+                return new SourceNotSupportedException(baseMessage,
+                        sourceFile.getPositionDescription(node.getStartPosition()));
+            }
+        });
+    }
+}
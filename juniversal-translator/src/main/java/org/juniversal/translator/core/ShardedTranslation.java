@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Translates a large set of source files by splitting it into shards, each translated by a separate child JVM on this
+ * machine, all running at the same time.  That uses all the processors, and as each JVM only holds the ASTs &amp;
+ * bindings for its own part of the source, its heap stays within bounds however big the whole is.
+ * <p>
+ * Each shard is given all the usual arguments, with the sourcepath covering all the Java project directories, so
+ * references to types in other shards still resolve; just its own files are translated.  The shards' output is passed
+ * through line by line, and the translation succeeds only if every shard does.
+ * <p>
+ * Shards are contiguous runs of the files sorted by path, so each package, and packages near each other in the
+ * hierarchy (which tend to depend on each other), mostly end up in the same shard, minimizing the source each shard
+ * parses for other shards' types.  Shard boundaries are moved to a package boundary when there's one near by.
+ */
+public class ShardedTranslation {
+    private final Translator translator;
+    private final List<File> javaFiles;
+
+    public ShardedTranslation(Translator translator, List<File> javaFiles) {
+        this.translator = translator;
+        this.javaFiles = javaFiles;
+    }
+
+    /**
+     * Translate all the files, waiting for every shard to finish.
+     *
+     * @return true if all shards translated their files without error, false if some failed
+     */
+    public boolean translate() {
+        List<List<File>> shards = partition(javaFiles, translator.getShardCount());
+        System.out.println("Translating " + javaFiles.size() + " files in " + shards.size() + " shards");
+
+        List<Process> processes = new ArrayList<>();
+        List<Thread> outputThreads = new ArrayList<>();
+        List<File> fileLists = new ArrayList<>();
+        try {
+            for (List<File> shard : shards) {
+                File fileList = writeFileList(shard);
+                fileLists.add(fileList);
+
+                Process process;
+                try {
+                    process = new ProcessBuilder(getShardCommand(fileList)).start();
+                } catch (IOException e) {
+                    throw new JUniversalException("Unable to start translator shard process: " + e.getMessage());
+                }
+                process.getOutputStream().close();
+                processes.add(process);
+
+                outputThreads.add(passThrough(process.getInputStream(), System.out));
+                outputThreads.add(passThrough(process.getErrorStream(), System.err));
+            }
+
+            boolean failed = false;
+            for (int i = 0; i < processes.size(); ++i) {
+                int exitCode = processes.get(i).waitFor();
+                if (exitCode != 0) {
+                    // Exit code 1 means errors in the source, which the shard already reported
+                    if (exitCode != 1)
+                        System.err.println("Error: Translator shard " + (i + 1) + " of " + processes.size() +
+                                           " failed with exit code " + exitCode);
+                    failed = true;
+                }
+            }
+
+            for (Thread outputThread : outputThreads)
+                outputThread.join();
+
+            return !failed;
+        } catch (IOException e) {
+            throw new JUniversalException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JUniversalException(e);
+        } finally {
+            for (Process process : processes)
+                process.destroy();
+            for (File fileList : fileLists)
+                fileList.delete();
+        }
+    }
+
+    /**
+     * Split the files into the specified number of shards, of about equal size.  See the class comment for how.
+     *
+     * @param javaFiles  files to split
+     * @param shardCount number of shards
+     * @return shards, each a non-empty list of files; fewer than shardCount if there are fewer files than that
+     */
+    public static List<List<File>> partition(List<File> javaFiles, int shardCount) {
+        List<File> sortedFiles = new ArrayList<>(javaFiles);
+        Collections.sort(sortedFiles);
+
+        int fileCount = sortedFiles.size();
+        int slack = fileCount / shardCount / 4;
+
+        List<List<File>> shards = new ArrayList<>();
+        int start = 0;
+        for (int shard = 1; shard <= shardCount && start < fileCount; ++shard) {
+            int end = shard == shardCount ? fileCount : (int) ((long) fileCount * shard / shardCount);
+
+            // Prefer to end at the nearest package boundary, if within the slack
+            if (end > start && end < fileCount) {
+                for (int offset = 0; offset <= slack; ++offset) {
+                    if (end - offset > start && isPackageBoundary(sortedFiles, end - offset)) {
+                        end = end - offset;
+                        break;
+                    }
+                    if (end + offset < fileCount && isPackageBoundary(sortedFiles, end + offset)) {
+                        end = end + offset;
+                        break;
+                    }
+                }
+            }
+
+            if (end > start) {
+                shards.add(new ArrayList<>(sortedFiles.subList(start, end)));
+                start = end;
+            }
+        }
+        return shards;
+    }
+
+    private static boolean isPackageBoundary(List<File> sortedFiles, int index) {
+        return !sortedFiles.get(index - 1).getParentFile().equals(sortedFiles.get(index).getParentFile());
+    }
+
+    private static File writeFileList(List<File> files) throws IOException {
+        File fileList = File.createTempFile("juniversal-shard", ".txt");
+        fileList.deleteOnExit();
+
+        try (Writer writer = new BufferedWriter(new FileWriter(fileList))) {
+            for (File file : files) {
+                writer.write(file.getPath());
+                writer.write('\n');
+            }
+        }
+        return fileList;
+    }
+
+    /**
+     * Get the command to run a shard: this JVM's java with this JVM's classpath, running the translator with the same
+     * arguments minus the sharding ones, plus the shard's file list.
+     */
+    private List<String> getShardCommand(File fileList) {
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        if (translator.getShardMaxHeap() != null)
+            command.add("-Xmx" + translator.getShardMaxHeap());
+        command.add("-cp");
+        command.add(getClasspath());
+        command.add(Translator.class.getName());
+
+        command.addAll(getShardArgs(translator.getArgs(), translator.getJavaProjectDirectories()));
+        command.add("-fileList");
+        command.add(fileList.getPath());
+        return command;
+    }
+
+    /**
+     * Get the translator arguments for a shard: the original ones minus the sharding ones.  The other shards' files
+     * must be on the sourcepath, to resolve references to them, so the project directories are appended to any
+     * sourcepath given, or become the sourcepath if there isn't one.
+     *
+     * @param args                   original translator arguments
+     * @param javaProjectDirectories directories containing the Java source being translated
+     * @return arguments for the shard, not including its file list
+     */
+    static List<String> getShardArgs(String[] args, List<File> javaProjectDirectories) {
+        StringBuilder projectSourcepath = new StringBuilder();
+        for (File directory : javaProjectDirectories) {
+            if (projectSourcepath.length() > 0)
+                projectSourcepath.append(File.pathSeparator);
+            projectSourcepath.append(directory.getPath());
+        }
+
+        List<String> shardArgs = new ArrayList<>();
+        boolean hasSourcepath = false;
+        for (int i = 0; i < args.length; ++i) {
+            String arg = args[i];
+            if (arg.equals("-shards") || arg.equals("-shardMaxHeap") || arg.equals("-fileList"))
+                ++i;
+            else if (arg.equals("-sourcepath") && i + 1 < args.length) {
+                String sourcepath = args[++i];
+                shardArgs.add(arg);
+                shardArgs.add(sourcepath.isEmpty() ? projectSourcepath.toString() :
+                              sourcepath + File.pathSeparator + projectSourcepath);
+                hasSourcepath = true;
+            } else shardArgs.add(arg);
+        }
+
+        if (!hasSourcepath) {
+            shardArgs.add("-sourcepath");
+            shardArgs.add(projectSourcepath.toString());
+        }
+        return shardArgs;
+    }
+
+    /**
+     * Get the classpath the translator was loaded from.  When it's run from the command line that's just the JVM's
+     * classpath, but when it's run inside a build tool the translator's class loader has its own.
+     */
+    private static String getClasspath() {
+        StringBuilder classpath = new StringBuilder();
+        for (ClassLoader classLoader = Translator.class.getClassLoader(); classLoader != null;
+             classLoader = classLoader.getParent()) {
+            if (classLoader instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+                    if (url.getProtocol().equals("file")) {
+                        if (classpath.length() > 0)
+                            classpath.append(File.pathSeparator);
+                        try {
+                            classpath.append(new File(url.toURI()).getPath());
+                        } catch (URISyntaxException e) {
+                            classpath.append(url.getPath());
+                        }
+                    }
+                }
+            }
+        }
+
+        String jvmClasspath = System.getProperty("java.class.path");
+        if (jvmClasspath != null && !jvmClasspath.isEmpty()) {
+            if (classpath.length() > 0)
+                classpath.append(File.pathSeparator);
+            classpath.append(jvmClasspath);
+        }
+        return classpath.toString();
+    }
+
+    /**
+     * Copy lines from a shard's output to ours, on a new thread.  Each line is written with a single println, which
+     * is synchronized, so the output of different shards is interleaved only between lines.
+     */
+    private static Thread passThrough(InputStream inputStream, PrintStream printStream) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+                String line;
+                while ((line = reader.readLine()) != null)
+                    printStream.println(line);
+            } catch (IOException e) {
+                // The shard process was destroyed; its exit code reports the failure
+            }
+        }, "translator shard output");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the source files whose translation may be affected by changes to other source files, so incremental builds
+ * can retranslate those too.  A change to a type can change how code using it translates (a changed method signature
+ * or constant, say), and so can a change to a type that that code uses indirectly, like a superclass of a type it
+ * uses.  So the affected files are those that refer to a changed type by name, directly or through other affected
+ * files.
+ * <p>
+ * This works from the source text rather than bindings, so it doesn't need to parse anything: a file refers to a type
+ * if the type's simple name appears in it as an identifier.  That errs on the side of retranslating too much (a name
+ * in a comment counts, as does an unrelated type with the same name), which only costs time.
+ */
+public class SourceDependencies {
+    private static final Pattern IDENTIFIER = Pattern.compile("[\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*");
+    private static final Pattern TYPE_DECLARATION = Pattern.compile(
+            "\\b(?:class|interface|enum)\\s+([\\p{javaJavaIdentifierStart}][\\p{javaJavaIdentifierPart}]*)");
+
+    /**
+     * Get the source files that are changed or that refer to a changed type, directly or indirectly.  The changed
+     * files can include files that aren't among the source files, like source that's only on the sourcepath or that
+     * was removed; they aren't returned, but the files that refer to them are.
+     *
+     * @param javaFiles    all the source files that could need retranslating
+     * @param changedFiles added, modified &amp; removed source files
+     * @return the affected source files, in the order they're in javaFiles
+     */
+    public static List<File> getAffectedFiles(List<File> javaFiles, List<File> changedFiles) {
+        Set<File> changedCanonicalFiles = new HashSet<>();
+        Set<String> changedTypeNames = new HashSet<>();
+        for (File changedFile : changedFiles) {
+            changedCanonicalFiles.add(getCanonicalFile(changedFile));
+            changedTypeNames.addAll(getDeclaredTypeNames(changedFile));
+        }
+
+        Set<File> unaffectedFiles = new LinkedHashSet<>();
+        Set<File> affectedFiles = new HashSet<>();
+        for (File javaFile : javaFiles) {
+            if (changedCanonicalFiles.contains(getCanonicalFile(javaFile)))
+                affectedFiles.add(javaFile);
+            else unaffectedFiles.add(javaFile);
+        }
+
+        // Each pass finds the files that refer to the types found affected by the pass before, until there are no more
+        Map<File, Set<String>> identifiers = new HashMap<>();
+        while (!changedTypeNames.isEmpty() && !unaffectedFiles.isEmpty()) {
+            Set<String> newlyAffectedTypeNames = new HashSet<>();
+            for (Iterator<File> iterator = unaffectedFiles.iterator(); iterator.hasNext(); ) {
+                File javaFile = iterator.next();
+
+                Set<String> fileIdentifiers = identifiers.get(javaFile);
+                if (fileIdentifiers == null) {
+                    fileIdentifiers = getIdentifiers(Util.readFile(javaFile));
+                    identifiers.put(javaFile, fileIdentifiers);
+                }
+
+                if (!Collections.disjoint(fileIdentifiers, changedTypeNames)) {
+                    iterator.remove();
+                    affectedFiles.add(javaFile);
+                    newlyAffectedTypeNames.addAll(getDeclaredTypeNames(javaFile));
+                }
+            }
+            changedTypeNames = newlyAffectedTypeNames;
+        }
+
+        List<File> orderedAffectedFiles = new ArrayList<>();
+        for (File javaFile : javaFiles) {
+            if (affectedFiles.contains(javaFile))
+                orderedAffectedFiles.add(javaFile);
+        }
+        return orderedAffectedFiles;
+    }
+
+    /**
+     * Get the names of the types a source file declares: the type named after the file, plus, if the file still
+     * exists, any others declared in it, including nested types.
+     */
+    private static Set<String> getDeclaredTypeNames(File javaFile) {
+        Set<String> typeNames = new HashSet<>();
+
+        String fileName = javaFile.getName();
+        if (fileName.endsWith(".java"))
+            typeNames.add(fileName.substring(0, fileName.length() - ".java".length()));
+
+        if (javaFile.exists()) {
+            Matcher matcher = TYPE_DECLARATION.matcher(Util.readFile(javaFile));
+            while (matcher.find())
+                typeNames.add(matcher.group(1));
+        }
+
+        return typeNames;
+    }
+
+    private static Set<String> getIdentifiers(String source) {
+        Set<String> identifiers = new HashSet<>();
+        Matcher matcher = IDENTIFIER.matcher(source);
+        while (matcher.find())
+            identifiers.add(matcher.group());
+        return identifiers;
+    }
+
+    private static File getCanonicalFile(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            throw new UserViewableException("IOException when turning source file into canonical path: " + file.getPath());
+        }
+    }
+}
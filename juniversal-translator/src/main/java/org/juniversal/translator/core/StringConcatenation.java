@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * StringConcatenation helps targets that write string concatenation with a string builder, rather than with a native
+ * string + operator.  Those need to know which of the operands are concatenated--in 1 + 2 + "a" the first two are
+ * added as numbers, as Java's + is left associative--and how big to make the builder.
+ * <p>
+ * The capacity is estimated from the operands: the exact length for literals & other constants, the longest possible
+ * string for numbers & booleans, and a guess for other strings & objects.   A good estimate means the builder never
+ * grows, and that its buffer can be handed over to the resulting string rather than copied.
+ */
+public class StringConcatenation {
+    // The guess for the length of a string or object operand whose value isn't known
+    public static final int UNKNOWN_LENGTH_ESTIMATE = 16;
+
+    /**
+     * Determine if the specified expression is a string concatenation done at runtime.  Compile time constants, like
+     * "a" + 1, aren't, as Java folds them into a single literal.
+     *
+     * @param infixExpression infix expression in question
+     * @return true if the expression is a + that produces a String, and isn't a constant
+     */
+    public static boolean isStringConcatenation(InfixExpression infixExpression) {
+        return infixExpression.getOperator() == InfixExpression.Operator.PLUS &&
+               ASTUtil.isType(infixExpression.resolveTypeBinding(), "java.lang.String") &&
+               infixExpression.resolveConstantExpressionValue() == null;
+    }
+
+    /**
+     * Get all the operands of the infix expression, in order, including any extended operands.
+     *
+     * @param infixExpression infix expression
+     * @return operands
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Expression> getOperands(InfixExpression infixExpression) {
+        ArrayList<Expression> operands = new ArrayList<>();
+        operands.add(infixExpression.getLeftOperand());
+        operands.add(infixExpression.getRightOperand());
+        operands.addAll((List<Expression>) infixExpression.extendedOperands());
+        return operands;
+    }
+
+    /**
+     * Get the number of leading operands that are added together as numbers (or chars) before the result is
+     * concatenated with a string, so the sum is a single operand of the concatenation.  That's 0 in the usual case,
+     * where one of the first two operands is a String.
+     *
+     * @param operands operands of a string concatenation
+     * @return number of leading operands that are summed, which is never 1
+     */
+    public static int getSummedOperandCount(List<Expression> operands) {
+        int firstStringOperand = 0;
+        while (!isString(operands.get(firstStringOperand)))
+            ++firstStringOperand;
+        return firstStringOperand < 2 ? 0 : firstStringOperand;
+    }
+
+    /**
+     * Estimate the length of the string produced by concatenating the specified operands.
+     *
+     * @param operands operands of a string concatenation
+     * @return estimated length, for the capacity of the builder
+     */
+    public static int estimateLength(List<Expression> operands) {
+        int summedOperandCount = getSummedOperandCount(operands);
+
+        int length = 0;
+        for (int i = 0; i < summedOperandCount; ++i)
+            length = Math.max(length, estimateLength(operands.get(i)));
+
+        for (int i = summedOperandCount; i < operands.size(); ++i)
+            length += estimateLength(operands.get(i));
+        return length;
+    }
+
+    /**
+     * Estimate the length of the string for a single operand of a concatenation.
+     *
+     * @param operand operand
+     * @return exact length for constants, maximum length for primitives, or a guess otherwise
+     */
+    public static int estimateLength(Expression operand) {
+        // Literals are checked directly, as JDT doesn't resolve a constant value for the operands of a concatenation
+        // that's a constant as a whole
+        if (operand instanceof StringLiteral)
+            return ((StringLiteral) operand).getLiteralValue().length();
+        else if (operand instanceof CharacterLiteral)
+            return 1;
+
+        @Nullable Object constantValue = operand.resolveConstantExpressionValue();
+        if (constantValue != null)
+            return String.valueOf(constantValue).length();
+
+        if (operand instanceof NullLiteral)
+            return 4;
+
+        @Nullable ITypeBinding typeBinding = operand.resolveTypeBinding();
+        if (typeBinding == null || !typeBinding.isPrimitive())
+            return UNKNOWN_LENGTH_ESTIMATE;
+
+        switch (typeBinding.getName()) {
+            case "boolean": return 5;    // false
+            case "char": return 1;
+            case "byte": return 4;       // -128
+            case "short": return 6;      // -32768
+            case "int": return 11;       // -2147483648
+            case "long": return 20;      // -9223372036854775808
+            case "float": return 15;     // -1.17549435E-38
+            case "double": return 24;    // -2.2250738585072014E-308
+            default: return UNKNOWN_LENGTH_ESTIMATE;
+        }
+    }
+
+    private static boolean isString(Expression operand) {
+        return ASTUtil.isType(operand.resolveTypeBinding(), "java.lang.String");
+    }
+}
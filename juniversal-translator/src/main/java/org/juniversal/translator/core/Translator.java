@@ -44,6 +44,12 @@ public abstract class Translator {
     private int destTabStop = -1;
     private String[] classpath;
     private String[] sourcepath;
+    private boolean indexEnhancedForLoops = false;
+    private boolean mapPrimitiveCollections = false;
+    private String[] args;
+    private int shardCount = 1;
+    private @Nullable String shardMaxHeap;
+    private @Nullable File fileList;
 
     public static void main(String[] args) {
         try {
@@ -57,44 +63,81 @@ public abstract class Translator {
 
     public static boolean translate(String[] args) {
         try {
-            @Nullable String targetLanguage = null;
-
-            for (int i = 0; i < args.length; ++i) {
-                String arg = args[i];
-
-                if (arg.equals("-l")) {
-                    ++i;
-                    if (i < args.length) {
-                        targetLanguage = args[i];
-                        break;
-                    }
-                }
-            }
-
-            if (targetLanguage == null)
-                usageError("No target language specified; must specify -l <language> param");
+            return create(args).translate();
+        } catch (UserViewableException e) {
+            System.err.println("Error: " + e.getMessage());
+            return false;
+        }
+    }
 
-            Translator translator;
-            if (targetLanguage.equals("c++"))
-                translator = new CPlusPlusTranslator();
-            else if (targetLanguage.equals("c#"))
-                translator = new CSharpTranslator();
-            else {
-                throw new UserViewableException("'" + targetLanguage + "' is not a valid target language");
+    /**
+     * Translate just the source files affected by the specified changes, deleting the outputs of the removed ones,
+     * leaving the rest of the output directory as is.  This is for incremental builds, where the other sources were
+     * already translated by a previous run.  The arguments are the same as for a full translation.  The files
+     * retranslated are the changed ones inside the Java project directories, plus those that refer to a changed type,
+     * directly or indirectly, as found by {@link SourceDependencies}; that way the output is the same as a full
+     * translation would give.  The changed files can include ones outside the project directories, like source only on
+     * the sourcepath, just so the files referring to them are retranslated.  Other sources are still parsed as needed,
+     * via the sourcepath, to resolve the bindings in the translated files.
+     *
+     * @param args              command line arguments, as for a full translation
+     * @param changedJavaFiles  added & modified Java source files
+     * @param removedJavaFiles  removed Java source files
+     * @return true if all affected files were translated without error, false if some failed
+     */
+    public static boolean translateChanges(String[] args, List<File> changedJavaFiles, List<File> removedJavaFiles) {
+        try {
+            Translator translator = create(args);
+            for (File removedJavaFile : removedJavaFiles) {
+                translator.deleteOutputFiles(removedJavaFile);
             }
 
-            translator.init(args);
-            return translator.translate();
+            List<File> changedAndRemovedJavaFiles = new ArrayList<>(changedJavaFiles);
+            changedAndRemovedJavaFiles.addAll(removedJavaFiles);
+            return translator.translate(
+                    SourceDependencies.getAffectedFiles(translator.getJavaFiles(), changedAndRemovedJavaFiles));
         } catch (UserViewableException e) {
             System.err.println("Error: " + e.getMessage());
             return false;
         }
     }
 
+    private static Translator create(String[] args) {
+        @Nullable String targetLanguage = null;
+
+        for (int i = 0; i < args.length; ++i) {
+            String arg = args[i];
+
+            if (arg.equals("-l")) {
+                ++i;
+                if (i < args.length) {
+                    targetLanguage = args[i];
+                    break;
+                }
+            }
+        }
+
+        if (targetLanguage == null)
+            usageError("No target language specified; must specify -l <language> param");
+
+        Translator translator;
+        if (targetLanguage.equals("c++"))
+            translator = new CPlusPlusTranslator();
+        else if (targetLanguage.equals("c#"))
+            translator = new CSharpTranslator();
+        else {
+            throw new UserViewableException("'" + targetLanguage + "' is not a valid target language");
+        }
+
+        translator.init(args);
+        return translator;
+    }
+
     public Translator() {
     }
 
     public void init(String[] args) {
+        this.args = args;
         javaProjectDirectories = new ArrayList<>();
 
         for (int i = 0; i < args.length; ++i) {
@@ -125,6 +168,33 @@ public abstract class Translator {
                     arg = args[i];
 
                     sourcepath = getPathArgument(arg, "-sourcepath");
+                } else if (arg.equals("-indexEnhancedForLoops")) {
+                    indexEnhancedForLoops = true;
+                } else if (arg.equals("-mapPrimitiveCollections")) {
+                    mapPrimitiveCollections = true;
+                } else if (arg.equals("-shards")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    try {
+                        shardCount = Integer.parseInt(args[i]);
+                    } catch (NumberFormatException e) {
+                        usageError("-shards must be followed by a number");
+                    }
+                    if (shardCount == 0)
+                        shardCount = Runtime.getRuntime().availableProcessors();
+                    else if (shardCount < 0)
+                        usageError("-shards must be followed by a number");
+                } else if (arg.equals("-shardMaxHeap")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    shardMaxHeap = args[i];
+                } else if (arg.equals("-fileList")) {
+                    ++i;
+                    if (i >= args.length)
+                        usageError();
+                    fileList = new File(args[i]);
                 } else
                     usageError();
             } else
@@ -155,11 +225,16 @@ public abstract class Translator {
         usageError(null);
     }
 
+    /**
+     * Report invalid arguments, by throwing a UserViewableException containing the message (if any) followed by the
+     * usage.  That's reported like any other user error, so the translator never exits the JVM itself (other than from
+     * main), which matters when it's run inside a build tool.
+     *
+     * @param message description of what's wrong with the arguments, or null if nothing specific
+     */
     public static void usageError(@Nullable String message) {
-        if (message != null)
-            System.err.println(message);
-        System.err.println("Usage: -o <output-directory> -l <target-language> [-classpath <classpath>] [-sourcepath <sourcepath>] <java-project-directories-to-translate>...");
-        System.exit(1);
+        String usage = "Usage: -o <output-directory> -l <target-language> [-classpath <classpath>] [-sourcepath <sourcepath>] [-indexEnhancedForLoops] [-mapPrimitiveCollections] [-shards <count>] [-shardMaxHeap <size>] [-fileList <file>] <java-project-directories-to-translate>...";
+        throw new UserViewableException(message != null ? message + "\n" + usage : usage);
     }
 
     private static File validateAndNormalizeDirectoryArgument(String path, boolean ensureExists) {
@@ -183,11 +258,7 @@ public abstract class Translator {
     public File getPackageDirectory(AbstractTypeDeclaration abstractTypeDeclaration) {
         String[] packageNameComponents = abstractTypeDeclaration.resolveBinding().getPackage().getNameComponents();
 
-        File directory = outputDirectory;
-        for (String packageNameComponent : packageNameComponents) {
-            directory = new File(directory, packageNameComponent);
-        }
-
+        File directory = getPackageDirectory(packageNameComponents);
         if (!directory.exists()) {
             if (!directory.mkdirs())
                 throw new JUniversalException("Unable to create directory for path: " + directory);
@@ -196,15 +267,52 @@ public abstract class Translator {
         return directory;
     }
 
+    /**
+     * Get the output directory for the specified package, without creating it.
+     *
+     * @param packageNameComponents package name components, empty for the default package
+     * @return directory for the package in the output directory
+     */
+    public File getPackageDirectory(String[] packageNameComponents) {
+        File directory = outputDirectory;
+        for (String packageNameComponent : packageNameComponents) {
+            directory = new File(directory, packageNameComponent);
+        }
+        return directory;
+    }
+
     /**
      * Translate all source files configured for the translator.   If a user errors occurs during translation for a file
      * (e.g. a SourceNotSupported exception is thrown), an error message is output for that file, the translation
      * continues on with remaining files, and false is eventually returned from this method as the translate failed.  If
      * an internal occurs during translation (e.g. the translator has a bug), an exception is thrown.
      *
+     * <p>
+     * With -shards, the files are split between that many child JVMs, which translate them at the same time; see
+     * ShardedTranslation.  With -fileList, only the files listed in that file are translated, rather than everything
+     * in the project directories.  That's how each shard is told its files.
+     *
      * @return true if all files were translated without error, false if some failed
      */
     public boolean translate() {
+        List<File> javaFiles = fileList != null ? readFileList(fileList) : getJavaFiles();
+
+        if (shardCount > 1 && javaFiles.size() > shardCount)
+            return new ShardedTranslation(this, javaFiles).translate();
+        else return translate(javaFiles);
+    }
+
+    /**
+     * Translate the specified source files, which are normally some of those in the Java project directories.  Errors
+     * are handled the same as for translating everything.
+     *
+     * @param javaFiles Java source files to translate
+     * @return true if all files were translated without error, false if some failed
+     */
+    public boolean translate(List<File> javaFiles) {
+        if (javaFiles.isEmpty())
+            return true;
+
         ASTParser parser = ASTParser.newParser(AST.JLS8);
         parser.setKind(ASTParser.K_COMPILATION_UNIT);
         //parser.setEnvironment(new String[0], new String[0], null, false);
@@ -236,6 +344,7 @@ public abstract class Translator {
                 // on
                 System.out.println("Translating " + sourceFilePath);
                 try {
+                    ValueTypes.validate(sourceFile);
                     translateFile(sourceFile);
                 } catch (UserViewableException e) {
                     System.err.println("Error: " + e.getMessage());
@@ -244,7 +353,12 @@ public abstract class Translator {
             }
         };
 
-        parser.createASTs(getJavaFiles(), null, new String[0], astRequestor, null);
+        int length = javaFiles.size();
+        String[] filePathsArray = new String[length];
+        for (int i = 0; i < length; ++i)
+            filePathsArray[i] = javaFiles.get(i).getPath();
+
+        parser.createASTs(filePathsArray, null, new String[0], astRequestor, null);
 
         return !failed.value();
 
@@ -286,6 +400,65 @@ public abstract class Translator {
 
     public abstract void translateFile(SourceFile sourceFile);
 
+    /**
+     * Get the files that translateFile writes for a source file whose main type has the specified name &amp; package.
+     * These must match what translateFile actually writes, as they're used to delete the outputs of removed sources.
+     *
+     * @param packageNameComponents package name components, empty for the default package
+     * @param typeName              name of the source file's main type
+     * @return output files for the source file
+     */
+    public abstract List<File> getOutputFiles(String[] packageNameComponents, String typeName);
+
+    /**
+     * Delete the output files for a Java source file that was removed, along with any package directories that are
+     * left empty.  The source file's package &amp; main type are taken from its path relative to the Java project
+     * directory it was in, as the file itself no longer exists to parse.  Files that weren't in any of the project
+     * directories don't have outputs, so are ignored.
+     *
+     * @param javaFile removed Java source file
+     */
+    public void deleteOutputFiles(File javaFile) {
+        File canonicalJavaFile;
+        try {
+            canonicalJavaFile = javaFile.getCanonicalFile();
+        } catch (IOException e) {
+            throw new UserViewableException("IOException when turning source file into canonical path: " + javaFile.getPath());
+        }
+
+        @Nullable List<String> relativePath = null;
+        for (File directory : javaProjectDirectories) {
+            relativePath = Util.getRelativePathComponents(directory, canonicalJavaFile);
+            if (relativePath != null)
+                break;
+        }
+        if (relativePath == null)
+            return;
+
+        String fileName = relativePath.remove(relativePath.size() - 1);
+        if (!fileName.endsWith(".java"))
+            return;
+        String typeName = fileName.substring(0, fileName.length() - ".java".length());
+        String[] packageNameComponents = relativePath.toArray(new String[relativePath.size()]);
+
+        for (File outputFile : getOutputFiles(packageNameComponents, typeName)) {
+            if (outputFile.exists()) {
+                System.out.println("Deleting " + outputFile.getPath());
+                if (!outputFile.delete())
+                    throw new JUniversalException("Unable to delete file: " + outputFile);
+            }
+
+            // Remove the package directories that are now empty, stopping at the output directory itself
+            File directory = outputFile.getParentFile();
+            while (directory != null && !directory.equals(outputDirectory)) {
+                String[] children = directory.list();
+                if (children == null || children.length > 0 || !directory.delete())
+                    break;
+                directory = directory.getParentFile();
+            }
+        }
+    }
+
     /**
      * Translate a single node in the AST.   This method is normally just used for testing (unit tests); for production
      * use whole files are always translated.
@@ -312,12 +485,77 @@ public abstract class Translator {
         this.destTabStop = destTabStop;
     }
 
+    /**
+     * If true, enhanced for loops over local arrays & Lists are written as indexed loops, when it's safe to do so,
+     * instead of using the target language's iterator based loop.   See EnhancedForLowering for the details.   Target
+     * languages without an iterator equivalent always index such loops.
+     *
+     * @return whether enhanced for loops should be indexed
+     */
+    public boolean getIndexEnhancedForLoops() {
+        return indexEnhancedForLoops;
+    }
+
+    public void setIndexEnhancedForLoops(boolean indexEnhancedForLoops) {
+        this.indexEnhancedForLoops = indexEnhancedForLoops;
+    }
+
+    /**
+     * If true, generic collections whose type arguments are all primitive wrappers (e.g. ArrayList<Integer> or
+     * HashMap<Integer, Long>) are written as the primitive specialized collection that the target language's
+     * primitive collection map gives for them, avoiding boxing each element.   Collections not in the map are written
+     * as usual.   Only a subset of the collection methods can be called on mapped collections; see
+     * PrimitiveCollectionMethods.
+     *
+     * @return whether primitive collection mapping is enabled
+     */
+    public boolean getMapPrimitiveCollections() {
+        return mapPrimitiveCollections;
+    }
+
+    public void setMapPrimitiveCollections(boolean mapPrimitiveCollections) {
+        this.mapPrimitiveCollections = mapPrimitiveCollections;
+    }
+
+    /**
+     * Get the arguments the translator was initialized with.
+     *
+     * @return command line arguments
+     */
+    public String[] getArgs() {
+        return args;
+    }
+
+    public List<File> getJavaProjectDirectories() {
+        return javaProjectDirectories;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public @Nullable String getShardMaxHeap() {
+        return shardMaxHeap;
+    }
+
+    /**
+     * Get the source files to translate listed in a file, one path per line, as written for a shard.
+     */
+    private static List<File> readFileList(File fileList) {
+        List<File> files = new ArrayList<>();
+        for (String line : Util.readFile(fileList).split("\\r?\\n")) {
+            if (!line.isEmpty())
+                files.add(new File(line));
+        }
+        return files;
+    }
+
     /**
      * Get all the source files in the specified Java project directories.
      *
      * @return list of all files in the project directories, in project directory order specified on command line
      */
-    private String[] getJavaFiles() {
+    private List<File> getJavaFiles() {
         ArrayList<File> files = new ArrayList<File>();
 
         for (File directory : javaProjectDirectories) {
@@ -329,11 +567,6 @@ public abstract class Translator {
             }
         }
 
-        int length = files.size();
-        String[] filePathsArray = new String[length];
-        for (int i = 0; i < length; ++i)
-            filePathsArray[i] = files.get(i).getPath();
-
-        return filePathsArray;
+        return files;
     }
 }
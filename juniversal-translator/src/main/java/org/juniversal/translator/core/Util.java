@@ -22,10 +22,14 @@
 
 package org.juniversal.translator.core;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Util {
@@ -79,6 +83,28 @@ public class Util {
 		}
 	}
 
+	/**
+	 * Get the path of a file relative to a directory, as a list of its components (directory names
+	 * followed by the file name).
+	 * 
+	 * @param directory
+	 *            directory that may contain the file
+	 * @param file
+	 *            file, at any depth under the directory
+	 * @return components of the relative path, or null if the file isn't under the directory
+	 */
+	public static @Nullable List<String> getRelativePathComponents(File directory, File file) {
+		ArrayList<String> components = new ArrayList<String>();
+		for (File current = file; current != null; current = current.getParentFile()) {
+			if (current.equals(directory)) {
+				Collections.reverse(components);
+				return components;
+			}
+			components.add(current.getName());
+		}
+		return null;
+	}
+
 	public static String readFile(File file) {
 		try {
 			StringBuilder stringBuilder = new StringBuilder();
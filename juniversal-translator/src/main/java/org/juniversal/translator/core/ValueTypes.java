@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import static org.juniversal.translator.core.ASTUtil.*;
+
+/**
+ * Support for @ValueType annotated classes.   A value type is a small immutable class, like a Point or Color, which is
+ * translated to a C# struct or a C++ class used by value rather than via a pointer, so it's stored inline in arrays &
+ * fields instead of being a separate heap object.   As with @Nullable, any annotation with simple name "ValueType"
+ * counts, so projects can define their own.
+ * <p>
+ * For that to preserve Java semantics, value types must be final, have only final fields, not extend anything, and
+ * their instances must never be null or be used for their identity (compared with == or !=, or synchronized on).
+ * They also can't be used where a reference is needed--as a type argument, converted to Object or an interface, or
+ * tested with instanceof--as C++ has no boxed form of them.  The validate method checks all of that, for both the
+ * value type declarations &amp; their uses in a source file.
+ * <p>
+ * Where Java would implicitly use null--the elements of a new array and fields that aren't initialized--value types
+ * instead have a default value, with all their fields 0/false/null, as C# structs do.   Reading one of those before
+ * it's assigned gives the default value, rather than the NullPointerException Java would throw on using it.   For the
+ * default value to be the same for all targets, value types can't declare a no-argument constructor.
+ */
+public class ValueTypes {
+    /**
+     * Returns true if the specified type is a @ValueType annotated class.
+     *
+     * @param typeBinding type in question
+     * @return true if the type is a value type
+     */
+    public static boolean isValueType(@Nullable ITypeBinding typeBinding) {
+        if (typeBinding == null || !typeBinding.isClass())
+            return false;
+
+        return anyMatch(typeBinding.getTypeDeclaration().getAnnotations(), (IAnnotationBinding annotationBinding) ->
+                annotationBinding.getAnnotationType().getName().equals("ValueType"));
+    }
+
+    public static boolean isValueType(TypeDeclaration typeDeclaration) {
+        return isValueType(typeDeclaration.resolveBinding());
+    }
+
+    public static boolean isValueType(Type type) {
+        return isValueType(type.resolveBinding());
+    }
+
+    /**
+     * Check that all value type declarations in the source file follow the value type rules and that value types are
+     * never used as null or for their identity.   If a problem is found, a SourceNotSupportedException is thrown.
+     *
+     * @param sourceFile source file to validate
+     */
+    public static void validate(SourceFile sourceFile) {
+        sourceFile.getCompilationUnit().accept(new ASTVisitor() {
+            @Override public boolean visit(TypeDeclaration typeDeclaration) {
+                if (isValueType(typeDeclaration))
+                    validateDeclaration(sourceFile, typeDeclaration);
+                return true;
+            }
+
+            @Override public boolean visit(InfixExpression infixExpression) {
+                InfixExpression.Operator operator = infixExpression.getOperator();
+                if ((operator == InfixExpression.Operator.EQUALS || operator == InfixExpression.Operator.NOT_EQUALS) &&
+                    (isValueType(infixExpression.getLeftOperand().resolveTypeBinding()) ||
+                     isValueType(infixExpression.getRightOperand().resolveTypeBinding())))
+                    throw sourceNotSupported(sourceFile, infixExpression,
+                            "Value types can't be compared with == or !=, as they don't have an identity; use equals() instead");
+                return true;
+            }
+
+            @Override public boolean visit(SynchronizedStatement synchronizedStatement) {
+                if (isValueType(synchronizedStatement.getExpression().resolveTypeBinding()))
+                    throw sourceNotSupported(sourceFile, synchronizedStatement,
+                            "Value types can't be synchronized on, as they don't have an identity");
+                return true;
+            }
+
+            @Override public boolean visit(NullLiteral nullLiteral) {
+                if (isValueType(getExpectedType(nullLiteral)))
+                    throw sourceNotSupported(sourceFile, nullLiteral, "Value types can't be null");
+                return false;
+            }
+
+            @Override public boolean visit(InstanceofExpression instanceofExpression) {
+                if (isValueType(instanceofExpression.getLeftOperand().resolveTypeBinding()) ||
+                    isValueType(instanceofExpression.getRightOperand().resolveBinding()))
+                    throw sourceNotSupported(sourceFile, instanceofExpression,
+                            "Value types can't be used with instanceof, as they're only used by value");
+                return true;
+            }
+
+            @Override public boolean visit(ParameterizedType parameterizedType) {
+                validateTypeArguments(sourceFile, parameterizedType, parameterizedType.resolveBinding());
+                return true;
+            }
+
+            @Override public boolean visit(ClassInstanceCreation classInstanceCreation) {
+                // Catches the type arguments inferred for <>
+                validateTypeArguments(sourceFile, classInstanceCreation, classInstanceCreation.resolveTypeBinding());
+                return true;
+            }
+
+            @Override public boolean visit(MethodInvocation methodInvocation) {
+                // Catches the type arguments, given or inferred, of generic methods
+                @Nullable IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+                if (methodBinding != null && anyValueTypeArgument(methodBinding.getTypeArguments()))
+                    throw typeArgumentNotSupported(sourceFile, methodInvocation);
+                return true;
+            }
+
+            // Conversions are checked after the children, so a null in "b ? null : p" is reported as that.  That
+            // includes passing one to equals(Object); value types compare by value with their own equals(T)
+            @Override public void postVisit(ASTNode node) {
+                if (node instanceof Expression && isValueType(((Expression) node).resolveTypeBinding())) {
+                    @Nullable ITypeBinding expectedType = getExpectedType((Expression) node);
+                    if (expectedType != null && !isValueType(expectedType))
+                        throw sourceNotSupported(sourceFile, node,
+                                "Value types can't be converted to Object or an interface, as they're only used by value");
+                }
+            }
+        });
+    }
+
+    private static void validateTypeArguments(SourceFile sourceFile, ASTNode node, @Nullable ITypeBinding typeBinding) {
+        if (typeBinding != null && anyValueTypeArgument(typeBinding.getTypeArguments()))
+            throw typeArgumentNotSupported(sourceFile, node);
+    }
+
+    private static boolean anyValueTypeArgument(ITypeBinding[] typeArguments) {
+        return anyMatch(typeArguments, (ITypeBinding typeArgument) ->
+                isValueType(typeArgument.isWildcardType() ? typeArgument.getBound() : typeArgument));
+    }
+
+    private static SourceNotSupportedException typeArgumentNotSupported(SourceFile sourceFile, ASTNode node) {
+        return sourceNotSupported(sourceFile, node,
+                "Value types can't be used as type arguments, as generic code uses its type parameters by reference");
+    }
+
+
+    private static void validateDeclaration(SourceFile sourceFile, TypeDeclaration typeDeclaration) {
+        if (typeDeclaration.isInterface())
+            throw sourceNotSupported(sourceFile, typeDeclaration, "Only classes, not interfaces, can be value types");
+
+        if (!isFinal(typeDeclaration))
+            throw sourceNotSupported(sourceFile, typeDeclaration, "Value types must be final");
+
+        if (typeDeclaration.getSuperclassType() != null)
+            throw sourceNotSupported(sourceFile, typeDeclaration, "Value types can't extend another class");
+
+        for (FieldDeclaration fieldDeclaration : typeDeclaration.getFields()) {
+            if (!isStatic(fieldDeclaration) && !isFinal(fieldDeclaration))
+                throw sourceNotSupported(sourceFile, fieldDeclaration,
+                        "Value types must be immutable, so all their instance fields must be final");
+        }
+
+        for (MethodDeclaration methodDeclaration : typeDeclaration.getMethods()) {
+            if (methodDeclaration.isConstructor() && methodDeclaration.parameters().isEmpty())
+                throw sourceNotSupported(sourceFile, methodDeclaration,
+                        "Value types can't have a no-argument constructor, as their default value has all fields 0/false/null");
+
+            if (isSynchronized(methodDeclaration))
+                throw sourceNotSupported(sourceFile, methodDeclaration,
+                        "Value types can't have synchronized methods, as they don't have an identity");
+        }
+
+        if (usesInstanceMonitor(typeDeclaration))
+            throw sourceNotSupported(sourceFile, typeDeclaration,
+                    "Value types can't synchronize on this, as they don't have an identity");
+    }
+
+    private static SourceNotSupportedException sourceNotSupported(SourceFile sourceFile, ASTNode node,
+                                                                  String baseMessage) {
+        return new SourceNotSupportedException(baseMessage, sourceFile.getPositionDescription(node.getStartPosition()));
+    }
+}
@@ -22,7 +22,12 @@
 
 package org.juniversal.translator.cplusplus;
 
-import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.*;
+import org.juniversal.translator.core.StringConcatenation;
+
+import java.util.List;
+
+import static org.juniversal.translator.core.ASTUtil.isType;
 
 
 public class AssignmentWriter extends CPlusPlusASTNodeWriter<Assignment> {
@@ -46,6 +51,9 @@ public class AssignmentWriter extends CPlusPlusASTNodeWriter<Assignment> {
             write(", ");
             writeNode(assignment.getRightHandSide());
             write(")");
+        } else if (operator == Assignment.Operator.PLUS_ASSIGN &&
+                   isType(assignment.getLeftHandSide().resolveTypeBinding(), "java.lang.String")) {
+            writeStringPlusAssignment(assignment);
         } else {
             writeNode(assignment.getLeftHandSide());
 
@@ -79,4 +87,53 @@ public class AssignmentWriter extends CPlusPlusASTNodeWriter<Assignment> {
             writeNode(assignment.getRightHandSide());
         }
     }
+
+    /**
+     * s += x is written as s = s + x, with the concatenation written as a StringBuilder chain, like other string
+     * concatenation (see InfixExpressionWriter).  As the left hand side is written twice, it's only supported when
+     * evaluating it has no side effects.
+     */
+    private void writeStringPlusAssignment(Assignment assignment) {
+        Expression leftHandSide = assignment.getLeftHandSide();
+        if (!isSideEffectFree(leftHandSide))
+            throw sourceNotSupported("String += is only supported when the left hand side is a variable, field, or array element with a simple index");
+
+        writeNode(leftHandSide);
+
+        copySpaceAndComments();
+        matchAndWrite("+=", "=");
+
+        copySpaceAndComments();
+        Expression rightHandSide = assignment.getRightHandSide();
+
+        // If the right hand side is itself a concatenation, its operands are appended to the same builder
+        if (rightHandSide instanceof InfixExpression &&
+            StringConcatenation.isStringConcatenation((InfixExpression) rightHandSide)) {
+            List<Expression> operands = StringConcatenation.getOperands((InfixExpression) rightHandSide);
+
+            writeStringBuilderCreation(StringConcatenation.estimateLength(leftHandSide) +
+                                       StringConcatenation.estimateLength(operands));
+            writeNodeAtDifferentPosition(leftHandSide);
+            write(")->append(");
+            writeConcatenationOperands(operands);
+        } else {
+            writeStringBuilderCreation(StringConcatenation.estimateLength(leftHandSide) +
+                                       StringConcatenation.estimateLength(rightHandSide));
+            writeNodeAtDifferentPosition(leftHandSide);
+            write(")->append(");
+            writeConcatenationOperand(rightHandSide);
+        }
+        write(")->toString()");
+    }
+
+    private static boolean isSideEffectFree(Expression expression) {
+        if (expression instanceof Name || expression instanceof ThisExpression || expression instanceof NumberLiteral)
+            return true;
+        else if (expression instanceof FieldAccess)
+            return isSideEffectFree(((FieldAccess) expression).getExpression());
+        else if (expression instanceof ArrayAccess) {
+            ArrayAccess arrayAccess = (ArrayAccess) expression;
+            return isSideEffectFree(arrayAccess.getArray()) && isSideEffectFree(arrayAccess.getIndex());
+        } else return false;
+    }
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+
+import static org.juniversal.translator.core.ASTUtil.getPrimitiveWrapperName;
+import static org.juniversal.translator.core.ASTUtil.getWrappedPrimitiveTypeName;
+import static org.juniversal.translator.core.ASTUtil.isPrimitiveWrapperType;
+
+/**
+ * Writes the boxing & unboxing conversions that Java does implicitly.  Boxing is written as a call to the runtime's
+ * box<Integer>(value) (see juniversal_box.h), which returns cached objects for small values, and unboxing as a call
+ * to intValue() etc. on the object.
+ * <p>
+ * Whether a conversion is needed is based on what the value is in C++, which isn't always what it is in Java:  locals
+ * that BoxingAnalysis finds are only used unboxed are declared with the primitive type, and elements of primitive
+ * collections are stored unboxed.  When such a value is boxed & then unboxed again in Java, nothing is written.
+ * <p>
+ * Unlike the other writers, this isn't registered for a node type.  The source file writer calls it for any expression
+ * that needs a conversion, and it in turn writes the expression itself as usual.
+ */
+public class BoxingWriter extends CPlusPlusASTNodeWriter<Expression> {
+    public BoxingWriter(CPlusPlusSourceFileWriter cPlusPlusSourceFileWriter) {
+        super(cPlusPlusSourceFileWriter);
+    }
+
+    /**
+     * Returns true if the expression needs to be boxed or unboxed where it's used.
+     *
+     * @param expression expression in question
+     * @return true if the expression is a primitive where an object is needed in C++, or vice versa
+     */
+    public boolean needsConversion(Expression expression) {
+        @Nullable ITypeBinding typeBinding = expression.resolveTypeBinding();
+        if (typeBinding == null || !(typeBinding.isPrimitive() || isPrimitiveWrapperType(typeBinding)))
+            return false;
+
+        // Names being declared aren't values
+        if (expression instanceof SimpleName && ((SimpleName) expression).isDeclaration())
+            return false;
+
+        return isPrimitiveValue(expression) != isPrimitiveExpected(expression);
+    }
+
+    @Override
+    public void write(Expression expression) {
+        if (isPrimitiveValue(expression))
+            writeBoxed(expression);
+        else writeUnboxed(expression);
+    }
+
+    private void writeBoxed(Expression expression) {
+        ITypeBinding typeBinding = expression.resolveTypeBinding();
+
+        // The value may be a primitive only in C++, in which case it's of a wrapper type in Java
+        @Nullable String wrapperName = typeBinding.isPrimitive() ? getPrimitiveWrapperName(typeBinding) :
+                typeBinding.getName();
+        if (wrapperName == null || wrapperName.equals("Float") || wrapperName.equals("Double") ||
+            wrapperName.equals("Boolean"))
+            throw sourceNotSupported("Boxing " + typeBinding.getName() +
+                                     " values isn't currently supported; only integer & char values can be boxed");
+
+        write("box<" + wrapperName + ">(");
+        getSourceFileWriter().writeUnconvertedNode(expression);
+        write(")");
+    }
+
+    private void writeUnboxed(Expression expression) {
+        ASTNode parent = expression.getParent();
+        if ((parent instanceof Assignment && ((Assignment) parent).getLeftHandSide() == expression) ||
+            parent instanceof PostfixExpression || (parent instanceof PrefixExpression &&
+            (((PrefixExpression) parent).getOperator() == PrefixExpression.Operator.INCREMENT ||
+             ((PrefixExpression) parent).getOperator() == PrefixExpression.Operator.DECREMENT)))
+            throw sourceNotSupported("Incrementing or compound assignment of a boxed value isn't currently supported; " +
+                                     "use a primitive type instead");
+
+        boolean parenthesize = !(expression instanceof Name || expression instanceof MethodInvocation ||
+                                 expression instanceof SuperMethodInvocation || expression instanceof FieldAccess ||
+                                 expression instanceof SuperFieldAccess || expression instanceof ArrayAccess ||
+                                 expression instanceof ParenthesizedExpression);
+
+        if (parenthesize)
+            write("(");
+        getSourceFileWriter().writeUnconvertedNode(expression);
+        if (parenthesize)
+            write(")");
+
+        write("->" + getWrappedPrimitiveTypeName(expression.resolveTypeBinding()) + "Value()");
+    }
+
+    /**
+     * Returns true if the value of the expression, as written in C++, is a primitive.
+     */
+    private boolean isPrimitiveValue(Expression expression) {
+        if (expression instanceof ParenthesizedExpression)
+            return isPrimitiveValue(((ParenthesizedExpression) expression).getExpression());
+
+        if (expression.resolveTypeBinding().isPrimitive())
+            return true;
+
+        // Assignments & increments evaluate to the (unboxed) variable
+        Expression variable = expression;
+        if (expression instanceof Assignment)
+            variable = ((Assignment) expression).getLeftHandSide();
+        else if (expression instanceof PrefixExpression)
+            variable = ((PrefixExpression) expression).getOperand();
+        else if (expression instanceof PostfixExpression)
+            variable = ((PostfixExpression) expression).getOperand();
+
+        return isUnboxedLocalReference(variable) || isPrimitiveCollectionElement(expression);
+    }
+
+    /**
+     * Returns true if the context where the expression is used expects a primitive in C++.
+     */
+    private boolean isPrimitiveExpected(Expression expression) {
+        ASTNode parent = expression.getParent();
+
+        // Any conversion is done outside the parentheses, assignments never convert the variable assigned to, and
+        // values that are discarded aren't converted at all
+        if (parent instanceof ParenthesizedExpression || parent instanceof ExpressionStatement ||
+            (parent instanceof ForStatement && ((ForStatement) parent).updaters().contains(expression)) ||
+            (parent instanceof Assignment && ((Assignment) parent).getLeftHandSide() == expression &&
+             ((Assignment) parent).getOperator() == Assignment.Operator.ASSIGN))
+            return isPrimitiveValue(expression);
+
+        // Incrementing an unboxed local, or compound assignment to it, needs no conversion either
+        if (isUnboxedLocalReference(expression))
+            return true;
+
+        if (parent instanceof VariableDeclarationFragment &&
+            ((VariableDeclarationFragment) parent).getInitializer() == expression &&
+            isUnboxedLocal((VariableDeclarationFragment) parent))
+            return true;
+        if (parent instanceof Assignment && ((Assignment) parent).getRightHandSide() == expression &&
+            isUnboxedLocalReference(((Assignment) parent).getLeftHandSide()))
+            return true;
+        if (isPrimitiveCollectionArgument(expression))
+            return true;
+
+        if (expression.resolveUnboxing())
+            return true;
+        else if (expression.resolveBoxing())
+            return false;
+        else return expression.resolveTypeBinding().isPrimitive();
+    }
+}
@@ -22,8 +22,12 @@
 
 package org.juniversal.translator.cplusplus;
 
+import org.jetbrains.annotations.Nullable;
 import org.juniversal.translator.core.TargetProfile;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * The CPPProfile class describes how the C++ should be generated.  Primarily this class gives
  * attributes of the target C++ compiler, for example saying what types are used to represent
@@ -39,7 +43,18 @@ public class CPPProfile extends TargetProfile {
     private String float32Type = "float";
     private String float64Type = "double";
     private String unsignedInt32UnicodeCharType = "unsigned short";
+    private HashMap<String, String> primitiveCollectionMap = new HashMap<>();
+    private String mutexType = "std::recursive_mutex";
+    private boolean stackAllocateNonEscapingObjects = false;
+    private boolean uncheckedArrayAccess = false;
+    private boolean unboxLocals = true;
 
+    public CPPProfile() {
+        primitiveCollectionMap.put("java.util.List", "PrimitiveList");
+        primitiveCollectionMap.put("java.util.ArrayList", "PrimitiveList");
+        primitiveCollectionMap.put("java.util.Map", "PrimitiveMap");
+        primitiveCollectionMap.put("java.util.HashMap", "PrimitiveMap");
+    }
 
     public String getInt8Type() {
         return int8Type;
@@ -68,4 +83,110 @@ public class CPPProfile extends TargetProfile {
     public String getUnsignedInt32UnicodeCharType() {
         return unsignedInt32UnicodeCharType;
     }
+
+    /**
+     * Get the map from Java generic collection type (e.g. "java.util.ArrayList") to the C++ template used for it when
+     * all its type arguments are primitive wrappers; the template is instantiated with the corresponding primitive
+     * types, so elements are stored unboxed.  The default templates are the runtime's PrimitiveList & PrimitiveMap (see
+     * PrimitiveCollections.h); any replacement must likewise be an Object subclass with the methods that
+     * PrimitiveCollectionMethods supports, since calls are written with their Java names.  The map is only used when
+     * the translator's getMapPrimitiveCollections() is true.
+     *
+     * @return primitive collection map
+     */
+    public Map<String, String> getPrimitiveCollectionMap() {
+        return primitiveCollectionMap;
+    }
+
+    /**
+     * Get the C++ mutex type used for @Lock annotated fields.  Locks are acquired with std::lock_guard.   The default is
+     * std::recursive_mutex, since Java monitors are reentrant; code known to never reacquire a lock it holds can use the
+     * cheaper std::mutex.  Object monitors, for synchronized methods and "synchronized (this)", are always the runtime
+     * Object's recursive Monitor, as they're shared by every class in an object's hierarchy.
+     *
+     * @return C++ mutex type
+     */
+    public String getMutexType() {
+        return mutexType;
+    }
+
+    public void setMutexType(String mutexType) {
+        this.mutexType = mutexType;
+    }
+
+    /**
+     * Get whether objects created & held in a local variable which never escape the method (see EscapeAnalysis) are
+     * allocated on the stack, instead of on the heap with a ptr<> reference.  This is off by default, since the
+     * analysis assumes that the object's constructor & methods don't store "this" anywhere that outlives the call,
+     * which the translator can't verify.
+     *
+     * @return true if non-escaping local objects are allocated on the stack
+     */
+    public boolean getStackAllocateNonEscapingObjects() {
+        return stackAllocateNonEscapingObjects;
+    }
+
+    public void setStackAllocateNonEscapingObjects(boolean stackAllocateNonEscapingObjects) {
+        this.stackAllocateNonEscapingObjects = stackAllocateNonEscapingObjects;
+    }
+
+    /**
+     * Get whether all array element accesses skip the bounds check.  By default accesses are checked, throwing
+     * ArrayIndexOutOfBoundsException as in Java, except where the translator can prove the index is in bounds (see
+     * ArrayBoundsAnalysis).  Turning this on, typically for release builds of well tested code, makes out of bounds
+     * accesses undefined behavior instead.
+     *
+     * @return true if array accesses are never bounds checked
+     */
+    public boolean getUncheckedArrayAccess() {
+        return uncheckedArrayAccess;
+    }
+
+    public void setUncheckedArrayAccess(boolean uncheckedArrayAccess) {
+        this.uncheckedArrayAccess = uncheckedArrayAccess;
+    }
+
+    /**
+     * Get whether local variables of a primitive wrapper type, like Integer, that are only ever used as primitives
+     * (see BoxingAnalysis) are declared with the primitive type instead, skipping the boxing & unboxing.  This is on by
+     * default; the analysis only accepts variables whose object identity is never used, so behavior doesn't change.
+     *
+     * @return true if such locals are declared unboxed
+     */
+    public boolean getUnboxLocals() {
+        return unboxLocals;
+    }
+
+    public void setUnboxLocals(boolean unboxLocals) {
+        this.unboxLocals = unboxLocals;
+    }
+
+    /**
+     * Get the C++ primitive type corresponding to the specified Java primitive wrapper class.
+     *
+     * @param wrapperQualifiedName fully qualified name of wrapper class, e.g. "java.lang.Integer"
+     * @return C++ type or null if the class isn't a primitive wrapper
+     */
+    public @Nullable String getPrimitiveTypeForWrapper(String wrapperQualifiedName) {
+        switch (wrapperQualifiedName) {
+            case "java.lang.Byte":
+                return int8Type;
+            case "java.lang.Short":
+                return int16Type;
+            case "java.lang.Integer":
+                return int32Type;
+            case "java.lang.Long":
+                return int64Type;
+            case "java.lang.Float":
+                return float32Type;
+            case "java.lang.Double":
+                return float64Type;
+            case "java.lang.Character":
+                return "unichar";
+            case "java.lang.Boolean":
+                return "bool";
+            default:
+                return null;
+        }
+    }
 }
@@ -22,15 +22,20 @@
 
 package org.juniversal.translator.cplusplus;
 
-import org.eclipse.jdt.core.dom.ASTNode;
-import org.eclipse.jdt.core.dom.Name;
-import org.eclipse.jdt.core.dom.Type;
-import org.eclipse.jdt.core.dom.TypeParameter;
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
 import org.juniversal.translator.core.ASTNodeWriter;
+import org.juniversal.translator.core.StringConcatenation;
+import org.juniversal.translator.core.ValueTypes;
 
 import java.util.List;
 
+import static org.juniversal.translator.core.ASTUtil.anyTypeOrAncestorMatch;
 import static org.juniversal.translator.core.ASTUtil.forEach;
+import static org.juniversal.translator.core.ASTUtil.isAssigned;
+import static org.juniversal.translator.core.ASTUtil.getUnusedLocalName;
+import static org.juniversal.translator.core.ASTUtil.hasOnlyPrimitiveWrapperTypeArguments;
+import static org.juniversal.translator.core.ASTUtil.isType;
 
 
 public abstract class CPlusPlusASTNodeWriter<T extends ASTNode> extends ASTNodeWriter<T> {
@@ -56,7 +61,7 @@ public abstract class CPlusPlusASTNodeWriter<T extends ASTNode> extends ASTNodeW
     }
 
     public void writeArrayOfType(Type elementType) {
-        write("array<");
+        write("Array<");
         writeNode(elementType);
         write(">");
     }
@@ -67,7 +72,8 @@ public abstract class CPlusPlusASTNodeWriter<T extends ASTNode> extends ASTNodeW
      * @param type type to write
      */
     public void writeType(Type type, boolean useRawPointer) {
-        boolean referenceType = !type.isPrimitiveType();
+        // @ValueType classes are held by value, like primitives, rather than via a pointer
+        boolean referenceType = !type.isPrimitiveType() && !ValueTypes.isValueType(type);
 
         if (!referenceType)
             writeNode(type);
@@ -83,6 +89,314 @@ public abstract class CPlusPlusASTNodeWriter<T extends ASTNode> extends ASTNodeW
         }
     }
 
+    /**
+     * Write the start of a string concatenation.  Concatenation is written as a chain of appends to a StringBuilder,
+     * as javac does, ending with ")->toString()".  The builder is created with the specified capacity; when that's a
+     * good estimate it never grows and hands its buffer over to the resulting String rather than copying it.
+     *
+     * @param capacity initial capacity of the builder
+     */
+    public void writeStringBuilderCreation(int capacity) {
+        write("ptr< StringBuilder >(new StringBuilder(" + capacity + "))->append(");
+    }
+
+    /**
+     * Write the operands of a string concatenation, separated by appends.  Any leading operands that Java adds as
+     * numbers, like the 1 + 2 in 1 + 2 + "a", are kept together as the argument of the first append.
+     *
+     * @param operands operands of the concatenation, as returned by StringConcatenation.getOperands
+     */
+    public void writeConcatenationOperands(List<Expression> operands) {
+        int summedOperandCount = StringConcatenation.getSummedOperandCount(operands);
+
+        writeConcatenationOperand(operands.get(0));
+        for (int i = 1; i < operands.size(); ++i) {
+            if (i < summedOperandCount) {
+                copySpaceAndComments();
+                matchAndWrite("+");
+                copySpaceAndComments();
+                writeNode(operands.get(i));
+            } else {
+                // Skip spaces around the + but if there's a newline (or comments) there, copy them
+                skipSpacesAndTabs();
+                copySpaceAndComments();
+                matchAndWrite("+", ")->append(");
+
+                skipSpacesAndTabs();
+                copySpaceAndComments();
+                writeConcatenationOperand(operands.get(i));
+            }
+        }
+    }
+
+    /**
+     * Write an operand of a string concatenation, as the argument of an append.  Character literals are cast to the
+     * char type, since in C++ they're chars, which promote to int, so would otherwise be appended as a number.
+     *
+     * @param operand operand to write
+     */
+    public void writeConcatenationOperand(Expression operand) {
+        if (operand instanceof CharacterLiteral) {
+            write("static_cast<" + getCPPProfile().getUnsignedInt32UnicodeCharType() + ">(");
+            writeNode(operand);
+            write(")");
+        } else writeNode(operand);
+    }
+
+    /**
+     * Return true if the specified local variable declaration should be written as a stack object, since stack
+     * allocation is enabled in the profile and the object it's initialized with doesn't escape.
+     *
+     * @param variableDeclarationFragment local variable declaration
+     * @return true if the variable is a stack object
+     */
+    public boolean isStackObject(VariableDeclarationFragment variableDeclarationFragment) {
+        return getCPPProfile().getStackAllocateNonEscapingObjects() &&
+               getContext().isNonEscapingLocal(variableDeclarationFragment);
+    }
+
+    /**
+     * Write a String for the specified literal value, or constant string expression.  Values in the compilation
+     * unit's string literal definitions (see CompilationUnitWriter) use those; any others, like in a header, are
+     * created at runtime.
+     *
+     * @param value string value
+     */
+    public void writeStringLiteral(String value) {
+        @Nullable String staticName = getContext().getStringLiteralNames().get(value);
+        if (staticName != null)
+            write(staticName + "()");
+        else if (isLatin1(value))
+            write("String::createLatin1(" + getCharacterDataLiteral(value, true) + ", " + value.length() + ")");
+        else write("String::create(reinterpret_cast<const unichar*>(" + getCharacterDataLiteral(value, false) +
+                   "), " + value.length() + ")");
+    }
+
+    /**
+     * Return true if all the characters in the string fit in Latin-1, so the runtime String can store it compactly.
+     *
+     * @param value string in question
+     * @return true if every character is <= 0xFF
+     */
+    public static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); ++i) {
+            if (value.charAt(i) > 0xFF)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get a C++ string literal holding the character data for the specified string, in the form the runtime String
+     * stores it:  a narrow literal with one byte per character for Latin-1 or else a UTF-16 u"" literal.  Other than
+     * printable ASCII, characters are written as escapes, so the output doesn't depend on the source encoding.
+     *
+     * @param value  string value
+     * @param latin1 true to write a Latin-1 literal; all characters must then be <= 0xFF
+     * @return C++ string literal
+     */
+    public static String getCharacterDataLiteral(String value, boolean latin1) {
+        StringBuilder literal = new StringBuilder(latin1 ? "\"" : "u\"");
+
+        boolean afterHexEscape = false;
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            boolean isHexDigit = Character.digit(c, 16) != -1;
+
+            // Hex escapes don't have a fixed length, so end the literal (continuing with a new one) if the escape is
+            // followed by a hex digit
+            if (afterHexEscape && isHexDigit)
+                literal.append("\" \"");
+            afterHexEscape = false;
+
+            if (c == '"' || c == '\\' || c == '?')
+                literal.append('\\').append(c);
+            else if (c >= ' ' && c <= '~')
+                literal.append(c);
+            else if (latin1)
+                literal.append(String.format("\\%03o", (int) c));
+            else {
+                literal.append(String.format("\\x%04x", (int) c));
+                afterHexEscape = true;
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+
+    /**
+     * Write the type for a method parameter.  Object parameters are passed as "const ptr<T>&", so calls don't
+     * increment & decrement the reference count, unless the method assigns to the parameter, in which case it's
+     * passed by value.
+     *
+     * @param parameter method parameter declaration
+     */
+    public void writeParameterType(SingleVariableDeclaration parameter) {
+        Type type = parameter.getType();
+
+        if (type.isPrimitiveType() || ValueTypes.isValueType(type))
+            writeNode(type);
+        else if (isAssigned(parameter.resolveBinding(), parameter.getParent()))
+            writeType(type, false);
+        else {
+            write("const ");
+            writeType(type, false);
+            write("&");
+        }
+    }
+
+    /**
+     * If primitive collection mapping is enabled and the specified type, like ArrayList<Integer>, has a primitive
+     * specialized mapping in the profile, return the C++ template name to use for it.  Otherwise return null.
+     *
+     * @param parameterizedType type in question
+     * @return C++ template name to use instead of the Java generic type, or null if there's no mapping
+     */
+    public @Nullable String getPrimitiveCollectionType(ParameterizedType parameterizedType) {
+        if (parameterizedType.typeArguments().isEmpty())
+            return null;
+        return getPrimitiveCollectionType(parameterizedType.resolveBinding());
+    }
+
+    /**
+     * Same as above, but for a type binding.
+     *
+     * @param typeBinding type in question
+     * @return C++ template name to use instead of the Java generic type, or null if there's no mapping
+     */
+    public @Nullable String getPrimitiveCollectionType(@Nullable ITypeBinding typeBinding) {
+        if (!getSourceFileWriter().getTranslator().getMapPrimitiveCollections() ||
+            typeBinding == null || !hasOnlyPrimitiveWrapperTypeArguments(typeBinding))
+            return null;
+
+        return getCPPProfile().getPrimitiveCollectionMap().get(typeBinding.getErasure().getQualifiedName());
+    }
+
+    /**
+     * Returns true if the expression is a call on a primitive collection (see getPrimitiveCollectionType) returning
+     * one of its elements, like "list.get(i)" on an ArrayList<Integer>.  Such elements are stored unboxed in C++.
+     *
+     * @param expression expression in question
+     * @return true if the expression's value is a primitive in C++, even though it's boxed in Java
+     */
+    public boolean isPrimitiveCollectionElement(Expression expression) {
+        if (!(expression instanceof MethodInvocation))
+            return false;
+        MethodInvocation methodInvocation = (MethodInvocation) expression;
+
+        @Nullable IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+        return methodBinding != null && isPrimitiveCollection(methodInvocation.getExpression()) &&
+               methodBinding.getMethodDeclaration().getReturnType().isTypeVariable();
+    }
+
+    /**
+     * Returns true if the expression is an element argument to a call on a primitive collection, like the value in
+     * "map.put(key, value)" on a HashMap<Integer, Long>, which C++ takes unboxed.  Map keys passed as Object, like
+     * the key in "map.get(key)", are unboxed too.
+     *
+     * @param expression expression in question
+     * @return true if the expression is passed as a primitive in C++, even though it's boxed in Java
+     */
+    public boolean isPrimitiveCollectionArgument(Expression expression) {
+        ASTNode parent = expression.getParent();
+        if (!(parent instanceof MethodInvocation))
+            return false;
+        MethodInvocation methodInvocation = (MethodInvocation) parent;
+
+        int index = methodInvocation.arguments().indexOf(expression);
+        @Nullable IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+        if (index == -1 || methodBinding == null || !isPrimitiveCollection(methodInvocation.getExpression()))
+            return false;
+
+        ITypeBinding[] parameterTypes = methodBinding.getMethodDeclaration().getParameterTypes();
+        if (index >= parameterTypes.length)
+            return false;
+        ITypeBinding parameterType = parameterTypes[index];
+        return parameterType.isTypeVariable() ||
+               (isType(parameterType, "java.lang.Object") && anyTypeOrAncestorMatch(methodBinding.getDeclaringClass(),
+                       (ITypeBinding type) -> isType(type.getErasure(), "java.util.Map")));
+    }
+
+    private boolean isPrimitiveCollection(@Nullable Expression expression) {
+        return expression != null && getPrimitiveCollectionType(expression.resolveTypeBinding()) != null;
+    }
+
+    /**
+     * Returns true if the specified local variable, of a primitive wrapper type like Integer, is declared with the
+     * primitive type in C++ since it's only ever used unboxed (see BoxingAnalysis).
+     *
+     * @param variableDeclarationFragment local variable declaration
+     * @return true if the variable is declared unboxed
+     */
+    public boolean isUnboxedLocal(VariableDeclarationFragment variableDeclarationFragment) {
+        return getCPPProfile().getUnboxLocals() &&
+               getContext().isUnboxedLocal(variableDeclarationFragment,
+                       (expression) -> isPrimitiveCollectionElement(expression) ||
+                                       isPrimitiveCollectionArgument(expression));
+    }
+
+    /**
+     * Returns true if the expression is a reference to a local variable declared unboxed.
+     *
+     * @param expression expression in question
+     * @return true if the expression names an unboxed local
+     */
+    public boolean isUnboxedLocalReference(Expression expression) {
+        if (!(expression instanceof SimpleName))
+            return false;
+
+        @Nullable IBinding binding = ((SimpleName) expression).resolveBinding();
+        if (!(binding instanceof IVariableBinding) || ((IVariableBinding) binding).isField())
+            return false;
+
+        ASTNode declaration = getSourceFileWriter().getCompilationUnit().findDeclaringNode(binding);
+        return declaration instanceof VariableDeclarationFragment &&
+               isUnboxedLocal((VariableDeclarationFragment) declaration);
+    }
+
+    /**
+     * Get the C++ operator used to access a member of the specified object:  "." for value types, which are used by
+     * value, and "->" for everything else, which is used through a pointer.   "this" is a pointer even in a value type.
+     *
+     * @param object expression for the object whose member is accessed
+     * @return member access operator
+     */
+    public String getMemberAccessOperator(Expression object) {
+        if (object instanceof ThisExpression ||
+            (object instanceof Name && !(((Name) object).resolveBinding() instanceof IVariableBinding)))
+            return "->";
+
+        return ValueTypes.isValueType(object.resolveTypeBinding()) ? "." : "->";
+    }
+
+    /**
+     * Write a scoped lock, a std::lock_guard local variable declaration, for the specified @Lock field mutex.  The
+     * field access is written as it is in the source, so can be on another object.  The position is left unchanged.
+     *
+     * @param lockField  expression referring to the lock field
+     * @param scopeNode  node in whose scope the lock is declared, used to pick a unique variable name
+     */
+    public void writeLockGuard(Expression lockField, ASTNode scopeNode) {
+        write("std::lock_guard<" + getCPPProfile().getMutexType() + "> " + getUnusedLocalName(scopeNode, "lock") +
+              "(");
+        writeNodeAtDifferentPosition(lockField);
+        write(");");
+    }
+
+    /**
+     * Write a scoped lock on the object's monitor.   Every object has one monitor, which the runtime's Object class
+     * provides, so synchronized code in a class & its superclasses all lock the same mutex, as in Java.
+     *
+     * @param scopeNode  node in whose scope the lock is declared, used to pick a unique variable name
+     */
+    public void writeMonitorLockGuard(ASTNode scopeNode) {
+        writeLockGuard("Monitor", "getMonitor()", scopeNode);
+    }
+
+    private void writeLockGuard(String mutexType, String mutex, ASTNode scopeNode) {
+        write("std::lock_guard<" + mutexType + "> " + getUnusedLocalName(scopeNode, "lock") + "(" + mutex + ");");
+    }
+
     public static String getNamespaceNameForPackageName(Name packageName) {
         if (packageName == null)
             return getNamespaceNameForPackageName((String) null);
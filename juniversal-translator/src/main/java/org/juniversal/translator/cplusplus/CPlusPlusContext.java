@@ -22,10 +22,21 @@
 
 package org.juniversal.translator.cplusplus;
 
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.juniversal.translator.core.BoxingAnalysis;
 import org.juniversal.translator.core.Context;
+import org.juniversal.translator.core.EscapeAnalysis;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.function.Predicate;
 
 public class CPlusPlusContext extends Context {
     private boolean writingVariableDeclarationNeedingStar;
+    private HashMap<VariableDeclarationFragment, Boolean> nonEscapingLocals = new HashMap<>();
+    private HashMap<VariableDeclarationFragment, Boolean> unboxedLocals = new HashMap<>();
+    private LinkedHashMap<String, String> stringLiteralNames = new LinkedHashMap<>();
 
     public boolean isWritingVariableDeclarationNeedingStar() {
         return writingVariableDeclarationNeedingStar;
@@ -34,4 +45,39 @@ public class CPlusPlusContext extends Context {
     public void setWritingVariableDeclarationNeedingStar(boolean writingVariableDeclarationNeedingStar) {
         this.writingVariableDeclarationNeedingStar = writingVariableDeclarationNeedingStar;
     }
+
+    /**
+     * Return whether the specified local variable holds a non-escaping object, as determined by EscapeAnalysis.  The
+     * result is cached, as it's needed for every use of the variable and the analysis scans the variable's scope.
+     *
+     * @param variableDeclarationFragment local variable declaration
+     * @return true if the variable's object doesn't escape its scope
+     */
+    public boolean isNonEscapingLocal(VariableDeclarationFragment variableDeclarationFragment) {
+        return nonEscapingLocals.computeIfAbsent(variableDeclarationFragment, EscapeAnalysis::isNonEscapingLocal);
+    }
+
+    /**
+     * Return whether the specified local variable can be declared unboxed, as determined by BoxingAnalysis.  Like
+     * isNonEscapingLocal, the result is cached, since it's needed for every use of the variable.
+     *
+     * @param variableDeclarationFragment local variable declaration
+     * @param isUnboxedInTarget           returns true for wrapper typed expressions that are already unboxed in C++
+     * @return true if the variable can hold its value as a primitive
+     */
+    public boolean isUnboxedLocal(VariableDeclarationFragment variableDeclarationFragment,
+                                  Predicate<Expression> isUnboxedInTarget) {
+        return unboxedLocals.computeIfAbsent(variableDeclarationFragment,
+                (fragment) -> BoxingAnalysis.isUnboxedLocal(fragment, isUnboxedInTarget));
+    }
+
+    /**
+     * Get the map from string literal value to the name of the function returning its static StaticString, for
+     * literals that have been defined at the top of the source file.
+     *
+     * @return map of string literal values to C++ function names
+     */
+    public LinkedHashMap<String, String> getStringLiteralNames() {
+        return stringLiteralNames;
+    }
 }
@@ -23,6 +23,8 @@
 package org.juniversal.translator.cplusplus;
 
 import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+import org.juniversal.translator.core.ArrayBoundsAnalysis;
 import org.juniversal.translator.core.Context;
 import org.juniversal.translator.core.JUniversalException;
 import org.juniversal.translator.core.SourceFile;
@@ -32,11 +34,14 @@ import org.juniversal.translator.csharp.CSharpASTNodeWriter;
 import java.io.Writer;
 import java.util.List;
 
+import static org.juniversal.translator.core.ASTUtil.isArrayLengthField;
+
 
 public class CPlusPlusSourceFileWriter extends SourceFileWriter {
     private CPlusPlusTranslator cPlusPlusTranslator;
     private CPlusPlusContext context;
     private OutputType outputType;
+    private BoxingWriter boxingWriter;
 
     public CPlusPlusSourceFileWriter(CPlusPlusTranslator cPlusPlusTranslator, SourceFile sourceFile, Writer writer,
                                      OutputType outputType) {
@@ -45,6 +50,7 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
         this.cPlusPlusTranslator = cPlusPlusTranslator;
         this.outputType = outputType;
         this.context = new CPlusPlusContext();
+        this.boxingWriter = new BoxingWriter(this);
 
         addDeclarationWriters();
         addStatementWriters();
@@ -59,6 +65,26 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
         });
     }
 
+    /**
+     * Expressions that Java implicitly boxes or unboxes are written with the conversion (see BoxingWriter) around them.
+     */
+    @Override
+    public void writeNode(ASTNode node) {
+        if (node instanceof Expression && boxingWriter.needsConversion((Expression) node))
+            boxingWriter.write((Expression) node);
+        else super.writeNode(node);
+    }
+
+    /**
+     * Write an expression without any boxing or unboxing conversion; used by BoxingWriter to write the expression
+     * being converted.
+     *
+     * @param expression expression to write
+     */
+    void writeUnconvertedNode(Expression expression) {
+        super.writeNode(expression);
+    }
+
     @Override
     public CPlusPlusTranslator getTranslator() {
         return cPlusPlusTranslator;
@@ -104,7 +130,14 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
                 writeNode(variableDeclarationFragment.getName());
 
                 Expression initializer = variableDeclarationFragment.getInitializer();
-                if (initializer != null) {
+                if (initializer != null && isStackObject(variableDeclarationFragment)) {
+                    // "Foo foo = new Foo(args)" becomes "Foo foo(args)"; the initializer writes just the arguments
+                    skipSpaceAndComments();
+                    match("=");
+
+                    skipSpaceAndComments();
+                    writeNode(initializer);
+                } else if (initializer != null) {
                     copySpaceAndComments();
                     matchAndWrite("=");
 
@@ -135,7 +168,9 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
 
                     copySpaceAndComments();
                     match("...");
-                } else writeType(type, true);
+                } else if (singleVariableDeclaration.getParent() instanceof MethodDeclaration)
+                    writeParameterType(singleVariableDeclaration);
+                else writeType(type, true);
 
                 copySpaceAndComments();
                 writeNode(singleVariableDeclaration.getName());
@@ -171,7 +206,10 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
         addWriter(ParameterizedType.class, new CPlusPlusASTNodeWriter<ParameterizedType>(this) {
             @Override
             public void write(ParameterizedType parameterizedType) {
-                writeNode(parameterizedType.getType());
+                @Nullable String primitiveCollectionType = getPrimitiveCollectionType(parameterizedType);
+                if (primitiveCollectionType != null)
+                    matchNodeAndWrite(parameterizedType.getType(), primitiveCollectionType);
+                else writeNode(parameterizedType.getType());
 
                 copySpaceAndComments();
                 matchAndWrite("<");
@@ -187,7 +225,10 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
                     }
 
                     copySpaceAndComments();
-                    writeNode(typeArgument);
+                    if (primitiveCollectionType != null)
+                        matchNodeAndWrite(typeArgument,
+                                getCPPProfile().getPrimitiveTypeForWrapper(typeArgument.resolveBinding().getQualifiedName()));
+                    else writeNode(typeArgument);
 
                     first = false;
                 }
@@ -399,6 +440,12 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
         // For statement
         addWriter(ForStatement.class, new ForStatementWriter(this));
 
+        // Enhanced for statement
+        addWriter(EnhancedForStatement.class, new EnhancedForStatementWriter(this));
+
+        // Synchronized statement
+        addWriter(SynchronizedStatement.class, new SynchronizedStatementWriter(this));
+
         // Return statement
         addWriter(ReturnStatement.class, new CPlusPlusASTNodeWriter<ReturnStatement>(this) {
             @Override
@@ -570,9 +617,13 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
                 writeNode(fieldAccess.getExpression());
                 copySpaceAndComments();
 
-                matchAndWrite(".", "->");
+                matchAndWrite(".", getMemberAccessOperator(fieldAccess.getExpression()));
 
                 writeNode(fieldAccess.getName());
+
+                // Array length is a method in C++
+                if (isArrayLengthField(fieldAccess))
+                    write("()");
             }
         });
 
@@ -580,16 +631,33 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
         addWriter(ArrayAccess.class, new CPlusPlusASTNodeWriter<ArrayAccess>(this) {
             @Override
             public void write(ArrayAccess arrayAccess) {
-                writeNode(arrayAccess.getArray());
-                copySpaceAndComments();
+                // Accesses are bounds checked with at(), as in Java, unless the index is known to be in bounds or
+                // checks are turned off; then they use the unchecked [] operator
+                if (getCPPProfile().getUncheckedArrayAccess() || ArrayBoundsAnalysis.isIndexInBounds(arrayAccess)) {
+                    write("(*");
+                    writeNode(arrayAccess.getArray());
+                    write(")");
+                    copySpaceAndComments();
 
-                matchAndWrite("[");
-                copySpaceAndComments();
+                    matchAndWrite("[");
+                    copySpaceAndComments();
 
-                writeNode(arrayAccess.getIndex());
-                copySpaceAndComments();
+                    writeNode(arrayAccess.getIndex());
+                    copySpaceAndComments();
 
-                matchAndWrite("]");
+                    matchAndWrite("]");
+                } else {
+                    writeNode(arrayAccess.getArray());
+                    copySpaceAndComments();
+
+                    matchAndWrite("[", "->at(");
+                    copySpaceAndComments();
+
+                    writeNode(arrayAccess.getIndex());
+                    copySpaceAndComments();
+
+                    matchAndWrite("]", ")");
+                }
             }
         });
 
@@ -605,9 +673,13 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
                 writeNode(qualifiedName.getQualifier());
                 copySpaceAndComments();
 
-                matchAndWrite(".", "->");
+                matchAndWrite(".", getMemberAccessOperator(qualifiedName.getQualifier()));
 
                 writeNode(qualifiedName.getName());
+
+                // Array length is a method in C++
+                if (isArrayLengthField(qualifiedName))
+                    write("()");
             }
         });
 
@@ -690,7 +762,7 @@ public class CPlusPlusSourceFileWriter extends SourceFileWriter {
         addWriter(StringLiteral.class, new CPlusPlusASTNodeWriter<StringLiteral>(this) {
             @Override
             public void write(StringLiteral stringLiteral) {
-                write("new String(" + stringLiteral.getEscapedValue() + "L)");
+                writeStringLiteral(stringLiteral.getLiteralValue());
                 match(stringLiteral.getEscapedValue());
             }
         });
@@ -34,6 +34,8 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
 
 public class CPlusPlusTranslator extends Translator {
     private CPPProfile cppProfile = new CPPProfile();
@@ -67,6 +69,12 @@ public class CPlusPlusTranslator extends Translator {
         }
     }
 
+    @Override
+    public List<File> getOutputFiles(String[] packageNameComponents, String typeName) {
+        return Arrays.asList(new File(getOutputDirectory(), typeName + ".h"),
+                new File(getOutputDirectory(), typeName + ".cpp"));
+    }
+
     @Override
     public String translateNode(SourceFile sourceFile, ASTNode astNode) {
         try (StringWriter writer = new StringWriter()) {
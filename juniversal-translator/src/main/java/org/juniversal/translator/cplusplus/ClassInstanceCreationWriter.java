@@ -27,6 +27,8 @@ import java.util.List;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ClassInstanceCreation;
 import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+import org.juniversal.translator.core.ValueTypes;
 
 
 public class ClassInstanceCreationWriter extends CPlusPlusASTNodeWriter<ClassInstanceCreation> {
@@ -37,17 +39,35 @@ public class ClassInstanceCreationWriter extends CPlusPlusASTNodeWriter<ClassIns
     @Override
 	public void write(ClassInstanceCreation classInstanceCreation) {
 		//TODO: Handle type arguments
-		//TODO: Handle different reference operator used for stack objects
 
 		// TODO: Support inner class creation via object.new
 		if (classInstanceCreation.getExpression() != null)
 			throw sourceNotSupported("Inner classes not yet supported");
 
-		matchAndWrite("new");
-		copySpaceAndComments();
+		// Stack objects are constructed as part of their declaration, "Foo foo(args)", with the declaration writing
+		// the type, so only the constructor arguments are written here
+		if (isStackObjectInitializer(classInstanceCreation)) {
+			setPositionToEndOfNode(classInstanceCreation.getType());
+			skipSpaceAndComments();
 
-        writeNode(classInstanceCreation.getType());
-		copySpaceAndComments();
+			// "Foo foo()" would declare a function in C++, so leave off empty parentheses
+			if (classInstanceCreation.arguments().isEmpty()) {
+				setPositionToEndOfNode(classInstanceCreation);
+				return;
+			}
+		} else {
+			// Value types are constructed in place, as temporaries, rather than allocated on the heap
+			if (ValueTypes.isValueType(classInstanceCreation.resolveTypeBinding())) {
+				match("new");
+				skipSpaceAndComments();
+			} else {
+				matchAndWrite("new");
+				copySpaceAndComments();
+			}
+
+			writeNode(classInstanceCreation.getType());
+			copySpaceAndComments();
+		}
 
 		matchAndWrite("(");
 		copySpaceAndComments();
@@ -71,4 +91,9 @@ public class ClassInstanceCreationWriter extends CPlusPlusASTNodeWriter<ClassIns
 
 		matchAndWrite(")");
 	}
+
+	private boolean isStackObjectInitializer(ClassInstanceCreation classInstanceCreation) {
+		ASTNode parent = classInstanceCreation.getParent();
+		return parent instanceof VariableDeclarationFragment && isStackObject((VariableDeclarationFragment) parent);
+	}
 }
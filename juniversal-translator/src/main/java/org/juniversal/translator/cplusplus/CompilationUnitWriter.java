@@ -25,6 +25,9 @@ package org.juniversal.translator.cplusplus;
 import org.eclipse.jdt.core.dom.*;
 import org.juniversal.translator.core.ASTUtil;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 
 public class CompilationUnitWriter extends CPlusPlusASTNodeWriter<CompilationUnit> {
     public CompilationUnitWriter(CPlusPlusSourceFileWriter cPlusPlusASTWriters) {
@@ -85,6 +88,8 @@ public class CompilationUnitWriter extends CPlusPlusASTNodeWriter<CompilationUni
         writeln("using namespace " + getPackageNamespaceName(compilationUnit) + ";");
         writeln();
 
+        writeStringLiteralDefinitions(compilationUnit);
+
         setPosition(mainTypeDeclaration.getStartPosition());
         skipSpaceAndComments();   // Skip any Javadoc included in the node
 
@@ -93,6 +98,51 @@ public class CompilationUnitWriter extends CPlusPlusASTNodeWriter<CompilationUni
         skipSpaceAndComments();
     }
 
+    /**
+     * Write each distinct string literal in the file as a function returning a function-local static StaticString,
+     * with its hash code precomputed, so evaluating a literal doesn't allocate anything.   Being function-local, the
+     * literal is constructed on first use, so it's safe to use from static initializers in other source files, which
+     * may run before this file's.
+     */
+    private void writeStringLiteralDefinitions(CompilationUnit compilationUnit) {
+        LinkedHashMap<String, String> stringLiteralNames = getContext().getStringLiteralNames();
+
+        compilationUnit.accept(new ASTVisitor() {
+            @Override public boolean visit(StringLiteral stringLiteral) {
+                addStringLiteral(stringLiteral.getLiteralValue());
+                return false;
+            }
+
+            // Constant concatenations are written as the folded literal, so define that rather than their parts
+            @Override public boolean visit(InfixExpression infixExpression) {
+                Object constantValue = infixExpression.resolveConstantExpressionValue();
+                if (constantValue instanceof String) {
+                    addStringLiteral((String) constantValue);
+                    return false;
+                }
+                return true;
+            }
+
+            private void addStringLiteral(String value) {
+                if (!stringLiteralNames.containsKey(value))
+                    stringLiteralNames.put(value, "juStringLiteral" + stringLiteralNames.size());
+            }
+        });
+
+        for (Map.Entry<String, String> entry : stringLiteralNames.entrySet()) {
+            String value = entry.getKey();
+            boolean latin1 = isLatin1(value);
+            int dataSize = latin1 ? value.length() : value.length() * 2;
+
+            writeln("static String* " + entry.getValue() + "() { static StaticString<" + dataSize + "> literal(" +
+                    getCharacterDataLiteral(value, latin1) + ", " + value.length() + ", " + latin1 + ", " +
+                    value.hashCode() + "); return literal.get(); }");
+        }
+
+        if (!stringLiteralNames.isEmpty())
+            writeln();
+    }
+
     private String getPackageNamespaceName(CompilationUnit compilationUnit) {
         PackageDeclaration packageDeclaration = compilationUnit.getPackage();
         return getNamespaceNameForPackageName(packageDeclaration == null ? null : packageDeclaration.getName());
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+import org.juniversal.translator.core.EnhancedForLowering.CollectionKind;
+
+import static org.juniversal.translator.core.ASTUtil.getUnusedLocalName;
+import static org.juniversal.translator.core.EnhancedForLowering.getLowerableCollectionKind;
+
+/**
+ * The C++ runtime arrays & lists don't have iterators, so enhanced for statements are always written as indexed for
+ * loops, with the length cached.   Loops that can't safely be indexed that way (see EnhancedForLowering) aren't
+ * currently supported.
+ */
+public class EnhancedForStatementWriter extends CPlusPlusASTNodeWriter<EnhancedForStatement> {
+    public EnhancedForStatementWriter(CPlusPlusSourceFileWriter cPlusPlusASTWriters) {
+        super(cPlusPlusASTWriters);
+    }
+
+    @Override
+    public void write(EnhancedForStatement enhancedForStatement) {
+        @Nullable CollectionKind collectionKind = getLowerableCollectionKind(enhancedForStatement);
+        if (collectionKind == null)
+            throw sourceNotSupported("Enhanced for loops are only supported over local array or List variables which the loop body doesn't modify");
+
+        SingleVariableDeclaration parameter = enhancedForStatement.getParameter();
+        Expression expression = enhancedForStatement.getExpression();
+
+        String parameterName = parameter.getName().getIdentifier();
+        String indexName = getUnusedLocalName(enhancedForStatement, parameterName + "Index");
+        String countName = getUnusedLocalName(enhancedForStatement, parameterName + "Count");
+        // Java indexes are ints, for both arrays & lists, so use the same type for them here
+        String indexType = getCPPProfile().getInt32Type();
+
+        matchAndWrite("for");
+
+        copySpaceAndComments();
+        matchAndWrite("(");
+
+        write(indexType + " " + indexName + " = 0, " + countName + " = ");
+        writeNodeAtDifferentPosition(expression);
+        write(collectionKind == CollectionKind.ARRAY ? "->length()" : "->size()");
+        write("; " + indexName + " < " + countName + "; ++" + indexName);
+
+        setPositionToEndOfNode(expression);
+        skipSpaceAndComments();
+        matchAndWrite(")");
+
+        copySpaceAndComments();
+
+        // Declare the element variable on the same line as the brace, so the output line numbers match the source
+        Statement body = enhancedForStatement.getBody();
+        if (body instanceof Block) {
+            matchAndWrite("{");
+            writeElementDeclaration(parameter, expression, collectionKind, indexName);
+            writeNodes(((Block) body).statements());
+
+            copySpaceAndComments();
+            matchAndWrite("}");
+        } else {
+            write("{");
+            writeElementDeclaration(parameter, expression, collectionKind, indexName);
+            write(" ");
+            writeNode(body);
+            write(" }");
+        }
+    }
+
+    private void writeElementDeclaration(SingleVariableDeclaration parameter, Expression expression,
+                                         CollectionKind collectionKind, String indexName) {
+        write(" ");
+        writeNodeAtDifferentPosition(parameter);
+        write(" = ");
+        if (collectionKind == CollectionKind.ARRAY) {
+            // The index is always in bounds, so no need for a bounds check
+            write("(*");
+            writeNodeAtDifferentPosition(expression);
+            write(")[" + indexName + "];");
+        } else {
+            writeNodeAtDifferentPosition(expression);
+            write("->get(" + indexName + ");");
+        }
+    }
+}
@@ -46,9 +46,14 @@ public class FieldDeclarationWriter extends CPlusPlusASTNodeWriter<FieldDeclarat
 			write("static ");
 		skipModifiers(fieldDeclaration.modifiers());
 
-		// Write the type
+		// Write the type; @Lock fields become mutexes, with any initializer (typically "new Object()") dropped
+		VariableDeclarationFragment firstFragment = (VariableDeclarationFragment) fieldDeclaration.fragments().get(0);
+		boolean isLockField = ASTUtil.isLockField(firstFragment.resolveBinding());
+
 		skipSpaceAndComments();
-        writeType(fieldDeclaration.getType(), false);
+		if (isLockField)
+			matchNodeAndWrite(fieldDeclaration.getType(), getCPPProfile().getMutexType());
+		else writeType(fieldDeclaration.getType(), false);
 
 		boolean first = true;
 		for (Object fragment : fieldDeclaration.fragments()) {
@@ -61,7 +66,7 @@ public class FieldDeclarationWriter extends CPlusPlusASTNodeWriter<FieldDeclarat
 
 			copySpaceAndComments();
 			writeVariableDeclarationFragment(variableDeclarationFragment,
-                    getSourceFileWriter().getOutputType() == OutputType.SOURCE);
+                    getSourceFileWriter().getOutputType() == OutputType.SOURCE, isLockField);
 
 			first = false;
 		}
@@ -71,7 +76,7 @@ public class FieldDeclarationWriter extends CPlusPlusASTNodeWriter<FieldDeclarat
 	}
 
 	private void writeVariableDeclarationFragment(VariableDeclarationFragment variableDeclarationFragment,
-                                                  boolean writingSourceFile) {
+                                                  boolean writingSourceFile, boolean isLockField) {
 
 		// TODO: Handle syntax with extra dimensions on array
 		if (variableDeclarationFragment.getExtraDimensions() > 0)
@@ -88,7 +93,7 @@ public class FieldDeclarationWriter extends CPlusPlusASTNodeWriter<FieldDeclarat
 		// must be static
 		Expression initializer = variableDeclarationFragment.getInitializer();
 		if (initializer != null) {
-			if (!writingSourceFile)
+			if (!writingSourceFile || isLockField)
 				setPosition(ASTUtil.getEndPosition(initializer));
 			else {
 				copySpaceAndComments();
@@ -33,6 +33,7 @@ import org.eclipse.jdt.core.dom.MethodDeclaration;
 import org.eclipse.jdt.core.dom.Type;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.TypeParameter;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
 public class HeaderTypeDeclarationWriter extends CPlusPlusASTNodeWriter<TypeDeclaration> {
 	private TypeDeclaration typeDeclaration;
@@ -94,7 +95,9 @@ public class HeaderTypeDeclarationWriter extends CPlusPlusASTNodeWriter<TypeDecl
 		outputSomethingForType = false;
 		writeNestedTypes();
 		writeMethods();
-		writeSuperDefinition();
+		if (ValueTypes.isValueType(typeDeclaration))
+			writeValueTypeDefaultConstructor();
+		else writeSuperDefinition();
 		writeFields();
 
         writeSpaces(typeIndent);
@@ -109,8 +112,11 @@ public class HeaderTypeDeclarationWriter extends CPlusPlusASTNodeWriter<TypeDecl
 		@SuppressWarnings("unchecked")
 		List<Type> superInterfaceTypes = (List<Type>) typeDeclaration.superInterfaceTypes();
 
-		if (superclassType == null)
-            write(" : public Object");
+		// Value types are plain by-value classes, not heap objects, so don't derive from Object
+		if (superclassType == null) {
+			if (!ValueTypes.isValueType(typeDeclaration))
+				write(" : public Object");
+		}
 		else {
             copySpaceAndComments();
             matchAndWrite("extends", ": public");
@@ -298,6 +304,36 @@ public class HeaderTypeDeclarationWriter extends CPlusPlusASTNodeWriter<TypeDecl
         writeln(" super;");
 	}
 
+	/**
+	 * Value types get a default constructor, used for the elements of new arrays and for fields that aren't otherwise
+	 * initialized.  Like the default value of a C# struct, it sets all the fields to 0/false/null.
+	 */
+	private void writeValueTypeDefaultConstructor() {
+		// If we've already output something for the class, add a blank line separator
+		if (outputSomethingForType)
+            writeln();
+
+		writeAccessLevelGroup(AccessLevel.PUBLIC, null);
+
+        writeSpaces(typeIndent + getPreferredIndent());
+        write(typeDeclaration.getName().getIdentifier() + "()");
+
+		boolean first = true;
+		for (FieldDeclaration fieldDeclaration : typeDeclaration.getFields()) {
+			if (ASTUtil.isStatic(fieldDeclaration))
+				continue;
+
+			for (Object fragment : fieldDeclaration.fragments()) {
+                write(first ? " : " : ", ");
+                write(((VariableDeclarationFragment) fragment).getName().getIdentifier() + "()");
+				first = false;
+			}
+		}
+
+        writeln(" {}");
+		outputSomethingForType = true;
+	}
+
 	private void writeFields() {
 		AccessLevel lastAccessLevel = null;
 
@@ -28,6 +28,7 @@ import java.util.List;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.InfixExpression;
+import org.juniversal.translator.core.StringConcatenation;
 
 
 public class InfixExpressionWriter extends CPlusPlusASTNodeWriter<InfixExpression> {
@@ -68,8 +69,14 @@ public class InfixExpressionWriter extends CPlusPlusASTNodeWriter<InfixExpressio
 	@Override
 	public void write(InfixExpression infixExpression) {
 		InfixExpression.Operator operator = infixExpression.getOperator();
+		Object constantValue = infixExpression.resolveConstantExpressionValue();
 
-		if (operator == InfixExpression.Operator.RIGHT_SHIFT_UNSIGNED) {
+		// Constant string concatenations, like "a" + 1, are written as the literal Java folds them to
+		if (constantValue instanceof String) {
+			writeStringLiteral((String) constantValue);
+			setPositionToEndOfNode(infixExpression);
+		}
+		else if (operator == InfixExpression.Operator.RIGHT_SHIFT_UNSIGNED) {
 			write("rightShiftUnsigned(");
             writeNode(infixExpression.getLeftOperand());
 
@@ -82,6 +89,8 @@ public class InfixExpressionWriter extends CPlusPlusASTNodeWriter<InfixExpressio
             writeNode(infixExpression.getRightOperand());
 			write(")");
 		}
+		else if (StringConcatenation.isStringConcatenation(infixExpression))
+			writeStringConcatenation(infixExpression);
 		else {
             writeNode(infixExpression.getLeftOperand());
 
@@ -104,4 +113,16 @@ public class InfixExpressionWriter extends CPlusPlusASTNodeWriter<InfixExpressio
 			}
 		}
 	}
+
+	/**
+	 * Write string concatenation as a chain of StringBuilder appends, with the builder sized by the estimate from
+	 * StringConcatenation.
+	 */
+	private void writeStringConcatenation(InfixExpression infixExpression) {
+		List<Expression> operands = StringConcatenation.getOperands(infixExpression);
+
+		writeStringBuilderCreation(StringConcatenation.estimateLength(operands));
+		writeConcatenationOperands(operands);
+		write(")->toString()");
+	}
 }
@@ -25,6 +25,8 @@ package org.juniversal.translator.cplusplus;
 import org.eclipse.jdt.core.dom.*;
 import org.jetbrains.annotations.Nullable;
 import org.juniversal.translator.core.ASTUtil;
+import org.juniversal.translator.core.EscapeAnalysis;
+import org.juniversal.translator.core.ValueTypes;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -99,7 +101,11 @@ public class MethodDeclarationWriter extends CPlusPlusASTNodeWriter<MethodDeclar
 
         if (getContext().isWritingMethodImplementation()) {
             copySpaceAndComments();
-            writeNode(methodDeclaration.getBody());
+            boolean isSynchronized = ASTUtil.isSynchronized(methodDeclaration);
+            boolean isRequestScope = ASTUtil.isRequestScope(methodDeclaration);
+            if (isSynchronized || isRequestScope)
+                writeScopedBody(methodDeclaration, isSynchronized, isRequestScope);
+            else writeNode(methodDeclaration.getBody());
         } else {
             if (methodDeclaration.getBody() == null) {
                 write(" = 0");
@@ -113,6 +119,48 @@ public class MethodDeclarationWriter extends CPlusPlusASTNodeWriter<MethodDeclar
         }
     }
 
+    /**
+     * Write the body for a synchronized and/or @RequestScope method.  A synchronized method acquires a lock on the
+     * object's monitor at the start of the body (on the same line as the opening brace) and holds it until the method
+     * exits.  A request scope method declares an ArenaScope there, so everything allocated during the call comes from
+     * an arena released when the method exits.
+     *
+     * @param methodDeclaration method
+     * @param isSynchronized    true if the method is synchronized
+     * @param isRequestScope    true if the method is annotated @RequestScope
+     */
+    private void writeScopedBody(MethodDeclaration methodDeclaration, boolean isSynchronized, boolean isRequestScope) {
+        if (isSynchronized && ASTUtil.isStatic(methodDeclaration))
+            throw sourceNotSupported("Static synchronized methods aren't currently supported in C++; use an @Lock annotated static field and a synchronized block instead");
+
+        Block body = methodDeclaration.getBody();
+
+        // Objects allocated in the arena are gone once the method exits, so they can't be returned or stored
+        if (isRequestScope) {
+            @Nullable Type returnType = methodDeclaration.getReturnType2();
+            if (methodDeclaration.isConstructor() ||
+                (returnType != null && !returnType.isPrimitiveType() && !ValueTypes.isValueType(returnType)))
+                throw sourceNotSupported("@RequestScope methods can't be constructors and must return void, a primitive, or a value type, as objects allocated during the call are freed when it returns");
+
+            EscapeAnalysis.validateRequestScope(getSourceFileWriter().getSourceFile(), methodDeclaration,
+                    (ITypeBinding type) -> getPrimitiveCollectionType(type) != null);
+        }
+
+        matchAndWrite("{");
+
+        if (isRequestScope)
+            write(" ArenaScope " + ASTUtil.getUnusedLocalName(body, "arenaScope") + ";");
+        if (isSynchronized) {
+            write(" ");
+            writeMonitorLockGuard(body);
+        }
+
+        writeNodes(body.statements());
+
+        copySpaceAndComments();
+        matchAndWrite("}");
+    }
+
     private void writeParameterList(MethodDeclaration methodDeclaration) {
         int additionalIndent = getTargetColumn() - getSourceLogicalColumn();
         int previousAdditionalIndent = getTargetWriter().setAdditionalIndentation(additionalIndent);
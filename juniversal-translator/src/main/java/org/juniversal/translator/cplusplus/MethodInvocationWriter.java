@@ -24,7 +24,9 @@ package org.juniversal.translator.cplusplus;
 
 import java.util.List;
 
+import org.jetbrains.annotations.Nullable;
 import org.juniversal.translator.core.JUniversalException;
+import org.juniversal.translator.core.PrimitiveCollectionMethods;
 
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Expression;
@@ -34,6 +36,8 @@ import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.SimpleName;
 import org.eclipse.jdt.core.dom.SuperMethodInvocation;
 
+import static org.juniversal.translator.core.ASTUtil.isStaticMethod;
+
 public class MethodInvocationWriter extends CPlusPlusASTNodeWriter {
 	public MethodInvocationWriter(CPlusPlusSourceFileWriter cPlusPlusASTWriters) {
         super(cPlusPlusASTWriters);
@@ -53,6 +57,11 @@ public class MethodInvocationWriter extends CPlusPlusASTNodeWriter {
 		} else if (node instanceof MethodInvocation) {
 			MethodInvocation methodInvocation = (MethodInvocation) node;
 
+			if (writeArrayIntrinsic(methodInvocation) || writeBoxingValueOf(methodInvocation))
+				return;
+
+			checkPrimitiveCollectionMethod(methodInvocation);
+
 			writeMethodInvocation(false, methodInvocation.getExpression(), methodInvocation.resolveMethodBinding(),
 					methodInvocation.getName(), methodInvocation.typeArguments(), methodInvocation.arguments());
 		}
@@ -80,7 +89,7 @@ public class MethodInvocationWriter extends CPlusPlusASTNodeWriter {
             writeNode(expression);
 
 			copySpaceAndComments();
-			matchAndWrite(".", isStatic ? "::" : "->");
+			matchAndWrite(".", isStatic ? "::" : getMemberAccessOperator(expression));
 
 			copySpaceAndComments();
 		}
@@ -92,9 +101,95 @@ public class MethodInvocationWriter extends CPlusPlusASTNodeWriter {
 		if (! typeArguments.isEmpty())
 			throw sourceNotSupported("Type arguments not currently supported on a method invocation");
 
-		// TODO: Handle different reference operator used for stack objects
+		copySpaceAndComments();
+		writeArgumentList(arguments);
+	}
+
+	/**
+	 * The runtime's primitive collections (see PrimitiveCollections.h) have the same names for the methods that are
+	 * supported on them as Java does, so calls are written as is, but unsupported ones are rejected here.
+	 *
+	 * @param methodInvocation method invocation
+	 */
+	private void checkPrimitiveCollectionMethod(MethodInvocation methodInvocation) {
+		Expression expression = methodInvocation.getExpression();
+		if (expression == null || getPrimitiveCollectionType(expression.resolveTypeBinding()) == null)
+			return;
+
+		@Nullable String unsupportedReason =
+				PrimitiveCollectionMethods.getUnsupportedReason(methodInvocation, expression.resolveTypeBinding());
+		if (unsupportedReason != null)
+			throw sourceNotSupported(unsupportedReason);
+	}
+
+	/**
+	 * System.arraycopy, Arrays.fill, and the two argument Arrays.equals are written as calls to the runtime's array
+	 * intrinsics (see Array.h), which take the same arguments but use memmove, std::fill & memcmp for primitive
+	 * element types rather than element by element loops.
+	 *
+	 * @param methodInvocation method invocation
+	 * @return true if the method invocation was written as an array intrinsic, false if it isn't one
+	 */
+	private boolean writeArrayIntrinsic(MethodInvocation methodInvocation) {
+		IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+
+		String intrinsicName;
+		if (isStaticMethod(methodBinding, "java.lang.System", "arraycopy"))
+			intrinsicName = "arrayCopy";
+		else if (isStaticMethod(methodBinding, "java.util.Arrays", "fill"))
+			intrinsicName = "arrayFill";
+		else if (isStaticMethod(methodBinding, "java.util.Arrays", "equals") && methodInvocation.arguments().size() == 2)
+			intrinsicName = "arrayEquals";
+		else return false;
+
+		// Drop any "System." or "Arrays." qualifier; the intrinsics are in the juniversal namespace
+		SimpleName name = methodInvocation.getName();
+		setPositionToStartOfNode(name);
+		matchAndWrite(name.getIdentifier(), intrinsicName);
 
 		copySpaceAndComments();
+		writeArgumentList(methodInvocation.arguments());
+		return true;
+	}
+
+	/**
+	 * Integer.valueOf(int), and the other integer & char wrappers' equivalents, are written as calls to the runtime's
+	 * box<Integer>(value), the same as autoboxing, so they share its cache of small values.
+	 *
+	 * @param methodInvocation method invocation
+	 * @return true if the method invocation was written as a box call, false if it isn't a valueOf(primitive) call
+	 */
+	private boolean writeBoxingValueOf(MethodInvocation methodInvocation) {
+		IMethodBinding methodBinding = methodInvocation.resolveMethodBinding();
+		if (methodBinding == null || methodBinding.getParameterTypes().length != 1 ||
+		    !methodBinding.getParameterTypes()[0].isPrimitive())
+			return false;
+
+		String wrapperName = methodBinding.getDeclaringClass().getName();
+		switch (wrapperName) {
+			case "Byte":
+			case "Short":
+			case "Integer":
+			case "Long":
+			case "Character":
+				if (!isStaticMethod(methodBinding, "java.lang." + wrapperName, "valueOf"))
+					return false;
+				break;
+			default:
+				return false;
+		}
+
+		// Drop any "Integer." qualifier; box is in the juniversal namespace
+		SimpleName name = methodInvocation.getName();
+		setPositionToStartOfNode(name);
+		matchAndWrite(name.getIdentifier(), "box<" + wrapperName + ">");
+
+		copySpaceAndComments();
+		writeArgumentList(methodInvocation.arguments());
+		return true;
+	}
+
+	private void writeArgumentList(List<?> arguments) {
 		matchAndWrite("(");
 
 		boolean first = true;
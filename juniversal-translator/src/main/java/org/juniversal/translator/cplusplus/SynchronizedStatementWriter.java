@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.SynchronizedStatement;
+import org.jetbrains.annotations.Nullable;
+
+import static org.juniversal.translator.core.ASTUtil.getLockField;
+import static org.juniversal.translator.core.ASTUtil.isUnqualifiedThis;
+
+/**
+ * Synchronized statements are written as a block holding a std::lock_guard.   Two kinds of lock targets are supported:
+ * "this", which locks the object's monitor (see Object.h), and @Lock annotated fields, of this or another object,
+ * which are translated to mutexes themselves.   Other objects have a monitor too, but locking one would need a
+ * reference to it held for the block, which isn't supported yet.
+ */
+public class SynchronizedStatementWriter extends CPlusPlusASTNodeWriter<SynchronizedStatement> {
+    public SynchronizedStatementWriter(CPlusPlusSourceFileWriter cPlusPlusASTWriters) {
+        super(cPlusPlusASTWriters);
+    }
+
+    @Override
+    public void write(SynchronizedStatement synchronizedStatement) {
+        Expression expression = synchronizedStatement.getExpression();
+
+        @Nullable IVariableBinding lockField = getLockField(expression);
+        if (!isUnqualifiedThis(expression) && lockField == null)
+            throw sourceNotSupported("In C++, synchronized is only supported on \"this\" and on @Lock annotated fields");
+
+        match("synchronized");
+
+        setPositionToEndOfNode(expression);
+        skipSpaceAndComments();
+        match(")");
+
+        write("{ ");
+        if (lockField != null)
+            writeLockGuard(expression, synchronizedStatement);
+        else writeMonitorLockGuard(synchronizedStatement);
+
+        copySpaceAndComments();
+        writeNode(synchronizedStatement.getBody());
+
+        write(" }");
+    }
+}
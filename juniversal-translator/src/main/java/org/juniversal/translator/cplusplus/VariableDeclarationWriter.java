@@ -25,6 +25,7 @@ package org.juniversal.translator.cplusplus;
 import java.util.List;
 
 import org.juniversal.translator.core.ASTUtil;
+import org.juniversal.translator.core.ValueTypes;
 
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.Type;
@@ -60,16 +61,36 @@ public class VariableDeclarationWriter extends CPlusPlusASTNodeWriter {
 	}
 
 	private void writeVariableDeclaration(List<?> modifiers, Type type, List<?> fragments) {
+		// Objects that don't escape are declared directly on the stack, wrapped in a StackObject which gives them a
+		// reference count header like heap objects have.  They aren't made const even if final, as that would prevent
+		// calling non-const methods on them.
+		boolean isStackObject = fragments.size() == 1 && isStackObject((VariableDeclarationFragment) fragments.get(0));
+
+		// Wrapper typed locals that are only used as primitives are declared as the primitive
+		boolean isUnboxed = fragments.size() == 1 && isUnboxedLocal((VariableDeclarationFragment) fragments.get(0));
+
+		// Value types are held by value too, and their methods aren't const, so they aren't made const either
+		boolean isConst = !isStackObject && !ValueTypes.isValueType(type);
+
 		// Turn "final" into "const"
 		if (ASTUtil.containsFinal(modifiers)) {
-			write("const");
+			if (isConst)
+				write("const");
 			skipModifiers(modifiers);
 
-			copySpaceAndComments();
+			if (isConst)
+				copySpaceAndComments();
+			else skipSpaceAndComments();
 		}
 
 		// Write the type
-        writeType(type, false);
+		if (isStackObject) {
+			write("StackObject< ");
+			writeNode(type);
+			write(" >");
+		} else if (isUnboxed)
+			matchNodeAndWrite(type, getCPPProfile().getPrimitiveTypeForWrapper(type.resolveBinding().getQualifiedName()));
+		else writeType(type, false);
 
 		boolean needStar = false;
 		getContext().setWritingVariableDeclarationNeedingStar(needStar);
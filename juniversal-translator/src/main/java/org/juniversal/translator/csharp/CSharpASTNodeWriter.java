@@ -214,6 +214,40 @@ public abstract class CSharpASTNodeWriter<T extends ASTNode> extends ASTNodeWrit
         return name;
     }
 
+    /**
+     * If primitive collection mapping is enabled and the specified type, like ArrayList<Integer>, has a primitive
+     * specialized mapping, return the C# type name to use for it (without type arguments), adding a using for its
+     * namespace.  Otherwise return null.
+     *
+     * @param parameterizedType type in question
+     * @return C# type name to use instead of the Java generic type, or null if there's no mapping
+     */
+    public @Nullable String getPrimitiveCollectionType(ParameterizedType parameterizedType) {
+        @Nullable String mappedTypeName = getMappedPrimitiveCollectionTypeName(parameterizedType.resolveBinding());
+        if (mappedTypeName == null)
+            return null;
+
+        @Nullable String qualifier = qualifierFromQualifiedName(mappedTypeName);
+        if (qualifier == null)
+            return mappedTypeName;
+        else return nativeReference(qualifier, simpleNameFromQualifiedName(mappedTypeName));
+    }
+
+    /**
+     * Returns true if the specified type is written as a primitive specialized collection (see
+     * getPrimitiveCollectionType), so only the methods that PrimitiveCollectionMethods supports can be called on it.
+     *
+     * @param typeBinding type in question
+     * @return true if the type is mapped to a primitive collection
+     */
+    public boolean isPrimitiveCollection(@Nullable ITypeBinding typeBinding) {
+        return getMappedPrimitiveCollectionTypeName(typeBinding) != null;
+    }
+
+    private @Nullable String getMappedPrimitiveCollectionTypeName(@Nullable ITypeBinding typeBinding) {
+        return getSourceFileWriter().getTranslator().getPrimitiveCollectionType(typeBinding);
+    }
+
     public void validateIdentifier(SimpleName simpleName) {
         validateIdentifier(simpleName.getIdentifier());
     }
@@ -173,7 +173,10 @@ public class CSharpSourceFileWriter extends SourceFileWriter {
         addWriter(ParameterizedType.class, new CSharpASTNodeWriter<ParameterizedType>(this) {
             @Override
             public void write(ParameterizedType parameterizedType) {
-                writeNode(parameterizedType.getType());
+                @Nullable String primitiveCollectionType = getPrimitiveCollectionType(parameterizedType);
+                if (primitiveCollectionType != null)
+                    matchNodeAndWrite(parameterizedType.getType(), primitiveCollectionType);
+                else writeNode(parameterizedType.getType());
 
                 copySpaceAndComments();
                 matchAndWrite("<");
@@ -418,31 +421,8 @@ public class CSharpSourceFileWriter extends SourceFileWriter {
         // For statement
         addWriter(ForStatement.class, new ForStatementWriter(this));
 
-        addWriter(EnhancedForStatement.class, new CSharpASTNodeWriter<EnhancedForStatement>(this) {
-            @Override
-            public void write(EnhancedForStatement enhancedForStatement) {
-                matchAndWrite("for", "foreach");
-
-                copySpaceAndComments();
-                matchAndWrite("(");
-
-                copySpaceAndComments();
-                writeNode(enhancedForStatement.getParameter());
-
-                copySpaceAndComments();
-                // TODO: Ensure spaces around "in"
-                matchAndWrite(":", "in");
-
-                copySpaceAndComments();
-                writeNode(enhancedForStatement.getExpression());
-
-                copySpaceAndComments();
-                matchAndWrite(")");
-
-                copySpaceAndComments();
-                writeNode(enhancedForStatement.getBody());
-            }
-        });
+        // Enhanced for statement
+        addWriter(EnhancedForStatement.class, new EnhancedForStatementWriter(this));
 
         // TODO: Implement this
         // Switch statement
@@ -529,25 +509,8 @@ public class CSharpSourceFileWriter extends SourceFileWriter {
             }
         });
 
-        // TODO: Implement this
-        // Throw statement
-        addWriter(SynchronizedStatement.class, new CSharpASTNodeWriter<SynchronizedStatement>(this) {
-            @Override
-            public void write(SynchronizedStatement synchronizedStatement) {
-                matchAndWrite("synchronized", "lock");
-
-                copySpaceAndComments();
-                matchAndWrite("(");
-
-                writeNode(synchronizedStatement.getExpression());
-
-                copySpaceAndComments();
-                matchAndWrite(")");
-
-                copySpaceAndComments();
-                writeNode(synchronizedStatement.getBody());
-            }
-        });
+        // Synchronized statement
+        addWriter(SynchronizedStatement.class, new SynchronizedStatementWriter(this));
 
         // Static initializer
         addWriter(Initializer.class, new CSharpASTNodeWriter<Initializer>(this) {
@@ -25,6 +25,9 @@ package org.juniversal.translator.csharp;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.jetbrains.annotations.Nullable;
+import org.juniversal.translator.core.PrimitiveCollectionMethods;
 import org.juniversal.translator.core.SourceFile;
 import org.juniversal.translator.core.Translator;
 
@@ -32,20 +35,94 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import static org.juniversal.translator.core.ASTUtil.hasOnlyPrimitiveWrapperTypeArguments;
+
 public class CSharpTranslator extends Translator {
     private HashMap<String, String> annotationMap = new HashMap<>();
+    private HashMap<String, String> primitiveCollectionMap = new HashMap<>();
+    private LockType lockFieldType = LockType.MONITOR;
+
+    /**
+     * Kinds of C# locks that @Lock annotated fields can be translated to.
+     */
+    public enum LockType {
+        /**
+         * Standard monitor lock, via the C# lock statement; the field stays an object.   This is the most general
+         * option and matches Java semantics.
+         */
+        MONITOR,
+
+        /**
+         * System.Threading.SpinLock, cheapest for very short, low contention critical sections.   Unlike Java
+         * monitors it isn't reentrant, so the code must never lock the field when it already holds it.
+         */
+        SPIN_LOCK,
+
+        /**
+         * System.Threading.ReaderWriterLockSlim, created with recursion support.  Synchronized blocks take the write
+         * lock, so behave like a monitor, but the lock can also be used directly for reads in hand written C#.
+         */
+        READER_WRITER_LOCK_SLIM
+    }
 
     public CSharpTranslator() {
         annotationMap.put("org.junit.Test", "NUnit.Framework.Test");
+
+        primitiveCollectionMap.put("java.util.List", "System.Collections.Generic.List");
+        primitiveCollectionMap.put("java.util.ArrayList", "System.Collections.Generic.List");
+        primitiveCollectionMap.put("java.util.Map", "System.Collections.Generic.Dictionary");
+        primitiveCollectionMap.put("java.util.HashMap", "System.Collections.Generic.Dictionary");
     }
 
     public Map<String, String> getAnnotationMap() {
         return annotationMap;
     }
 
+    /**
+     * Get the map from Java generic collection type (e.g. "java.util.ArrayList") to the fully qualified C# generic type
+     * used for it when all its type arguments are primitive wrappers.   Since C# generics are reified, List<int> and
+     * Dictionary<int, long> store their elements unboxed.   The map is only used when getMapPrimitiveCollections() is
+     * true; projects can add or remove entries as needed.
+     *
+     * @return primitive collection map
+     */
+    public Map<String, String> getPrimitiveCollectionMap() {
+        return primitiveCollectionMap;
+    }
+
+    /**
+     * If primitive collection mapping is enabled and the specified type, like ArrayList<Integer>, has a mapping in
+     * getPrimitiveCollectionMap(), return the fully qualified C# generic type used for it.  Otherwise return null.
+     *
+     * @param typeBinding type in question
+     * @return C# generic type name for the type, or null if it isn't mapped
+     */
+    public @Nullable String getPrimitiveCollectionType(@Nullable ITypeBinding typeBinding) {
+        if (!getMapPrimitiveCollections() || typeBinding == null || !hasOnlyPrimitiveWrapperTypeArguments(typeBinding))
+            return null;
+
+        return primitiveCollectionMap.get(typeBinding.getErasure().getQualifiedName());
+    }
+
+    /**
+     * Get the lock type that @Lock annotated fields, and synchronized statements that lock on them, are translated
+     * to.   Other synchronized statements and methods always use monitors.
+     *
+     * @return lock type for lock fields
+     */
+    public LockType getLockFieldType() {
+        return lockFieldType;
+    }
+
+    public void setLockFieldType(LockType lockFieldType) {
+        this.lockFieldType = lockFieldType;
+    }
+
     @Override public void translateFile(SourceFile sourceFile) {
         CompilationUnit compilationUnit = sourceFile.getCompilationUnit();
         AbstractTypeDeclaration mainTypeDeclaration = (AbstractTypeDeclaration) compilationUnit.types().get(0);
@@ -53,6 +130,8 @@ public class CSharpTranslator extends Translator {
         String typeName = mainTypeDeclaration.getName().getIdentifier();
         String fileName = typeName + ".cs";
 
+        validate(sourceFile, compilationUnit);
+
         File file = new File(getPackageDirectory(mainTypeDeclaration), fileName);
         try (FileWriter writer = new FileWriter(file)) {
             CSharpSourceFileWriter cSharpSourceFileWriter = new CSharpSourceFileWriter(this, sourceFile, writer);
@@ -63,13 +142,22 @@ public class CSharpTranslator extends Translator {
         }
     }
 
+    @Override public List<File> getOutputFiles(String[] packageNameComponents, String typeName) {
+        return Collections.singletonList(new File(getPackageDirectory(packageNameComponents), typeName + ".cs"));
+    }
+
     @Override public String translateNode(SourceFile sourceFile, ASTNode astNode) {
+        validate(sourceFile, astNode);
+
         try (StringWriter writer = new StringWriter()) {
             CSharpSourceFileWriter cSharpSourceFileWriter = new CSharpSourceFileWriter(this, sourceFile, writer);
 
-            // Set the type declaration part of the context
-            AbstractTypeDeclaration typeDeclaration = (AbstractTypeDeclaration) sourceFile.getCompilationUnit().types().get(0);
-            cSharpSourceFileWriter.getContext().setTypeDeclaration(typeDeclaration);
+            // Set the type declaration part of the context, unless translating the whole compilation unit, which sets it
+            // as it goes
+            if (!(astNode instanceof CompilationUnit)) {
+                AbstractTypeDeclaration typeDeclaration = (AbstractTypeDeclaration) sourceFile.getCompilationUnit().types().get(0);
+                cSharpSourceFileWriter.getContext().setTypeDeclaration(typeDeclaration);
+            }
 
             cSharpSourceFileWriter.writeRootNode(astNode);
 
@@ -78,4 +166,12 @@ public class CSharpTranslator extends Translator {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Check for source that the C# translation doesn't support, beyond what's checked as it's written.
+     */
+    private void validate(SourceFile sourceFile, ASTNode astNode) {
+        if (getMapPrimitiveCollections())
+            PrimitiveCollectionMethods.validateUses(sourceFile, astNode, this::getPrimitiveCollectionType);
+    }
 }
@@ -100,8 +100,12 @@ class CompilationUnitWriter extends CSharpASTNodeWriter<CompilationUnit> {
             @Nullable String namespaceToImportForGenericClass = null;
             if (isGenericImport(importDeclaration)) {
                 namespaceToImportForGenericClass = qualifiedName.getQualifier().getFullyQualifiedName();
-                if (genericUsings.contains(namespaceToImportForGenericClass))
+                // Skip another generic class import from the same namespace, along with the space before it, so the
+                // spacing is the same as if the import weren't there, including when it's the last one
+                if (genericUsings.contains(namespaceToImportForGenericClass)) {
+                    setPositionToEndOfNode(importDeclaration);
                     return;
+                }
             }
 
             copySpaceAndComments();
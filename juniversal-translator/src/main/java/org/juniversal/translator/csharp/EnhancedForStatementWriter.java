@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.csharp;
+
+import org.eclipse.jdt.core.dom.*;
+import org.jetbrains.annotations.Nullable;
+import org.juniversal.translator.core.EnhancedForLowering.CollectionKind;
+
+import static org.juniversal.translator.core.ASTUtil.getUnusedLocalName;
+import static org.juniversal.translator.core.EnhancedForLowering.getLowerableCollectionKind;
+
+/**
+ * Enhanced for statements are normally written as C# foreach statements.   But when the translator is configured to
+ * index enhanced for loops and the loop iterates over a local array or List that the body can't modify, it's instead
+ * written as an indexed for loop with the count cached, avoiding the enumerator allocation & version checks that
+ * foreach has for List.
+ */
+public class EnhancedForStatementWriter extends CSharpASTNodeWriter<EnhancedForStatement> {
+    public EnhancedForStatementWriter(CSharpSourceFileWriter cSharpASTWriters) {
+        super(cSharpASTWriters);
+    }
+
+    @Override
+    public void write(EnhancedForStatement enhancedForStatement) {
+        @Nullable CollectionKind collectionKind = null;
+        if (getSourceFileWriter().getTranslator().getIndexEnhancedForLoops())
+            collectionKind = getLowerableCollectionKind(enhancedForStatement);
+
+        if (collectionKind != null)
+            writeIndexedFor(enhancedForStatement, collectionKind);
+        else writeForeach(enhancedForStatement);
+    }
+
+    private void writeForeach(EnhancedForStatement enhancedForStatement) {
+        matchAndWrite("for", "foreach");
+
+        copySpaceAndComments();
+        matchAndWrite("(");
+
+        copySpaceAndComments();
+        writeNode(enhancedForStatement.getParameter());
+
+        copySpaceAndComments();
+        // TODO: Ensure spaces around "in"
+        matchAndWrite(":", "in");
+
+        copySpaceAndComments();
+        writeNode(enhancedForStatement.getExpression());
+
+        copySpaceAndComments();
+        matchAndWrite(")");
+
+        copySpaceAndComments();
+        writeNode(enhancedForStatement.getBody());
+    }
+
+    private void writeIndexedFor(EnhancedForStatement enhancedForStatement, CollectionKind collectionKind) {
+        SingleVariableDeclaration parameter = enhancedForStatement.getParameter();
+        Expression expression = enhancedForStatement.getExpression();
+
+        String parameterName = parameter.getName().getIdentifier();
+        String indexName = getUnusedLocalName(enhancedForStatement, parameterName + "Index");
+        String countName = getUnusedLocalName(enhancedForStatement, parameterName + "Count");
+
+        matchAndWrite("for");
+
+        copySpaceAndComments();
+        matchAndWrite("(");
+
+        write("int " + indexName + " = 0, " + countName + " = ");
+        writeNodeAtDifferentPosition(expression);
+        if (collectionKind == CollectionKind.ARRAY)
+            write(".Length");
+        else write(isPrimitiveCollection(expression.resolveTypeBinding()) ? ".Count" : ".size()");
+        write("; " + indexName + " < " + countName + "; ++" + indexName);
+
+        setPositionToEndOfNode(expression);
+        skipSpaceAndComments();
+        matchAndWrite(")");
+
+        copySpaceAndComments();
+
+        // The element variable is declared at the start of the body, on the same line as the brace, so line numbers
+        // in the output still match up with the source
+        Statement body = enhancedForStatement.getBody();
+        if (body instanceof Block) {
+            matchAndWrite("{");
+            writeElementDeclaration(parameter, expression, collectionKind, indexName);
+            writeNodes(((Block) body).statements());
+
+            copySpaceAndComments();
+            matchAndWrite("}");
+        } else {
+            write("{");
+            writeElementDeclaration(parameter, expression, collectionKind, indexName);
+            write(" ");
+            writeNode(body);
+            write(" }");
+        }
+    }
+
+    /**
+     * Lists are accessed with the same size() & get() methods that are used for them elsewhere in the translated code,
+     * which the C# java.util classes provide, or with Count & the indexer when they're mapped to a .NET List.
+     */
+    private void writeElementDeclaration(SingleVariableDeclaration parameter, Expression expression,
+                                         CollectionKind collectionKind, String indexName) {
+        write(" ");
+        writeNodeAtDifferentPosition(parameter);
+        write(" = ");
+        writeNodeAtDifferentPosition(expression);
+        if (collectionKind == CollectionKind.ARRAY || isPrimitiveCollection(expression.resolveTypeBinding()))
+            write("[" + indexName + "];");
+        else write(".get(" + indexName + ");");
+    }
+}
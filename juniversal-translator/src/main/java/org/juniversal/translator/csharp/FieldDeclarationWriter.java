@@ -26,10 +26,12 @@ import org.eclipse.jdt.core.dom.Expression;
 import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 import org.juniversal.translator.core.Context;
+import org.juniversal.translator.csharp.CSharpTranslator.LockType;
 
 import java.util.List;
 
 import static org.juniversal.translator.core.ASTUtil.isFinal;
+import static org.juniversal.translator.core.ASTUtil.isLockField;
 import static org.juniversal.translator.core.ASTUtil.isStatic;
 
 
@@ -44,6 +46,11 @@ public class FieldDeclarationWriter extends CSharpASTNodeWriter<FieldDeclaration
         boolean isFinal = isFinal(fieldDeclaration);
         boolean isStatic = isStatic(fieldDeclaration);
 
+        LockType lockType = LockType.MONITOR;
+        VariableDeclarationFragment firstFragment = (VariableDeclarationFragment) fieldDeclaration.fragments().get(0);
+        if (isLockField(firstFragment.resolveBinding()))
+            lockType = getSourceFileWriter().getTranslator().getLockFieldType();
+
         List<?> modifiers = fieldDeclaration.modifiers();
 
         writeAccessModifier(modifiers);
@@ -52,22 +59,60 @@ public class FieldDeclarationWriter extends CSharpASTNodeWriter<FieldDeclaration
             writeStaticModifier();
 
         // TODO: Consider checking if value is fixed at compile time and marking const instead of readonly
-        if (isFinal)
+        // SpinLock is a mutable struct, so can't be readonly, else each use would operate on a copy
+        if (isFinal && lockType != LockType.SPIN_LOCK)
             writeReadonlyModifier();
 
         // Skip the modifiers
         skipModifiers(modifiers);
         skipSpaceAndComments();
 
-        // Write the type
-        writeNode(fieldDeclaration.getType());
+        if (lockType != LockType.MONITOR)
+            writeLockField(fieldDeclaration, lockType);
+        else {
+            // Write the type
+            writeNode(fieldDeclaration.getType());
 
-        writeCommaDelimitedNodes(fieldDeclaration.fragments());
+            writeCommaDelimitedNodes(fieldDeclaration.fragments());
+        }
 
         copySpaceAndComments();
         matchAndWrite(";");
     }
 
+    private void writeLockField(FieldDeclaration fieldDeclaration, LockType lockType) {
+        if (fieldDeclaration.fragments().size() != 1)
+            throw sourceNotSupported("@Lock fields must be declared one per declaration");
+
+        VariableDeclarationFragment fragment = (VariableDeclarationFragment) fieldDeclaration.fragments().get(0);
+        Expression initializer = fragment.getInitializer();
+        if (initializer == null)
+            throw sourceNotSupported("@Lock fields must be initialized where declared, typically with \"new Object()\"");
+
+        String lockTypeName;
+        String lockCreation;
+        if (lockType == LockType.SPIN_LOCK) {
+            lockTypeName = nativeReference("System.Threading", "SpinLock");
+            // Thread owner tracking is disabled, as it's only useful for debugging & adds overhead
+            lockCreation = "new SpinLock(false)";
+        } else {
+            lockTypeName = nativeReference("System.Threading", "ReaderWriterLockSlim");
+            // Java monitors are reentrant, so allow recursion to preserve those semantics
+            lockCreation = "new ReaderWriterLockSlim(LockRecursionPolicy.SupportsRecursion)";
+        }
+
+        matchNodeAndWrite(fieldDeclaration.getType(), lockTypeName);
+
+        copySpaceAndComments();
+        writeNode(fragment.getName());
+
+        copySpaceAndComments();
+        matchAndWrite("=");
+
+        copySpaceAndComments();
+        matchNodeAndWrite(initializer, lockCreation);
+    }
+
     private void writeVariableDeclarationFragment(Context context, VariableDeclarationFragment variableDeclarationFragment) {
         // TODO: Check for syntax with extra dimensions on array
         // TODO: Handle check for int foo[] syntax instead of int[] foo
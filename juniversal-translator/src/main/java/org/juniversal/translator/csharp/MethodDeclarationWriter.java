@@ -68,6 +68,11 @@ public class MethodDeclarationWriter extends CSharpASTNodeWriter<MethodDeclarati
 
         writeMappedAnnotations(modifiers);
 
+        // Synchronized methods lock the instance (or the type, for static methods), same as Java
+        if (isSynchronized(methodDeclaration))
+            write("[" + nativeReference("System.Runtime.CompilerServices", "MethodImpl") +
+                  "(MethodImplOptions.Synchronized)] ");
+
         // Handle finalize here separately; it maps to a C# destructor, with no access modifiers or return type
         if (isThisMethod(methodDeclaration, "finalize")) {
             write("~" + typeDeclaration.getName().getIdentifier());
@@ -25,6 +25,7 @@ package org.juniversal.translator.csharp;
 import org.eclipse.jdt.core.dom.*;
 import org.jetbrains.annotations.Nullable;
 import org.juniversal.translator.core.JUniversalException;
+import org.juniversal.translator.core.PrimitiveCollectionMethods;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -44,14 +45,26 @@ public abstract class MethodInvocationWriterBase<T extends Expression> extends C
         for (Object argument : arguments)
             args.add((Expression) argument);
 
+        // Array intrinsics replace the whole call, including any "System." or "Arrays." qualifier
+        if (writeMappedArrayMethod(methodInvocationNode, methodName, args, methodBinding))
+            return;
+
         ITypeBinding objectType;
         if (expression != null)
             objectType = expression.resolveTypeBinding();
         else objectType = methodBinding.getDeclaringClass();
 
+        boolean isPrimitiveCollection = expression != null && isPrimitiveCollection(objectType);
+        if (isPrimitiveCollection) {
+            @Nullable String unsupportedReason =
+                    PrimitiveCollectionMethods.getUnsupportedReason((MethodInvocation) methodInvocationNode, objectType);
+            if (unsupportedReason != null)
+                throw sourceNotSupported(unsupportedReason);
+        }
+
         //TODO: Detect when precedence allows skkpping parens
         boolean addParentheses = false;
-        if (isType(objectType, "java.lang.String") && methodNameString.equals("isEmpty"))
+        if ((isType(objectType, "java.lang.String") || isPrimitiveCollection) && methodNameString.equals("isEmpty"))
             addParentheses = true;
 
         if (addParentheses)
@@ -62,6 +75,13 @@ public abstract class MethodInvocationWriterBase<T extends Expression> extends C
 
             copySpaceAndComments();
 
+            if (isPrimitiveCollection) {
+                writeMappedPrimitiveCollectionMethod(methodInvocationNode, methodNameString, args);
+                if (addParentheses)
+                    write(")");
+                return;
+            }
+
             // If the Java method is mapped to an overloaded operator in C# (e.g. charAt -> []) then handle that case
             // here, with no "." getting written
             if (writeMethodMappedToOperatorOverload(methodNameString, args, methodBinding))
@@ -162,6 +182,227 @@ public abstract class MethodInvocationWriterBase<T extends Expression> extends C
         } else return false;
     }
 
+    /**
+     * System.arraycopy & Arrays.fill map to the .NET bulk array methods, Array.Copy & Array.Fill, which like their
+     * Java counterparts copy primitive elements as a block of memory rather than one at a time.
+     * <p>
+     * The ranged Arrays.fill(array, fromIndex, toIndex, value) is written as array.AsSpan(fromIndex..toIndex).Fill(value),
+     * which evaluates the arguments once each, in the same order as Java.  A span can't be taken of an array whose
+     * runtime type is a subclass's array though, as Java's covariant arrays can be, so for arrays of a class that can
+     * have subclasses it's written as Array.Fill(array, value, fromIndex, toIndex - fromIndex) instead.  That's only
+     * supported when the indexes & value have no side effects, as it evaluates fromIndex twice and the value first.
+     *
+     * @param methodInvocation method invocation node
+     * @param methodName       method name
+     * @param args             method arguments
+     * @param methodBinding    IMethodBinding object
+     * @return true iff the method call was handled, mapped to an array method
+     */
+    private boolean writeMappedArrayMethod(T methodInvocation, SimpleName methodName, ArrayList<Expression> args,
+                                           IMethodBinding methodBinding) {
+        if (isStaticMethod(methodBinding, "java.lang.System", "arraycopy")) {
+            // Array.Copy takes the same arguments as arraycopy
+            setPositionToStartOfNode(methodName);
+            matchAndWrite("arraycopy", nativeReference("System", "Array") + ".Copy");
+
+            copySpaceAndComments();
+            writeMethodInvocationArgumentList(args);
+        } else if (isStaticMethod(methodBinding, "java.util.Arrays", "fill")) {
+            verifyArgCount(args, 2, 4);
+
+            if (args.size() == 2)
+                writeMappedMethod(nativeReference("System", "Array") + ".Fill", args.get(0), args.get(1));
+            else {
+                Expression array = args.get(0);
+                Expression fromIndex = args.get(1);
+                Expression toIndex = args.get(2);
+                Expression value = args.get(3);
+
+                if (hasExactRuntimeType(array.resolveTypeBinding().getComponentType())) {
+                    // Arrays.fill(array, fromIndex, toIndex, value) -> array.AsSpan(fromIndex..toIndex).Fill(value)
+                    writeOperand(array, array instanceof Name || array instanceof FieldAccess ||
+                                        array instanceof ArrayAccess || array instanceof MethodInvocation ||
+                                        array instanceof ThisExpression || array instanceof ParenthesizedExpression);
+                    write("." + nativeReference("System", "AsSpan") + "(");
+                    writeOperand(fromIndex, isSimpleOperand(fromIndex));
+                    write("..");
+                    writeOperand(toIndex, isSimpleOperand(toIndex));
+                    write(").Fill(");
+                    writeOperand(value, true);
+                    write(")");
+                } else {
+                    if (!isSideEffectFree(fromIndex) || !isSideEffectFree(toIndex) || !isSideEffectFree(value))
+                        throw sourceNotSupported("Arrays.fill of a range of an array of a non-final class is only supported when the indexes & value have no side effects");
+
+                    // Arrays.fill(array, fromIndex, toIndex, value) -> Array.Fill(array, value, fromIndex, toIndex - fromIndex)
+                    write(nativeReference("System", "Array") + ".Fill(");
+                    writeOperand(array, true);
+                    write(", ");
+                    writeOperand(value, true);
+                    write(", ");
+                    writeOperand(fromIndex, true);
+                    write(", ");
+                    writeOperand(toIndex, isSimpleOperand(toIndex));
+                    write(" - ");
+                    writeOperand(fromIndex, isSimpleOperand(fromIndex));
+                    write(")");
+                }
+            }
+        } else return false;
+
+        setPositionToEndOfNode(methodInvocation);
+        return true;
+    }
+
+    private void writeOperand(Expression expression, boolean asIs) {
+        if (!asIs)
+            write("(");
+        setPositionToStartOfNode(expression);
+        writeNode(expression);
+        if (!asIs)
+            write(")");
+    }
+
+    /**
+     * Returns true if arrays of the specified element type always have exactly that runtime type, as the element type
+     * can't have subclasses, so a span can be taken of them.  Enum constants with bodies are subclasses, but arrays of
+     * them can't be created.
+     */
+    private static boolean hasExactRuntimeType(ITypeBinding elementType) {
+        if (elementType.isPrimitive())
+            return true;
+        else if (elementType.isArray())
+            return hasExactRuntimeType(elementType.getComponentType());
+        else return elementType.isEnum() || Modifier.isFinal(elementType.getModifiers());
+    }
+
+    /**
+     * Names & literals can be written more than once and as an operand of "-" or ".." as is, without changing what
+     * they evaluate to.
+     */
+    private static boolean isSimpleOperand(Expression expression) {
+        return expression instanceof Name || expression instanceof NumberLiteral ||
+               expression instanceof CharacterLiteral;
+    }
+
+    /**
+     * Returns true if evaluating the expression can't change any state, so it can be evaluated more than once, or in
+     * a different order than in Java, with the same result.
+     */
+    private static boolean isSideEffectFree(Expression expression) {
+        if (expression instanceof Name || expression instanceof ThisExpression || expression instanceof NumberLiteral ||
+            expression instanceof CharacterLiteral || expression instanceof BooleanLiteral ||
+            expression instanceof StringLiteral || expression instanceof NullLiteral)
+            return true;
+        else if (expression instanceof ParenthesizedExpression)
+            return isSideEffectFree(((ParenthesizedExpression) expression).getExpression());
+        else if (expression instanceof CastExpression)
+            return isSideEffectFree(((CastExpression) expression).getExpression());
+        else if (expression instanceof FieldAccess)
+            return isSideEffectFree(((FieldAccess) expression).getExpression());
+        else if (expression instanceof ArrayAccess) {
+            ArrayAccess arrayAccess = (ArrayAccess) expression;
+            return isSideEffectFree(arrayAccess.getArray()) && isSideEffectFree(arrayAccess.getIndex());
+        } else if (expression instanceof PrefixExpression) {
+            PrefixExpression prefixExpression = (PrefixExpression) expression;
+            PrefixExpression.Operator operator = prefixExpression.getOperator();
+            return operator != PrefixExpression.Operator.INCREMENT && operator != PrefixExpression.Operator.DECREMENT &&
+                   isSideEffectFree(prefixExpression.getOperand());
+        } else if (expression instanceof InfixExpression) {
+            InfixExpression infixExpression = (InfixExpression) expression;
+            if (!isSideEffectFree(infixExpression.getLeftOperand()) ||
+                !isSideEffectFree(infixExpression.getRightOperand()))
+                return false;
+            for (Object extendedOperand : infixExpression.extendedOperands()) {
+                if (!isSideEffectFree((Expression) extendedOperand))
+                    return false;
+            }
+            return true;
+        } else return false;
+    }
+
+    /**
+     * Lists & maps of primitives are written as .NET Lists & Dictionaries (see getPrimitiveCollectionType), so calls on
+     * them are mapped to the .NET equivalents, with element access going through the indexer.   Only the methods that
+     * PrimitiveCollectionMethods supports get here.
+     *
+     * @param methodInvocation method invocation node
+     * @param methodName       method name
+     * @param args             method arguments
+     */
+    private void writeMappedPrimitiveCollectionMethod(T methodInvocation, String methodName,
+                                                      ArrayList<Expression> args) {
+        match(".");
+        skipSpaceAndComments();
+        match(methodName);
+
+        switch (methodName) {
+            case "get":
+                writeIndexer(args.get(0));
+                break;
+
+            case "set":
+            case "put":
+                writeIndexer(args.get(0));
+                write(" = ");
+                setPositionToStartOfNode(args.get(1));
+                writeNode(args.get(1));
+                break;
+
+            case "add":
+                write(".");
+                writeMappedMethod("Add", args.get(0));
+                break;
+
+            case "clear":
+                write(".");
+                writeMappedMethod("Clear");
+                break;
+
+            case "contains":
+                write(".");
+                writeMappedMethod("Contains", args.get(0));
+                break;
+
+            case "containsKey":
+                write(".");
+                writeMappedMethod("ContainsKey", args.get(0));
+                break;
+
+            case "getOrDefault":
+                // GetValueOrDefault is an extension method, so needs the using even if the type is declared elsewhere
+                write(".");
+                writeMappedMethod(nativeReference("System.Collections.Generic", "GetValueOrDefault"), args.get(0),
+                        args.get(1));
+                break;
+
+            case "remove":
+                write(".");
+                writeMappedMethod("Remove", args.get(0));
+                break;
+
+            case "size":
+                write(".Count");
+                break;
+
+            case "isEmpty":
+                write(".Count == 0");
+                break;
+
+            default:
+                throw new JUniversalException("Unexpected primitive collection method: " + methodName);
+        }
+
+        setPositionToEndOfNode(methodInvocation);
+    }
+
+    private void writeIndexer(Expression index) {
+        write("[");
+        setPositionToStartOfNode(index);
+        writeNode(index);
+        write("]");
+    }
+
     private boolean writeMappedObjectMethod(T methodInvocation, String methodName,
                                             ArrayList<Expression> args, IMethodBinding methodBinding) {
         if (isStatic(methodBinding))
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.csharp;
+
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.SynchronizedStatement;
+import org.juniversal.translator.csharp.CSharpTranslator.LockType;
+
+import static org.juniversal.translator.core.ASTUtil.getLockField;
+import static org.juniversal.translator.core.ASTUtil.getUnusedLocalName;
+
+/**
+ * Synchronized statements normally map directly to the C# lock statement.   But if the statement locks an @Lock
+ * annotated field & lock fields are configured to use a SpinLock or ReaderWriterLockSlim, then the lock is explicitly
+ * acquired before the block & released in a finally after it.
+ */
+public class SynchronizedStatementWriter extends CSharpASTNodeWriter<SynchronizedStatement> {
+    public SynchronizedStatementWriter(CSharpSourceFileWriter cSharpASTWriters) {
+        super(cSharpASTWriters);
+    }
+
+    @Override
+    public void write(SynchronizedStatement synchronizedStatement) {
+        Expression expression = synchronizedStatement.getExpression();
+
+        LockType lockType = LockType.MONITOR;
+        if (getLockField(expression) != null)
+            lockType = getSourceFileWriter().getTranslator().getLockFieldType();
+
+        if (lockType == LockType.MONITOR) {
+            matchAndWrite("synchronized", "lock");
+
+            copySpaceAndComments();
+            matchAndWrite("(");
+
+            writeNode(expression);
+
+            copySpaceAndComments();
+            matchAndWrite(")");
+
+            copySpaceAndComments();
+            writeNode(synchronizedStatement.getBody());
+        } else {
+            match("synchronized");
+
+            setPositionToEndOfNode(expression);
+            skipSpaceAndComments();
+            match(")");
+
+            // The lock acquisition is written in place of the "synchronized (...)" header, followed by whatever
+            // space/comments come before the block
+            if (lockType == LockType.SPIN_LOCK) {
+                String lockTakenName = getUnusedLocalName(synchronizedStatement, "lockTaken");
+
+                write("{ bool " + lockTakenName + " = false; try { ");
+                writeNodeAtDifferentPosition(expression);
+                write(".Enter(ref " + lockTakenName + ");");
+
+                copySpaceAndComments();
+                writeNode(synchronizedStatement.getBody());
+
+                write(" } finally { if (" + lockTakenName + ") ");
+                writeNodeAtDifferentPosition(expression);
+                write(".Exit(); } }");
+            } else {
+                write("{ ");
+                writeNodeAtDifferentPosition(expression);
+                write(".EnterWriteLock(); try");
+
+                copySpaceAndComments();
+                writeNode(synchronizedStatement.getBody());
+
+                write(" finally { ");
+                writeNodeAtDifferentPosition(expression);
+                write(".ExitWriteLock(); } }");
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.jetbrains.annotations.Nullable;
 import java.util.List;
 
 import static org.juniversal.translator.core.ASTUtil.*;
+import static org.juniversal.translator.core.ValueTypes.isValueType;
 
 public class TypeDeclarationWriter extends CSharpASTNodeWriter<TypeDeclaration> {
     public TypeDeclarationWriter(CSharpSourceFileWriter cSharpASTWriters) {
@@ -59,9 +60,14 @@ public class TypeDeclarationWriter extends CSharpASTNodeWriter<TypeDeclaration>
             List typeParameters = typeDeclaration.typeParameters();
             boolean isGeneric = !typeParameters.isEmpty();
 
+            // Value types become structs, which are implicitly sealed
+            boolean isValueType = isValueType(typeDeclaration);
+            if (isValueType)
+                validateStruct(typeDeclaration);
+
             writeAccessModifier(modifiers);
 
-            if (isFinal(typeDeclaration))
+            if (isFinal(typeDeclaration) && !isValueType)
                 writeSealedModifier();
             else if (isAbstract(typeDeclaration))
                 writeAbstractModifier();
@@ -71,6 +77,8 @@ public class TypeDeclarationWriter extends CSharpASTNodeWriter<TypeDeclaration>
 
             if (isInterface)
                 matchAndWrite("interface");
+            else if (isValueType)
+                matchAndWrite("class", "struct");
             else
                 matchAndWrite("class");
 
@@ -114,6 +122,25 @@ public class TypeDeclarationWriter extends CSharpASTNodeWriter<TypeDeclaration>
         }
     }
 
+    /**
+     * Check for the things that are OK in a Java value type but that C# doesn't allow in structs.
+     *
+     * @param typeDeclaration value type declaration
+     */
+    private void validateStruct(TypeDeclaration typeDeclaration) {
+        for (FieldDeclaration fieldDeclaration : typeDeclaration.getFields()) {
+            if (!isStatic(fieldDeclaration) &&
+                anyMatch(fieldDeclaration.fragments(),
+                        (VariableDeclarationFragment fragment) -> fragment.getInitializer() != null))
+                throw sourceNotSupported("C# structs can't have instance field initializers; initialize value type fields in the constructor instead");
+        }
+
+        for (MethodDeclaration methodDeclaration : typeDeclaration.getMethods()) {
+            if (isConstructor(methodDeclaration) && methodDeclaration.parameters().isEmpty())
+                throw sourceNotSupported("C# structs can't have an explicit parameterless constructor; in C#, the default value for a value type always has all fields zero/null");
+        }
+    }
+
     private void writeFunctionalInterfaceAsDelegate(TypeDeclaration typeDeclaration) {
         MethodDeclaration functionalInterfaceMethod = getFunctionalInterfaceMethod(typeDeclaration);
 
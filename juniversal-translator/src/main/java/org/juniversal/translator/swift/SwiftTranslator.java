@@ -29,6 +29,8 @@ import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.juniversal.translator.core.*;
 
 import java.io.*;
+import java.util.Collections;
+import java.util.List;
 
 public class SwiftTranslator extends Translator {
     @Override public void translateFile(SourceFile sourceFile) {
@@ -49,6 +51,10 @@ public class SwiftTranslator extends Translator {
         }
     }
 
+    @Override public List<File> getOutputFiles(String[] packageNameComponents, String typeName) {
+        return Collections.singletonList(new File(getOutputDirectory(), typeName + ".cs"));
+    }
+
     @Override public String translateNode(SourceFile sourceFile, ASTNode astNode) {
         try (StringWriter writer = new StringWriter()) {
             SwiftSourceFileWriter swiftSourceFileWriter = new SwiftSourceFileWriter(this, sourceFile, writer);
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.compiler.IProblem;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A set of test snippets, each a complete compilation unit declaring TestClass, parsed with a single
+ * ASTParser.createASTs call.  That sets up the binding environment, including reading the running JVM's boot
+ * classpath, once for the whole batch instead of once per snippet.  Parsed snippets are cached, so a snippet used by
+ * more than one test is only parsed once.
+ * <p>
+ * The units in a batch are compiled together, so each snippet gets a package line of its own, to keep the TestClass
+ * declarations distinct.  That shifts everything down a line, which is why the source that was actually parsed, not
+ * the original snippet, needs to be used for the SourceFile.  The units also share the batch's binding tables, which
+ * aren't thread safe, so anything that might resolve bindings on a batch's units should only be done on one thread at
+ * a time.
+ */
+public class SnippetBatch {
+    private static final ConcurrentHashMap<String, Snippet> parsedSnippets = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextPackageNumber = new AtomicInteger();
+    private static @Nullable File snippetsDirectory;
+
+    private SnippetBatch() {
+    }
+
+    /**
+     * Returns the snippet for the specified source if it's already been parsed, or else null.
+     *
+     * @param javaSource original snippet source
+     * @return parsed snippet, or null if it hasn't been parsed
+     */
+    public static @Nullable Snippet getParsed(String javaSource) {
+        return parsedSnippets.get(javaSource);
+    }
+
+    /**
+     * Parses those of the specified sources that haven't already been parsed, together in one new batch.  It's safe to
+     * call this on multiple threads at once, though a source passed to more than one concurrent call may get parsed
+     * twice.
+     *
+     * @param javaSources original snippet sources
+     * @return parsed snippets, one for each source
+     */
+    public static List<Snippet> parse(Collection<String> javaSources) {
+        SnippetBatch batch = new SnippetBatch();
+        Map<String, String> javaSourcesForPaths = new HashMap<>();
+        Set<String> batchSources = new HashSet<>();
+
+        try {
+            for (String javaSource : javaSources) {
+                if (parsedSnippets.containsKey(javaSource) || !batchSources.add(javaSource))
+                    continue;
+
+                String packageName = "snippet" + nextPackageNumber.getAndIncrement();
+                File packageDirectory = new File(getSnippetsDirectory(), packageName);
+                if (!packageDirectory.mkdir())
+                    throw new IOException("Failed to create directory " + packageDirectory);
+
+                File file = new File(packageDirectory, "TestClass.java");
+                Files.write(file.toPath(), getParsedSource(packageName, javaSource).getBytes(StandardCharsets.UTF_8));
+                javaSourcesForPaths.put(file.getPath(), javaSource);
+            }
+
+            if (!javaSourcesForPaths.isEmpty())
+                batch.parseFiles(javaSourcesForPaths);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for (String path : javaSourcesForPaths.keySet()) {
+                File file = new File(path);
+                file.delete();
+                file.getParentFile().delete();
+            }
+        }
+
+        ArrayList<Snippet> snippets = new ArrayList<>();
+        for (String javaSource : javaSources)
+            snippets.add(parsedSnippets.get(javaSource));
+        return snippets;
+    }
+
+    private void parseFiles(final Map<String, String> javaSourcesForPaths) {
+        ASTParser parser = ASTParser.newParser(AST.JLS8);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setResolveBindings(true);
+        parser.setEnvironment(new String[0], new String[0], null, true);
+
+        parser.setCompilerOptions(getJava8CompilerOptions());
+
+        String[] paths = javaSourcesForPaths.keySet().toArray(new String[javaSourcesForPaths.size()]);
+        String[] encodings = new String[paths.length];
+        Arrays.fill(encodings, "UTF-8");
+
+        parser.createASTs(paths, encodings, new String[0], new FileASTRequestor() {
+            @Override public void acceptAST(String sourceFilePath, CompilationUnit compilationUnit) {
+                String javaSource = javaSourcesForPaths.get(sourceFilePath);
+                String packageName = new File(sourceFilePath).getParentFile().getName();
+
+                Snippet snippet = new Snippet(javaSource, getParsedSource(packageName, javaSource), compilationUnit,
+                        getErrors(compilationUnit), SnippetBatch.this);
+                parsedSnippets.putIfAbsent(javaSource, snippet);
+            }
+        }, null /* IProgressMonitor */);
+    }
+
+    private static String getParsedSource(String packageName, String javaSource) {
+        return "package " + packageName + ";\n" + javaSource;
+    }
+
+    private static @Nullable String getErrors(CompilationUnit compilationUnit) {
+        StringBuilder problemsText = new StringBuilder();
+        for (IProblem problem : compilationUnit.getProblems()) {
+            if (problem.isError())
+                problemsText.append(problem.getMessage() + "\n");
+        }
+
+        return problemsText.length() > 0 ? problemsText.toString() : null;
+    }
+
+    /**
+     * Get the compiler options for parsing Java 8 source; by default JDT parses as an older version.
+     */
+    public static Map<String, String> getJava8CompilerOptions() {
+        // JavaCore's options map is untyped, but its keys & values are all strings
+        @SuppressWarnings("unchecked")
+        Map<String, String> options = JavaCore.getOptions();
+        JavaCore.setComplianceOptions(JavaCore.VERSION_1_8, options);
+        return options;
+    }
+
+    private static synchronized File getSnippetsDirectory() throws IOException {
+        if (snippetsDirectory == null) {
+            snippetsDirectory = Files.createTempDirectory("juniversal-snippets").toFile();
+            snippetsDirectory.deleteOnExit();
+        }
+        return snippetsDirectory;
+    }
+
+    public static class Snippet {
+        private final String javaSource;
+        private final String parsedSource;
+        private final CompilationUnit compilationUnit;
+        private final @Nullable String errors;
+        private final SnippetBatch batch;
+
+        private Snippet(String javaSource, String parsedSource, CompilationUnit compilationUnit,
+                        @Nullable String errors, SnippetBatch batch) {
+            this.javaSource = javaSource;
+            this.parsedSource = parsedSource;
+            this.compilationUnit = compilationUnit;
+            this.errors = errors;
+            this.batch = batch;
+        }
+
+        public String getJavaSource() {
+            return javaSource;
+        }
+
+        /**
+         * Returns the source that was actually parsed:  the original snippet, with a package line added at the start.
+         * Node positions in the compilation unit are relative to this.
+         *
+         * @return parsed source
+         */
+        public String getParsedSource() {
+            return parsedSource;
+        }
+
+        /**
+         * Returns the parsed compilation unit, throwing an exception listing the errors if the snippet didn't compile.
+         *
+         * @return compilation unit
+         */
+        public CompilationUnit getCompilationUnit() {
+            if (errors != null)
+                throw new RuntimeException(errors);
+            return compilationUnit;
+        }
+
+        public SnippetBatch getBatch() {
+            return batch;
+        }
+    }
+}
@@ -22,19 +22,30 @@
 
 package org.juniversal.translator;
 
-import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.*;
 import org.jetbrains.annotations.Nullable;
+import org.junit.After;
+import org.junit.ComparisonFailure;
 import org.junit.Test;
 import org.juniversal.translator.core.SourceFile;
 import org.juniversal.translator.core.SourceNotSupportedException;
 import org.juniversal.translator.core.Translator;
 import org.juniversal.translator.csharp.CSharpTranslator;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.juniversal.translator.SnippetBatch.getJava8CompilerOptions;
 
 
 public class TranslateNodeTest {
@@ -91,13 +102,8 @@ public class TranslateNodeTest {
                                    @Nullable String expectedSwift) {
         String javaFullSource = "class TestClass{ int testMethod() {\n" + javaStatement + "\n} }";
 
-        CompilationUnit compilationUnit = parseCompilationUnit(javaFullSource);
-
-        Block block = getFirstMethodBlock(compilationUnit);
-        ASTNode firstStatement = (ASTNode) block.statements().get(0);
-
-        testTranslateNode(firstStatement, javaFullSource, javaStatement, compilationUnit, expectedCSharp,
-                expectedSwift);
+        addCheck(javaFullSource, javaStatement,
+                compilationUnit -> (ASTNode) getFirstMethodBlock(compilationUnit).statements().get(0), expectedCSharp);
     }
 
     public CompilationUnit parseCompilationUnit(String java) {
@@ -109,10 +115,7 @@ public class TranslateNodeTest {
         parser.setEnvironment(new String[0], new String[0], null, true);
         parser.setUnitName("TestClass.java");
 
-        // In order to parse 1.8 code, some compiler options need to be set to 1.8
-        Map options = JavaCore.getOptions();
-        JavaCore.setComplianceOptions(JavaCore.VERSION_1_8, options);
-        parser.setCompilerOptions(options);
+        parser.setCompilerOptions(getJava8CompilerOptions());
 
         CompilationUnit compilationUnit = (CompilationUnit) parser.createAST(null /* IProgressMonitor */);
 
@@ -177,55 +180,152 @@ public class TranslateNodeTest {
                         "    void testMethod() {" + javaType + " foo = " + javaExpression + "; }\n" +
                         "}";
 
-        CompilationUnit compilationUnit = parseCompilationUnit(javaClass);
-
-        Block block = getFirstMethodBlock(compilationUnit);
-        VariableDeclarationStatement variableDeclarationStatement = (VariableDeclarationStatement) block.statements().get(0);
-        VariableDeclarationFragment variableDeclarationFragment = (VariableDeclarationFragment) variableDeclarationStatement.fragments().get(0);
-
-        testTranslateNode(variableDeclarationFragment.getInitializer(), javaClass, javaExpression, compilationUnit,
-                expectedCSharpExpression, expectedSwiftExpression);
+        addCheck(javaClass, javaExpression, compilationUnit -> {
+            Block block = getFirstMethodBlock(compilationUnit);
+            VariableDeclarationStatement variableDeclarationStatement = (VariableDeclarationStatement) block.statements().get(0);
+            VariableDeclarationFragment variableDeclarationFragment = (VariableDeclarationFragment) variableDeclarationStatement.fragments().get(0);
+            return variableDeclarationFragment.getInitializer();
+        }, expectedCSharpExpression);
     }
 
     protected void testTranslateStatement(String javaStatement, @Nullable String expectedCSharpStatement,
                                           @Nullable String expectedSwiftStatement) {
         String javaClass = "class TestClass{ void testMethod() {" + javaStatement + "} }";
 
-        CompilationUnit compilationUnit = parseCompilationUnit(javaClass);
-
-        Block block = getFirstMethodBlock(compilationUnit);
-        Statement statement = (Statement) block.statements().get(0);
-
-        testTranslateNode(statement, javaClass, javaStatement, compilationUnit, expectedCSharpStatement,
-                expectedSwiftStatement);
+        addCheck(javaClass, javaStatement,
+                compilationUnit -> (Statement) getFirstMethodBlock(compilationUnit).statements().get(0),
+                expectedCSharpStatement);
     }
 
     protected void testTranslateMethod(String javaMethod, @Nullable String expectedCSharpMethod,
                                        @Nullable String expectedSwiftMethod) {
         String javaClass = "final class TestClass{ " + javaMethod + " }";
 
-        CompilationUnit compilationUnit = parseCompilationUnit(javaClass);
-
-        MethodDeclaration methodDeclaration = getFirstMethod(compilationUnit);
-
-        testTranslateNode(methodDeclaration, javaClass, javaMethod, compilationUnit, expectedCSharpMethod,
-                expectedSwiftMethod);
+        addCheck(javaClass, javaMethod, TranslateNodeTest::getFirstMethod, expectedCSharpMethod);
     }
 
     protected void testTranslateJavadocComment(String javadocComment, @Nullable String expectedCSharpComment) {
         String javaClass = "class TestClass{\n" + javadocComment + "\n  void testMethod() {\n  }\n}";
 
-        CompilationUnit compilationUnit = parseCompilationUnit(javaClass);
-
-        Javadoc commentObj = getFirstJavadoc(compilationUnit);
-        testTranslateNode(commentObj, javaClass, javadocComment, compilationUnit, expectedCSharpComment,
-                expectedCSharpComment);
+        addCheck(javaClass, javadocComment, TranslateNodeTest::getFirstJavadoc, expectedCSharpComment);
     }
 
     public static Javadoc getFirstJavadoc(CompilationUnit compilationUnit) {
         return (Javadoc) compilationUnit.getCommentList().get(0);
     }
 
+    /**
+     * Queues up a check that the node found in the snippet translates as expected.  Checks are run in groups, by
+     * checkPending, so that their snippets can be parsed in batches and translated in parallel.  The tab stops are
+     * captured when the check is added, but other translator settings are whatever they are when the check is run;
+     * getCSharpTranslator runs the pending checks first, so settings changed through it only affect later checks.
+     */
+    private void addCheck(String javaFullSource, String javaNodeSource, Function<CompilationUnit, ASTNode> nodeFinder,
+                          @Nullable String expectedCSharp) {
+        // All the checks run together share the translator's destination tab stop
+        if (!pendingChecks.isEmpty() && pendingChecks.get(pendingChecks.size() - 1).destTabStop != destTabStop)
+            checkPending();
+
+        pendingChecks.add(new SnippetCheck(javaFullSource, javaNodeSource, nodeFinder, expectedCSharp, sourceTabStop,
+                destTabStop));
+    }
+
+    /**
+     * Runs the checks queued up by the testTranslate/testWrite methods, throwing the first failure, in the order the
+     * checks were added, if any fail.  Snippets not already parsed are split into batches, one per thread, each parsed
+     * with a single createASTs call.  Checks on snippets from the same batch always run on the same thread, as the
+     * units in a batch share binding tables, which aren't thread safe.
+     */
+    @After public void checkPending() {
+        if (pendingChecks.isEmpty())
+            return;
+
+        ArrayList<SnippetCheck> checks = new ArrayList<>(pendingChecks);
+        pendingChecks.clear();
+
+        LinkedHashMap<SnippetBatch, List<SnippetCheck>> parsedChecks = new LinkedHashMap<>();
+        LinkedHashMap<String, List<SnippetCheck>> unparsedChecks = new LinkedHashMap<>();
+        for (SnippetCheck check : checks) {
+            SnippetBatch.Snippet snippet = SnippetBatch.getParsed(check.javaFullSource);
+            if (snippet != null)
+                parsedChecks.computeIfAbsent(snippet.getBatch(), batch -> new ArrayList<>()).add(check);
+            else unparsedChecks.computeIfAbsent(check.javaFullSource, javaSource -> new ArrayList<>()).add(check);
+        }
+
+        cSharpTranslator.setDestTabStop(checks.get(0).destTabStop);
+
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        for (List<SnippetCheck> batchChecks : parsedChecks.values())
+            futures.add(checkExecutor.submit(() -> runChecks(batchChecks)));
+
+        ArrayList<String> unparsedSources = new ArrayList<>(unparsedChecks.keySet());
+        int batchCount = Math.min(THREAD_COUNT, unparsedSources.size());
+        for (int i = 0; i < batchCount; ++i) {
+            List<String> batchSources = unparsedSources.subList(unparsedSources.size() * i / batchCount,
+                    unparsedSources.size() * (i + 1) / batchCount);
+
+            ArrayList<SnippetCheck> batchChecks = new ArrayList<>();
+            for (String javaSource : batchSources)
+                batchChecks.addAll(unparsedChecks.get(javaSource));
+
+            futures.add(checkExecutor.submit(() -> {
+                SnippetBatch.parse(batchSources);
+                runChecks(batchChecks);
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                // Fall through; the failures are reported below, in order
+            }
+        }
+
+        for (SnippetCheck check : checks) {
+            if (check.failure != null)
+                throw getReportedFailure(check);
+        }
+    }
+
+    /**
+     * Checks run after the test method that added them returns, so their failures are reported with the snippet's
+     * source & a stack trace pointing at where the check was added, instead of where it happened to run.
+     */
+    private static Error getReportedFailure(SnippetCheck check) {
+        Throwable failure = check.failure;
+        String message = "Check of snippet failed:\n" + check.javaNodeSource;
+
+        Error reportedFailure;
+        if (failure instanceof ComparisonFailure) {
+            ComparisonFailure comparisonFailure = (ComparisonFailure) failure;
+            reportedFailure = new ComparisonFailure(message, comparisonFailure.getExpected(),
+                    comparisonFailure.getActual());
+            reportedFailure.initCause(failure);
+        } else reportedFailure = new AssertionError(message + "\n" + failure, failure);
+
+        reportedFailure.setStackTrace(check.addedAt);
+        return reportedFailure;
+    }
+
+    private void runChecks(List<SnippetCheck> checks) {
+        for (SnippetCheck check : checks) {
+            try {
+                SnippetBatch.Snippet snippet = SnippetBatch.getParsed(check.javaFullSource);
+                CompilationUnit compilationUnit = snippet.getCompilationUnit();
+
+                SourceFile sourceFile = new SourceFile(compilationUnit, snippet.getParsedSource(),
+                        check.sourceTabStop);
+                testTranslate(cSharpTranslator, sourceFile, check.nodeFinder.apply(compilationUnit),
+                        check.javaNodeSource, check.expectedCSharp);
+            } catch (Throwable t) {
+                check.failure = t;
+            }
+        }
+    }
+
     protected void testTranslateNode(ASTNode node, String javaFullSource, String javaNodeSource,
                                      CompilationUnit compilationUnit, @Nullable String expectedCSharp,
                                      @Nullable String expectedSwift) {
@@ -234,6 +334,7 @@ public class TranslateNodeTest {
         profile.setTabStop(destTabStop);
 */
 
+        checkPending();
         cSharpTranslator.setDestTabStop(destTabStop);
 
         SourceFile sourceFile = new SourceFile(compilationUnit, javaFullSource, sourceTabStop);
@@ -256,6 +357,7 @@ public class TranslateNodeTest {
         if (effectiveExpectedOutput.startsWith(("NOT-SUPPORTED:"))) {
             try {
                 translator.translateNode(sourceFile, node);
+                fail("Expected SourceNotSupportedException for: " + javaNodeSource);
             } catch (SourceNotSupportedException e) {
                 String expectedError = effectiveExpectedOutput.substring("NOT-SUPPORTED: ".length());
 
@@ -272,10 +374,58 @@ public class TranslateNodeTest {
         }
     }
 
+    protected CSharpTranslator getCSharpTranslator() {
+        checkPending();
+        return cSharpTranslator;
+    }
+
     private void assertEqualsNormalizeNewlines(String expected, String actual) {
         assertEquals(expected.replace("\r", ""), actual.replace("\r", ""));
     }
 
     private CSharpTranslator cSharpTranslator = new CSharpTranslator();
     //private SwiftTranslator swiftTranslator = new SwiftTranslator();
+    private ArrayList<SnippetCheck> pendingChecks = new ArrayList<>();
+
+    private static final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService checkExecutor = Executors.newFixedThreadPool(THREAD_COUNT, runnable -> {
+        Thread thread = new Thread(runnable, "TranslateNodeTest check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static class SnippetCheck {
+        private final String javaFullSource;
+        private final String javaNodeSource;
+        private final Function<CompilationUnit, ASTNode> nodeFinder;
+        private final @Nullable String expectedCSharp;
+        private final int sourceTabStop;
+        private final int destTabStop;
+        private final StackTraceElement[] addedAt;
+        private volatile @Nullable Throwable failure;
+
+        private SnippetCheck(String javaFullSource, String javaNodeSource,
+                             Function<CompilationUnit, ASTNode> nodeFinder, @Nullable String expectedCSharp,
+                             int sourceTabStop, int destTabStop) {
+            this.javaFullSource = javaFullSource;
+            this.javaNodeSource = javaNodeSource;
+            this.nodeFinder = nodeFinder;
+            this.expectedCSharp = expectedCSharp;
+            this.sourceTabStop = sourceTabStop;
+            this.destTabStop = destTabStop;
+            this.addedAt = getCallerStackTrace();
+        }
+
+        /**
+         * Returns the current stack trace, minus the frames in this class, so it starts in the test method.
+         */
+        private static StackTraceElement[] getCallerStackTrace() {
+            StackTraceElement[] stackTrace = new Throwable().getStackTrace();
+            int start = 0;
+            while (start < stackTrace.length - 1 &&
+                   stackTrace[start].getClassName().startsWith(TranslateNodeTest.class.getName()))
+                ++start;
+            return Arrays.copyOfRange(stackTrace, start, stackTrace.length);
+        }
+    }
 }
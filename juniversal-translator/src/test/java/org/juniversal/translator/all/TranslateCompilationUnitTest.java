@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.all;
+
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.junit.Test;
+import org.juniversal.translator.TranslateNodeTest;
+
+public class TranslateCompilationUnitTest extends TranslateNodeTest {
+    @Test public void testTranslateImports() {
+        // Generic classes are imported by namespace, so the second import from java.util is skipped
+        testTranslateCompilationUnit(
+                "import java.util.ArrayList;\nimport java.util.HashMap;\nimport java.io.File;\n\nclass TestClass { }",
+                "using java.util;\nusing File = java.io.File;\n\n\ninternal class TestClass { }");
+        testTranslateCompilationUnit(
+                "import java.util.ArrayList;\nimport java.util.HashMap;\n\nclass TestClass { }",
+                "using java.util;\n\n\ninternal class TestClass { }");
+        testTranslateCompilationUnit(
+                "import java.util.ArrayList;\n\nclass TestClass { }",
+                "using java.util;\n\n\ninternal class TestClass { }");
+    }
+
+    private void testTranslateCompilationUnit(String javaSource, String expectedCSharp) {
+        CompilationUnit compilationUnit = parseCompilationUnit(javaSource);
+        testTranslateNode(compilationUnit, javaSource, javaSource, compilationUnit, expectedCSharp, null);
+    }
+}
@@ -31,4 +31,37 @@ public class TranslateMappedMethodTest extends TranslateNodeTest {
                 "boolean empty = \"abc\".isEmpty();",
                 "bool empty = (\"abc\".Length == 0);", null);
     }
+
+    @Test public void testArrayMethods() {
+        testTranslateStatement(
+                "System.arraycopy(new int[4], 0, new int[4], 1, 3);",
+                "Array.Copy(new int[4], 0, new int[4], 1, 3);", null);
+
+        testTranslateStatement(
+                "java.util.Arrays.fill(new int[4], 7);",
+                "Array.Fill(new int[4], 7);", null);
+
+        // A range of an array is filled through a span, evaluating the arguments once each, in order
+        testTranslateStatement(
+                "java.util.Arrays.fill(new char[4], 1, 3, 'x');",
+                "(new char[4]).AsSpan(1..3).Fill('x');", null);
+
+        testTranslateMethod(
+                "public void fill(char[] chars, int i, int n) { java.util.Arrays.fill(chars, i, i += n, 'x'); }",
+                "public void fill(char[] chars, int i, int n) { chars.AsSpan(i..(i += n)).Fill('x'); }", null);
+
+        testTranslateMethod(
+                "public void fill(String[] strings) { java.util.Arrays.fill(strings, 1 + 1, 4 - 1, \"a\" + 1); }",
+                "public void fill(string[] strings) { strings.AsSpan((1 + 1)..(4 - 1)).Fill(\"a\" + 1); }", null);
+
+        // Arrays of classes that can be subclassed may really be subclass arrays, which can't be spanned
+        testTranslateMethod(
+                "public void fill(Object[] objects) { java.util.Arrays.fill(objects, 1, 4 - 1, null); }",
+                "public void fill(object[] objects) { Array.Fill(objects, null, 1, (4 - 1) - 1); }", null);
+
+        testTranslateMethod(
+                "public void fill(Object[] objects, int i) { java.util.Arrays.fill(objects, i, i += 2, null); }",
+                "NOT-SUPPORTED: Arrays.fill of a range of an array of a non-final class is only supported when the indexes & value have no side effects",
+                null);
+    }
 }
@@ -22,8 +22,17 @@
 
 package org.juniversal.translator.all;
 
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.junit.Test;
 import org.juniversal.translator.TranslateNodeTest;
+import org.juniversal.translator.core.SourceFile;
+import org.juniversal.translator.core.SourceNotSupportedException;
+import org.juniversal.translator.core.ValueTypes;
+import org.juniversal.translator.csharp.CSharpTranslator.LockType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 public class TranslateMethodTest extends TranslateNodeTest {
     @Test public void testTranslateMethod() {
@@ -31,4 +40,107 @@ public class TranslateMethodTest extends TranslateNodeTest {
         testTranslateMethod("public int foo(int a, int b) { return 3; }", null, "func foo(a: Int, b: Int) -> Int { return 3; }");
         testTranslateMethod("public void foo(int a, int b) { }", null, "func foo(a: Int, b: Int) { }");
     }
+
+    @Test public void testTranslateSynchronized() {
+        testTranslateMethod("public synchronized void foo() { }",
+                "[MethodImpl(MethodImplOptions.Synchronized)] public void foo() { }", null);
+        testTranslateMethod("public void foo() { synchronized (this) { } }",
+                "public void foo() { lock (this) { } }", null);
+
+        String lockField = " @interface Lock {} @Lock private final Object cacheLock = new Object();";
+
+        testTranslateMethod("public void foo() { synchronized (cacheLock) { } }" + lockField,
+                "public void foo() { lock (cacheLock) { } }", null);
+
+        getCSharpTranslator().setLockFieldType(LockType.SPIN_LOCK);
+        try {
+            testTranslateMethod("public void foo() { synchronized (cacheLock) { } }" + lockField,
+                    "public void foo() { { bool lockTaken = false; try { cacheLock.Enter(ref lockTaken); { } } finally { if (lockTaken) cacheLock.Exit(); } } }",
+                    null);
+
+            // Including another object's lock field
+            testTranslateMethod("public void foo(TestClass other) { synchronized (other.cacheLock) { } }" + lockField,
+                    "public void foo(TestClass other) { { bool lockTaken = false; try { other.cacheLock.Enter(ref lockTaken); { } } finally { if (lockTaken) other.cacheLock.Exit(); } } }",
+                    null);
+
+            getCSharpTranslator().setLockFieldType(LockType.READER_WRITER_LOCK_SLIM);
+            testTranslateMethod("public void foo() { synchronized (this.cacheLock) { } }" + lockField,
+                    "public void foo() { { this.cacheLock.EnterWriteLock(); try { } finally { this.cacheLock.ExitWriteLock(); } } }",
+                    null);
+
+            // Only @Lock fields get the special lock type
+            testTranslateMethod("public void foo() { synchronized (this) { } }",
+                    "public void foo() { lock (this) { } }", null);
+        } finally {
+            getCSharpTranslator().setLockFieldType(LockType.MONITOR);
+        }
+    }
+
+    @Test public void testTranslateValueType() {
+        String pointType = " @interface ValueType {}" +
+                           " @ValueType static final class Point { final int x; Point(int x) { this.x = x; } }";
+
+        testTranslateMethod("public Point foo() { return new Point(3); }" + pointType,
+                "public Point foo() { return new Point(3); }", null);
+
+        String javaClass = "final class TestClass{ @interface ValueType {}" +
+                           " @ValueType public static final class Point { public final int x; public Point(int x) { this.x = x; } } }";
+        CompilationUnit compilationUnit = parseCompilationUnit(javaClass);
+        TypeDeclaration pointDeclaration = ((TypeDeclaration) compilationUnit.types().get(0)).getTypes()[0];
+        testTranslateNode(pointDeclaration, javaClass, "", compilationUnit,
+                "public struct Point { public readonly int x; public Point(int x) { this.x = x; } }", null);
+
+        assertValueTypeNotSupported("public boolean foo(Point a, Point b) { return a == b; }" + pointType,
+                "Value types can't be compared with == or !=, as they don't have an identity; use equals() instead");
+        assertValueTypeNotSupported("public Point foo() { return null; }" + pointType,
+                "Value types can't be null");
+        assertValueTypeNotSupported("public Point foo(boolean b, Point p) { return b ? p : (null); }" + pointType,
+                "Value types can't be null");
+        assertValueTypeNotSupported("public Object foo(boolean b, Point p) { Object o = b ? null : p; return o; }" + pointType,
+                "Value types can't be null");
+        assertValueTypeNotSupported("public Point[] foo() { return new Point[] { new Point(1), null }; }" + pointType,
+                "Value types can't be null");
+        assertValueTypeNotSupported("public void foo() { }" +
+                                    " @interface ValueType {} @ValueType static final class Point { final int x; Point() { x = 1; } }",
+                "Value types can't have a no-argument constructor, as their default value has all fields 0/false/null");
+        assertValueTypeNotSupported("public void foo() { }" +
+                                    " @interface ValueType {} @ValueType static final class Point { int x; }",
+                "Value types must be immutable, so all their instance fields must be final");
+
+        // Value types can't be used where a reference is needed
+        String typeArgumentError =
+                "Value types can't be used as type arguments, as generic code uses its type parameters by reference";
+        assertValueTypeNotSupported("public int foo(java.util.List<Point> points) { return points.size(); }" + pointType,
+                typeArgumentError);
+        assertValueTypeNotSupported("public int foo(java.util.List<? extends Point> points) { return points.size(); }" + pointType,
+                typeArgumentError);
+        assertValueTypeNotSupported("public int foo(Point p) { return java.util.Arrays.asList(p, p).size(); }" + pointType,
+                typeArgumentError);
+
+        String conversionError = "Value types can't be converted to Object or an interface, as they're only used by value";
+        assertValueTypeNotSupported("public Object foo(Point p) { Object o = p; return o; }" + pointType,
+                conversionError);
+        assertValueTypeNotSupported("public Comparable<?> foo(Point p) { return (Comparable<?>) (p); }" +
+                                    " @interface ValueType {} @ValueType static final class Point implements Comparable<Object> {" +
+                                    " final int x; Point(int x) { this.x = x; } public int compareTo(Object o) { return 0; } }",
+                conversionError);
+        assertValueTypeNotSupported("public boolean foo(Point a, Point b) { return a.equals(b); }" + pointType,
+                conversionError);
+        assertValueTypeNotSupported("public String foo(Point p) { return String.format(\"%s\", p); }" + pointType,
+                conversionError);
+
+        assertValueTypeNotSupported("public boolean foo(Object o) { return o instanceof Point; }" + pointType,
+                "Value types can't be used with instanceof, as they're only used by value");
+    }
+
+    private void assertValueTypeNotSupported(String javaMethod, String expectedError) {
+        String javaClass = "final class TestClass{ " + javaMethod + " }";
+        try {
+            ValueTypes.validate(new SourceFile(parseCompilationUnit(javaClass), javaClass, sourceTabStop));
+            fail("Expected SourceNotSupportedException");
+        } catch (SourceNotSupportedException e) {
+            String actualError = e.getMessage().replace("\r", "");
+            assertEquals(expectedError, actualError.substring(0, actualError.indexOf('\n')));
+        }
+    }
 }
@@ -36,4 +36,73 @@ public class TranslatePrimitiveTypeTest extends TranslateNodeTest {
         testTranslateStatement("double foo;", null, "FILL IN");
         testTranslateStatement("boolean foo;", "bool foo;", "FILL IN");
     }
+
+    @Test public void testTranslatePrimitiveCollections() {
+        testTranslateStatement("java.util.ArrayList<Integer> foo;", "java.util.ArrayList<int> foo;", "FILL IN");
+
+        getCSharpTranslator().setMapPrimitiveCollections(true);
+        try {
+            testTranslateStatement("java.util.ArrayList<Integer> foo;", "List<int> foo;", "FILL IN");
+            testTranslateStatement("java.util.HashMap<Integer, Long> foo;", "Dictionary<int, long> foo;", "FILL IN");
+            testTranslateStatement("java.util.List<java.util.List<Double>> foo;", "java.util.List<List<double>> foo;", "FILL IN");
+
+            // Not all type arguments primitive wrappers, so not mapped
+            testTranslateStatement("java.util.HashMap<String, Long> foo;", "java.util.HashMap<string, long> foo;", "FILL IN");
+        } finally {
+            getCSharpTranslator().setMapPrimitiveCollections(false);
+        }
+    }
+
+    @Test public void testTranslatePrimitiveCollectionMethods() {
+        getCSharpTranslator().setMapPrimitiveCollections(true);
+        try {
+            testTranslateMethod(
+                    "public long sum(java.util.ArrayList<Integer> list, java.util.HashMap<Integer, Long> map) { list.add(3); list.set(0, list.get(1) + 1); if (list.isEmpty() || !map.containsKey(list.size())) map.put(1, 2L); map.remove(4); return map.getOrDefault(list.get(0), 0L); }",
+                    "public long sum(List<int> list, Dictionary<int, long> map) { list.Add(3); list[0] = list[1] + 1; if ((list.Count == 0) || !map.ContainsKey(list.Count)) map[1] = 2L; map.Remove(4); return map.GetValueOrDefault(list[0], 0L); }",
+                    "FILL IN");
+
+            getCSharpTranslator().setIndexEnhancedForLoops(true);
+            testTranslateMethod("public int total(java.util.ArrayList<Integer> list) { int sum = 0; for (int value : list) sum += value; return sum; }",
+                    "public int total(List<int> list) { int sum = 0; for (int valueIndex = 0, valueCount = list.Count; valueIndex < valueCount; ++valueIndex) { int value = list[valueIndex]; sum += value; } return sum; }",
+                    "FILL IN");
+            getCSharpTranslator().setIndexEnhancedForLoops(false);
+
+            testTranslateMethod("public Long get(java.util.HashMap<Integer, Long> map) { return map.get(1); }",
+                    "NOT-SUPPORTED: Map.get isn't supported on primitive collections, since they can't return null for a missing key; use containsKey or getOrDefault instead",
+                    "FILL IN");
+            testTranslateMethod("public Long put(java.util.HashMap<Integer, Long> map) { return map.put(1, 2L); }",
+                    "NOT-SUPPORTED: The return value of HashMap.put can't be used for primitive collections; call it as a statement instead",
+                    "FILL IN");
+            testTranslateMethod("public Object iterate(java.util.ArrayList<Integer> list) { return list.iterator(); }",
+                    "NOT-SUPPORTED: Method ArrayList.iterator isn't supported on primitive collections",
+                    "FILL IN");
+
+            // The C# collection is unrelated to the other collection types, so it can't be converted to them
+            testTranslateMethod("public int count(java.util.ArrayList<Integer> list) { return java.util.Collections.frequency(list, 1); }",
+                    "NOT-SUPPORTED: Primitive collections can't be converted to or from other types, like Collection, Iterable or Object, as they're written as a different class",
+                    "FILL IN");
+            testTranslateMethod("public Iterable<Integer> values(java.util.ArrayList<Integer> list) { return list; }",
+                    "NOT-SUPPORTED: Primitive collections can't be converted to or from other types, like Collection, Iterable or Object, as they're written as a different class",
+                    "FILL IN");
+            testTranslateMethod("public void store(java.util.ArrayList<Integer> list) { Object value = list; }",
+                    "NOT-SUPPORTED: Primitive collections can't be converted to or from other types, like Collection, Iterable or Object, as they're written as a different class",
+                    "FILL IN");
+            testTranslateMethod("public java.util.ArrayList<Integer> copy(java.util.ArrayList<Integer> list) { return (java.util.ArrayList<Integer>) list.clone(); }",
+                    "NOT-SUPPORTED: Primitive collections can't be converted to or from other types, like Collection, Iterable or Object, as they're written as a different class",
+                    "FILL IN");
+            testTranslateMethod("public void subclass() { class IntList extends java.util.ArrayList<Integer> { } }",
+                    "NOT-SUPPORTED: Primitive collections can't be subclassed or implemented, as they're written as a different class",
+                    "FILL IN");
+            testTranslateMethod("public java.util.List<Integer> anonymous() { return new java.util.ArrayList<Integer>() { }; }",
+                    "NOT-SUPPORTED: Primitive collections can't be subclassed or implemented, as they're written as a different class",
+                    "FILL IN");
+
+            // Converting between types mapped to the same C# type is fine
+            testTranslateMethod("public java.util.List<Integer> asList(java.util.ArrayList<Integer> list, boolean empty) { java.util.List<Integer> result = empty ? null : list; return result; }",
+                    "public List<int> asList(List<int> list, bool empty) { List<int> result = empty ? null : list; return result; }",
+                    "FILL IN");
+        } finally {
+            getCSharpTranslator().setMapPrimitiveCollections(false);
+        }
+    }
 }
@@ -272,4 +272,58 @@ public class TranslateStatementTest extends TranslateNodeTest {
                 "  while true\n" +
                 " /*y*/ ;");
     }
+
+    @Test public void testTranslateEnhancedForStatement() {
+        testTranslateMethod(
+                "public int total(int[] values) { int sum = 0; for (int value : values) { sum += value; } return sum; }",
+                "public int total(int[] values) { int sum = 0; foreach (int value in values) { sum += value; } return sum; }",
+                null);
+
+        getCSharpTranslator().setIndexEnhancedForLoops(true);
+        try {
+            testTranslateMethod(
+                    "public int total(int[] values) { int sum = 0; for (int value : values) { sum += value; } return sum; }",
+                    "public int total(int[] values) { int sum = 0; for (int valueIndex = 0, valueCount = values.Length; valueIndex < valueCount; ++valueIndex) { int value = values[valueIndex]; sum += value; } return sum; }",
+                    null);
+
+            // Names already used in the method get a suffix
+            testTranslateMethod(
+                    "public int total(int[] values, int valueIndex) { int sum = 0; for (int value : values) sum += value; return sum; }",
+                    "public int total(int[] values, int valueIndex) { int sum = 0; for (int valueIndex2 = 0, valueCount = values.Length; valueIndex2 < valueCount; ++valueIndex2) { int value = values[valueIndex2]; sum += value; } return sum; }",
+                    null);
+
+            testTranslateMethod(
+                    "public int countChars(java.util.List<String> list) { int count = 0; for (String s : list) { count += s.length(); } return count; }",
+                    "public int countChars(java.util.List<string> list) { int count = 0; for (int sIndex = 0, sCount = list.size(); sIndex < sCount; ++sIndex) { string s = list.get(sIndex); count += s.Length; } return count; }",
+                    null);
+
+            // A local list that's never aliased stays indexed, even if the body calls other code
+            testTranslateMethod(
+                    "public int local() { java.util.List<String> list = new java.util.ArrayList<String>(); list.add(\"a\"); int n = 0; for (String s : list) { n += helper(s); } return n; } int helper(String s) { return 1; }",
+                    "public int local() { java.util.List<string> list = new java.util.ArrayList<string>(); list.add(\"a\"); int n = 0; for (int sIndex = 0, sCount = list.size(); sIndex < sCount; ++sIndex) { string s = list.get(sIndex); n += helper(s); } return n; }",
+                    null);
+
+            // A list the body might modify stays a foreach
+            testTranslateMethod(
+                    "public void copy(java.util.List<String> list) { for (String s : list) { list.add(s); } }",
+                    "public void copy(java.util.List<string> list) { foreach (string s in list) { list.add(s); } }",
+                    null);
+
+            // As does one that might be modified through an iterator, sub list or alias
+            testTranslateMethod(
+                    "public void prune(java.util.List<String> list) { for (String s : list) { if (s.isEmpty()) list.iterator().remove(); } }",
+                    "public void prune(java.util.List<string> list) { foreach (string s in list) { if ((s.Length == 0)) list.iterator().remove(); } }",
+                    null);
+            testTranslateMethod(
+                    "public void move(java.util.List<String> list, java.util.List<String> other) { for (String s : list) { other.remove(s); } }",
+                    "public void move(java.util.List<string> list, java.util.List<string> other) { foreach (string s in list) { other.remove(s); } }",
+                    null);
+            testTranslateMethod(
+                    "public void prune() { java.util.List<String> list = new java.util.ArrayList<String>(); java.util.Iterator<String> iterator = list.iterator(); for (String s : list) { iterator.remove(); } }",
+                    "public void prune() { java.util.List<string> list = new java.util.ArrayList<string>(); java.util.Iterator<string> iterator = list.iterator(); foreach (string s in list) { iterator.remove(); } }",
+                    null);
+        } finally {
+            getCSharpTranslator().setIndexEnhancedForLoops(false);
+        }
+    }
 }
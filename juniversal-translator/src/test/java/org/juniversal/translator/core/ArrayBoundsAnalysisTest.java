@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.Test;
+import org.juniversal.translator.TranslateNodeTest;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArrayBoundsAnalysisTest {
+    @Test public void testIsIndexInBounds() {
+        assertInBounds(true, "for (int i = 0; i < a.length; i++) sum += a[i];");
+        assertInBounds(true, "for (int i = 1; i < a.length; ++i) { if (sum > 0) sum += a[i]; }");
+        assertInBounds(true, "for (int i = a.length - 1; i >= 0; i--) sum += a[i];");
+        assertInBounds(true, "for (int i = 0; i < a.length; i++) for (int j = 0; j < 3; j++) sum += a[i];");
+
+        assertInBounds(false, "for (int i = 0; i <= a.length; i++) sum += a[i];");
+        assertInBounds(false, "for (int i = -1; i < a.length; i++) sum += a[i];");
+        assertInBounds(false, "for (int i = 0; i < b.length; i++) sum += a[i];");
+        assertInBounds(false, "for (int i = 0; i < a.length; i += 2) sum += a[i];");
+        assertInBounds(false, "for (int i = 0; i < a.length; i++) { sum += a[i]; i++; }");
+        assertInBounds(false, "for (int i = 0; i < a.length; i++) { sum += a[i]; a = b; }");
+        assertInBounds(false, "for (int i = 0; i < field.length; i++) sum += field[i];");
+        assertInBounds(false, "for (int i = a.length; i >= 0; i--) sum += a[i];");
+        assertInBounds(false, "int i = 0; sum += a[i];");
+    }
+
+    private void assertInBounds(boolean expected, String javaStatements) {
+        String javaClass = "class TestClass{ int[] field; int testMethod(int[] a, int[] b) { int sum = 0; " +
+                           javaStatements + " return sum; } }";
+
+        CompilationUnit compilationUnit = new TranslateNodeTest().parseCompilationUnit(javaClass);
+        Block block = TranslateNodeTest.getFirstMethodBlock(compilationUnit);
+
+        ArrayAccess[] arrayAccess = new ArrayAccess[1];
+        block.accept(new ASTVisitor() {
+            @Override public boolean visit(ArrayAccess node) {
+                arrayAccess[0] = node;
+                return false;
+            }
+        });
+
+        assertEquals(javaStatements, expected, ArrayBoundsAnalysis.isIndexInBounds(arrayAccess[0]));
+    }
+}
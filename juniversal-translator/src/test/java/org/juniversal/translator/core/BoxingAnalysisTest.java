@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.Test;
+import org.juniversal.translator.TranslateNodeTest;
+
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+public class BoxingAnalysisTest {
+    @Test public void testIsUnboxedLocal() {
+        assertUnboxed(true, "Integer x = 0; x++; x += 2; x = x * 2; int y = x;");
+        assertUnboxed(true, "Long x = 5L; long y = x + 1; if (x > 3) y = -x;");
+        assertUnboxed(true, "Integer x = 0; int y = x++;");
+        assertUnboxed(true, true, "Integer x = list.get(0); x++; list.add(x);");
+
+        assertUnboxed(false, "Integer x = 0; Object o = x;");
+        assertUnboxed(false, "Integer x = 0; boolean b = x == null;");
+        assertUnboxed(false, "Integer x = 0; x = null;");
+        assertUnboxed(false, "Integer x = 0; String s = x.toString();");
+        assertUnboxed(false, "Integer x = 0; Integer y = x++;");
+        assertUnboxed(false, "Integer x = field;");
+        assertUnboxed(false, "Integer x = list.get(0); x++;");
+        assertUnboxed(false, "Integer x = 0; list.add(x);");
+    }
+
+    private void assertUnboxed(boolean expected, String javaStatements) {
+        assertUnboxed(expected, false, javaStatements);
+    }
+
+    /**
+     * If unboxedList is true, the list is treated as a collection the target stores unboxed, so what's read from it &
+     * added to it is unboxed in the target.
+     */
+    private void assertUnboxed(boolean expected, boolean unboxedList, String javaStatements) {
+        String javaClass = "class TestClass{ Integer field; java.util.List<Integer> list; void testMethod() {" +
+                           javaStatements + "} }";
+
+        CompilationUnit compilationUnit = new TranslateNodeTest().parseCompilationUnit(javaClass);
+        Block block = TranslateNodeTest.getFirstMethodBlock(compilationUnit);
+        VariableDeclarationStatement variableDeclarationStatement = (VariableDeclarationStatement) block.statements().get(0);
+        VariableDeclarationFragment variableDeclarationFragment =
+                (VariableDeclarationFragment) variableDeclarationStatement.fragments().get(0);
+
+        Predicate<Expression> isUnboxedInTarget = (Expression expression) -> unboxedList &&
+                (expression instanceof MethodInvocation || expression.getParent() instanceof MethodInvocation);
+
+        assertEquals(javaStatements, expected,
+                BoxingAnalysis.isUnboxedLocal(variableDeclarationFragment, isUnboxedInTarget));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.Test;
+import org.juniversal.translator.TranslateNodeTest;
+
+import static org.junit.Assert.assertEquals;
+
+public class EscapeAnalysisTest {
+    @Test public void testIsNonEscapingLocal() {
+        assertNonEscaping(true, "StringBuilder b = new StringBuilder(); b.append(1).append(2); String s = b.toString();");
+        assertNonEscaping(true, "Point p = new Point(3); int x = p.x + p.getX(); p.x = 4;");
+
+        assertNonEscaping(false, "StringBuilder b = new StringBuilder(); StringBuilder c = b.append(1);");
+        assertNonEscaping(false, "Point p = new Point(3); field = p;");
+        assertNonEscaping(false, "Point p = new Point(3); Object o = p;");
+        assertNonEscaping(false, "Point p = new Point(3); System.out.println(p);");
+        assertNonEscaping(false, "Point p = new Point(3); Runnable r = () -> p.getX();");
+        assertNonEscaping(false, "Point p = new Point(3); p = new Point(4);");
+        assertNonEscaping(false, "Object p = new Point(3); p.hashCode();");
+    }
+
+    private void assertNonEscaping(boolean expected, String javaStatements) {
+        String javaClass = "class TestClass{ Object field; void testMethod() {" + javaStatements + "}\n" +
+                           "    static class Point { int x; Point(int x) { this.x = x; } int getX() { return x; } } }";
+
+        CompilationUnit compilationUnit = new TranslateNodeTest().parseCompilationUnit(javaClass);
+        Block block = TranslateNodeTest.getFirstMethodBlock(compilationUnit);
+        VariableDeclarationStatement variableDeclarationStatement = (VariableDeclarationStatement) block.statements().get(0);
+        VariableDeclarationFragment variableDeclarationFragment =
+                (VariableDeclarationFragment) variableDeclarationStatement.fragments().get(0);
+
+        assertEquals(javaStatements, expected, EscapeAnalysis.isNonEscapingLocal(variableDeclarationFragment));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ShardedTranslationTest {
+    @Test public void partitionKeepsPackagesTogether() {
+        List<File> files = new ArrayList<>();
+        addFiles(files, "src/a/b", 10);
+        addFiles(files, "src/a/c", 9);
+        addFiles(files, "src/d", 11);
+
+        List<List<File>> shards = ShardedTranslation.partition(files, 3);
+        assertEquals(3, shards.size());
+        assertEquals(10, shards.get(0).size());
+        assertEquals(9, shards.get(1).size());
+        assertEquals(11, shards.get(2).size());
+        assertEquals(new File("src/a/c/FileA.java"), shards.get(1).get(0));
+    }
+
+    @Test public void partitionSplitsLargePackages() {
+        List<File> files = new ArrayList<>();
+        addFiles(files, "src/a", 100);
+
+        List<List<File>> shards = ShardedTranslation.partition(files, 4);
+        assertEquals(4, shards.size());
+        for (List<File> shard : shards)
+            assertEquals(25, shard.size());
+    }
+
+    @Test public void partitionWithFewFiles() {
+        List<File> files = new ArrayList<>();
+        addFiles(files, "src/a", 2);
+
+        List<List<File>> shards = ShardedTranslation.partition(files, 4);
+        assertEquals(2, shards.size());
+    }
+
+    @Test public void shardArgsAppendProjectDirectoriesToSourcepath() {
+        List<File> projectDirectories = new ArrayList<>();
+        projectDirectories.add(new File("src"));
+        projectDirectories.add(new File("test"));
+        String projectSourcepath = "src" + File.pathSeparator + "test";
+
+        assertEquals(Arrays.asList("-o", "out", "-sourcepath", projectSourcepath),
+                ShardedTranslation.getShardArgs(new String[]{"-o", "out", "-shards", "4"}, projectDirectories));
+
+        assertEquals(Arrays.asList("-sourcepath", "lib" + File.pathSeparator + projectSourcepath, "-l", "c#"),
+                ShardedTranslation.getShardArgs(new String[]{"-sourcepath", "lib", "-shardMaxHeap", "1g", "-l", "c#"},
+                        projectDirectories));
+    }
+
+    private static void addFiles(List<File> files, String directory, int count) {
+        for (int i = 0; i < count; ++i)
+            files.add(new File(directory, "File" + (char) ('A' + i) + ".java"));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SourceDependenciesTest {
+    @Rule public TemporaryFolder sourceDirectory = new TemporaryFolder();
+
+    @Test public void affectedFilesIncludeIndirectDependents() throws IOException {
+        File base = writeSource("Base.java", "class Base { int foo() { return 1; } }");
+        File derived = writeSource("Derived.java", "class Derived extends Base { static class Inner { } }");
+        File user = writeSource("User.java", "class User { int bar(Derived d) { return d.foo(); } }");
+        File innerUser = writeSource("InnerUser.java", "class InnerUser { Derived.Inner inner; }");
+        File unrelated = writeSource("Unrelated.java", "class Unrelated { String base = \"Base\"; }");
+        List<File> javaFiles = Arrays.asList(base, derived, user, innerUser, unrelated);
+
+        // A string containing the name counts as a reference, as the check is just textual
+        assertEquals(javaFiles, SourceDependencies.getAffectedFiles(javaFiles, Collections.singletonList(base)));
+
+        assertEquals(Arrays.asList(derived, user, innerUser),
+                SourceDependencies.getAffectedFiles(javaFiles, Collections.singletonList(derived)));
+        assertEquals(Collections.singletonList(user),
+                SourceDependencies.getAffectedFiles(javaFiles, Collections.singletonList(user)));
+    }
+
+    @Test public void affectedFilesIncludeDependentsOfOtherFiles() throws IOException {
+        File user = writeSource("User.java", "class User { Helper helper; }");
+        File other = writeSource("Other.java", "class Other { }");
+        List<File> javaFiles = Arrays.asList(user, other);
+
+        // Changed files that aren't being translated, like removed ones or ones only on the sourcepath, aren't
+        // returned themselves, but the files that use them are
+        File removedHelper = new File(sourceDirectory.getRoot(), "Helper.java");
+        assertEquals(Collections.singletonList(user),
+                SourceDependencies.getAffectedFiles(javaFiles, Collections.singletonList(removedHelper)));
+    }
+
+    private File writeSource(String name, String source) throws IOException {
+        File file = new File(sourceDirectory.getRoot(), name);
+        Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.core;
+
+import org.eclipse.jdt.core.dom.*;
+import org.junit.Test;
+import org.juniversal.translator.TranslateNodeTest;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class StringConcatenationTest {
+    @Test public void testEstimateLength() {
+        assertEstimatedLength(5, "\"abc\" + \"de\"");
+        assertEstimatedLength(3 + 11, "\"abc\" + i");
+        assertEstimatedLength(3 + 20 + 1, "\"abc\" + l + 'c'");
+        assertEstimatedLength(3 + 24 + 5, "\"abc\" + d + b");
+        assertEstimatedLength(3 + 2 * StringConcatenation.UNKNOWN_LENGTH_ESTIMATE, "s + \"abc\" + o");
+        assertEstimatedLength(7, "\"abc\" + CONSTANT");
+        assertEstimatedLength(11 + 1, "i + l2 + \"a\"");
+        assertEstimatedLength(20 + 1, "i + l + \"a\"");
+    }
+
+    @Test public void testSummedOperands() {
+        assertSummedOperandCount(0, "\"a\" + i + i");
+        assertSummedOperandCount(0, "i + \"a\" + i");
+        assertSummedOperandCount(2, "i + i + \"a\" + i");
+        assertSummedOperandCount(3, "'c' + i + l + s");
+        assertFalse(StringConcatenation.isStringConcatenation(parseExpression("i + l")));
+    }
+
+    private void assertEstimatedLength(int expected, String javaExpression) {
+        List<Expression> operands = StringConcatenation.getOperands(parseExpression(javaExpression));
+        assertEquals(javaExpression, expected, StringConcatenation.estimateLength(operands));
+    }
+
+    private void assertSummedOperandCount(int expected, String javaExpression) {
+        List<Expression> operands = StringConcatenation.getOperands(parseExpression(javaExpression));
+        assertEquals(javaExpression, expected, StringConcatenation.getSummedOperandCount(operands));
+    }
+
+    private InfixExpression parseExpression(String javaExpression) {
+        String javaClass = "class TestClass{ static final String CONSTANT = \"four\"; int l2; " +
+                           "void testMethod(int i, long l, char c, double d, boolean b, String s, Object o) {" +
+                           "Object foo = " + javaExpression + "; } }";
+
+        CompilationUnit compilationUnit = new TranslateNodeTest().parseCompilationUnit(javaClass);
+        Block block = TranslateNodeTest.getFirstMethodBlock(compilationUnit);
+        VariableDeclarationStatement variableDeclarationStatement = (VariableDeclarationStatement) block.statements().get(0);
+        VariableDeclarationFragment variableDeclarationFragment =
+                (VariableDeclarationFragment) variableDeclarationStatement.fragments().get(0);
+
+        return (InfixExpression) variableDeclarationFragment.getInitializer();
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.cplusplus;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+import org.junit.Test;
+import org.juniversal.translator.TranslateNodeTest;
+import org.juniversal.translator.core.EscapeAnalysis;
+import org.juniversal.translator.core.SourceFile;
+import org.juniversal.translator.core.SourceNotSupportedException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for the C++ translation of method bodies.   Unlike WriteCPPTest, these translate code with bindings resolved,
+ * the same way whole files are translated.
+ */
+public class TranslateCPlusPlusTest {
+    private CPlusPlusTranslator cPlusPlusTranslator = new CPlusPlusTranslator();
+
+    @Test public void testTranslateEnhancedForStatement() {
+        testTranslateMethodBody(
+                "public int total(int[] values, java.util.List<String> list) { int sum = 0; for (int value : values) { sum += value; } for (String s : list) sum += s.length(); return sum; }",
+                "{ int sum = 0; for (int valueIndex = 0, valueCount = values->length(); valueIndex < valueCount; ++valueIndex) { int value = (*values)[valueIndex]; sum += value; } for (int sIndex = 0, sCount = list->size(); sIndex < sCount; ++sIndex) { String* s = list->get(sIndex); sum += s->length(); } return sum; }");
+
+        assertNotSupported("public void copy(java.util.List<String> list) { for (String s : list) { list.add(s); } }",
+                "Enhanced for loops are only supported over local array or List variables which the loop body doesn't modify");
+        assertNotSupported("public void prune(java.util.List<String> list) { for (String s : list) { list.iterator().remove(); } }",
+                "Enhanced for loops are only supported over local array or List variables which the loop body doesn't modify");
+    }
+
+    @Test public void testTranslateValueType() {
+        // Value types are used by value, so their members are accessed with ".", except through "this"
+        String pointType = " @interface ValueType {}" +
+                           " @ValueType static final class Point { final int x; Point(int x) { this.x = x; }" +
+                           " int getX() { return this.x; } Point plus(Point other) { return new Point(x + other.x); } }";
+
+        testTranslateMethodBody("public int sum(Point a, Point b, Point[] points) { points[0] = a.plus(b); return a.x + b.getX() + points[0].x + a.plus(b).getX(); }" + pointType,
+                "{ points->at(0) = a.plus(b); return a.x + b.getX() + points->at(0).x + a.plus(b).getX(); }");
+
+        // Their methods aren't const, so final value type locals aren't either
+        testTranslateMethodBody("public int x() { final Point p = new Point(1); return p.getX(); }" + pointType,
+                "{ Point p = Point(1); return p.getX(); }");
+    }
+
+    @Test public void testTranslateStringConcatenation() {
+        // Concatenation is written as appends to a StringBuilder sized for the result, with leading numbers added first
+        testTranslateMethodBody("public String describe(int i, String s) { return i + 1 + \"abc\" + s + 'c'; }",
+                "{ return ptr< StringBuilder >(new StringBuilder(31))->append(i + 1)->append(String::createLatin1(\"abc\", 3))->append(s)->append(static_cast<unsigned short>('c'))->toString(); }");
+
+        // Constants are folded into a single literal, as in Java
+        testTranslateMethodBody("public String describe() { return \"abc\" + 1 + NAME + 'c'; } static final String NAME = \"name\";",
+                "{ return String::createLatin1(\"abc1namec\", 9); }");
+        testTranslateMethodBody("public String describe(String s) { return s + (\"a\" + 'b'); }",
+                "{ return ptr< StringBuilder >(new StringBuilder(18))->append(s)->append((String::createLatin1(\"ab\", 2)))->toString(); }");
+    }
+
+    @Test public void testGetCharacterDataLiteral() {
+        // Quotes, backslashes, and ? (so "??" isn't read as a trigraph) are escaped; other printable ASCII is as is
+        assertEquals("\"say \\\"hi\\\" \\\\ \\?\\?=\"",
+                CPlusPlusASTNodeWriter.getCharacterDataLiteral("say \"hi\" \\ ??=", true));
+
+        // Anything else in Latin-1 is an octal escape, always 3 digits so a following digit isn't part of it
+        assertEquals("\"\\000\\0111\\012\\177\\351\\377\"",
+                CPlusPlusASTNodeWriter.getCharacterDataLiteral("\0\t1\n\u007F\u00E9\u00FF", true));
+
+        // UTF-16 uses hex escapes, including for each half of a surrogate pair; as those don't have a fixed length, a
+        // following hex digit starts a new literal
+        assertEquals("u\"x\\x20ac\" \"1\\xd83d\\xde00\" \"a\\x0000g\\x00e9\\\\\"",
+                CPlusPlusASTNodeWriter.getCharacterDataLiteral("x\u20AC1\uD83D\uDE00a\0g\u00E9\\", false));
+        assertEquals("u\"\"", CPlusPlusASTNodeWriter.getCharacterDataLiteral("", false));
+    }
+
+    @Test public void testTranslateStringLiteral() {
+        // Strings with only Latin-1 characters are stored with a byte per character, others as UTF-16
+        assertTrue(CPlusPlusASTNodeWriter.isLatin1("abc\u00FF"));
+        assertFalse(CPlusPlusASTNodeWriter.isLatin1("abc\u0100"));
+
+        testTranslateMethodBody("public String latin1() { return \"caf\u00E9\"; }",
+                "{ return String::createLatin1(\"caf\\351\", 4); }");
+        testTranslateMethodBody("public String utf16() { return \"\u20AC1\"; }",
+                "{ return String::create(reinterpret_cast<const unichar*>(u\"\\x20ac\" \"1\"), 2); }");
+    }
+
+    @Test public void testWriteStringLiteralDefinitions() {
+        // Each distinct literal, including folded constants, is defined once as a StaticString, with its size in
+        // bytes, length, whether it's Latin-1, and hash code
+        String source = translateSource("public String a() { return \"\u20AC1\" + \"\"; }" +
+                                        " public String b() { return \"say\\0\"; }" +
+                                        " public String c() { return \"\u20AC1\"; }");
+
+        assertEquals("static String* juStringLiteral0() { static StaticString<4> literal(u\"\\x20ac\" \"1\", 2, false, " +
+                     "\u20AC1".hashCode() + "); return literal.get(); }\n" +
+                     "static String* juStringLiteral1() { static StaticString<4> literal(\"say\\000\", 4, true, " +
+                     "say\0".hashCode() + "); return literal.get(); }\n\n" +
+                     "String TestClass::a() { return juStringLiteral0(); } \n" +
+                     "String TestClass::b() { return juStringLiteral1(); } \n" +
+                     "String TestClass::c() { return juStringLiteral0(); }",
+                source.substring(source.indexOf("static String*")).replace("\r", "").trim());
+    }
+
+    @Test public void testTranslateSynchronized() {
+        // The monitor is the one every object gets from Object, so subclasses lock the same mutex as their superclasses
+        testTranslateMethodBody("public int next() { synchronized (this) { return ++count; } } private int count;",
+                "{ { std::lock_guard<Monitor> lock(getMonitor()); { return ++count; } } }");
+
+        // @Lock fields are mutexes themselves, whichever object they're on
+        String lockField = " @interface Lock {} @Lock private final Object cacheLock = new Object();";
+        testTranslateMethodBody("public void clear(TestClass other) { synchronized (other.cacheLock) { } synchronized (cacheLock) { } }" + lockField,
+                "{ { std::lock_guard<std::recursive_mutex> lock(other->cacheLock); { } } { std::lock_guard<std::recursive_mutex> lock(cacheLock); { } } }");
+    }
+
+    @Test public void testTranslatePrimitiveCollectionMethods() {
+        cPlusPlusTranslator.setMapPrimitiveCollections(true);
+
+        testTranslateMethodBody(
+                "public long sum(java.util.ArrayList<Integer> list, java.util.HashMap<Integer, Long> map) { int sum = 0; for (int value : list) sum += value; java.util.ArrayList<Integer> copy = new java.util.ArrayList<Integer>(); copy.add(sum); if (!map.containsKey(copy.size())) map.put(1, 2L); map.remove(4); return map.getOrDefault(copy.get(0), 0L); }",
+                "{ int sum = 0; for (int valueIndex = 0, valueCount = list->size(); valueIndex < valueCount; ++valueIndex) { int value = list->get(valueIndex); sum += value; } ptr< PrimitiveList<int> > copy = new PrimitiveList<int>(); copy->add(sum); if (!map->containsKey(copy->size())) map->put(1, 2L); map->remove(4); return map->getOrDefault(copy->get(0), 0L); }");
+
+        assertNotSupported("public Long get(java.util.HashMap<Integer, Long> map) { return map.get(1); }",
+                "Map.get isn't supported on primitive collections, since they can't return null for a missing key; use containsKey or getOrDefault instead");
+        assertNotSupported("public boolean add(java.util.ArrayList<Integer> list) { return list.add(1); }",
+                "The return value of ArrayList.add can't be used for primitive collections; call it as a statement instead");
+    }
+
+    @Test public void testRequestScopeEscapes() {
+        String members = " private Object last; private static String name; private java.util.List<Object> history;" +
+                         " static final class Node { Object value; }";
+
+        // Stores of objects from outside the scope, and into objects created in it, are fine
+        validateRequestScope("public int handle(Object request) { last = request; name = \"x\"; history.add(this);" +
+                             " Node node = new Node(); node.value = new Object(); Object[] temp = new Object[1];" +
+                             " temp[0] = node; last = (this.last); return temp.length; }" + members);
+
+        String storeError = "Objects allocated in a @RequestScope method can't be stored in fields, statics, or arrays that outlive the call";
+        assertRequestScopeNotSupported("public void handle() { last = new Object(); }" + members, storeError);
+        assertRequestScopeNotSupported("public void handle() { name = \"a\" + last; }" + members, storeError);
+        assertRequestScopeNotSupported("public void handle() { name += \"a\"; }" + members, storeError);
+        assertRequestScopeNotSupported("public void handle(Node node) { node.value = new Object(); }" + members, storeError);
+        assertRequestScopeNotSupported("public void handle(Object[] array) { array[0] = new Object(); }" + members, storeError);
+        assertRequestScopeNotSupported("public void handle() { Node node = new Node(); last = node; }" + members, storeError);
+        assertRequestScopeNotSupported("public void handle(Object request) { request = new Object(); last = request; }" + members,
+                storeError);
+
+        assertRequestScopeNotSupported("public void handle() { history.add(new Object()); }" + members,
+                "Objects allocated in a @RequestScope method can't be added to collections that outlive the call");
+        assertRequestScopeNotSupported("public void handle() { throw new IllegalStateException(); }" + members,
+                "@RequestScope methods can't throw exceptions, as objects allocated during the call, like the exception, are freed when it exits");
+        assertRequestScopeNotSupported("public Pair handle() { return new Pair(\"a\"); }" +
+                                       " @interface ValueType {} @ValueType static final class Pair { final String a; Pair(String a) { this.a = a; } }",
+                "@RequestScope methods can't return objects allocated during the call, as they're freed when it returns");
+    }
+
+    protected void testTranslateMethodBody(String javaMethod, String expectedCPlusPlusBody) {
+        assertEquals(expectedCPlusPlusBody, translateMethodBody(javaMethod));
+    }
+
+    protected void assertNotSupported(String javaMethod, String expectedError) {
+        try {
+            translateMethodBody(javaMethod);
+            fail("Expected SourceNotSupportedException");
+        } catch (SourceNotSupportedException e) {
+            String actualError = e.getMessage().replace("\r", "");
+            assertEquals(expectedError, actualError.substring(0, actualError.indexOf('\n')));
+        }
+    }
+
+    protected void assertRequestScopeNotSupported(String javaMethod, String expectedError) {
+        try {
+            validateRequestScope(javaMethod);
+            fail("Expected SourceNotSupportedException");
+        } catch (SourceNotSupportedException e) {
+            String actualError = e.getMessage().replace("\r", "");
+            assertEquals(expectedError, actualError.substring(0, actualError.indexOf('\n')));
+        }
+    }
+
+    /**
+     * Check the first method in a final TestClass containing the specified members, as if it were @RequestScope.
+     */
+    protected void validateRequestScope(String javaMembers) {
+        String javaClass = "final class TestClass{ " + javaMembers + " }";
+        CompilationUnit compilationUnit = new TranslateNodeTest().parseCompilationUnit(javaClass);
+        MethodDeclaration methodDeclaration = ((TypeDeclaration) compilationUnit.types().get(0)).getMethods()[0];
+
+        EscapeAnalysis.validateRequestScope(new SourceFile(compilationUnit, javaClass, 4), methodDeclaration,
+                type -> false);
+    }
+
+    /**
+     * Translate a final TestClass containing the specified members to a C++ source file.
+     */
+    protected String translateSource(String javaMembers) {
+        String javaClass = "final class TestClass{ " + javaMembers + " }";
+        CompilationUnit compilationUnit = new TranslateNodeTest().parseCompilationUnit(javaClass);
+
+        return cPlusPlusTranslator.translateNode(new SourceFile(compilationUnit, javaClass, 4), compilationUnit);
+    }
+
+    /**
+     * Translate the body of the first method in a final TestClass containing the specified members, to C++.
+     */
+    protected String translateMethodBody(String javaMembers) {
+        String javaClass = "final class TestClass{ " + javaMembers + " }";
+        CompilationUnit compilationUnit = new TranslateNodeTest().parseCompilationUnit(javaClass);
+        ASTNode body = TranslateNodeTest.getFirstMethodBlock(compilationUnit);
+
+        return cPlusPlusTranslator.translateNode(new SourceFile(compilationUnit, javaClass, 4), body);
+    }
+}
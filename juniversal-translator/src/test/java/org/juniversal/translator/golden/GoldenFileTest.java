@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.golden;
+
+import org.junit.Test;
+import org.juniversal.translator.core.Translator;
+import org.juniversal.translator.cplusplus.CPlusPlusTranslator;
+import org.juniversal.translator.csharp.CSharpTranslator;
+import org.juniversal.translator.scale.ProjectGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.juniversal.translator.TempDirectories.createTempDirectory;
+import static org.juniversal.translator.TempDirectories.deleteRecursively;
+
+/**
+ * Translates whole sample projects and compares the output with the expected output checked in under
+ * translator-tests/expected/&lt;corpus&gt;/&lt;language&gt;.  When a change to the translator intentionally changes
+ * the output, run with the juniversal.updateGolden system property set to true (-PupdateGolden with Gradle) to rewrite
+ * the expected output, then review the differences before committing them.
+ * <p>
+ * Timing the translations takes a while, so it's only done when the juniversal.measureThroughput system property is
+ * set to true (-PmeasureThroughput with Gradle, or the throughputTest task, meant for CI).  Then the throughput is
+ * recorded in a {@link ThroughputHistory}, failing if it's regressed.  The history file is set with the
+ * juniversal.throughputHistory system property (-PthroughputHistory or the JUNIVERSAL_THROUGHPUT_HISTORY environment
+ * variable with Gradle); for CI it needs to be somewhere kept between builds.
+ * <p>
+ * Besides the sample projects, there's a project generated by {@link ProjectGenerator}.  Its expected output isn't
+ * checked in; instead the project is generated & translated twice, checking that both times give the same output.  The
+ * paths are relative to the juniversal-translator directory, which is the working directory when Gradle
+ * runs the tests.  Swift isn't covered yet, as the Swift translator can't translate whole source files.
+ */
+public class GoldenFileTest {
+    private static final File EXPECTED_DIRECTORY = new File("../translator-tests/expected");
+
+    // Throughput is the best of the timed runs, which continue until both minimums are reached
+    private static final int MIN_TIMED_RUNS = 3;
+    private static final long MIN_TIMED_NANOS = 250_000_000L;
+
+    // Enough for a couple of packages
+    private static final int GENERATED_FILE_COUNT = 80;
+
+    // Kept outside the build directory, so the history survives a clean
+    private static final ThroughputHistory throughputHistory = new ThroughputHistory(
+            new File(System.getProperty("juniversal.throughputHistory", ".gradle/throughput-history.tsv")),
+            Double.parseDouble(System.getProperty("juniversal.throughputTolerance", "0.5")));
+
+    @Test public void smarterphoneCSharp() {
+        // ContactField & AppointmentToken have fields & methods with the same name, which C# doesn't allow
+        checkCorpus("smarterphone", new File("../cpp-archive/testdata/smarterphone/java"), "csharp",
+                CSharpTranslator::new, "smarterphone/AppointmentToken.cs", "smarterphone/ContactField.cs");
+    }
+
+    @Test public void smarterphoneCPlusPlus() {
+        checkCorpus("smarterphone", new File("../cpp-archive/testdata/smarterphone/java"), "cplusplus",
+                CPlusPlusTranslator::new);
+    }
+
+    @Test public void test1CSharp() {
+        checkCorpus("test1", new File("../cpp-archive/testdata/test1/java"), "csharp", CSharpTranslator::new);
+    }
+
+    @Test public void test1CPlusPlus() {
+        checkCorpus("test1", new File("../cpp-archive/testdata/test1/java"), "cplusplus", CPlusPlusTranslator::new);
+    }
+
+    @Test public void methodTestsCSharp() {
+        checkCorpus("method-tests", new File("../translator-tests/src/test/java"), "csharp", CSharpTranslator::new);
+    }
+
+    @Test public void methodTestsCPlusPlus() {
+        checkCorpus("method-tests", new File("../translator-tests/src/test/java"), "cplusplus",
+                CPlusPlusTranslator::new);
+    }
+
+    @Test public void generatedCSharp() {
+        // The C++ translator doesn't support some of what's generated, like enums & try-with-resources.   The
+        // expected output comes from translating a separately generated copy of the project, so this checks that
+        // both the generator & the translator are deterministic
+        File expectedSourceDirectory = createTempDirectory("juniversal-generated-expected");
+        File expectedDirectory = createTempDirectory("juniversal-generated-csharp-expected");
+        File sourceDirectory = createTempDirectory("juniversal-generated");
+        try {
+            generateProject(expectedSourceDirectory);
+            assertTrue("translation succeeded", translate(CSharpTranslator::new,
+                    new String[]{"-o", expectedDirectory.getPath(), expectedSourceDirectory.getPath()}));
+            assertEquals("translated files", getFiles(expectedSourceDirectory, ".java").size(),
+                    getFiles(expectedDirectory, ".cs").size());
+
+            generateProject(sourceDirectory);
+            checkCorpus("generated", sourceDirectory, "csharp", CSharpTranslator::new, expectedDirectory, false);
+        } finally {
+            deleteRecursively(expectedSourceDirectory);
+            deleteRecursively(expectedDirectory);
+            deleteRecursively(sourceDirectory);
+        }
+    }
+
+    private static void generateProject(File directory) {
+        ProjectGenerator generator = new ProjectGenerator(GENERATED_FILE_COUNT, 1);
+        generator.setHierarchyDepth(3);
+        generator.setCallDensity(3);
+        generator.setFilesPerPackage(50);
+        generator.generate(directory);
+    }
+
+    /**
+     * Translate the corpus & check the output against the expected output checked in for it, then, if measuring
+     * throughput, time some more translations for the throughput history.
+     *
+     * @param corpus              corpus name, used for its expected output directory & in the history
+     * @param javaDirectory       Java project directory to translate
+     * @param language            target language name, used for its expected output directory & in the history
+     * @param translatorFactory   creates the translator for the target language
+     * @param filesWithErrors     output paths, relative to the output directory, of the files the translator is
+     *                            expected to report errors for; they're excluded from the comparison, as whatever's
+     *                            written for them isn't meaningful.  If there are none, the translator should report
+     *                            translating everything without errors
+     */
+    protected void checkCorpus(String corpus, File javaDirectory, String language,
+                               Supplier<Translator> translatorFactory, String... filesWithErrors) {
+        checkCorpus(corpus, javaDirectory, language, translatorFactory,
+                new File(new File(EXPECTED_DIRECTORY, corpus), language), Boolean.getBoolean("juniversal.updateGolden"),
+                filesWithErrors);
+    }
+
+    /**
+     * Translate the corpus & check the output against the expected output in the given directory, then, if measuring
+     * throughput, time some more translations for the throughput history.
+     *
+     * @param expectedDirectory   directory with the expected output
+     * @param updateExpected      if true, rewrite the expected output with the actual output, instead of checking it
+     * @see #checkCorpus(String, File, String, Supplier, String...)
+     */
+    protected void checkCorpus(String corpus, File javaDirectory, String language,
+                               Supplier<Translator> translatorFactory, File expectedDirectory, boolean updateExpected,
+                               String... filesWithErrors) {
+        File outputDirectory = createTempDirectory("juniversal-" + corpus + "-" + language);
+        try {
+            String[] args = {"-o", outputDirectory.getPath(), javaDirectory.getPath()};
+
+            assertEquals("translation succeeded", filesWithErrors.length == 0, translate(translatorFactory, args));
+
+            List<String> excludedPaths = Arrays.asList(filesWithErrors);
+            if (updateExpected)
+                updateExpected(outputDirectory, expectedDirectory, excludedPaths);
+            else checkOutput(outputDirectory, expectedDirectory, excludedPaths);
+
+            if (!Boolean.getBoolean("juniversal.measureThroughput"))
+                return;
+
+            List<File> javaFiles = getFiles(javaDirectory, ".java");
+            long bytes = 0;
+            for (File javaFile : javaFiles)
+                bytes += javaFile.length();
+
+            long bestNanos = Long.MAX_VALUE;
+            long totalNanos = 0;
+            for (int runs = 0; runs < MIN_TIMED_RUNS || totalNanos < MIN_TIMED_NANOS; ++runs) {
+                long start = System.nanoTime();
+                translate(translatorFactory, args);
+                long nanos = System.nanoTime() - start;
+
+                bestNanos = Math.min(bestNanos, nanos);
+                totalNanos += nanos;
+            }
+
+            throughputHistory.record(corpus, language, javaFiles.size(), bytes, bestNanos / 1e9);
+        } finally {
+            deleteRecursively(outputDirectory);
+        }
+    }
+
+    private static boolean translate(Supplier<Translator> translatorFactory, String[] args) {
+        Translator translator = translatorFactory.get();
+        translator.init(args);
+        return translator.translate();
+    }
+
+    private static void checkOutput(File outputDirectory, File expectedDirectory, List<String> excludedPaths) {
+        TreeSet<String> paths = new TreeSet<>();
+        List<File> outputFiles = getFiles(outputDirectory, "");
+        List<File> expectedFiles = getFiles(expectedDirectory, "");
+        for (File outputFile : outputFiles)
+            paths.add(getRelativePath(outputDirectory, outputFile));
+        for (File expectedFile : expectedFiles)
+            paths.add(getRelativePath(expectedDirectory, expectedFile));
+        paths.removeAll(excludedPaths);
+
+        StringBuilder differences = new StringBuilder();
+        for (String path : paths) {
+            File outputFile = new File(outputDirectory, path);
+            File expectedFile = new File(expectedDirectory, path);
+
+            if (!expectedFile.exists())
+                differences.append("Unexpected output file ").append(path).append("\n");
+            else if (!outputFile.exists())
+                differences.append("Missing output file ").append(path).append("\n");
+            else {
+                String[] expectedLines = readNormalized(expectedFile).split("\n", -1);
+                String[] actualLines = readNormalized(outputFile).split("\n", -1);
+
+                for (int i = 0; i < Math.max(expectedLines.length, actualLines.length); ++i) {
+                    String expectedLine = i < expectedLines.length ? expectedLines[i] : "<end of file>";
+                    String actualLine = i < actualLines.length ? actualLines[i] : "<end of file>";
+
+                    if (!expectedLine.equals(actualLine)) {
+                        differences.append(path).append(" differs at line ").append(i + 1).append("\n")
+                                .append("  EXPECTED: ").append(expectedLine).append("\n")
+                                .append("  ACTUAL:   ").append(actualLine).append("\n");
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (differences.length() > 0)
+            fail("Output doesn't match the expected output in " + expectedDirectory + "; if it's checked in & the " +
+                 "change is intended, rerun with -PupdateGolden and review the differences\n" + differences);
+    }
+
+    private static void updateExpected(File outputDirectory, File expectedDirectory, List<String> excludedPaths) {
+        deleteRecursively(expectedDirectory);
+
+        try {
+            for (File outputFile : getFiles(outputDirectory, "")) {
+                String path = getRelativePath(outputDirectory, outputFile);
+                if (excludedPaths.contains(path))
+                    continue;
+
+                File expectedFile = new File(expectedDirectory, path);
+                File directory = expectedFile.getParentFile();
+                if (!directory.exists() && !directory.mkdirs())
+                    throw new IOException("Failed to create directory " + directory);
+
+                Files.write(expectedFile.toPath(), readNormalized(outputFile).getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read the file, normalizing newlines to \n so the expected output compares the same on all platforms.
+     */
+    private static String readNormalized(File file) {
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<File> getFiles(File directory, String extension) {
+        ArrayList<File> files = new ArrayList<>();
+        addFiles(directory, extension, files);
+        return files;
+    }
+
+    private static void addFiles(File directory, String extension, List<File> files) {
+        File[] children = directory.listFiles();
+        if (children == null)
+            return;
+
+        for (File child : children) {
+            if (child.isDirectory())
+                addFiles(child, extension, files);
+            else if (child.getName().endsWith(extension))
+                files.add(child);
+        }
+    }
+
+    private static String getRelativePath(File directory, File file) {
+        return directory.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.golden;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Translation throughput measurements, appended one per line to a tab separated file, so they can be compared with
+ * earlier runs and read by other tools.  The columns are: time (ms since the epoch), corpus, target language, Java
+ * files, Java source bytes, seconds, files per second & bytes per second.
+ * <p>
+ * A measurement counts as a regression if its bytes per second is below the median of the last few runs for the same
+ * corpus & language by more than the tolerance.  Timings vary a fair bit from run to run, and from machine to machine,
+ * which is why the default tolerance is generous and the history is normally kept per machine:  in the project's
+ * .gradle directory, or for CI in a file that the CI system keeps between builds.
+ */
+public class ThroughputHistory {
+    private static final String HEADER = "time\tcorpus\tlanguage\tfiles\tbytes\tseconds\tfilesPerSecond\tbytesPerSecond";
+
+    // Only compare against a baseline once there are at least this many earlier runs, taking the median of at most
+    // the last BASELINE_RUNS
+    private static final int MIN_BASELINE_RUNS = 3;
+    private static final int BASELINE_RUNS = 5;
+
+    private final File file;
+    private final double tolerance;
+
+    /**
+     * @param file      history file; created if it doesn't exist
+     * @param tolerance fraction (e.g. 0.5 for 50%) that throughput can drop below the baseline before it's considered
+     *                  a regression
+     */
+    public ThroughputHistory(File file, double tolerance) {
+        this.file = file;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Append the measurement to the history, then fail if it's a regression compared to the runs before it.
+     */
+    public synchronized void record(String corpus, String language, int files, long bytes, double seconds) {
+        @Nullable Double baseline = getBaselineBytesPerSecond(corpus, language);
+
+        double filesPerSecond = files / seconds;
+        double bytesPerSecond = bytes / seconds;
+        append(String.format("%d\t%s\t%s\t%d\t%d\t%.4f\t%.1f\t%.1f", System.currentTimeMillis(), corpus, language, files,
+                bytes, seconds, filesPerSecond, bytesPerSecond));
+
+        System.out.println(String.format("Throughput for %s (%s): %.1f files/s, %.0f bytes/s%s", corpus, language,
+                filesPerSecond, bytesPerSecond,
+                baseline != null ? String.format(" (baseline %.0f bytes/s)", baseline) : ""));
+
+        if (baseline != null && bytesPerSecond < baseline * (1 - tolerance))
+            fail(String.format("Throughput regression translating %s to %s: %.0f bytes/s is more than %.0f%% below " +
+                               "the baseline of %.0f bytes/s, the median of the last runs in %s", corpus, language,
+                    bytesPerSecond, tolerance * 100, baseline, file));
+    }
+
+    private @Nullable Double getBaselineBytesPerSecond(String corpus, String language) {
+        if (!file.exists())
+            return null;
+
+        ArrayList<Double> bytesPerSecondValues = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                String[] columns = line.split("\t");
+                if (columns.length >= 8 && columns[1].equals(corpus) && columns[2].equals(language)) {
+                    try {
+                        bytesPerSecondValues.add(Double.parseDouble(columns[7]));
+                    } catch (NumberFormatException e) {
+                        // Skip lines that aren't measurements, like the header
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (bytesPerSecondValues.size() < MIN_BASELINE_RUNS)
+            return null;
+
+        List<Double> lastRuns = new ArrayList<>(bytesPerSecondValues.subList(
+                Math.max(0, bytesPerSecondValues.size() - BASELINE_RUNS), bytesPerSecondValues.size()));
+        Collections.sort(lastRuns);
+        return lastRuns.get(lastRuns.size() / 2);
+    }
+
+    private void append(String line) {
+        try {
+            File directory = file.getAbsoluteFile().getParentFile();
+            if (!directory.exists() && !directory.mkdirs())
+                throw new IOException("Failed to create directory " + directory);
+
+            String text = file.exists() ? line + "\n" : HEADER + "\n" + line + "\n";
+            Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
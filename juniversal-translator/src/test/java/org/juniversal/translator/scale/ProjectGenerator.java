@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.scale;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Generates synthetic Java projects of any size, for measuring how the translator scales without needing a large real
+ * project.  The code only uses constructs the C# translator supports:  generic functional interfaces implemented with
+ * anonymous classes, generics with ? extends wildcards, enums, switch statements, try-with-resources & methods that do
+ * a lot of string manipulation.
+ * <p>
+ * The project is made up of type hierarchies, each an enum plus a chain of classes, Item&lt;n&gt;Level0 (abstract)
+ * through Item&lt;n&gt;Level&lt;depth - 1&gt;, each extending the one before.  The hierarchies are grouped into
+ * packages generated.p0, generated.p1, etc., with three shared types in generated.common.  Methods call static methods
+ * of other, earlier, hierarchies, in the same package or others, callDensity times each.  The output is determined by
+ * the parameters & seed, so the same project can be generated again, e.g. for golden-file tests.
+ * <p>
+ * Usage: -files &lt;count&gt; [-depth &lt;depth&gt;] [-calls &lt;callDensity&gt;] [-filesPerPackage &lt;count&gt;]
+ * [-seed &lt;seed&gt;] &lt;output-source-directory&gt;
+ */
+public class ProjectGenerator {
+    private static final String[] WORDS = {"alpha", "beta", "gamma", "delta", "epsilon", "zeta", "theta", "kappa",
+            "lambda", "sigma", "omega", "index", "value", "record", "entry", "table"};
+
+    private final int fileCount;
+    private final long seed;
+    private int hierarchyDepth = 3;
+    private int callDensity = 3;
+    private int filesPerPackage = 50;
+
+    private Random random;
+    private ArrayList<String> baseClassNames;  // Fully qualified name of each hierarchy's base class, so far
+
+    /**
+     * @param fileCount number of files to generate, not counting the three in generated.common
+     * @param seed      seed for the random choices, like which classes call which
+     */
+    public ProjectGenerator(int fileCount, long seed) {
+        this.fileCount = fileCount;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        int fileCount = 1000;
+        long seed = 1;
+        int hierarchyDepth = 3;
+        int callDensity = 3;
+        int filesPerPackage = 50;
+        File outputDirectory = null;
+
+        for (int i = 0; i < args.length; ++i) {
+            String arg = args[i];
+
+            if (arg.startsWith("-") && i + 1 >= args.length)
+                usageError();
+
+            if (arg.equals("-files"))
+                fileCount = Integer.parseInt(args[++i]);
+            else if (arg.equals("-depth"))
+                hierarchyDepth = Integer.parseInt(args[++i]);
+            else if (arg.equals("-calls"))
+                callDensity = Integer.parseInt(args[++i]);
+            else if (arg.equals("-filesPerPackage"))
+                filesPerPackage = Integer.parseInt(args[++i]);
+            else if (arg.equals("-seed"))
+                seed = Long.parseLong(args[++i]);
+            else if (arg.startsWith("-") || outputDirectory != null)
+                usageError();
+            else outputDirectory = new File(arg);
+        }
+
+        if (outputDirectory == null)
+            usageError();
+
+        ProjectGenerator generator = new ProjectGenerator(fileCount, seed);
+        generator.setHierarchyDepth(hierarchyDepth);
+        generator.setCallDensity(callDensity);
+        generator.setFilesPerPackage(filesPerPackage);
+
+        List<File> files = generator.generate(outputDirectory);
+        System.out.println("Generated " + files.size() + " files in " + outputDirectory);
+    }
+
+    private static void usageError() {
+        System.err.println("Usage: -files <count> [-depth <depth>] [-calls <callDensity>] " +
+                           "[-filesPerPackage <count>] [-seed <seed>] <output-source-directory>");
+        System.exit(1);
+    }
+
+    /**
+     * Set the number of classes in each hierarchy, which must be at least 2, since the base class is abstract.  The
+     * default is 3.
+     */
+    public void setHierarchyDepth(int hierarchyDepth) {
+        if (hierarchyDepth < 2)
+            throw new IllegalArgumentException("Hierarchy depth must be at least 2");
+        this.hierarchyDepth = hierarchyDepth;
+    }
+
+    /**
+     * Set the number of calls to other hierarchies made by each method that makes such calls.  The default is 3.
+     */
+    public void setCallDensity(int callDensity) {
+        this.callDensity = callDensity;
+    }
+
+    /**
+     * Set roughly how many files go in each package; hierarchies aren't split across packages, so packages can have a
+     * few more.  The default is 50.
+     */
+    public void setFilesPerPackage(int filesPerPackage) {
+        this.filesPerPackage = filesPerPackage;
+    }
+
+    /**
+     * Generate the project, writing the source files in package directories under the specified directory, which is
+     * created if need be.  Existing files are overwritten, but others are left alone, so normally the directory should
+     * be empty or not exist.
+     *
+     * @param sourceDirectory root directory for the source
+     * @return generated source files
+     */
+    public List<File> generate(File sourceDirectory) {
+        random = new Random(seed);
+        baseClassNames = new ArrayList<>();
+        ArrayList<File> files = new ArrayList<>();
+
+        writeFile(sourceDirectory, "generated.common", "Transform", generateTransform(), files);
+        writeFile(sourceDirectory, "generated.common", "Filter", generateFilter(), files);
+        writeFile(sourceDirectory, "generated.common", "Resource", generateResource(), files);
+
+        int filesLeft = fileCount;
+        int packageNumber = 0;
+        int filesInPackage = 0;
+        for (int hierarchy = 0; filesLeft > 0; ++hierarchy) {
+            if (filesInPackage >= filesPerPackage) {
+                ++packageNumber;
+                filesInPackage = 0;
+            }
+            String packageName = "generated.p" + packageNumber;
+
+            // The last hierarchy can be cut short, to give exactly the requested number of files
+            int classCount = Math.min(hierarchyDepth, filesLeft - 1);
+
+            writeFile(sourceDirectory, packageName, "Mode" + hierarchy, generateEnum(packageName, hierarchy), files);
+            if (classCount > 0)
+                writeFile(sourceDirectory, packageName, "Item" + hierarchy + "Level0",
+                        generateBaseClass(packageName, hierarchy), files);
+            for (int level = 1; level < classCount; ++level)
+                writeFile(sourceDirectory, packageName, "Item" + hierarchy + "Level" + level,
+                        generateDerivedClass(packageName, hierarchy, level), files);
+
+            if (classCount > 0)
+                baseClassNames.add(packageName + ".Item" + hierarchy + "Level0");
+            filesLeft -= classCount + 1;
+            filesInPackage += classCount + 1;
+        }
+
+        return files;
+    }
+
+    private void writeFile(File sourceDirectory, String packageName, String typeName, String source,
+                           List<File> files) {
+        File packageDirectory = new File(sourceDirectory, packageName.replace('.', File.separatorChar));
+        File file = new File(packageDirectory, typeName + ".java");
+
+        try {
+            if (!packageDirectory.exists() && !packageDirectory.mkdirs())
+                throw new IOException("Failed to create directory " + packageDirectory);
+            Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        files.add(file);
+    }
+
+    private String generateTransform() {
+        return "package generated.common;\n" +
+               "\n" +
+               "@FunctionalInterface\n" +
+               "public interface Transform<T, R> {\n" +
+               "    R apply(T value);\n" +
+               "}\n";
+    }
+
+    private String generateFilter() {
+        return "package generated.common;\n" +
+               "\n" +
+               "@FunctionalInterface\n" +
+               "public interface Filter<T> {\n" +
+               "    boolean accept(T value);\n" +
+               "}\n";
+    }
+
+    private String generateResource() {
+        return "package generated.common;\n" +
+               "\n" +
+               "public class Resource implements AutoCloseable {\n" +
+               "    private final String name;\n" +
+               "    private int uses;\n" +
+               "\n" +
+               "    public Resource(String name) {\n" +
+               "        this.name = name;\n" +
+               "    }\n" +
+               "\n" +
+               "    public int use(int amount) {\n" +
+               "        uses += amount;\n" +
+               "        return uses;\n" +
+               "    }\n" +
+               "\n" +
+               "    public String getName() {\n" +
+               "        return name;\n" +
+               "    }\n" +
+               "\n" +
+               "    @Override public void close() {\n" +
+               "        uses = 0;\n" +
+               "    }\n" +
+               "}\n";
+    }
+
+    private String generateEnum(String packageName, int hierarchy) {
+        return "package " + packageName + ";\n" +
+               "\n" +
+               "public enum Mode" + hierarchy + " {\n" +
+               "    FIRST,\n" +
+               "    SECOND,\n" +
+               "    THIRD,\n" +
+               "    FOURTH\n" +
+               "}\n";
+    }
+
+    private String generateBaseClass(String packageName, int hierarchy) {
+        String className = "Item" + hierarchy + "Level0";
+        String modeName = "Mode" + hierarchy;
+        List<String> calledClasses = chooseCalledClasses();
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        source.append("import generated.common.Filter;\n");
+        source.append("import generated.common.Resource;\n");
+        source.append("import generated.common.Transform;\n");
+        appendImports(source, packageName, calledClasses);
+        source.append("\n");
+        source.append("import java.util.ArrayList;\n");
+        source.append("import java.util.List;\n");
+        source.append("\n");
+
+        source.append("public abstract class ").append(className).append(" {\n");
+        source.append("    protected int count;\n");
+        source.append("    protected String label;\n");
+        source.append("    protected ").append(modeName).append(" mode;\n");
+        source.append("\n");
+        source.append("    public ").append(className).append("(String label, ").append(modeName).append(" mode) {\n");
+        source.append("        this.label = label;\n");
+        source.append("        this.mode = mode;\n");
+        source.append("    }\n");
+        source.append("\n");
+        source.append("    public abstract int compute(int value);\n");
+        source.append("\n");
+
+        source.append("    public static int score(String text, int value) {\n");
+        source.append("        int result = value;\n");
+        source.append("        for (int i = 0; i < text.length(); ++i) {\n");
+        source.append("            if (text.charAt(i) == '").append(chooseWord().charAt(0)).append("')\n");
+        source.append("                result += i;\n");
+        source.append("        }\n");
+        appendCalls(source, calledClasses, "text", "value");
+        source.append("        return result + text.indexOf(\"").append(chooseWord()).append("\");\n");
+        source.append("    }\n");
+        source.append("\n");
+
+        source.append("    public String describe() {\n");
+        source.append("        switch (mode) {\n");
+        source.append("            case FIRST:\n");
+        source.append("                return \"").append(chooseWord()).append(" \" + label;\n");
+        source.append("            case SECOND:\n");
+        source.append("                return \"").append(chooseWord()).append(" \" + label + \":\" + count;\n");
+        source.append("            case THIRD:\n");
+        source.append("                count += label.length();\n");
+        source.append("                break;\n");
+        source.append("            default:\n");
+        source.append("                break;\n");
+        source.append("        }\n");
+        source.append("        return label;\n");
+        source.append("    }\n");
+        source.append("\n");
+
+        String word = chooseWord();
+        source.append("    public String format(String text, int times) {\n");
+        source.append("        StringBuilder builder = new StringBuilder();\n");
+        source.append("        for (int i = 0; i < times; ++i) {\n");
+        source.append("            builder.append(text.substring(0, Math.min(").append(1 + random.nextInt(5))
+                .append(", text.length())));\n");
+        source.append("            builder.append(i);\n");
+        source.append("            if (text.contains(\"").append(word).append("\") && !text.endsWith(\"")
+                .append(chooseWord()).append("\"))\n");
+        source.append("                builder.append(text.replace(\"").append(word).append("\", label));\n");
+        source.append("            else if (text.startsWith(\"").append(chooseWord()).append("\"))\n");
+        source.append("                builder.append(text.trim());\n");
+        source.append("        }\n");
+        source.append("        String result = builder.toString();\n");
+        source.append("        return result.length() > ").append(10 + random.nextInt(20))
+                .append(" ? result.substring(").append(1 + random.nextInt(5))
+                .append(") : label + \" \" + result + \" \" + count;\n");
+        source.append("    }\n");
+        source.append("\n");
+
+        source.append("    public int total(List<? extends ").append(className).append("> items) {\n");
+        source.append("        int sum = 0;\n");
+        source.append("        for (").append(className).append(" item : items)\n");
+        source.append("            sum += item.compute(count);\n");
+        source.append("        return sum;\n");
+        source.append("    }\n");
+        source.append("\n");
+
+        source.append("    public int useResource(int amount) {\n");
+        source.append("        try (Resource resource = new Resource(label)) {\n");
+        source.append("            return resource.use(amount) + resource.getName().length();\n");
+        source.append("        }\n");
+        source.append("    }\n");
+        source.append("\n");
+
+        source.append("    public int transform(final int value) {\n");
+        source.append("        Transform<String, Integer> measure = new Transform<String, Integer>() {\n");
+        source.append("            @Override public Integer apply(String text) {\n");
+        source.append("                return text.length() + value;\n");
+        source.append("            }\n");
+        source.append("        };\n");
+        source.append("        Filter<String> filter = new Filter<String>() {\n");
+        source.append("            @Override public boolean accept(String text) {\n");
+        source.append("                return !text.isEmpty() && text.indexOf('").append(chooseWord().charAt(1))
+                .append("') >= 0;\n");
+        source.append("            }\n");
+        source.append("        };\n");
+        source.append("        List<String> parts = new ArrayList<String>();\n");
+        source.append("        for (String part : label.split(\",\")) {\n");
+        source.append("            if (filter.accept(part))\n");
+        source.append("                parts.add(part);\n");
+        source.append("        }\n");
+        source.append("        int result = 0;\n");
+        source.append("        for (String part : parts)\n");
+        source.append("            result += measure.apply(part);\n");
+        source.append("        return result;\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        return source.toString();
+    }
+
+    private String generateDerivedClass(String packageName, int hierarchy, int level) {
+        String className = "Item" + hierarchy + "Level" + level;
+        String superclassName = "Item" + hierarchy + "Level" + (level - 1);
+        String modeName = "Mode" + hierarchy;
+        List<String> calledClasses = chooseCalledClasses();
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        appendImports(source, packageName, calledClasses);
+        if (!calledClasses.isEmpty())
+            source.append("\n");
+        source.append("import java.util.List;\n");
+        source.append("\n");
+
+        source.append("public class ").append(className).append(" extends ").append(superclassName).append(" {\n");
+        source.append("    public ").append(className).append("(String label, ").append(modeName).append(" mode) {\n");
+        source.append("        super(label, mode);\n");
+        source.append("    }\n");
+        source.append("\n");
+
+        source.append("    @Override public int compute(int value) {\n");
+        source.append("        int result = ").append(level == 1 ? "value" : "super.compute(value)")
+                .append(" + count * ").append(1 + random.nextInt(9)).append(";\n");
+        source.append("        result += score(label, result);\n");
+        appendCalls(source, calledClasses, "label", "result");
+        source.append("        return result;\n");
+        source.append("    }\n");
+        source.append("\n");
+
+        source.append("    @Override public String describe() {\n");
+        source.append("        return \"").append(chooseWord()).append(level).append(" \" + super.describe();\n");
+        source.append("    }\n");
+        source.append("\n");
+
+        source.append("    public String join").append(level).append("(List<String> parts, String separator) {\n");
+        source.append("        StringBuilder builder = new StringBuilder();\n");
+        source.append("        for (String part : parts) {\n");
+        source.append("            if (builder.length() > 0)\n");
+        source.append("                builder.append(separator);\n");
+        source.append("            if (part.equals(\"").append(chooseWord()).append("\"))\n");
+        source.append("                builder.append(label);\n");
+        source.append("            else builder.append(part.trim());\n");
+        source.append("        }\n");
+        source.append("        return builder.toString();\n");
+        source.append("    }\n");
+        source.append("}\n");
+
+        return source.toString();
+    }
+
+    /**
+     * Choose the classes for a method to call, from the hierarchies generated so far, so calls never form a cycle.
+     */
+    private List<String> chooseCalledClasses() {
+        ArrayList<String> calledClasses = new ArrayList<>();
+        if (!baseClassNames.isEmpty()) {
+            for (int i = 0; i < callDensity; ++i)
+                calledClasses.add(baseClassNames.get(random.nextInt(baseClassNames.size())));
+        }
+        return calledClasses;
+    }
+
+    private void appendImports(StringBuilder source, String packageName, List<String> calledClasses) {
+        TreeSet<String> imports = new TreeSet<>();
+        for (String calledClass : calledClasses) {
+            if (!calledClass.startsWith(packageName + "."))
+                imports.add(calledClass);
+        }
+
+        for (String importName : imports)
+            source.append("import ").append(importName).append(";\n");
+    }
+
+    private void appendCalls(StringBuilder source, List<String> calledClasses, String textVariable,
+                             String valueVariable) {
+        for (String calledClass : calledClasses) {
+            String simpleName = calledClass.substring(calledClass.lastIndexOf('.') + 1);
+            source.append("        result += ").append(simpleName).append(".score(").append(textVariable)
+                    .append(" + \"").append(chooseWord()).append("\", ").append(valueVariable).append(");\n");
+        }
+    }
+
+    private String chooseWord() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2012-2015, Microsoft Mobile
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.juniversal.translator.scale;
+
+import org.juniversal.translator.core.SourceFile;
+import org.juniversal.translator.csharp.CSharpTranslator;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.juniversal.translator.TempDirectories.createTempDirectory;
+import static org.juniversal.translator.TempDirectories.deleteRecursively;
+
+/**
+ * Measures how translating to C# scales with project size, by generating projects of increasing size with {@link
+ * ProjectGenerator} and timing a full translation of each.  For each run it prints, tab separated:  the number of Java
+ * files, their total size in bytes, the total, parse & write times in seconds, the files translated per second & the
+ * peak heap usage in MB.
+ * <p>
+ * Write time is the time spent in translateFile, writing the output; parse time is everything else, mostly parsing &
+ * resolving bindings.  The two overlap a bit, as some bindings are resolved lazily, while writing.  Each size is
+ * translated -repeat times, reusing the generated project, which can be used as a soak test:  times & peak heap
+ * should stay level from one repetition to the next.
+ * <p>
+ * Usage: [-sizes &lt;count&gt;,&lt;count&gt;,...] [-depth &lt;depth&gt;] [-calls &lt;callDensity&gt;]
+ * [-repeat &lt;count&gt;] [-seed &lt;seed&gt;]
+ */
+public class ScalingBenchmark {
+    private long writeNanos;
+
+    public static void main(String[] args) {
+        ArrayList<Integer> sizes = new ArrayList<>();
+        int hierarchyDepth = 3;
+        int callDensity = 3;
+        int repeatCount = 1;
+        long seed = 1;
+
+        for (int i = 0; i < args.length; ++i) {
+            String arg = args[i];
+            if (i + 1 >= args.length)
+                usageError();
+
+            if (arg.equals("-sizes")) {
+                for (String size : args[++i].split(","))
+                    sizes.add(Integer.parseInt(size.trim()));
+            } else if (arg.equals("-depth"))
+                hierarchyDepth = Integer.parseInt(args[++i]);
+            else if (arg.equals("-calls"))
+                callDensity = Integer.parseInt(args[++i]);
+            else if (arg.equals("-repeat"))
+                repeatCount = Integer.parseInt(args[++i]);
+            else if (arg.equals("-seed"))
+                seed = Long.parseLong(args[++i]);
+            else usageError();
+        }
+
+        if (sizes.isEmpty()) {
+            sizes.add(250);
+            sizes.add(500);
+            sizes.add(1000);
+            sizes.add(2000);
+            sizes.add(4000);
+        }
+
+        System.out.println("files\tbytes\tseconds\tparseSeconds\twriteSeconds\tfilesPerSecond\tpeakHeapMB");
+        for (int size : sizes) {
+            ProjectGenerator generator = new ProjectGenerator(size, seed);
+            generator.setHierarchyDepth(hierarchyDepth);
+            generator.setCallDensity(callDensity);
+
+            File projectDirectory = createTempDirectory("juniversal-scale-" + size);
+            try {
+                File sourceDirectory = new File(projectDirectory, "src");
+                File outputDirectory = new File(projectDirectory, "out");
+
+                List<File> javaFiles = generator.generate(sourceDirectory);
+                long bytes = 0;
+                for (File javaFile : javaFiles)
+                    bytes += javaFile.length();
+
+                for (int i = 0; i < repeatCount; ++i)
+                    new ScalingBenchmark().run(sourceDirectory, outputDirectory, javaFiles.size(), bytes);
+            } finally {
+                deleteRecursively(projectDirectory);
+            }
+        }
+    }
+
+    private static void usageError() {
+        System.err.println("Usage: [-sizes <count>,<count>,...] [-depth <depth>] [-calls <callDensity>] " +
+                           "[-repeat <count>] [-seed <seed>]");
+        System.exit(1);
+    }
+
+    private void run(File sourceDirectory, File outputDirectory, int fileCount, long bytes) {
+        CSharpTranslator translator = new CSharpTranslator() {
+            @Override public void translateFile(SourceFile sourceFile) {
+                long start = System.nanoTime();
+                super.translateFile(sourceFile);
+                writeNanos += System.nanoTime() - start;
+            }
+        };
+        translator.init(new String[]{"-o", outputDirectory.getPath(), sourceDirectory.getPath()});
+
+        // Start from a clean heap, so the peak is just for this translation
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP) {
+                memoryPool.resetPeakUsage();
+                heapPools.add(memoryPool);
+            }
+        }
+
+        // The translator prints a line per file, which would just slow things down here; errors still show
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override public void write(int b) {
+            }
+        }));
+        long start = System.nanoTime();
+        boolean succeeded;
+        try {
+            succeeded = translator.translate();
+        } finally {
+            System.setOut(out);
+        }
+        long nanos = System.nanoTime() - start;
+
+        long peakHeapBytes = 0;
+        for (MemoryPoolMXBean heapPool : heapPools)
+            peakHeapBytes += heapPool.getPeakUsage().getUsed();
+
+        if (!succeeded)
+            System.err.println("Translation of " + fileCount + " files reported errors");
+
+        System.out.println(String.format("%d\t%d\t%.3f\t%.3f\t%.3f\t%.1f\t%.1f", fileCount, bytes, nanos / 1e9,
+                (nanos - writeNanos) / 1e9, writeNanos / 1e9, fileCount / (nanos / 1e9),
+                peakHeapBytes / (1024.0 * 1024.0)));
+    }
+}
@@ -0,0 +1,8 @@
+#include "TestGenerics.h"
+
+JU_USING_STD_NAMESPACES
+using namespace method_tests;
+
+void TestGenerics::foo() {
+    ptr< T > myObject;
+}
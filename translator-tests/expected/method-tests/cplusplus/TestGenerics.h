@@ -0,0 +1,21 @@
+#ifndef TESTGENERICS_H
+#define TESTGENERICS_H
+
+#include "juniversal.h"
+
+namespace method_tests {
+JU_USING_STD_NAMESPACES
+
+/**
+ * Created by Bret on 11/30/2014.
+ */
+class TestGenerics : public Object {
+public:
+    static void foo();
+
+private:
+    typedef Object super;
+};
+
+}
+#endif // TESTGENERICS_H
@@ -0,0 +1,54 @@
+#include "TestMethodTypes.h"
+
+JU_USING_STD_NAMESPACES
+using namespace method_tests;
+
+/**
+ * Test the different access types
+ */
+void TestMethodTypes::publicAccess() {
+}
+
+void TestMethodTypes::protectedAccess() {
+}
+
+void TestMethodTypes::packageAccess() {
+}
+
+void TestMethodTypes::privateAccess() {
+}
+
+void TestMethodTypes::paramPrimitiveTypes(char byteParam, short shortParam, int intParam, long64 longParam, float floatParam,
+                                          double doubleParam, unichar charParam, bool booleanParam, const ptr< String >& stringParam) {
+}
+
+void TestMethodTypes::paramPrimitiveArrayTypes(const ptr< Array<char> >& byteParam, const ptr< Array<short> >& shortParam, const ptr< Array<int> >& intParam, const ptr< Array<long64> >& longParam, const ptr< Array<float> >& floatParam,
+                                               const ptr< Array<double> >& doubleParam, const ptr< Array<unichar> >& charParam, const ptr< Array<bool> >& booleanParam, const ptr< Array<String> >& stringParam) {
+}
+
+/*
+private void paramPrimitiveMultiArrayTypes(byte[][] byteParam, short[][] shortParam, int[][] intParam, long[][] longParam, float[][] floatParam,
+                                           double[][] doubleParam, char[][] charParam, boolean[][] booleanParam, String[][] stringParam) {
+}
+*/
+
+void TestMethodTypes::varargs(Array<char> bytes) {
+}
+
+void TestMethodTypes::varargs(int intParam, Array<String> strings) {
+}
+
+
+/**
+ *    Super
+ */
+
+
+
+/**
+ *    Sub
+ */
+
+Double Sub::foo(const ptr< Integer >& p1) {
+    return NULL;
+}
@@ -0,0 +1,49 @@
+#ifndef TESTMETHODTYPES_H
+#define TESTMETHODTYPES_H
+
+#include "juniversal.h"
+
+namespace method_tests {
+JU_USING_STD_NAMESPACES
+
+class TestMethodTypes : public Object {
+public: // Nested class(es)
+
+    class Super : public Object {
+    public:
+        virtual Object foo(const ptr< Integer >& p1) = 0;
+
+    private:
+        typedef Object super;
+    };
+
+    class Sub : public Super {
+    public:
+        virtual Double foo(const ptr< Integer >& p1);
+
+    private:
+        typedef Super super;
+    };
+
+public:
+    virtual void publicAccess();
+    virtual void packageAccess();
+
+protected:
+    virtual void protectedAccess();
+
+private:
+    virtual void privateAccess();
+    virtual void paramPrimitiveTypes(char byteParam, short shortParam, int intParam, long64 longParam, float floatParam,
+                                     double doubleParam, unichar charParam, bool booleanParam, const ptr< String >& stringParam);
+    virtual void paramPrimitiveArrayTypes(const ptr< Array<char> >& byteParam, const ptr< Array<short> >& shortParam, const ptr< Array<int> >& intParam, const ptr< Array<long64> >& longParam, const ptr< Array<float> >& floatParam,
+                                          const ptr< Array<double> >& doubleParam, const ptr< Array<unichar> >& charParam, const ptr< Array<bool> >& booleanParam, const ptr< Array<String> >& stringParam);
+    virtual void varargs(Array<char> bytes);
+    virtual void varargs(int intParam, Array<String> strings);
+
+private:
+    typedef Object super;
+};
+
+}
+#endif // TESTMETHODTYPES_H
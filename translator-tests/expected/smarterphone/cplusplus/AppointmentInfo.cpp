@@ -0,0 +1,28 @@
+#include "AppointmentInfo.h"
+
+JU_USING_STD_NAMESPACES
+using namespace smarterphone;
+
+void AppointmentInfo::setID(const ptr< String >& id) {
+    this->m_id = id;
+}
+
+String AppointmentInfo::id() {
+    return m_id;
+}
+
+void AppointmentInfo::setPIN(const ptr< String >& pin) {
+    this->m_pin = pin;
+}
+
+String AppointmentInfo::pin() {
+    return m_pin;
+}
+
+void AppointmentInfo::setPhoneNumber(const ptr< String >& phoneNumber) {
+    this->m_phoneNumber = phoneNumber;
+}
+
+String AppointmentInfo::phoneNumber() {
+    return this->m_phoneNumber;
+}
@@ -0,0 +1,28 @@
+#ifndef APPOINTMENTINFO_H
+#define APPOINTMENTINFO_H
+
+#include "juniversal.h"
+
+namespace smarterphone {
+JU_USING_STD_NAMESPACES
+
+class AppointmentInfo : public Object {
+public:
+    void setID(const ptr< String >& id);
+    String id();
+    void setPIN(const ptr< String >& pin);
+    String pin();
+    void setPhoneNumber(const ptr< String >& phoneNumber);
+    String phoneNumber();
+
+private:
+    typedef Object super;
+
+private: // Data
+    ptr< String > m_id;
+    ptr< String > m_pin;
+    ptr< String > m_phoneNumber;
+};
+
+}
+#endif // APPOINTMENTINFO_H
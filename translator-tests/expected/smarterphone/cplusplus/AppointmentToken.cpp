@@ -0,0 +1,66 @@
+#include "AppointmentToken.h"
+
+JU_USING_STD_NAMESPACES
+using namespace smarterphone;
+
+int AppointmentToken::DIGIT_SEQUENCE = 1;
+int AppointmentToken::PHONE_NUMBER = 2;
+int AppointmentToken::ADDRESS = 3;
+int AppointmentToken::EOF = 4;
+
+AppointmentToken::AppointmentToken(const ptr< String >& string) {
+    this->m_data = string;
+    this->m_currPosition = 0;
+
+    advance();
+}
+
+void AppointmentToken::advance() {
+    unichar currChar = m_data->charAt(m_currPosition);
+    if (isDigit(currChar))
+        matchDigitSequence();
+}
+
+int AppointmentToken::type() {
+    return m_type;
+}
+
+String AppointmentToken::text() {
+    return m_text;
+}
+
+bool AppointmentToken::hasLengthInRange(int min, int max) {
+    int length = m_text->length();
+    return length >= min && length <= max;
+}
+
+void AppointmentToken::matchDigitSequence() {
+    ptr< StringBuilder > digitSequence = new StringBuilder();
+
+    while (true) {
+        unichar currChar = currChar();
+        if (! isDigit(currChar))
+            break;
+
+        digitSequence->append(currChar);
+        advanceChar();
+    }
+
+    m_type = DIGIT_SEQUENCE;
+    m_text = digitSequence->toString();
+}
+
+bool AppointmentToken::isDigit(unichar c) {
+    return c >= '0' && c <= '9';
+}
+
+unichar AppointmentToken::currChar() {
+    if (m_currPosition >= m_data->length())
+        return  '\u0000';
+
+    return m_data->charAt(m_currPosition);
+}
+
+void AppointmentToken::advanceChar() {
+    ++m_currPosition;
+}
@@ -0,0 +1,41 @@
+#ifndef APPOINTMENTTOKEN_H
+#define APPOINTMENTTOKEN_H
+
+#include "juniversal.h"
+
+namespace smarterphone {
+JU_USING_STD_NAMESPACES
+
+class AppointmentToken : public Object {
+public:
+    AppointmentToken(const ptr< String >& string);
+    void advance();
+    int type();
+    String text();
+    bool hasLengthInRange(int min, int max);
+    void matchDigitSequence();
+    unichar currChar();
+    void advanceChar();
+
+private:
+    static bool isDigit(unichar c);
+
+private:
+    typedef Object super;
+
+private: // Data
+    ptr< String > m_data;
+    int m_currPosition;
+    int m_type;            // Token type
+    ptr< String > m_text;         // Current token text
+
+public: // Data
+    // Constants
+    static int DIGIT_SEQUENCE;
+    static int PHONE_NUMBER;
+    static int ADDRESS;
+    static int EOF;
+};
+
+}
+#endif // APPOINTMENTTOKEN_H
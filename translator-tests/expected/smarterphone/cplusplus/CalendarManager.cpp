@@ -0,0 +1,38 @@
+#include "CalendarManager.h"
+
+JU_USING_STD_NAMESPACES
+using namespace smarterphone;
+
+AppointmentInfo CalendarManager::getAppointmentInfo(const ptr< String >& location, const ptr< String >& body) {
+    ptr< AppointmentInfo > appointmentInfo = new AppointmentInfo();
+
+    ptr< AppointmentToken > token = new AppointmentToken(location);
+
+    while (token->type() != AppointmentToken->EOF) {
+        int type = token->type();
+
+        if (type == AppointmentToken->DIGIT_SEQUENCE)
+            matchVoiceConferenceInfo(token, appointmentInfo);
+    }
+
+    return appointmentInfo;
+}
+
+void CalendarManager::matchVoiceConferenceInfo(const ptr< AppointmentToken >& token, const ptr< AppointmentInfo >& appointmentInfo) {
+    if (! token->hasLengthInRange(5, 6))
+        return;
+
+    ptr< String > id = token->text();
+    token->advance();
+
+    if (! token->hasLengthInRange(4, 6))
+        return;
+
+    ptr< String > pin = token->text();
+    token->advance();
+
+    if (appointmentInfo->id() == NULL) {
+        appointmentInfo->setID(id);
+        appointmentInfo->setPIN(pin);
+    }
+}
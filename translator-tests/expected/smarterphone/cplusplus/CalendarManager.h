@@ -0,0 +1,21 @@
+#ifndef CALENDARMANAGER_H
+#define CALENDARMANAGER_H
+
+#include "juniversal.h"
+
+namespace smarterphone {
+JU_USING_STD_NAMESPACES
+
+class CalendarManager : public Object {
+public:
+    AppointmentInfo getAppointmentInfo(const ptr< String >& location, const ptr< String >& body);
+
+private:
+    void matchVoiceConferenceInfo(const ptr< AppointmentToken >& token, const ptr< AppointmentInfo >& appointmentInfo);
+
+private:
+    typedef Object super;
+};
+
+}
+#endif // CALENDARMANAGER_H
@@ -0,0 +1,82 @@
+#include "ContactField.h"
+
+JU_USING_STD_NAMESPACES
+using namespace smarterphone;
+
+ptr< Map > ContactField::fields;
+ptr< ContactField > ContactField::nullField;
+ptr< ContactField > ContactField::Type;
+ptr< ContactField > ContactField::LocalID;
+ptr< ContactField > ContactField::Phone;
+ptr< ContactField > ContactField::HomePhone;
+ptr< ContactField > ContactField::BusinessPhone;
+ptr< ContactField > ContactField::MobilePhone;
+ptr< ContactField > ContactField::HomeMobilePhone;
+ptr< ContactField > ContactField::BusinessMobilePhone;
+ptr< ContactField > ContactField::DTMF;
+ptr< ContactField > ContactField::HomeAddress;
+ptr< ContactField > ContactField::BusinessAddress;
+ptr< ContactField > ContactField::BusinessStreet;
+ptr< ContactField > ContactField::EmailAddress;
+ptr< ContactField > ContactField::IMAddress;
+ptr< ContactField > ContactField::WorkEmail;
+ptr< ContactField > ContactField::ImageURL;
+ptr< ContactField > ContactField::Website;
+ptr< ContactField > ContactField::Menu;
+ptr< ContactField > ContactField::DisplayName;
+ptr< ContactField > ContactField::FirstName;
+ptr< ContactField > ContactField::MiddleName;
+ptr< ContactField > ContactField::LastName;
+ptr< ContactField > ContactField::BusinessName;
+ptr< ContactField > ContactField::Distance;
+ptr< ContactField > ContactField::Latitude;
+ptr< ContactField > ContactField::Longitude;
+ptr< ContactField > ContactField::VoiceConferenceField1;
+ptr< ContactField > ContactField::VoiceConferenceField2;
+ptr< ContactField > ContactField::Title;
+ptr< ContactField > ContactField::Subtitle;
+
+//static void initialize();
+
+// Q_PROPERTY(QString type READ type CONSTANT FINAL)
+String ContactField::type() { return type; }
+
+/* Q_PROPERTY(QString displayName READ displayName CONSTANT FINAL) */
+String ContactField::displayName() { return displayName; }
+
+/* Q_PROPERTY(bool emptyField READ emptyField CONSTANT FINAL) */
+//boolean emptyField() { return (*this) == ContactField(); }
+
+/* Q_INVOKABLE */ ContactField ContactField::fieldForName(const ptr< String >& fieldName)
+{
+    ptr< ContactField > field = static_cast<ContactField>(fields->get(fieldName));
+    if (field == NULL)
+        return nullField;
+    else return field;
+}
+
+int ContactField::comparePhonePriorities(const ptr< ContactField >& field1, const ptr< ContactField >& field2)
+{
+    int pri1 = getPhonePriority(field1);
+    int pri2 = getPhonePriority(field2);
+    if (pri1 == pri2)
+        return 0;
+    return pri1 < pri2 ? -1 : 1;
+}
+
+int ContactField::getPhonePriority(const ptr< ContactField >& field)
+{
+    if (field != NULL) {
+        if (field == ContactField->MobilePhone)
+            return 0;
+        if (field == ContactField->HomeMobilePhone)
+            return 1;
+        if (field == ContactField->BusinessMobilePhone)
+            return 2;
+        if (field == ContactField->HomePhone)
+            return 3;
+        if (field == ContactField->BusinessPhone)
+            return 4;
+    }
+    return 5;
+}
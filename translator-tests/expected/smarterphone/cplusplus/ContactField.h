@@ -0,0 +1,204 @@
+#ifndef CONTACTFIELD_H
+#define CONTACTFIELD_H
+
+#include "juniversal.h"
+
+namespace smarterphone {
+JU_USING_STD_NAMESPACES
+
+class ContactField : public Object
+{
+public:
+    virtual String type();
+    virtual String displayName();
+    virtual ContactField fieldForName(const ptr< String >& fieldName);
+    static int comparePhonePriorities(const ptr< ContactField >& field1, const ptr< ContactField >& field2);
+    static int getPhonePriority(const ptr< ContactField >& field);
+
+private:
+    typedef Object super;
+
+private: // Data
+    ptr< String > name;
+    ptr< String > type;
+    ptr< String > displayName;
+
+public: // Data
+    static ptr< Map > fields;
+    static ptr< ContactField > nullField;
+
+    /*
+    // Needed to be a key for QHash
+    bool operator==(const ContactField& o) const
+    {
+        return this->equals(&o);
+    }
+
+    bool equals(const ContactField* o) const
+    {
+        return m_name == o->m_name && m_type == o->m_type && m_displayName == o->m_displayName;
+    }
+
+    // Needed to be a key for QMap
+    bool operator<(const ContactField& o) const
+    {
+        return m_name < o.m_name;
+    }
+    */
+
+    // Fields
+    static ptr< ContactField > Type;
+    static ptr< ContactField > LocalID;
+
+    static ptr< ContactField > Phone;
+    static ptr< ContactField > HomePhone;
+    static ptr< ContactField > BusinessPhone;
+
+    static ptr< ContactField > MobilePhone;
+    static ptr< ContactField > HomeMobilePhone;
+    static ptr< ContactField > BusinessMobilePhone;
+
+    static ptr< ContactField > DTMF;
+    static ptr< ContactField > HomeAddress;
+    static ptr< ContactField > BusinessAddress;
+    static ptr< ContactField > BusinessStreet;
+    static ptr< ContactField > EmailAddress;
+    static ptr< ContactField > IMAddress;
+    static ptr< ContactField > WorkEmail;
+    static ptr< ContactField > ImageURL;
+    static ptr< ContactField > Website;
+    static ptr< ContactField > Menu;
+
+    static ptr< ContactField > DisplayName;
+    static ptr< ContactField > FirstName;
+    static ptr< ContactField > MiddleName;
+    static ptr< ContactField > LastName;
+    static ptr< ContactField > BusinessName;
+
+    static ptr< ContactField > Distance;
+    static ptr< ContactField > Latitude;
+    static ptr< ContactField > Longitude;
+
+    static ptr< ContactField > VoiceConferenceField1;
+    static ptr< ContactField > VoiceConferenceField2;
+
+    // Virtual fields
+    static ptr< ContactField > Title;
+    static ptr< ContactField > Subtitle;
+};
+
+/*
+
+class ContactFieldClass : public QObject
+{
+    Q_OBJECT
+public:
+    ContactFieldClass(QObject* parent) : QObject(parent) {}
+
+    // Fields
+    Q_PROPERTY(ContactField* Type READ Type CONSTANT FINAL)
+    ContactField* Type() const { return (ContactField*) ContactField::Type; }
+
+    Q_PROPERTY(ContactField* LocalID READ LocalID CONSTANT FINAL)
+    ContactField* LocalID() const { return (ContactField*) ContactField::LocalID; }
+
+
+    Q_PROPERTY(ContactField* Phone READ Phone CONSTANT FINAL)
+    ContactField* Phone() const { return (ContactField*) ContactField::Phone; }
+
+    Q_PROPERTY(ContactField* HomePhone READ HomePhone CONSTANT FINAL)
+    ContactField* HomePhone() const { return (ContactField*) ContactField::HomePhone; }
+
+    Q_PROPERTY(ContactField* BusinessPhone READ BusinessPhone CONSTANT FINAL)
+    ContactField* BusinessPhone() const { return (ContactField*) ContactField::BusinessPhone; }
+
+
+    Q_PROPERTY(ContactField* MobilePhone READ MobilePhone CONSTANT FINAL)
+    ContactField* MobilePhone() const { return (ContactField*) ContactField::MobilePhone; }
+
+    Q_PROPERTY(ContactField* HomeMobilePhone READ HomeMobilePhone CONSTANT FINAL)
+    ContactField* HomeMobilePhone() const { return (ContactField*) ContactField::HomeMobilePhone; }
+
+    Q_PROPERTY(ContactField* BusinessMobilePhone READ BusinessMobilePhone CONSTANT FINAL)
+    ContactField* BusinessMobilePhone() const { return (ContactField*) ContactField::BusinessMobilePhone; }
+
+
+    Q_PROPERTY(ContactField* DTMF READ DTMF CONSTANT FINAL)
+    ContactField* DTMF() const { return (ContactField*) ContactField::DTMF; }
+
+    Q_PROPERTY(ContactField* HomeAddress READ HomeAddress CONSTANT FINAL)
+    ContactField* HomeAddress() const { return (ContactField*) ContactField::HomeAddress; }
+
+    Q_PROPERTY(ContactField* BusinessAddress READ BusinessAddress CONSTANT FINAL)
+    ContactField* BusinessAddress() const { return (ContactField*) ContactField::BusinessAddress; }
+
+    Q_PROPERTY(ContactField* BusinessStreet READ BusinessStreet CONSTANT FINAL)
+    ContactField* BusinessStreet() const { return (ContactField*) ContactField::BusinessStreet; }
+
+    Q_PROPERTY(ContactField* EmailAddress READ EmailAddress CONSTANT FINAL)
+    ContactField* EmailAddress() const { return (ContactField*) ContactField::EmailAddress; }
+
+    Q_PROPERTY(ContactField* IMAddress READ IMAddress CONSTANT FINAL)
+    ContactField* IMAddress() const { return (ContactField*) ContactField::IMAddress; }
+
+    Q_PROPERTY(ContactField* WorkEmail READ WorkEmail CONSTANT FINAL)
+    ContactField* WorkEmail() const { return (ContactField*) ContactField::WorkEmail; }
+
+
+    Q_PROPERTY(ContactField* ImageUrl READ ImageUrl CONSTANT FINAL)
+    ContactField* ImageUrl() const { return (ContactField*) ContactField::ImageURL; }
+
+    Q_PROPERTY(ContactField* Website READ Website CONSTANT FINAL)
+    ContactField* Website() const { return (ContactField*) ContactField::Website; }
+
+    Q_PROPERTY(ContactField* Menu READ Menu CONSTANT FINAL)
+    ContactField* Menu() const { return (ContactField*) ContactField::Menu; }
+
+
+    Q_PROPERTY(ContactField* DisplayName READ DisplayName CONSTANT FINAL)
+    ContactField* DisplayName() const { return (ContactField*) ContactField::DisplayName; }
+
+    Q_PROPERTY(ContactField* FirstName READ FirstName CONSTANT FINAL)
+    ContactField* FirstName() const { return (ContactField*) ContactField::FirstName; }
+
+    Q_PROPERTY(ContactField* MiddleName READ MiddleName CONSTANT FINAL)
+    ContactField* MiddleName() const { return (ContactField*) ContactField::MiddleName; }
+
+    Q_PROPERTY(ContactField* LastName READ LastName CONSTANT FINAL)
+    ContactField* LastName() const { return (ContactField*) ContactField::LastName; }
+
+    Q_PROPERTY(ContactField* BusinessName READ BusinessName CONSTANT FINAL)
+    ContactField* BusinessName() const { return (ContactField*) ContactField::BusinessName; }
+
+
+    Q_PROPERTY(ContactField* Distance READ Distance CONSTANT FINAL)
+    ContactField* Distance() const { return (ContactField*) ContactField::Distance; }
+
+    Q_PROPERTY(ContactField* Latitude READ Latitude CONSTANT FINAL)
+    ContactField* Latitude() const { return (ContactField*) ContactField::Latitude; }
+
+    Q_PROPERTY(ContactField* Longitude READ Longitude CONSTANT FINAL)
+    ContactField* Longitude() const { return (ContactField*) ContactField::Longitude; }
+
+
+    Q_PROPERTY(ContactField* VoiceConferenceField1 READ VoiceConferenceField1 CONSTANT FINAL)
+    ContactField* VoiceConferenceField1() const { return (ContactField*) ContactField::VoiceConferenceField1; }
+
+    Q_PROPERTY(ContactField* VoiceConferenceField2 READ VoiceConferenceField2 CONSTANT FINAL)
+    ContactField* VoiceConferenceField2() const { return (ContactField*) ContactField::VoiceConferenceField2; }
+
+    // Virtual fields
+    Q_PROPERTY(ContactField* Title READ Title CONSTANT FINAL)
+    ContactField* Title() const { return (ContactField*) ContactField::Title; }
+
+    Q_PROPERTY(ContactField* Subtitle READ Subtitle CONSTANT FINAL)
+    ContactField* Subtitle() const { return (ContactField*) ContactField::Subtitle; }
+
+private:
+    Q_DISABLE_COPY(ContactFieldClass)
+}
+
+*/
+
+}
+#endif // CONTACTFIELD_H
@@ -0,0 +1,33 @@
+
+namespace smarterphone {
+    public sealed class AppointmentInfo {
+        private string m_id;
+        private string m_pin;
+        private string m_phoneNumber;
+
+        public void setID(string id) {
+            this.m_id = id;
+        }
+
+        public string id() {
+            return m_id;
+        }
+
+        public void setPIN(string pin) {
+            this.m_pin = pin;
+        }
+
+        public string pin() {
+            return m_pin;
+        }
+
+        public void setPhoneNumber(string phoneNumber) {
+            this.m_phoneNumber = phoneNumber;
+        }
+
+        public string phoneNumber() {
+            return this.m_phoneNumber;
+        }
+    }
+
+}
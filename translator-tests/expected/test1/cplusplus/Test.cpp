@@ -0,0 +1,41 @@
+#include "Test.h"
+
+JU_USING_STD_NAMESPACES
+using namespace unnamed;
+
+static String* juStringLiteral0() { static StaticString<0> literal("", 0, true, 0); return literal.get(); }
+
+/**
+ *    Inner
+ */
+
+String Inner::foowho() {
+    return /* "a" + "b" + "c" */ juStringLiteral0();
+}
+
+void Inner::foo() {
+    ;
+}
+
+
+/**
+ * HEre's the first method.
+ * @param abc
+ * @return
+ */
+template <class T>
+int Test<T>::helloWorld(int abc) {
+    return abc + 1;
+}
+
+template <class T>
+void Test<T>::foo() { }
+
+template <class T>
+T Test<T>::giveMeBack(const ptr< T >& me) { return me; }
+
+template <class T>
+Iterator<T> Test<T>::iterator() {
+    // TODO Auto-generated method stub
+    return NULL;
+}
@@ -0,0 +1,36 @@
+#ifndef TEST_H
+#define TEST_H
+
+#include "juniversal.h"
+#include "HashMap.h"
+
+namespace unnamed {
+JU_USING_STD_NAMESPACES
+
+template  class Test : public HashMap, public Iterable<T> {
+public: // Nested class(es)
+
+    /**
+     * Here is the Inner class comment.
+     */
+    class Inner : public Object {
+    public:
+        virtual String foowho();
+        virtual void foo();
+
+    private:
+        typedef Object super;
+    };
+
+public:
+    virtual int helloWorld(int abc);
+    static void foo();
+    virtual T giveMeBack(const ptr< T >& me);
+    virtual Iterator<T> iterator();
+
+private:
+    typedef HashMap super;
+};
+
+}
+#endif // TEST_H
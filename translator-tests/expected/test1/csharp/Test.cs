@@ -0,0 +1,39 @@
+using java.util;
+
+
+public class Test<T> : HashMap,  Iterable<T> {
+
+    /// <summary>
+    /// Here is the Inner class comment.
+    /// </summary>
+
+    public class Inner {
+        public virtual string foowho() {
+            return /* "a" + "b" + "c" */ "";
+        }
+
+        public virtual void foo() {
+            ;
+        }
+    }
+
+
+    /// <summary>
+    /// HEre's the first method.
+    /// </summary>
+    /// <param name="abc"></param>
+    /// <remarks></remarks>
+
+    public virtual int helloWorld(int abc) {
+        return abc + 1;
+    }
+
+    public static void foo() { }
+
+    public virtual T giveMeBack(T me) { return me; }
+
+    public virtual Iterator<T> iterator() {
+        // TODO Auto-generated method stub
+        return null;
+    }
+}